@@ -22,6 +22,7 @@ import org.onosproject.net.driver.HandlerBehaviour;
 import org.onosproject.net.flowobjective.FilteringObjective;
 import org.onosproject.net.flowobjective.ForwardingObjective;
 import org.onosproject.net.flowobjective.NextObjective;
+import org.onosproject.net.flowobjective.Objective;
 
 /**
  * Behaviour for handling various pipelines.
@@ -57,6 +58,29 @@ public interface Pipeliner extends HandlerBehaviour {
      */
     void next(NextObjective nextObjective);
 
+    /**
+     * Installs a batch of objectives onto the device, in the given order.
+     * Drivers may translate consecutive objectives together, e.g. into a
+     * single set of flow rule operations, as long as an objective does not
+     * reach the device ahead of the ones before it; by default each
+     * objective is installed on its own.
+     *
+     * @param objectives the objectives
+     */
+    default void apply(List<? extends Objective> objectives) {
+        for (Objective objective : objectives) {
+            if (objective instanceof ForwardingObjective) {
+                forward((ForwardingObjective) objective);
+            } else if (objective instanceof FilteringObjective) {
+                filter((FilteringObjective) objective);
+            } else if (objective instanceof NextObjective) {
+                next((NextObjective) objective);
+            } else {
+                throw new UnsupportedOperationException("Unsupported objective of type " + objective.getClass());
+            }
+        }
+    }
+
     /**
      *  Retrieves a mapping of the nextObjective to the groups in the dataplane,
      *  and returns it in a form that can be displayed on the CLI. Typically
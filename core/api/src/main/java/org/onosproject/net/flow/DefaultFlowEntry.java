@@ -144,6 +144,29 @@ public class DefaultFlowEntry extends DefaultFlowRule
         this.lastSeen = System.currentTimeMillis();
     }
 
+    private DefaultFlowEntry(FlowEntry entry) {
+        super(entry);
+        this.state = entry.state();
+        this.life = entry.life(NANOSECONDS);
+        this.liveType = entry.liveType();
+        this.packets = entry.packets();
+        this.bytes = entry.bytes();
+        this.lastSeen = entry.lastSeen();
+        this.errType = entry.errType();
+        this.errCode = entry.errCode();
+    }
+
+    /**
+     * Creates a copy of the given flow entry, including its state and
+     * statistics.
+     *
+     * @param entry flow entry to copy
+     * @return copy of the flow entry
+     */
+    public static DefaultFlowEntry copyOf(FlowEntry entry) {
+        return new DefaultFlowEntry(entry);
+    }
+
     @Override
     public long life() {
         return life(SECONDS);
@@ -51,6 +51,19 @@ public interface FlowRuleProviderService extends ProviderService<FlowRuleProvide
      */
     void pushFlowMetricsWithoutFlowMissing(DeviceId deviceId, Iterable<FlowEntry> flowEntries);
 
+    /**
+     * Pushes the collection of flow entries currently applied in the given
+     * table of the given device. Only the stored flow entries of that table
+     * are reconciled against the collection.
+     *
+     * @param deviceId device identifier
+     * @param tableId table identifier
+     * @param flowEntries collection of flow rules of the table
+     */
+    default void pushTableFlowMetrics(DeviceId deviceId, int tableId, Iterable<FlowEntry> flowEntries) {
+        pushFlowMetricsWithoutFlowMissing(deviceId, flowEntries);
+    }
+
     /**
      * Pushes the collection of table statistics entries currently extracted
      * from the given device.
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.flow;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.onosproject.net.DeviceId;
@@ -92,6 +93,28 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule);
 
+    /**
+     * Updates the life, packet and byte counters and the last seen time of
+     * existing flow entries of a device in bulk, using the statistics
+     * reported by the device. Entries which do not exist are ignored.
+     *
+     * @param deviceId    device identifier
+     * @param flowEntries flow entries carrying the reported statistics
+     * @return flow_added events for entries which became installed and
+     * flow_updated events for all others updated
+     */
+    default List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId,
+                                                     Iterable<FlowEntry> flowEntries) {
+        List<FlowRuleEvent> events = new ArrayList<>();
+        for (FlowEntry flowEntry : flowEntries) {
+            FlowRuleEvent event = addOrUpdateFlowRule(flowEntry);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
     /**
      * @param rule the flow entry to remove
      * @return flow_removed event, or null if nothing removed
@@ -86,6 +86,19 @@ public interface FlowObjectiveService {
         }
     }
 
+    /**
+     * Installs a batch of objectives onto the specified device. The
+     * objectives are installed in the given order and may be translated
+     * together by the device driver, which saves the overhead of installing
+     * each of them on its own.
+     *
+     * @param deviceId   device identifier
+     * @param objectives the objectives
+     */
+    default void apply(DeviceId deviceId, List<? extends Objective> objectives) {
+        objectives.forEach(objective -> apply(deviceId, objective));
+    }
+
     /**
      * Retrieve all nextObjective to group mappings known to this onos instance,
      * in a format meant for display on the CLI, to help with debugging. Applications
@@ -15,6 +15,9 @@
  */
 package org.onosproject.net.packet;
 
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.TrafficSelector;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -35,6 +38,15 @@ public interface PacketProcessorEntry {
      */
     int priority();
 
+    /**
+     * Returns the selector of the packets handed to the packet processor.
+     *
+     * @return packet selector; empty if the processor sees all packets
+     */
+    default TrafficSelector selector() {
+        return DefaultTrafficSelector.emptySelector();
+    }
+
     /**
      * Returns the number of invocations.
      *
@@ -42,6 +54,16 @@ public interface PacketProcessorEntry {
      */
     long invocations();
 
+    /**
+     * Returns the number of packets which did not match the selector and
+     * hence were not handed to the packet processor.
+     *
+     * @return number of packets skipped
+     */
+    default long misses() {
+        return 0;
+    }
+
     /**
      * Returns the total time, in nanoseconds, spent processing packets.
      *
@@ -42,7 +42,25 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * handed only those packets that match the given selector.
+     * <p>
+     * The selector may use the ETH_TYPE, IP_PROTO, TCP_SRC, TCP_DST,
+     * UDP_SRC and UDP_DST criteria; an empty selector matches all packets.
+     * Implementations that cannot filter hand all packets to the processor.
+     * </p>
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of the packets the processor is interested in
+     * @throws java.lang.IllegalArgumentException if the selector uses an
+     *                                            unsupported criterion
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              TrafficSelector selector) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -140,7 +140,16 @@ public class ClusterMessage {
      * @return cluster message
      */
     public static ClusterMessage fromBytes(byte[] bytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes a new ClusterMessage from the remaining bytes of a buffer.
+     * Only the message payload is copied out of the buffer.
+     * @param buffer buffer holding the raw bytes
+     * @return cluster message
+     */
+    public static ClusterMessage fromBytes(ByteBuffer buffer) {
         byte[] senderBytes = new byte[buffer.getInt()];
         buffer.get(senderBytes);
         byte[] subjectBytes = new byte[buffer.getInt()];
@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
@@ -62,6 +63,20 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor);
 
+    /**
+     * Registers a new message handler for message type which reads the
+     * message payload straight from the receive buffer.
+     * The payload buffer is read-only and is only valid for the duration of
+     * the handler invocation; handlers must copy out anything they retain.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        registerHandler(type, (BiConsumer<Endpoint, byte[]>) (ep, payload) ->
+                handler.accept(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer()), executor);
+    }
+
     /**
      * Registers a new message handler for message type.
      * @param type message type.
@@ -82,4 +97,5 @@ public interface MessagingService {
      * @param type message type
      */
     void unregisterHandler(String type);
+
 }
@@ -16,6 +16,7 @@
 package org.onosproject.store.primitives;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -32,6 +33,7 @@ import java.util.function.Predicate;
 
 import org.onlab.util.Tools;
 import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.ConsistentMap;
 import org.onosproject.store.service.ConsistentMapException;
 import org.onosproject.store.service.ConsistentMapException.ConcurrentModification;
@@ -133,6 +135,26 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return complete(asyncMap.remove(key));
     }
 
+    @Override
+    public Map<K, Versioned<V>> getAll(Set<K> keys) {
+        return complete(asyncMap.getAll(keys));
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        complete(asyncMap.putAll(entries));
+    }
+
+    @Override
+    public Map<K, Versioned<V>> removeAll(Set<K> keys) {
+        return complete(asyncMap.removeAll(keys));
+    }
+
+    @Override
+    public Iterator<Entry<K, Versioned<V>>> iterator() {
+        return new DefaultIterator<>(complete(asyncMap.iterator()));
+    }
+
     @Override
     public void clear() {
         complete(asyncMap.clear());
@@ -236,4 +258,25 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
             throw new ConsistentMapException(e.getCause());
         }
     }
+
+    /**
+     * Blocking iterator backed by an asynchronous iterator.
+     */
+    private class DefaultIterator<T> implements Iterator<T> {
+        private final AsyncIterator<T> iterator;
+
+        DefaultIterator(AsyncIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return complete(iterator.hasNext());
+        }
+
+        @Override
+        public T next() {
+            return complete(iterator.next());
+        }
+    }
 }
\ No newline at end of file
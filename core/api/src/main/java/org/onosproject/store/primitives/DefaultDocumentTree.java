@@ -18,6 +18,7 @@ package org.onosproject.store.primitives;
 
 import com.google.common.base.Throwables;
 import org.onosproject.store.service.AsyncDocumentTree;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.ConsistentMapException;
 import org.onosproject.store.service.DocumentException;
 import org.onosproject.store.service.DocumentPath;
@@ -26,6 +27,7 @@ import org.onosproject.store.service.DocumentTreeListener;
 import org.onosproject.store.service.Synchronous;
 import org.onosproject.store.service.Versioned;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -60,6 +62,11 @@ public class DefaultDocumentTree<V> extends Synchronous<AsyncDocumentTree<V>> im
         return complete(backingTree.getChildren(path));
     }
 
+    @Override
+    public Iterator<Map.Entry<String, Versioned<V>>> childIterator(DocumentPath path) {
+        return new DefaultIterator<>(complete(backingTree.childIterator(path)));
+    }
+
     @Override
     public Versioned<V> get(DocumentPath path) {
         return complete(backingTree.get(path));
@@ -123,4 +130,25 @@ public class DefaultDocumentTree<V> extends Synchronous<AsyncDocumentTree<V>> im
             throw new ConsistentMapException(e.getCause());
         }
     }
+
+    /**
+     * Blocking iterator backed by an asynchronous iterator.
+     */
+    private class DefaultIterator<T> implements Iterator<T> {
+        private final AsyncIterator<T> iterator;
+
+        DefaultIterator(AsyncIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return complete(iterator.hasNext());
+        }
+
+        @Override
+        public T next() {
+            return complete(iterator.next());
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -26,6 +27,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.onosproject.store.primitives.DefaultConsistentMap;
 import org.onosproject.store.primitives.MapUpdate;
@@ -212,6 +214,76 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Versioned<V>> remove(K key);
 
+    /**
+     * Returns the values (and versions) to which the specified keys are mapped.
+     * <p>
+     * Keys for which this map contains no mapping are omitted from the result.
+     * Implementations backed by a replicated state machine resolve all keys that
+     * are stored together with a single query.
+     *
+     * @param keys the keys whose associated values (and versions) are to be returned
+     * @return a future map of the keys present in this map to their values (and versions)
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, CompletableFuture<Versioned<V>>> futures = Maps.newHashMap();
+        keys.forEach(key -> futures.put(key, get(key)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    Map<K, Versioned<V>> result = Maps.newHashMap();
+                    futures.forEach((key, future) -> {
+                        if (future.join() != null) {
+                            result.put(key, future.join());
+                        }
+                    });
+                    return result;
+                });
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map (optional operation).
+     * <p>
+     * The update is not transactional: it is equivalent to invoking {@link #put(Object, Object)}
+     * for each entry. Implementations backed by a replicated state machine apply all
+     * entries that are stored together with a single command.
+     * If a conflicting transaction holds a lock on any of the keys, the returned future
+     * will be completed exceptionally with ConsistentMapException.ConcurrentModification.
+     *
+     * @param entries mappings to be stored in this map
+     * @return future that will be successfully completed when all entries are stored
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet().stream()
+                .map(entry -> put(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map if they are present
+     * (optional operation).
+     * <p>
+     * The update is not transactional: it is equivalent to invoking {@link #remove(Object)}
+     * for each key. Implementations backed by a replicated state machine remove all
+     * keys that are stored together with a single command.
+     *
+     * @param keys keys whose mappings are to be removed from the map
+     * @return a future map of the removed keys to the values (and versions) they were
+     * previously associated with
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> removeAll(Set<K> keys) {
+        Map<K, CompletableFuture<Versioned<V>>> futures = Maps.newHashMap();
+        keys.forEach(key -> futures.put(key, remove(key)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    Map<K, Versioned<V>> result = Maps.newHashMap();
+                    futures.forEach((key, future) -> {
+                        if (future.join() != null) {
+                            result.put(key, future.join());
+                        }
+                    });
+                    return result;
+                });
+    }
+
     /**
      * Removes all of the mappings from this map (optional operation).
      * The map will be empty after this call returns.
@@ -252,6 +324,19 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Set<Entry<K, Versioned<V>>>> entrySet();
 
+    /**
+     * Returns an asynchronous iterator over the entries contained in this map.
+     * <p>
+     * Unlike {@link #entrySet()}, implementations backed by a replicated state machine
+     * retrieve the entries in bounded batches as the iterator advances, so this is the
+     * preferred way of scanning large maps.
+     *
+     * @return future to be completed with an iterator over the entries in this map
+     */
+    default CompletableFuture<AsyncIterator<Entry<K, Versioned<V>>>> iterator() {
+        return entrySet().thenApply(entries -> AsyncIterator.of(entries.iterator()));
+    }
+
     /**
      * If the specified key is not already associated with a value associates
      * it with the given value and returns null, else behaves as a get
@@ -54,6 +54,20 @@ public interface AsyncDocumentTree<V> extends DistributedPrimitive, Transactiona
      */
     CompletableFuture<Map<String, Versioned<V>>> getChildren(DocumentPath path);
 
+    /**
+     * Returns an asynchronous iterator over the children of node at specified path.
+     * <p>
+     * Unlike {@link #getChildren(DocumentPath)}, implementations backed by a replicated
+     * state machine retrieve the children in bounded batches as the iterator advances.
+     *
+     * @param path path to the node
+     * @return future for an iterator over the child names and values
+     * @throws NoSuchDocumentPathException if the path does not point to a valid node
+     */
+    default CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<V>>>> childIterator(DocumentPath path) {
+        return getChildren(path).thenApply(children -> AsyncIterator.of(children.entrySet().iterator()));
+    }
+
     /**
      * Returns the value of the tree node at specified path.
      *
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import org.onlab.util.Tools;
+
+/**
+ * Asynchronous iterator over the contents of a distributed primitive.
+ * <p>
+ * Implementations backed by a replicated state machine fetch elements in
+ * bounded batches as the iterator advances rather than loading the entire
+ * contents of the primitive at once. Iteration is weakly consistent: elements
+ * updated or removed after the iterator was created may or may not be reflected.
+ *
+ * @param <T> element type
+ */
+public interface AsyncIterator<T> {
+
+    /**
+     * Returns whether the iterator has more elements.
+     *
+     * @return future to be completed with {@code true} if more elements remain
+     */
+    CompletableFuture<Boolean> hasNext();
+
+    /**
+     * Returns the next element in the iteration.
+     * <p>
+     * The returned future is completed exceptionally with
+     * {@link NoSuchElementException} if the iteration has no more elements.
+     *
+     * @return future to be completed with the next element
+     */
+    CompletableFuture<T> next();
+
+    /**
+     * Releases the resources held by the iterator.
+     * <p>
+     * Iterators are closed automatically once they have been exhausted; this
+     * only needs to be called when an iteration is abandoned early.
+     *
+     * @return future to be completed once the iterator has been closed
+     */
+    default CompletableFuture<Void> close() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Returns an asynchronous iterator over the elements of the given iterator.
+     *
+     * @param iterator iterator to wrap
+     * @param <T> element type
+     * @return asynchronous iterator
+     */
+    static <T> AsyncIterator<T> of(Iterator<T> iterator) {
+        return new AsyncIterator<T>() {
+            @Override
+            public CompletableFuture<Boolean> hasNext() {
+                return CompletableFuture.completedFuture(iterator.hasNext());
+            }
+
+            @Override
+            public CompletableFuture<T> next() {
+                return iterator.hasNext()
+                        ? CompletableFuture.completedFuture(iterator.next())
+                        : Tools.exceptionalFuture(new NoSuchElementException());
+            }
+        };
+    }
+}
@@ -17,6 +17,8 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -180,6 +182,55 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     Versioned<V> remove(K key);
 
+    /**
+     * Returns the values (and versions) to which the specified keys are mapped.
+     * Keys for which this map contains no mapping are omitted from the result.
+     *
+     * @param keys the keys whose associated values (and versions) are to be returned
+     * @return map of the keys present in this map to their values (and versions)
+     */
+    default Map<K, Versioned<V>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> result = new HashMap<>();
+        keys.forEach(key -> {
+            Versioned<V> value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map (optional operation).
+     * The update is not transactional.
+     *
+     * @param entries mappings to be stored in this map
+     * @throws ConsistentMapException.ConcurrentModification if a transaction holds a lock
+     * on any of the keys
+     */
+    default void putAll(Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map if they are present
+     * (optional operation). The update is not transactional.
+     *
+     * @param keys keys whose mappings are to be removed from the map
+     * @return map of the removed keys to the values (and versions) they were previously
+     * associated with
+     */
+    default Map<K, Versioned<V>> removeAll(Set<K> keys) {
+        Map<K, Versioned<V>> result = new HashMap<>();
+        keys.forEach(key -> {
+            Versioned<V> value = remove(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
     /**
      * Removes all of the mappings from this map (optional operation).
      * The map will be empty after this call returns.
@@ -219,6 +270,18 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     Set<Entry<K, Versioned<V>>> entrySet();
 
+    /**
+     * Returns an iterator over the entries contained in this map.
+     * <p>
+     * Unlike {@link #entrySet()}, the entries are retrieved in bounded batches as the
+     * iterator advances, so this is the preferred way of scanning large maps.
+     *
+     * @return iterator over the entries in this map
+     */
+    default Iterator<Entry<K, Versioned<V>>> iterator() {
+        return entrySet().iterator();
+    }
+
     /**
      * If the specified key is not already associated with a value
      * associates it with the given value and returns null, else returns the current value.
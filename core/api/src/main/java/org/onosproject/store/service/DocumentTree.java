@@ -16,6 +16,7 @@
 
 package org.onosproject.store.service;
 
+import java.util.Iterator;
 import java.util.Map;
 
 import javax.annotation.concurrent.NotThreadSafe;
@@ -49,6 +50,20 @@ public interface DocumentTree<V> extends DistributedPrimitive {
      */
     Map<String, Versioned<V>> getChildren(DocumentPath path);
 
+    /**
+     * Returns an iterator over the children of node at specified path.
+     * <p>
+     * Unlike {@link #getChildren(DocumentPath)}, the children are retrieved in bounded
+     * batches as the iterator advances.
+     *
+     * @param path path to the node
+     * @return iterator over the child names and values
+     * @throws NoSuchDocumentPathException if the path does not point to a valid node
+     */
+    default Iterator<Map.Entry<String, Versioned<V>>> childIterator(DocumentPath path) {
+        return getChildren(path).entrySet().iterator();
+    }
+
     /**
      * Returns a document tree node.
      *
@@ -162,4 +162,28 @@ public class DefaultFlowEntryTest {
                 greaterThan(System.currentTimeMillis() -
                         TimeUnit.MILLISECONDS.convert(1, TimeUnit.SECONDS)));
     }
+
+    /**
+     * Tests that a copy of a flow entry holds the same state and statistics
+     * and is not affected by changes to the original.
+     */
+    @Test
+    public void testCopy() {
+        final DefaultFlowEntry entry = makeFlowEntry(1);
+        final DefaultFlowEntry copy = DefaultFlowEntry.copyOf(entry);
+
+        assertThat(copy, is(entry));
+        assertThat(copy.state(), is(entry.state()));
+        assertThat(copy.life(TimeUnit.NANOSECONDS), is(entry.life(TimeUnit.NANOSECONDS)));
+        assertThat(copy.packets(), is(entry.packets()));
+        assertThat(copy.bytes(), is(entry.bytes()));
+        assertThat(copy.lastSeen(), is(entry.lastSeen()));
+        assertThat(copy.errType(), is(entry.errType()));
+        assertThat(copy.errCode(), is(entry.errCode()));
+
+        entry.setPackets(11);
+        entry.setState(FlowEntry.FlowEntryState.PENDING_REMOVE);
+        assertThat(copy.packets(), is(1L));
+        assertThat(copy.state(), is(FlowEntry.FlowEntryState.ADDED));
+    }
 }
@@ -21,6 +21,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -121,7 +122,16 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
 
     @Override
     public V compute(K key, BiFunction<K, V, V> recomputeFunction) {
-        return map.compute(key, recomputeFunction);
+        V previous = map.get(key);
+        V result = map.compute(key, recomputeFunction);
+        if (!Objects.equals(previous, result)) {
+            if (result != null) {
+                notifyListeners(new EventuallyConsistentMapEvent<>(mapName, PUT, key, result));
+            } else {
+                notifyListeners(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previous));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -23,10 +23,10 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
 import org.onlab.graph.DefaultEdgeWeigher;
-import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.graph.GraphPathSearch.Result;
+import org.onlab.graph.IndexedDijkstraGraphSearch;
 import org.onlab.graph.KShortestPathsSearch;
 import org.onlab.graph.LazyKShortestPathsSearch;
 import org.onlab.graph.ScalarWeight;
@@ -59,7 +59,9 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -83,8 +85,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultTopology.class);
 
-    private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
-            new DijkstraGraphSearch<>();
+    private static final IndexedDijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
+            new IndexedDijkstraGraphSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
             new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
@@ -105,7 +107,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final boolean incremental;
+    private final Supplier<ClusterData> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
@@ -146,6 +149,29 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving its clusters and broadcast sets from those of the previous
+     * topology where possible.
+     * <p>
+     * Only the clusters touched by the devices and links that differ from
+     * the previous topology are searched again; all others, together with
+     * their broadcast trees, are carried over. If the changes may merge
+     * previously separate clusters, or touch most of the graph, the
+     * topology is computed from scratch as usual.
+     * </p>
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -155,13 +181,23 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
-        this.clusters = Suppliers.memoize(this::buildTopologyClusters);
+        this.hopCountWeigher = adapt(new HopCountLinkWeight(graph.getVertexes().size()));
 
-        this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
+        IncrementalClusters derived = previous != null ? deriveClusters(previous) : null;
+        this.incremental = derived != null;
+        if (incremental) {
+            this.clusterResults = Suppliers.ofInstance(derived.data);
+            this.clusters = Suppliers.memoize(this::buildTopologyClusters);
+            this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
+            ImmutableSetMultimap<ClusterId, ConnectPoint> previousSets = previous.broadcastSets.get();
+            this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets(derived.carriedOver, previousSets));
+        } else {
+            this.clusterResults = Suppliers.memoize(this::searchForClusters);
+            this.clusters = Suppliers.memoize(this::buildTopologyClusters);
+            this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
+            this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
+        }
 
-        this.hopCountWeigher = adapt(new HopCountLinkWeight(graph.getVertexes().size()));
-        this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
@@ -191,6 +227,16 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return computeCost;
     }
 
+    /**
+     * Indicates whether the clusters of this topology were derived
+     * incrementally from a previous topology.
+     *
+     * @return true if derived incrementally; false if computed from scratch
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
     @Override
     public int clusterCount() {
         return clusters.get().size();
@@ -363,7 +409,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * destination devices, the set of returned paths will be no more than,
      * maxPaths in size.  The first {@code maxPaths} paths will be returned
      * maintaining any ordering guarantees provided by the underlying
-     * (default or if no default is specified {@link DijkstraGraphSearch})
+     * (default or if no default is specified {@link IndexedDijkstraGraphSearch})
      * search. If returning all paths of a given length would exceed
      * {@code maxPaths} a subset of paths of that length will be returned,
      * which paths will be returned depends on the currently specified
@@ -630,23 +676,156 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private ClusterData searchForClusters() {
+        SccResult<TopologyVertex, TopologyEdge> results =
+                TARJAN.search(graph, new NoIndirectLinksWeigher());
+        return new ClusterData(results.clusterVertexes(), results.clusterEdges());
+    }
+
+    // Derives the clusters from those of the previous topology by searching
+    // again only the clusters touched by the graph changes. Returns null if
+    // a full search is required instead.
+    private IncrementalClusters deriveClusters(DefaultTopology previous) {
+        ClusterData previousData = previous.clusterResults.get();
+        Map<DeviceId, TopologyCluster> previousClusters = previous.clustersByDevice();
+        Set<TopologyVertex> vertexes = graph.getVertexes();
+        NoIndirectLinksWeigher weigher = new NoIndirectLinksWeigher();
+
+        // Each changed element touches a region: the previous cluster of a
+        // device, or the device itself if it is new. Viable new edges join
+        // their regions, since they may close cycles across them.
+        Map<Object, Object> regions = new HashMap<>();
+        Function<TopologyVertex, Object> regionOf = v -> touch(regions, previousClusters, v);
+
+        for (TopologyVertex vertex : previous.graph.getVertexes()) {
+            if (!vertexes.contains(vertex)) {
+                regionOf.apply(vertex);
+            }
+        }
+        for (TopologyVertex vertex : vertexes) {
+            if (!previousClusters.containsKey(vertex.deviceId())) {
+                regionOf.apply(vertex);
+            }
+        }
+
+        Map<TopologyEdge, Link.State> previousEdges = new HashMap<>();
+        previous.graph.getEdges().forEach(e -> previousEdges.put(e, e.link().state()));
+        for (TopologyEdge edge : graph.getEdges()) {
+            Link.State state = previousEdges.remove(edge);
+            if (state != null && state == edge.link().state()) {
+                continue;
+            }
+            Object src = regionOf.apply(edge.src());
+            Object dst = regionOf.apply(edge.dst());
+            if (weigher.weight(edge).isViable()) {
+                union(regions, src, dst);
+            }
+        }
+        for (TopologyEdge edge : previousEdges.keySet()) {
+            regionOf.apply(edge.src());
+            regionOf.apply(edge.dst());
+        }
+
+        // Bail out if previously separate clusters may have merged.
+        Map<Object, TopologyCluster> clusterOfGroup = new HashMap<>();
+        for (Object region : regions.keySet()) {
+            if (region instanceof TopologyCluster) {
+                TopologyCluster other = clusterOfGroup.put(find(regions, region), (TopologyCluster) region);
+                if (other != null && !other.equals(region)) {
+                    return null;
+                }
+            }
+        }
+
+        // Collect the surviving devices of all touched regions.
+        Set<TopologyVertex> affected = new HashSet<>();
+        for (Object region : regions.keySet()) {
+            if (region instanceof TopologyCluster) {
+                previousData.vertexes.get(((TopologyCluster) region).id().index()).stream()
+                        .filter(vertexes::contains)
+                        .forEach(affected::add);
+            } else {
+                affected.add(new DefaultTopologyVertex((DeviceId) region));
+            }
+        }
+        if (affected.size() > vertexes.size() / 2) {
+            return null;
+        }
+
+        // Carry over untouched clusters in their previous order and append
+        // the clusters found by searching the touched part of the graph.
+        List<Set<TopologyVertex>> clusterVertexes = new ArrayList<>();
+        List<Set<TopologyEdge>> clusterEdges = new ArrayList<>();
+        List<ClusterId> carriedOver = new ArrayList<>();
+        for (int i = 0; i < previousData.vertexes.size(); i++) {
+            ClusterId cid = ClusterId.clusterId(i);
+            if (!regions.containsKey(previous.getCluster(cid))) {
+                clusterVertexes.add(previousData.vertexes.get(i));
+                clusterEdges.add(previousData.edges.get(i));
+                carriedOver.add(cid);
+            }
+        }
+
+        Set<TopologyEdge> affectedEdges = new HashSet<>();
+        for (TopologyVertex vertex : affected) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (affected.contains(edge.dst())) {
+                    affectedEdges.add(edge);
+                }
+            }
+        }
+        SccResult<TopologyVertex, TopologyEdge> results =
+                TARJAN.search(new DefaultTopologyGraph(affected, affectedEdges), weigher);
+        clusterVertexes.addAll(results.clusterVertexes());
+        clusterEdges.addAll(results.clusterEdges());
+
+        return new IncrementalClusters(new ClusterData(clusterVertexes, clusterEdges), carriedOver);
+    }
+
+    // Marks the region of the given vertex as touched and returns it.
+    private static Object touch(Map<Object, Object> regions,
+                                Map<DeviceId, TopologyCluster> previousClusters,
+                                TopologyVertex vertex) {
+        Object region = previousClusters.get(vertex.deviceId());
+        region = region != null ? region : vertex.deviceId();
+        regions.putIfAbsent(region, region);
+        return region;
+    }
+
+    // Finds the representative of the group the given region belongs to.
+    private static Object find(Map<Object, Object> regions, Object region) {
+        Object parent = regions.get(region);
+        while (!parent.equals(region)) {
+            Object grandparent = regions.get(parent);
+            regions.put(region, grandparent);
+            region = parent;
+            parent = grandparent;
+        }
+        return region;
+    }
+
+    // Joins the groups of the two given regions.
+    private static void union(Map<Object, Object> regions, Object a, Object b) {
+        Object ra = find(regions, a);
+        Object rb = find(regions, b);
+        if (!ra.equals(rb)) {
+            regions.put(ra, rb);
+        }
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterData results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.vertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.edges;
 
         // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+        for (int i = 0, n = clusterVertexes.size(); i < n; i++) {
             Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
             Set<TopologyEdge> edgeSet = clusterEdges.get(i);
 
@@ -682,6 +861,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    // Processes a map of broadcast sets for each cluster, reusing the sets of
+    // the clusters carried over from the previous topology. The first
+    // clusters are the carried over ones, in the same order.
+    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets(
+            List<ClusterId> carriedOver,
+            ImmutableSetMultimap<ClusterId, ConnectPoint> previousSets) {
+        Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+        for (TopologyCluster cluster : clusters.get().values()) {
+            int i = cluster.id().index();
+            if (i < carriedOver.size()) {
+                builder.putAll(cluster.id(), previousSets.get(carriedOver.get(i)));
+            } else {
+                addClusterBroadcastSet(cluster, builder);
+            }
+        }
+        return builder.build();
+    }
+
     // Finds all broadcast points for the cluster. These are those connection
     // points which lie along the shortest paths between the cluster root and
     // all other devices within the cluster.
@@ -744,13 +941,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().vertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().edges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -781,6 +978,30 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Vertex and edge sets of the SCC clusters; the lists form pairs along
+    // the same index, which is also the cluster index.
+    private static final class ClusterData {
+        final List<Set<TopologyVertex>> vertexes;
+        final List<Set<TopologyEdge>> edges;
+
+        ClusterData(List<Set<TopologyVertex>> vertexes, List<Set<TopologyEdge>> edges) {
+            this.vertexes = vertexes;
+            this.edges = edges;
+        }
+    }
+
+    // Clusters derived from a previous topology along with the previous
+    // identifiers of the clusters carried over unchanged.
+    private static final class IncrementalClusters {
+        final ClusterData data;
+        final List<ClusterId> carriedOver;
+
+        IncrementalClusters(ClusterData data, List<ClusterId> carriedOver) {
+            this.data = data;
+            this.carriedOver = carriedOver;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
@@ -148,6 +148,55 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalUpdate() {
+        Set<Device> devices = of(device("1"), device("2"),
+                                 device("3"), device("4"),
+                                 device("5"), device("6"));
+        Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("5", 1, "6", 1), link("6", 1, "5", 1));
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(), devices, links);
+
+        DefaultTopology incremental = new DefaultTopology(PID, graphDescription, cp -> true, dt);
+        DefaultTopology full = new DefaultTopology(PID, graphDescription);
+        assertTrue("topology should be derived incrementally", incremental.isIncremental());
+        assertFalse("topology should be computed from scratch", full.isIncremental());
+
+        assertEquals("incorrect cluster count", full.clusterCount(), incremental.clusterCount());
+        for (DeviceId a : of(D1, D2, D3, D4, D5, did("6"))) {
+            for (DeviceId b : of(D1, D2, D3, D4, D5, did("6"))) {
+                assertEquals("incorrect cluster membership",
+                             full.getCluster(a).equals(full.getCluster(b)),
+                             incremental.getCluster(a).equals(incremental.getCluster(b)));
+            }
+            assertEquals("incorrect broadcast set size",
+                         full.broadcastSetSize(full.getCluster(a).id()),
+                         incremental.broadcastSetSize(incremental.getCluster(a).id()));
+        }
+    }
+
+    @Test
+    public void incrementalUpdateMergingClusters() {
+        Set<Device> devices = of(device("1"), device("2"),
+                                 device("3"), device("4"),
+                                 device("5"));
+        Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("1", 5, "5", 5), link("5", 5, "1", 5));
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(), devices, links);
+
+        DefaultTopology topology = new DefaultTopology(PID, graphDescription, cp -> true, dt);
+        assertFalse("topology should be computed from scratch", topology.isIncremental());
+        assertEquals("incorrect cluster count", 1, topology.clusterCount());
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -15,42 +15,75 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.Link;
 import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_UPDATED;
 import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
@@ -63,26 +96,64 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
+    private static final int DEFAULT_DISPATCH_LANES = 1;
+    @Property(name = "dispatchLanes", intValue = DEFAULT_DISPATCH_LANES,
+            label = "Number of ordered lanes for topology and programming events; " +
+                    "events for the same subject always share a lane")
+    private int dispatchLanes = DEFAULT_DISPATCH_LANES;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 0;
+    @Property(name = "eventQueueCapacity", intValue = DEFAULT_QUEUE_CAPACITY,
+            label = "Maximum number of events queued on each dispatch lane; " +
+                    "0 means unbounded")
+    private int eventQueueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private static final String DEFAULT_OVERFLOW_POLICY = "BLOCK";
+    @Property(name = "overflowPolicy", value = DEFAULT_OVERFLOW_POLICY,
+            label = "What to do when a bounded event queue is full: " +
+                    "BLOCK the producer, DROP the event or COALESCE superseded " +
+                    "port events and block otherwise")
+    private OverflowPolicy overflowPolicy = OverflowPolicy.valueOf(DEFAULT_OVERFLOW_POLICY);
+
+    /**
+     * Policy applied to events posted to a bounded queue which is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Producer waits until there is room in the queue.
+         */
+        BLOCK,
+
+        /**
+         * Event is discarded.
+         */
+        DROP,
+
+        /**
+         * Event superseding a queued event for the same subject replaces it
+         * and is queued at the tail, so that it is still dispatched after any
+         * event queued ahead of it; producer waits until there is room in the
+         * queue otherwise.
+         */
+        COALESCE
+    }
+
+    // Marks the threads running dispatch loops; events posted by listeners
+    // are never held back, lest they wait on a queue only they can drain.
+    private static final ThreadLocal<Boolean> IN_DISPATCH_LOOP =
+            ThreadLocal.withInitial(() -> false);
 
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
-    private DispatchLoop defaultDispatcher = new DispatchLoop("default");
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
-                .put(TopologyEvent.class, topologyDispatcher)
-                .put(DeviceEvent.class, topologyDispatcher)
-                .put(LinkEvent.class, topologyDispatcher)
-                .put(HostEvent.class, topologyDispatcher)
-                .put(FlowRuleEvent.class, programmingDispatcher)
-                .put(IntentEvent.class, programmingDispatcher)
-                .build();
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
-                .addAll(dispatcherMap.values())
-                .add(defaultDispatcher)
-                .build();
+    private MetricsComponent metricsComponent;
+
+    private volatile DispatchLanes defaultDispatcher;
+    private volatile Map<Class, DispatchLanes> dispatcherMap = ImmutableMap.of();
+    private volatile Set<DispatchLanes> dispatchers = ImmutableSet.of();
 
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
@@ -92,10 +163,14 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
+    @SuppressWarnings("unchecked")
+    private static final Event RETIRE_PILL = new AbstractEvent(null, 0) {
+    };
+
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
-    private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
+    private DispatchLanes getDispatcher(Event event) {
+        DispatchLanes dispatcher = dispatcherMap.get(event.getClass());
         if (dispatcher == null) {
             dispatcher = defaultDispatcher;
         }
@@ -104,29 +179,136 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Override
     public void post(Event event) {
-
-        if (!getDispatcher(event).add(event)) {
-            log.error("Unable to post event {}", event);
+        DispatchLanes dispatcher = getDispatcher(event);
+        Event pending = dispatcher.add(event);
+        while (pending != null) {
+            // Lanes retired while the event was being posted; use their successors
+            DispatchLanes current = getDispatcher(pending);
+            if (current == dispatcher) {
+                log.error("Unable to post event {}", pending);
+                return;
+            }
+            dispatcher = current;
+            pending = dispatcher.add(pending);
         }
     }
 
     @Activate
-    public void activate() {
-
-        if (maxProcessMillis != 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent("EventDispatcher");
         }
+        readComponentConfiguration(context);
+        createDispatchers(ImmutableSet.of());
 
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        dispatchers.forEach(DispatchLoop::stop);
+        cfgService.unregisterProperties(getClass(), false);
+        dispatchers.forEach(DispatchLanes::stop);
 
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        int oldLanes = dispatchLanes;
+        int oldCapacity = eventQueueCapacity;
+        OverflowPolicy oldPolicy = overflowPolicy;
+        readComponentConfiguration(context);
+        if (oldLanes != dispatchLanes || oldCapacity != eventQueueCapacity ||
+                oldPolicy != overflowPolicy) {
+            // The new lanes start queueing events right away, but hold off
+            // dispatching them until the old lanes have drained theirs.
+            Set<DispatchLanes> oldDispatchers = dispatchers;
+            oldDispatchers.forEach(DispatchLanes::removeMetrics);
+            createDispatchers(oldDispatchers);
+            oldDispatchers.forEach(DispatchLanes::retire);
+        }
+    }
+
+    /**
+     * Extracts properties from the component configuration context.
+     *
+     * @param context the component context
+     */
+    private void readComponentConfiguration(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        Integer newLanes = getIntegerProperty(properties, "dispatchLanes");
+        if (newLanes == null) {
+            log.info("dispatchLanes is not configured, using current value of {}",
+                     dispatchLanes);
+        } else if (newLanes < 1) {
+            log.warn("dispatchLanes must be positive, keeping current value of {}",
+                     dispatchLanes);
+        } else {
+            dispatchLanes = newLanes;
+        }
+
+        Integer newCapacity = getIntegerProperty(properties, "eventQueueCapacity");
+        if (newCapacity == null) {
+            log.info("eventQueueCapacity is not configured, using current value of {}",
+                     eventQueueCapacity);
+        } else if (newCapacity < 0) {
+            log.warn("eventQueueCapacity must not be negative, keeping current value of {}",
+                     eventQueueCapacity);
+        } else {
+            eventQueueCapacity = newCapacity;
+        }
+
+        String s = get(properties, "overflowPolicy");
+        if (!isNullOrEmpty(s)) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(s.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown overflowPolicy {}, keeping current value of {}",
+                         s, overflowPolicy);
+            }
+        }
+        log.info("Settings: dispatchLanes={}, eventQueueCapacity={}, overflowPolicy={}",
+                 dispatchLanes, eventQueueCapacity, overflowPolicy);
+    }
+
+    // Creates the dispatchers for the current number of lanes and starts them
+    // once the given predecessors have drained.
+    private void createDispatchers(Set<DispatchLanes> predecessors) {
+        DispatchLanes topologyDispatcher =
+                new DispatchLanes("topology", dispatchLanes, predecessors);
+        DispatchLanes programmingDispatcher =
+                new DispatchLanes("programming", dispatchLanes, predecessors);
+        DispatchLanes newDefaultDispatcher = new DispatchLanes("default", 1, predecessors);
+
+        Map<Class, DispatchLanes> newDispatcherMap =
+                new ImmutableMap.Builder<Class, DispatchLanes>()
+                    .put(TopologyEvent.class, topologyDispatcher)
+                    .put(DeviceEvent.class, topologyDispatcher)
+                    .put(LinkEvent.class, topologyDispatcher)
+                    .put(HostEvent.class, topologyDispatcher)
+                    .put(FlowRuleEvent.class, programmingDispatcher)
+                    .put(IntentEvent.class, programmingDispatcher)
+                    .build();
+
+        Set<DispatchLanes> newDispatchers =
+                new ImmutableSet.Builder<DispatchLanes>()
+                    .addAll(newDispatcherMap.values())
+                    .add(newDefaultDispatcher)
+                    .build();
+
+        if (maxProcessMillis != 0) {
+            newDispatchers.forEach(DispatchLanes::startWatchdog);
+        }
+
+        defaultDispatcher = newDefaultDispatcher;
+        dispatcherMap = newDispatcherMap;
+        dispatchers = newDispatchers;
+    }
+
     @Override
     public void setDispatchTimeLimit(long millis) {
         checkPermission(EVENT_WRITE);
@@ -136,9 +318,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            dispatchers.forEach(DispatchLanes::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            dispatchers.forEach(DispatchLanes::startWatchdog);
         }
     }
 
@@ -148,41 +330,408 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    /**
+     * Returns the key used to pick the lane for the specified event. Events
+     * which share a key are always dispatched in order on the same lane.
+     * Events whose subject has no stable key, such as topology events, are
+     * keyed by their class so that they all share one lane.
+     *
+     * @param event event to be dispatched
+     * @return lane key
+     */
+    static Object laneKey(Event event) {
+        Object subject = event.subject();
+        if (subject instanceof Device) {
+            return ((Device) subject).id();
+        } else if (subject instanceof Link) {
+            // Links follow their source device so that link events are
+            // not dispatched ahead of the events for that device.
+            return ((Link) subject).src().deviceId();
+        } else if (subject instanceof Host) {
+            return ((Host) subject).id();
+        } else if (subject instanceof FlowRule) {
+            return ((FlowRule) subject).deviceId();
+        } else if (subject instanceof Intent) {
+            return ((Intent) subject).key();
+        }
+        return event.getClass();
+    }
+
+    /**
+     * Returns the key under which the specified event may replace an older,
+     * still queued event, or null if the event cannot be coalesced.
+     *
+     * @param event event to be dispatched
+     * @return coalescing key or null
+     */
+    static Object coalesceKey(Event event) {
+        if (event instanceof DeviceEvent) {
+            DeviceEvent deviceEvent = (DeviceEvent) event;
+            if (deviceEvent.type() == PORT_STATS_UPDATED) {
+                return deviceEvent.subject().id();
+            } else if (deviceEvent.type() == PORT_UPDATED && deviceEvent.port() != null) {
+                return new ConnectPoint(deviceEvent.subject().id(),
+                                        deviceEvent.port().number());
+            }
+        }
+        return null;
+    }
+
+    // Set of ordered dispatch loops serving one class of events.
+    private class DispatchLanes {
+        private final DispatchLoop[] lanes;
+        private final Set<DispatchLanes> predecessors;
+        private final CountDownLatch drained;
+
+        DispatchLanes(String name, int count, Set<DispatchLanes> predecessors) {
+            this.predecessors = predecessors;
+            this.drained = new CountDownLatch(count);
+            lanes = new DispatchLoop[count];
+            for (int i = 0; i < count; i++) {
+                lanes[i] = new DispatchLoop(count == 1 ? name : name + "-" + i, this);
+            }
+        }
+
+        Event add(Event event) {
+            if (lanes.length == 1) {
+                return lanes[0].add(event);
+            }
+            int hash = Objects.hashCode(laneKey(event));
+            return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)].add(event);
+        }
+
+        void stop() {
+            for (DispatchLoop lane : lanes) {
+                lane.stopWatchdog();
+                lane.stop();
+                lane.removeMetrics();
+            }
+        }
+
+        void retire() {
+            for (DispatchLoop lane : lanes) {
+                lane.retire();
+            }
+        }
+
+        // Waits until the lanes replaced by this set have drained their queues.
+        void awaitPredecessors() throws InterruptedException {
+            for (DispatchLanes predecessor : predecessors) {
+                predecessor.drained.await();
+            }
+        }
+
+        void removeMetrics() {
+            for (DispatchLoop lane : lanes) {
+                lane.removeMetrics();
+            }
+        }
+
+        void startWatchdog() {
+            for (DispatchLoop lane : lanes) {
+                lane.startWatchdog();
+            }
+        }
+
+        void stopWatchdog() {
+            for (DispatchLoop lane : lanes) {
+                lane.stopWatchdog();
+            }
+        }
+    }
+
+    // Event waiting in a dispatch queue, stamped with the time it was queued
+    // so that the time spent waiting counts towards the dispatch latency. A
+    // superseding event may take the place of the queued one until the
+    // dispatch loop claims it.
+    private static final class QueuedEvent {
+        private final AtomicReference<Event> event;
+        private final long queuedNanos = System.nanoTime();
+        private final long sequence;
+
+        QueuedEvent(Event event, long sequence) {
+            this.event = new AtomicReference<>(event);
+            this.sequence = sequence;
+        }
+
+        // Replaces the queued event; returns false if it has been claimed.
+        boolean replace(Event newEvent) {
+            Event current = event.get();
+            while (current != null) {
+                if (event.compareAndSet(current, newEvent)) {
+                    return true;
+                }
+                current = event.get();
+            }
+            return false;
+        }
+
+        // Takes the queued event, after which it can no longer be replaced.
+        Event claim() {
+            return event.getAndSet(null);
+        }
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private final String name;
+        private final DispatchLanes owner;
         private volatile boolean stopped;
+        private volatile boolean retired;
         private volatile EventSink lastSink;
         // Means to detect long-running sinks
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
         private TimerTask watchdog;
         private volatile Future<?> dispatchFuture;
-        private final BlockingQueue<Event> eventsQueue;
+        private final BlockingQueue<QueuedEvent> eventsQueue;
         private final ExecutorService executor;
-
-        DispatchLoop(String name) {
+        // Per-lane metrics
+        private final MetricsFeature metricsFeature;
+        private final Timer processTimer;
+        private final Timer latencyTimer;
+        private final Counter droppedEvents;
+        private final Counter coalescedEvents;
+        // Queue bounds and the means for producers to wait for room; queued
+        // events are counted apart from the queue so that producers can
+        // reserve room atomically.
+        private final int capacity;
+        private final OverflowPolicy policy;
+        private final AtomicInteger queuedEvents = new AtomicInteger();
+        private final Lock spaceLock = new ReentrantLock();
+        private final Condition notFull = spaceLock.newCondition();
+        private final AtomicInteger waitingProducers = new AtomicInteger();
+        private volatile boolean overflowing;
+        // Latest queued event by coalescing key, and the sequence number of the
+        // latest queued event for each device that cannot be coalesced; a
+        // queued event is only replaced if no such event was queued after it.
+        // Guarded by the map of queued events.
+        private final Map<Object, QueuedEvent> coalesced = new HashMap<>();
+        private final Map<DeviceId, Long> barriers = new HashMap<>();
+        private long sequence;
+
+        DispatchLoop(String name, DispatchLanes owner) {
             this.name = name;
+            this.owner = owner;
+            this.capacity = eventQueueCapacity;
+            this.policy = overflowPolicy;
             executor = newSingleThreadExecutor(
                     groupedThreads("onos/event",
                     "dispatch-" + name + "%d", log));
             eventsQueue = new LinkedBlockingQueue<>();
+            if (metricsComponent != null) {
+                metricsFeature = metricsComponent.registerFeature(name);
+                processTimer = metricsService.createTimer(metricsComponent, metricsFeature,
+                                                          "processTime");
+                latencyTimer = metricsService.createTimer(metricsComponent, metricsFeature,
+                                                          "latency");
+                metricsService.registerMetric(metricsComponent, metricsFeature, "queueDepth",
+                                              (Gauge<Integer>) eventsQueue::size);
+                droppedEvents = metricsService.createCounter(metricsComponent, metricsFeature,
+                                                             "droppedEvents");
+                coalescedEvents = metricsService.createCounter(metricsComponent, metricsFeature,
+                                                               "coalescedEvents");
+            } else {
+                metricsFeature = null;
+                processTimer = new Timer();
+                latencyTimer = new Timer();
+                droppedEvents = new Counter();
+                coalescedEvents = new Counter();
+            }
             dispatchFuture = executor.submit(this);
         }
 
-        public boolean add(Event event) {
-            return eventsQueue.add(event);
+        // Queues the event; returns null once the event is taken care of, or
+        // the event to post to the successor lanes if the loop has been
+        // retired.
+        public Event add(Event event) {
+            if (retired) {
+                return event;
+            }
+            QueuedEvent queued = enqueue(event);
+            // Loop may have been retired while the event was being queued; it
+            // is dispatched only if queued ahead of the retire-pill. A later
+            // event may have superseded it in the meantime.
+            if (retired && queued != null && eventsQueue.remove(queued)) {
+                Event pending = queued.claim();
+                freeSpace();
+                dequeued(queued, pending);
+                return pending;
+            }
+            return null;
+        }
+
+        // Queues the event; returns null if the event was dropped or took the
+        // place of a queued one.
+        private QueuedEvent enqueue(Event event) {
+            if (capacity == 0) {
+                return queue(event);
+            }
+            if (IN_DISPATCH_LOOP.get()) {
+                queuedEvents.incrementAndGet();
+                return queue(event);
+            }
+            if (reserve()) {
+                return queue(event);
+            }
+            if (policy == OverflowPolicy.COALESCE && supersede(event)) {
+                coalescedEvents.inc();
+                return null;
+            }
+            if (policy == OverflowPolicy.DROP) {
+                droppedEvents.inc();
+                if (!overflowing) {
+                    overflowing = true;
+                    log.warn("Dispatch loop({}) queue is full; dropping events", name);
+                }
+                return null;
+            }
+            if (!awaitSpace()) {
+                // Loop stopped or retired while waiting; queue the event anyway
+                queuedEvents.incrementAndGet();
+            }
+            return queue(event);
+        }
+
+        // Takes room for one event in the queue; returns false if it is full.
+        private boolean reserve() {
+            int count = queuedEvents.get();
+            while (count < capacity) {
+                if (queuedEvents.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+                count = queuedEvents.get();
+            }
+            return false;
+        }
+
+        // Queues the event, for which room has been reserved if required,
+        // recording it as the latest queued one for its coalescing key.
+        private QueuedEvent queue(Event event) {
+            if (capacity == 0 || policy != OverflowPolicy.COALESCE) {
+                return queue(new QueuedEvent(event, 0));
+            }
+            synchronized (coalesced) {
+                QueuedEvent queued = new QueuedEvent(event, ++sequence);
+                Object key = coalesceKey(event);
+                if (key != null) {
+                    coalesced.put(key, queued);
+                } else if (event instanceof DeviceEvent) {
+                    barriers.put(((DeviceEvent) event).subject().id(), queued.sequence);
+                }
+                return queue(queued);
+            }
+        }
+
+        private QueuedEvent queue(QueuedEvent queued) {
+            eventsQueue.add(queued);
+            return queued;
+        }
+
+        // Replaces the still queued event which the given one supersedes, in
+        // place; returns true if there was one.
+        private boolean supersede(Event event) {
+            Object key = coalesceKey(event);
+            if (key == null) {
+                return false;
+            }
+            synchronized (coalesced) {
+                QueuedEvent queued = coalesced.get(key);
+                if (queued == null) {
+                    return false;
+                }
+                Long barrier = barriers.get(((DeviceEvent) event).subject().id());
+                return (barrier == null || barrier < queued.sequence) && queued.replace(event);
+            }
+        }
+
+        // Forgets a dequeued event as the latest queued one for its key, or as
+        // the latest event of its device that cannot be coalesced.
+        private void dequeued(QueuedEvent queued, Event event) {
+            if (capacity == 0 || policy != OverflowPolicy.COALESCE) {
+                return;
+            }
+            synchronized (coalesced) {
+                Object key = coalesceKey(event);
+                if (key != null) {
+                    coalesced.remove(key, queued);
+                } else if (event instanceof DeviceEvent) {
+                    barriers.remove(((DeviceEvent) event).subject().id(), queued.sequence);
+                }
+            }
+        }
+
+        // Releases the room taken by an event leaving the queue.
+        private void freeSpace() {
+            if (capacity > 0) {
+                if (queuedEvents.decrementAndGet() == 0) {
+                    overflowing = false;
+                }
+                signalSpace();
+            }
+        }
+
+        // Waits for room in the queue and reserves it; returns false if the
+        // loop was stopped or retired first.
+        private boolean awaitSpace() {
+            waitingProducers.incrementAndGet();
+            spaceLock.lock();
+            try {
+                while (!stopped && !retired) {
+                    if (reserve()) {
+                        return true;
+                    }
+                    notFull.await(WATCHDOG_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                spaceLock.unlock();
+                waitingProducers.decrementAndGet();
+            }
+            return false;
+        }
+
+        private void signalSpace() {
+            if (waitingProducers.get() > 0) {
+                spaceLock.lock();
+                try {
+                    notFull.signalAll();
+                } finally {
+                    spaceLock.unlock();
+                }
+            }
         }
 
         @Override
         public void run() {
             stopped = false;
+            IN_DISPATCH_LOOP.set(true);
+            try {
+                owner.awaitPredecessors();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
             log.info("Dispatch loop({}) initiated", name);
             while (!stopped) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
-                    Event event = eventsQueue.take();
-                    if (event != KILL_PILL) {
+                    QueuedEvent queued = eventsQueue.take();
+                    Event event = queued.claim();
+                    if (event == RETIRE_PILL) {
+                        // Everything queued ahead of the pill has been
+                        // dispatched; anything behind it is re-posted by its
+                        // producer to the successor lanes.
+                        stopWatchdog();
+                        owner.drained.countDown();
+                        executor.shutdown();
+                        break;
+                    } else if (event != KILL_PILL) {
+                        freeSpace();
+                        dequeued(queued, event);
                         process(event);
+                        latencyTimer.update(System.nanoTime() - queued.queuedNanos,
+                                            TimeUnit.NANOSECONDS);
                     }
                 } catch (InterruptedException e) {
                     log.warn("Dispatch loop interrupted");
@@ -199,9 +748,14 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
                 lastSink = sink;
+                Timer.Context timer = processTimer.time();
                 stopwatch.start();
-                sink.process(event);
-                stopwatch.reset();
+                try {
+                    sink.process(event);
+                } finally {
+                    stopwatch.reset();
+                    timer.stop();
+                }
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -210,7 +764,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
         void stop() {
             stopped = true;
-            add(KILL_PILL);
+            eventsQueue.add(new QueuedEvent(KILL_PILL, 0));
         }
 
         void restart() {
@@ -218,6 +772,22 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             dispatchFuture = executor.submit(this);
         }
 
+        // Lets the loop drain the events already queued and then terminates it.
+        void retire() {
+            retired = true;
+            eventsQueue.add(new QueuedEvent(RETIRE_PILL, 0));
+        }
+
+        void removeMetrics() {
+            if (metricsFeature != null) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, "processTime");
+                metricsService.removeMetric(metricsComponent, metricsFeature, "latency");
+                metricsService.removeMetric(metricsComponent, metricsFeature, "queueDepth");
+                metricsService.removeMetric(metricsComponent, metricsFeature, "droppedEvents");
+                metricsService.removeMetric(metricsComponent, metricsFeature, "coalescedEvents");
+            }
+        }
+
         // Monitors event sinks to make sure none take too long to execute.
         private class Watchdog extends TimerTask {
             @Override
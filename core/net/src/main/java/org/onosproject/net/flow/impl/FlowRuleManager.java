@@ -447,22 +447,21 @@ public class FlowRuleManager
             log.debug("Flow {} is on switch but not in store.", flowRule);
         }
 
-        private void flowAdded(FlowEntry flowEntry) {
-            checkNotNull(flowEntry, FLOW_RULE_NULL);
+        private void flowsAdded(DeviceId deviceId, List<FlowEntry> flowEntries) {
             checkValidity();
+            if (flowEntries.isEmpty()) {
+                return;
+            }
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
-                FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
-                if (event == null) {
-                    log.debug("No flow store event generated.");
-                } else {
-                    log.trace("Flow {} {}", flowEntry, event.type());
-                    post(event);
-                }
-            } else {
-                log.debug("Removing flow rules....");
-                removeFlowRules(flowEntry);
+            // Apply the statistics of all live rules to the store at once
+            List<FlowRuleEvent> events = store.updateFlowStatistics(deviceId, flowEntries);
+            if (events.isEmpty()) {
+                log.debug("No flow store event generated.");
             }
+            events.forEach(event -> {
+                log.trace("Flow {} {}", event.subject(), event.type());
+                post(event);
+            });
         }
 
         private boolean checkRuleLiveness(FlowEntry swRule, FlowEntry storedRule) {
@@ -516,10 +515,28 @@ public class FlowRuleManager
             pushFlowMetricsInternal(deviceId, flowEntries, false);
         }
 
+        @Override
+        public void pushTableFlowMetrics(DeviceId deviceId, int tableId, Iterable<FlowEntry> flowEntries) {
+            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
+            store.getFlowEntries(deviceId).forEach(f -> {
+                if (f.tableId() == tableId) {
+                    storedRules.put(f, f);
+                }
+            });
+            pushFlowMetricsInternal(deviceId, flowEntries, storedRules, true);
+        }
+
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
             Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
             store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            pushFlowMetricsInternal(deviceId, flowEntries, storedRules, useMissingFlow);
+        }
+
+        private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                             Map<FlowEntry, FlowEntry> storedRules,
+                                             boolean useMissingFlow) {
+            List<FlowEntry> liveRules = Lists.newArrayList();
 
             for (FlowEntry rule : flowEntries) {
                 try {
@@ -527,7 +544,12 @@ public class FlowRuleManager
                     if (storedRule != null) {
                         if (storedRule.exactMatch(rule)) {
                             // we both have the rule, let's update some info then.
-                            flowAdded(rule);
+                            if (checkRuleLiveness(rule, storedRule)) {
+                                liveRules.add(rule);
+                            } else {
+                                log.debug("Removing flow rules....");
+                                removeFlowRules(rule);
+                            }
                         } else {
                             // the two rules are not an exact match - remove the
                             // switch's rule and install our rule
@@ -546,6 +568,12 @@ public class FlowRuleManager
                 }
             }
 
+            try {
+                flowsAdded(deviceId, liveRules);
+            } catch (Exception e) {
+                log.warn("Can't update statistics of rules for device {}:{}", deviceId, e);
+            }
+
             // DO NOT reinstall
             if (useMissingFlow) {
                 for (FlowEntry rule : storedRules.keySet()) {
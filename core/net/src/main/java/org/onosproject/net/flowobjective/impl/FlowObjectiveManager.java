@@ -15,6 +15,9 @@
  */
 package org.onosproject.net.flowobjective.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
@@ -25,6 +28,9 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.ItemNotFoundException;
@@ -60,16 +66,22 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.AnnotationKeys.DRIVER;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -88,6 +100,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     private static final String WORKER_PATTERN = "objective-installer-%d";
     private static final String GROUP_THREAD_NAME = "onos/objective-installer";
     private static final String NUM_THREAD = "numThreads";
+    private static final String MAX_IN_FLIGHT = "maxInFlightPerDevice";
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -97,6 +110,13 @@ public class FlowObjectiveManager implements FlowObjectiveService {
              label = "Number of worker threads")
     private int numThreads = DEFAULT_NUM_THREADS;
 
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1;
+    @Property(name = MAX_IN_FLIGHT,
+             intValue = DEFAULT_MAX_IN_FLIGHT,
+             label = "Maximum number of objectives of a device processed concurrently; " +
+                     "objectives of a device are processed in order if set to 1")
+    private int maxInFlightPerDevice = DEFAULT_MAX_IN_FLIGHT;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
@@ -121,6 +141,11 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private MetricsComponent metricsComponent;
+
     private final FlowObjectiveStoreDelegate delegate = new InternalStoreDelegate();
 
     private final Map<DeviceId, DriverHandler> driverHandlers = Maps.newConcurrentMap();
@@ -145,13 +170,23 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     // for debugging purposes
     private Map<Integer, DeviceId> nextToDevice = Maps.newConcurrentMap();
 
-    private ExecutorService executorService;
+    // per-device queues of objectives waiting to be passed to the device pipeline
+    private final Map<DeviceId, DeviceQueue> deviceQueues = Maps.newConcurrentMap();
+
+    private volatile ExecutorService executorService;
+
+    private ScheduledExecutorService retryExecutor;
 
     @Activate
     protected void activate() {
         cfgService.registerProperties(getClass());
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent("FlowObjective");
+        }
         executorService = newFixedThreadPool(numThreads,
                                              groupedThreads(GROUP_THREAD_NAME, WORKER_PATTERN, log));
+        retryExecutor = newSingleThreadScheduledExecutor(
+                groupedThreads(GROUP_THREAD_NAME, "retry-%d", log));
         flowObjectiveStore.setDelegate(delegate);
         deviceService.addListener(deviceListener);
         driverService.addListener(driverListener);
@@ -165,6 +200,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         deviceService.removeListener(deviceListener);
         driverService.removeListener(driverListener);
         executorService.shutdown();
+        retryExecutor.shutdown();
+        deviceQueues.values().forEach(DeviceQueue::removeMetrics);
+        deviceQueues.clear();
         pipeliners.clear();
         driverHandlers.clear();
         nextToDevice.clear();
@@ -185,58 +223,201 @@ public class FlowObjectiveManager implements FlowObjectiveService {
             if (oldWorkerExecutor != null) {
                 oldWorkerExecutor.shutdown();
             }
+            // Resume queues whose objectives were rejected by the old workers
+            deviceQueues.values().forEach(DeviceQueue::drain);
             log.info("Reconfigured number of worker threads to {}", numThreads);
         }
+
+        propertyValue = Tools.get(context.getProperties(), MAX_IN_FLIGHT);
+        int newMaxInFlight = isNullOrEmpty(propertyValue) ?
+                maxInFlightPerDevice : Integer.parseInt(propertyValue);
+        if (newMaxInFlight != maxInFlightPerDevice && newMaxInFlight > 0) {
+            maxInFlightPerDevice = newMaxInFlight;
+            deviceQueues.values().forEach(DeviceQueue::drain);
+            log.info("Reconfigured maximum number of objectives in flight per device to {}",
+                     maxInFlightPerDevice);
+        }
+    }
+
+    /**
+     * Queue of the objectives of a device. Objectives are passed to the
+     * worker threads in the order they were submitted, with no more than
+     * the configured number of them being processed at any time; an
+     * objective waiting for the device pipeline to become available keeps
+     * its place without holding a worker thread. The queue of a removed
+     * device is dropped once it has no objectives left.
+     */
+    private final class DeviceQueue {
+        private final DeviceId deviceId;
+        private final Deque<ObjectiveInstaller> backlog = new ArrayDeque<>();
+        private final MetricsFeature metricsFeature;
+        private final Timer latency;
+        private int inFlight;
+        private boolean retired;
+        private boolean dropped;
+
+        private DeviceQueue(DeviceId deviceId) {
+            this.deviceId = deviceId;
+            if (metricsComponent != null) {
+                metricsFeature = metricsComponent.registerFeature(deviceId.toString());
+                latency = metricsService.createTimer(metricsComponent, metricsFeature, "objectiveLatency");
+                metricsService.registerMetric(metricsComponent, metricsFeature, "backlog",
+                                              (Gauge<Integer>) this::backlog);
+            } else {
+                metricsFeature = null;
+                latency = new Timer();
+            }
+        }
+
+        // Adds objectives to the queue; returns false if the queue has been
+        // dropped and the objectives must go to a new queue for the device.
+        private synchronized boolean submit(List<Objective> objectives) {
+            if (dropped) {
+                return false;
+            }
+            retired = false;
+            backlog.add(new ObjectiveInstaller(this, deviceId, objectives));
+            drain();
+            return true;
+        }
+
+        // Notes that processing of an objective has completed.
+        private synchronized void done(ObjectiveInstaller installer) {
+            inFlight--;
+            latency.update(System.nanoTime() - installer.submitted, TimeUnit.NANOSECONDS);
+            drain();
+            dropIfIdle();
+        }
+
+        // Puts an objective being processed back at the head of the queue.
+        private synchronized void retry(ObjectiveInstaller installer) {
+            inFlight--;
+            backlog.addFirst(installer);
+            drain();
+        }
+
+        // Passes queued objectives to the workers while below the concurrency
+        // limit; objectives rejected by the workers stay queued.
+        private synchronized void drain() {
+            while (inFlight < maxInFlightPerDevice && !backlog.isEmpty()) {
+                try {
+                    executorService.execute(backlog.peek());
+                } catch (RejectedExecutionException e) {
+                    log.debug("Workers unavailable; keeping {} objectives queued for {}",
+                              backlog.size(), deviceId);
+                    return;
+                }
+                backlog.poll();
+                inFlight++;
+            }
+        }
+
+        // Drops the queue once the objectives already queued have been processed.
+        private synchronized void retire() {
+            retired = true;
+            dropIfIdle();
+        }
+
+        private void dropIfIdle() {
+            if (retired && inFlight == 0 && backlog.isEmpty()) {
+                dropped = true;
+                // Metrics go first, as a new queue for the device registers
+                // the same metrics once this one is gone from the map
+                removeMetrics();
+                deviceQueues.remove(deviceId, this);
+            }
+        }
+
+        private synchronized int backlog() {
+            return backlog.size();
+        }
+
+        private void removeMetrics() {
+            if (metricsFeature != null) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, "objectiveLatency");
+                metricsService.removeMetric(metricsComponent, metricsFeature, "backlog");
+            }
+        }
+    }
+
+    // Queues the objective for processing after the previous objectives of the device.
+    private void execute(DeviceId deviceId, Objective objective) {
+        execute(deviceId, ImmutableList.of(objective));
+    }
+
+    // Queues the objectives for processing together, after the previous
+    // objectives of the device.
+    private void execute(DeviceId deviceId, List<Objective> objectives) {
+        boolean submitted;
+        do {
+            // Queue may have been dropped in the meantime; go again with a new one
+            submitted = deviceQueues.computeIfAbsent(deviceId, DeviceQueue::new).submit(objectives);
+        } while (!submitted);
     }
 
     /**
      * Task that passes the flow objective down to the driver. The task will
      * make a few attempts to find the appropriate driver, then eventually give
-     * up and report an error if no suitable driver could be found.
+     * up and report an error if no suitable driver could be found. Attempts
+     * are retried by a timer, so that no worker waits for the driver. Several
+     * objectives are passed down to the driver as a single batch.
      */
     private class ObjectiveInstaller implements Runnable {
+        private final DeviceQueue queue;
         private final DeviceId deviceId;
-        private final Objective objective;
-
-        private final int numAttempts;
+        private final List<Objective> objectives;
+        private final long submitted = System.nanoTime();
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective) {
-            this(deviceId, objective, 1);
-        }
+        private int numAttempts = 1;
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective, int attemps) {
+        public ObjectiveInstaller(DeviceQueue queue, DeviceId deviceId, List<Objective> objectives) {
+            this.queue = checkNotNull(queue);
             this.deviceId = checkNotNull(deviceId);
-            this.objective = checkNotNull(objective);
-            this.numAttempts = checkNotNull(attemps);
+            this.objectives = checkNotNull(objectives);
         }
 
         @Override
         public void run() {
+            boolean done = true;
             try {
                 Pipeliner pipeliner = getDevicePipeliner(deviceId);
 
                 if (pipeliner != null) {
-                    if (objective instanceof NextObjective) {
-                        nextToDevice.put(objective.id(), deviceId);
-                        pipeliner.next((NextObjective) objective);
-                    } else if (objective instanceof ForwardingObjective) {
-                        pipeliner.forward((ForwardingObjective) objective);
+                    objectives.stream()
+                            .filter(objective -> objective instanceof NextObjective)
+                            .forEach(objective -> nextToDevice.put(objective.id(), deviceId));
+                    if (objectives.size() > 1) {
+                        pipeliner.apply(objectives);
                     } else {
-                        pipeliner.filter((FilteringObjective) objective);
+                        Objective objective = objectives.get(0);
+                        if (objective instanceof NextObjective) {
+                            pipeliner.next((NextObjective) objective);
+                        } else if (objective instanceof ForwardingObjective) {
+                            pipeliner.forward((ForwardingObjective) objective);
+                        } else {
+                            pipeliner.filter((FilteringObjective) objective);
+                        }
                     }
                     //Attempts to check if pipeliner is null for retry attempts
                 } else if (numAttempts < INSTALL_RETRY_ATTEMPTS) {
-                    Thread.sleep(INSTALL_RETRY_INTERVAL);
-                    executorService.execute(new ObjectiveInstaller(deviceId, objective, numAttempts + 1));
+                    // Keep the place of the objective in the device queue
+                    numAttempts++;
+                    retryExecutor.schedule(() -> queue.retry(this),
+                                           INSTALL_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+                    done = false;
                 } else {
                     // Otherwise we've tried a few times and failed, report an
                     // error back to the user.
-                    objective.context().ifPresent(
-                            c -> c.onError(objective, ObjectiveError.NOPIPELINER));
+                    objectives.forEach(objective -> objective.context().ifPresent(
+                            c -> c.onError(objective, ObjectiveError.NOPIPELINER)));
                 }
                 //Exception thrown
             } catch (Exception e) {
                 log.warn("Exception while installing flow objective", e);
+            } finally {
+                if (done) {
+                    queue.done(this);
+                }
             }
         }
     }
@@ -244,32 +425,66 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     @Override
     public void filter(DeviceId deviceId, FilteringObjective filteringObjective) {
         checkPermission(FLOWRULE_WRITE);
-        executorService.execute(new ObjectiveInstaller(deviceId, filteringObjective));
+        execute(deviceId, filteringObjective);
     }
 
     @Override
     public void forward(DeviceId deviceId, ForwardingObjective forwardingObjective) {
         checkPermission(FLOWRULE_WRITE);
-        if (forwardingObjective.nextId() == null ||
-                forwardingObjective.op() == Objective.Operation.REMOVE ||
-                flowObjectiveStore.getNextGroup(forwardingObjective.nextId()) != null ||
-                !queueFwdObjective(deviceId, forwardingObjective)) {
+        if (isReady(deviceId, forwardingObjective)) {
             // fast path
-            executorService.execute(new ObjectiveInstaller(deviceId, forwardingObjective));
+            execute(deviceId, forwardingObjective);
         }
     }
 
     @Override
     public void next(DeviceId deviceId, NextObjective nextObjective) {
         checkPermission(FLOWRULE_WRITE);
-        if (nextObjective.op() == Operation.ADD ||
-                flowObjectiveStore.getNextGroup(nextObjective.id()) != null ||
-                !queueNextObjective(deviceId, nextObjective)) {
+        if (isReady(deviceId, nextObjective)) {
             // either group exists or we are trying to create it - let it through
-            executorService.execute(new ObjectiveInstaller(deviceId, nextObjective));
+            execute(deviceId, nextObjective);
+        }
+    }
+
+    @Override
+    public void apply(DeviceId deviceId, List<? extends Objective> objectives) {
+        checkPermission(FLOWRULE_WRITE);
+        List<Objective> batch = new ArrayList<>(objectives.size());
+        for (Objective objective : objectives) {
+            // Objectives waiting for a next objective are queued on their own
+            if (objective instanceof ForwardingObjective &&
+                    !isReady(deviceId, (ForwardingObjective) objective)) {
+                continue;
+            }
+            if (objective instanceof NextObjective &&
+                    !isReady(deviceId, (NextObjective) objective)) {
+                continue;
+            }
+            batch.add(objective);
+        }
+        if (!batch.isEmpty()) {
+            execute(deviceId, batch);
         }
     }
 
+    // Indicates whether the forwarding objective can be executed right away;
+    // otherwise it has been queued until its next objective is installed.
+    private boolean isReady(DeviceId deviceId, ForwardingObjective fwd) {
+        return fwd.nextId() == null ||
+                fwd.op() == Objective.Operation.REMOVE ||
+                flowObjectiveStore.getNextGroup(fwd.nextId()) != null ||
+                !queueFwdObjective(deviceId, fwd);
+    }
+
+    // Indicates whether the next objective can be executed right away;
+    // otherwise it has been queued until the next objective it modifies is
+    // installed.
+    private boolean isReady(DeviceId deviceId, NextObjective next) {
+        return next.op() == Operation.ADD ||
+                flowObjectiveStore.getNextGroup(next.id()) != null ||
+                !queueNextObjective(deviceId, next);
+    }
+
     @Override
     public int allocateNextId() {
         checkPermission(FLOWRULE_WRITE);
@@ -458,6 +673,10 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                     // replace driver/pipeliner assigned to the device.
                     driverHandlers.remove(event.subject().id());
                     pipeliners.remove(event.subject().id());
+                    DeviceQueue queue = deviceQueues.get(event.subject().id());
+                    if (queue != null) {
+                        queue.retire();
+                    }
                     break;
                 case DEVICE_SUSPENDED:
                     break;
@@ -545,8 +764,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                 } else {
                     log.debug("Processing {} pending forwarding objectives for nextId {}",
                               pending.size(), event.subject());
-                    pending.forEach(p -> getDevicePipeliner(p.deviceId())
-                                    .forward((ForwardingObjective) p.flowObjective()));
+                    pending.forEach(p -> execute(p.deviceId(), p.flowObjective()));
                 }
 
                 // now check for pending next-objectives
@@ -560,8 +778,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                 } else {
                     log.debug("Processing {} pending next objectives for nextId {}",
                               pending.size(), event.subject());
-                    pending.forEach(p -> getDevicePipeliner(p.deviceId())
-                                    .next((NextObjective) p.flowObjective()));
+                    pending.forEach(p -> execute(p.deviceId(), p.flowObjective()));
                 }
             }
         }
@@ -15,8 +15,10 @@
  */
 package org.onosproject.net.intent.impl.compiler;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -24,6 +26,9 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.Weight;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Bandwidth;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
@@ -35,10 +40,16 @@ import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.IntentCompiler;
 import org.onosproject.net.intent.IntentExtensionService;
+import org.onosproject.net.intent.constraint.AnnotationConstraint;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
+import org.onosproject.net.intent.constraint.EncapsulationConstraint;
 import org.onosproject.net.intent.constraint.HashedPathSelectionConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
+import org.onosproject.net.intent.constraint.LinkTypeConstraint;
 import org.onosproject.net.intent.constraint.MarkerConstraint;
+import org.onosproject.net.intent.constraint.ObstacleConstraint;
 import org.onosproject.net.intent.constraint.PathViabilityConstraint;
+import org.onosproject.net.intent.constraint.ProtectedConstraint;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.resource.Resource;
@@ -50,6 +61,7 @@ import org.onosproject.net.resource.Resources;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.PathService;
 import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +70,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -74,6 +87,22 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
 
     private static final Logger log = LoggerFactory.getLogger(ConnectivityIntentCompiler.class);
 
+    // Constraints whose link costs depend on nothing but the topology
+    private static final Set<Class<? extends Constraint>> TOPOLOGY_CONSTRAINTS =
+            ImmutableSet.of(AnnotationConstraint.class, EncapsulationConstraint.class,
+                            LatencyConstraint.class, LinkTypeConstraint.class,
+                            ObstacleConstraint.class, ProtectedConstraint.class);
+
+    private static final String PATH_CACHE_HITS = "pathCacheHits";
+    private static final String PATH_CACHE_MISSES = "pathCacheMisses";
+    private static final String PATH_CACHE_HIT_RATE = "pathCacheHitRate";
+
+    // Paths computed by this compiler, for as long as the topology does not change
+    private final PathCache pathCache = new PathCache();
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
@@ -86,6 +115,43 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ResourceService resourceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected TopologyService topologyService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    /**
+     * Registers the statistics of the path cache of this compiler as
+     * metrics. Compilers computing paths call this when activated.
+     */
+    protected void activatePathCache() {
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent("IntentCompiler");
+            metricsFeature = metricsComponent.registerFeature(getClass().getSimpleName());
+            metricsService.registerMetric(metricsComponent, metricsFeature, PATH_CACHE_HITS,
+                                          (Gauge<Long>) () -> pathCache.stats().hitCount());
+            metricsService.registerMetric(metricsComponent, metricsFeature, PATH_CACHE_MISSES,
+                                          (Gauge<Long>) () -> pathCache.stats().missCount());
+            metricsService.registerMetric(metricsComponent, metricsFeature, PATH_CACHE_HIT_RATE,
+                                          (Gauge<Double>) () -> pathCache.stats().hitRate());
+        }
+    }
+
+    /**
+     * Removes the path cache metrics and drops all cached paths. Compilers
+     * computing paths call this when deactivated.
+     */
+    protected void deactivatePathCache() {
+        if (metricsFeature != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, PATH_CACHE_HITS);
+            metricsService.removeMetric(metricsComponent, metricsFeature, PATH_CACHE_MISSES);
+            metricsService.removeMetric(metricsComponent, metricsFeature, PATH_CACHE_HIT_RATE);
+            metricsFeature = null;
+        }
+        pathCache.clear();
+    }
+
     /**
      * Returns an edge-weight capable of evaluating links on the basis of the
      * specified constraints.
@@ -146,7 +212,11 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weigher(intent.constraints()));
+        LinkWeigher weigher = weigher(intent.constraints());
+        Set<Path> paths = isCacheable(one, two, weigher) ?
+                pathCache.getPaths(topologyService.currentTopology(), one, two, weigher,
+                                    () -> pathService.getPaths(one, two, weigher)) :
+                pathService.getPaths(one, two, weigher);
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -173,7 +243,11 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected DisjointPath getDisjointPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<DisjointPath> paths = pathService.getDisjointPaths(one, two, weigher(intent.constraints()));
+        LinkWeigher weigher = weigher(intent.constraints());
+        Set<DisjointPath> paths = isCacheable(one, two, weigher) ?
+                pathCache.getDisjointPaths(topologyService.currentTopology(), one, two, weigher,
+                                            () -> pathService.getDisjointPaths(one, two, weigher)) :
+                pathService.getDisjointPaths(one, two, weigher);
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<DisjointPath> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
@@ -190,6 +264,15 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
         return filtered.iterator().next();
     }
 
+    // Indicates whether paths computed using the given weigher may be reused
+    // for as long as the topology does not change; paths to hosts may change
+    // with host locations rather than with the topology.
+    private boolean isCacheable(ElementId one, ElementId two, LinkWeigher weigher) {
+        return one instanceof DeviceId && two instanceof DeviceId &&
+                weigher instanceof ConnectivityIntentCompiler<?>.ConstraintBasedLinkWeigher &&
+                ((ConnectivityIntentCompiler<?>.ConstraintBasedLinkWeigher) weigher).isTopologyBased();
+    }
+
     /**
      * Allocates the bandwidth specified as intent constraint on each link
      * composing the intent, if a bandwidth constraint is specified.
@@ -357,19 +440,30 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             if (constraints == null) {
                 this.constraints = Collections.emptyList();
             } else {
-                this.constraints = ImmutableList.copyOf(constraints);
+                // Only retain the constraints which contribute to link cost
+                this.constraints = constraints.stream()
+                        .filter(c -> !(c instanceof MarkerConstraint))
+                        .filter(c -> !(c instanceof PathViabilityConstraint))
+                        .collect(ImmutableList.toImmutableList());
             }
         }
 
+        /**
+         * Indicates whether the link weights depend only on the topology,
+         * i.e. all constraints are known to ignore resource availability.
+         *
+         * @return true if the weights are topology based
+         */
+        boolean isTopologyBased() {
+            return constraints.stream().allMatch(c -> TOPOLOGY_CONSTRAINTS.contains(c.getClass()));
+        }
+
         @Override
         public Weight weight(TopologyEdge edge) {
 
             // iterate over all constraints in order and return the weight of
             // the first one with fast fail over the first failure
-            Iterator<Constraint> it = constraints.stream()
-                    .filter(c -> !(c instanceof MarkerConstraint))
-                    .filter(c -> !(c instanceof PathViabilityConstraint))
-                    .iterator();
+            Iterator<Constraint> it = constraints.iterator();
 
             if (!it.hasNext()) {
                 return DEFAULT_HOP_WEIGHT;
@@ -385,6 +479,24 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             return ScalarWeight.toWeight(cost);
 
         }
+
+        @Override
+        public int hashCode() {
+            return constraints.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof ConnectivityIntentCompiler<?>.ConstraintBasedLinkWeigher) {
+                ConnectivityIntentCompiler<?>.ConstraintBasedLinkWeigher that =
+                        (ConnectivityIntentCompiler<?>.ConstraintBasedLinkWeigher) obj;
+                return Objects.equals(this.constraints, that.constraints);
+            }
+            return false;
+        }
     }
 
 }
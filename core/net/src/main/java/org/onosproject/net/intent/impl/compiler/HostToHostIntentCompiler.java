@@ -68,11 +68,13 @@ public class HostToHostIntentCompiler
     @Activate
     public void activate() {
         intentManager.registerCompiler(HostToHostIntent.class, this);
+        activatePathCache();
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(HostToHostIntent.class);
+        deactivatePathCache();
     }
 
     @Override
@@ -60,11 +60,13 @@ public class MultiPointToSinglePointIntentCompiler
     @Activate
     public void activate() {
         intentManager.registerCompiler(MultiPointToSinglePointIntent.class, this);
+        activatePathCache();
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(MultiPointToSinglePointIntent.class);
+        deactivatePathCache();
     }
 
     @Override
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.onosproject.net.DisjointPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the paths computed by intent compilers, scoped to a topology.
+ * <p>
+ * Paths are keyed by their source, destination and link weigher; weighers
+ * are compared using their equality, so only weighers whose weights depend
+ * on nothing but the topology and their own state may be used. All cached
+ * paths are dropped as soon as paths are requested for a different topology
+ * than the one they were computed for.
+ */
+final class PathCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PathCache.class);
+
+    private static final long DEFAULT_MAX_SIZE = 100_000;
+
+    private final long maxSize;
+
+    private volatile Generation generation;
+
+    /**
+     * Creates a path cache with the default size limit.
+     */
+    PathCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a path cache holding up to the given number of path sets per
+     * topology.
+     *
+     * @param maxSize maximum number of cached path sets
+     */
+    PathCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the paths between the given elements in the given topology,
+     * computing them only if they are not cached yet.
+     *
+     * @param topology topology the paths are computed in
+     * @param src      source element
+     * @param dst      destination element
+     * @param weigher  link weigher
+     * @param loader   computes the paths
+     * @return set of paths
+     */
+    Set<Path> getPaths(Topology topology, ElementId src, ElementId dst,
+                       LinkWeigher weigher, Supplier<Set<Path>> loader) {
+        if (topology == null) {
+            return loader.get();
+        }
+        return get(generation(topology).paths, new Key(src, dst, weigher), loader);
+    }
+
+    /**
+     * Returns the disjoint paths between the given elements in the given
+     * topology, computing them only if they are not cached yet.
+     *
+     * @param topology topology the paths are computed in
+     * @param src      source element
+     * @param dst      destination element
+     * @param weigher  link weigher
+     * @param loader   computes the paths
+     * @return set of disjoint paths
+     */
+    Set<DisjointPath> getDisjointPaths(Topology topology, ElementId src, ElementId dst,
+                                       LinkWeigher weigher, Supplier<Set<DisjointPath>> loader) {
+        if (topology == null) {
+            return loader.get();
+        }
+        return get(generation(topology).disjointPaths, new Key(src, dst, weigher), loader);
+    }
+
+    /**
+     * Returns the hit and miss counts of the paths cached for the current
+     * topology.
+     *
+     * @return cache statistics
+     */
+    CacheStats stats() {
+        Generation current = generation;
+        return current == null ? new CacheStats(0, 0, 0, 0, 0, 0) : current.stats();
+    }
+
+    /**
+     * Drops all cached paths.
+     */
+    synchronized void clear() {
+        generation = null;
+    }
+
+    private <T> Set<T> get(Cache<Key, Set<T>> cache, Key key, Supplier<Set<T>> loader) {
+        try {
+            return cache.get(key, loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // Path computation failures are passed on as they are
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Returns the paths cached for the given topology, dropping those of any
+    // previous topology.
+    private Generation generation(Topology topology) {
+        Generation current = generation;
+        if (current != null && current.topology == topology) {
+            return current;
+        }
+        synchronized (this) {
+            current = generation;
+            if (current == null || current.topology != topology) {
+                if (current != null) {
+                    CacheStats stats = current.stats();
+                    log.debug("Invalidating paths of topology {}: {} hits, {} misses, hit rate {}",
+                              current.topology.time(), stats.hitCount(), stats.missCount(), stats.hitRate());
+                }
+                current = new Generation(topology);
+                generation = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Paths cached for a single topology.
+     */
+    private final class Generation {
+        private final Topology topology;
+        private final Cache<Key, Set<Path>> paths;
+        private final Cache<Key, Set<DisjointPath>> disjointPaths;
+
+        private Generation(Topology topology) {
+            this.topology = topology;
+            this.paths = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+            this.disjointPaths = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        }
+
+        private CacheStats stats() {
+            return paths.stats().plus(disjointPaths.stats());
+        }
+    }
+
+    /**
+     * Key of a set of cached paths.
+     */
+    private static final class Key {
+        private final ElementId src;
+        private final ElementId dst;
+        private final LinkWeigher weigher;
+
+        private Key(ElementId src, ElementId dst, LinkWeigher weigher) {
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst, weigher);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return Objects.equals(this.src, that.src) &&
+                        Objects.equals(this.dst, that.dst) &&
+                        Objects.equals(this.weigher, that.weigher);
+            }
+            return false;
+        }
+    }
+}
@@ -114,11 +114,13 @@ public class PointToPointIntentCompiler
     @Activate
     public void activate() {
         intentManager.registerCompiler(PointToPointIntent.class, this);
+        activatePathCache();
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(PointToPointIntent.class);
+        deactivatePathCache();
     }
 
     @Override
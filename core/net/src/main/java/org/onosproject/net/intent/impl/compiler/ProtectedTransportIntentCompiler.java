@@ -96,12 +96,14 @@ public class ProtectedTransportIntentCompiler
     @Activate
     public void activate() {
         intentManager.registerCompiler(ProtectedTransportIntent.class, this);
+        activatePathCache();
         log.info("started");
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(ProtectedTransportIntent.class);
+        deactivatePathCache();
         log.info("stopped");
     }
 
@@ -49,11 +49,13 @@ public class SinglePointToMultiPointIntentCompiler
     @Activate
     public void activate() {
         intentManager.registerCompiler(SinglePointToMultiPointIntent.class, this);
+        activatePathCache();
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(SinglePointToMultiPointIntent.class);
+        deactivatePathCache();
     }
 
     @Override
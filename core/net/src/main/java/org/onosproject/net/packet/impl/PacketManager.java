@@ -16,6 +16,7 @@
 package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -23,6 +24,12 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -34,9 +41,15 @@ import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.driver.Driver;
 import org.onosproject.net.driver.DriverService;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
 import org.onosproject.net.flowobjective.DefaultForwardingObjective;
 import org.onosproject.net.flowobjective.FlowObjectiveService;
 import org.onosproject.net.flowobjective.ForwardingObjective;
@@ -61,10 +74,14 @@ import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
@@ -117,6 +134,12 @@ public class PacketManager
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
 
+    // Dispatch index over the processors, rebuilt whenever they change
+    private volatile ProcessorIndex processorIndex = new ProcessorIndex(ImmutableList.of());
+
+    // Number of packets dispatched to processors so far
+    private final LongAdder packetCount = new LongAdder();
+
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
     private ApplicationId appId;
@@ -150,9 +173,16 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, DefaultTrafficSelector.emptySelector());
+    }
+
+    @Override
+    public synchronized void addProcessor(PacketProcessor processor, int priority,
+                                          TrafficSelector selector) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        checkNotNull(selector, ERROR_NULL_SELECTOR);
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selector);
 
         // Insert the new processor according to its priority.
         int i = 0;
@@ -162,10 +192,11 @@ public class PacketManager
             }
         }
         processors.add(i, entry);
+        processorIndex = new ProcessorIndex(processors);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
@@ -176,6 +207,7 @@ public class PacketManager
                 break;
             }
         }
+        processorIndex = new ProcessorIndex(processors);
     }
 
     @Override
@@ -382,8 +414,12 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            packetCount.increment();
+            Ethernet eth = context.inPacket().parsed();
+            for (ProcessorEntry entry : processorIndex.candidates(eth)) {
+                if (!entry.filter.matches(eth)) {
+                    continue;
+                }
                 try {
                     long start = System.nanoTime();
                     entry.processor().process(context);
@@ -471,18 +507,157 @@ public class PacketManager
         }
     }
 
+    /**
+     * Index of the packet processors by the ethernet type of the packets
+     * they are interested in.
+     */
+    private static final class ProcessorIndex {
+        private final Map<Short, List<ProcessorEntry>> byEthType;
+        private final List<ProcessorEntry> anyEthType;
+
+        ProcessorIndex(List<ProcessorEntry> processors) {
+            // Each list holds, in priority order, the processors bound to
+            // the ethernet type along with those not bound to any.
+            Map<Short, ImmutableList.Builder<ProcessorEntry>> builders = new HashMap<>();
+            processors.stream()
+                    .map(e -> e.filter.ethType)
+                    .filter(Objects::nonNull)
+                    .forEach(t -> builders.putIfAbsent(t, ImmutableList.builder()));
+            ImmutableList.Builder<ProcessorEntry> any = ImmutableList.builder();
+            for (ProcessorEntry entry : processors) {
+                Short ethType = entry.filter.ethType;
+                if (ethType == null) {
+                    any.add(entry);
+                    builders.values().forEach(b -> b.add(entry));
+                } else {
+                    builders.get(ethType).add(entry);
+                }
+            }
+            this.anyEthType = any.build();
+            this.byEthType = builders.entrySet().stream()
+                    .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> e.getValue().build()));
+        }
+
+        // Returns the processors which may be interested in the packet.
+        List<ProcessorEntry> candidates(Ethernet eth) {
+            return eth == null ? anyEthType : byEthType.getOrDefault(eth.getEtherType(), anyEthType);
+        }
+    }
+
+    /**
+     * Packet filter derived from the selector of a packet processor.
+     */
+    private static final class PacketFilter {
+        private final boolean matchAll;
+        private Short ethType;
+        private Byte ipProto;
+        private Integer tcpSrc;
+        private Integer tcpDst;
+        private Integer udpSrc;
+        private Integer udpDst;
+
+        PacketFilter(TrafficSelector selector) {
+            this.matchAll = selector.criteria().isEmpty();
+            for (Criterion criterion : selector.criteria()) {
+                switch (criterion.type()) {
+                    case ETH_TYPE:
+                        ethType = ((EthTypeCriterion) criterion).ethType().toShort();
+                        break;
+                    case IP_PROTO:
+                        ipProto = (byte) ((IPProtocolCriterion) criterion).protocol();
+                        break;
+                    case TCP_SRC:
+                        tcpSrc = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        break;
+                    case TCP_DST:
+                        tcpDst = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        break;
+                    case UDP_SRC:
+                        udpSrc = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        break;
+                    case UDP_DST:
+                        udpDst = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unsupported processor selector criterion " + criterion.type());
+                }
+            }
+        }
+
+        // Indicates whether the given packet matches the filter.
+        boolean matches(Ethernet eth) {
+            if (matchAll) {
+                return true;
+            }
+            if (eth == null || (ethType != null && ethType != eth.getEtherType())) {
+                return false;
+            }
+            if (ipProto == null && tcpSrc == null && tcpDst == null &&
+                    udpSrc == null && udpDst == null) {
+                return true;
+            }
+
+            IPacket l4;
+            byte proto;
+            if (eth.getPayload() instanceof IPv4) {
+                IPv4 ipv4 = (IPv4) eth.getPayload();
+                proto = ipv4.getProtocol();
+                l4 = ipv4.getPayload();
+            } else if (eth.getPayload() instanceof IPv6) {
+                IPv6 ipv6 = (IPv6) eth.getPayload();
+                proto = ipv6.getNextHeader();
+                l4 = ipv6.getPayload();
+            } else {
+                return false;
+            }
+            if (ipProto != null && ipProto != proto) {
+                return false;
+            }
+
+            if (tcpSrc != null || tcpDst != null) {
+                if (!(l4 instanceof TCP)) {
+                    return false;
+                }
+                TCP tcp = (TCP) l4;
+                if ((tcpSrc != null && tcpSrc != tcp.getSourcePort()) ||
+                        (tcpDst != null && tcpDst != tcp.getDestinationPort())) {
+                    return false;
+                }
+            }
+            if (udpSrc != null || udpDst != null) {
+                if (!(l4 instanceof UDP)) {
+                    return false;
+                }
+                UDP udp = (UDP) l4;
+                if ((udpSrc != null && udpSrc != udp.getSourcePort()) ||
+                        (udpDst != null && udpDst != udp.getDestinationPort())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final TrafficSelector selector;
+        private final PacketFilter filter;
+        private final long packetsBefore;
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              TrafficSelector selector) {
             this.processor = processor;
             this.priority = priority;
+            this.selector = selector;
+            this.filter = new PacketFilter(selector);
+            this.packetsBefore = packetCount.sum();
         }
 
         @Override
@@ -495,11 +670,21 @@ public class PacketManager
             return priority;
         }
 
+        @Override
+        public TrafficSelector selector() {
+            return selector;
+        }
+
         @Override
         public long invocations() {
             return invocations;
         }
 
+        @Override
+        public long misses() {
+            return Math.max(0, packetCount.sum() - packetsBefore - invocations);
+        }
+
         @Override
         public long totalNanos() {
             return nanos;
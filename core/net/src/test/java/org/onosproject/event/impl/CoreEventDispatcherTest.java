@@ -18,16 +18,36 @@ package org.onosproject.event.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onlab.packet.ChassisId;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultPort;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Port;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.provider.ProviderId;
+
+import com.codahale.metrics.Timer;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -35,12 +55,15 @@ import static org.junit.Assert.assertTrue;
 public class CoreEventDispatcherTest {
 
     private final CoreEventDispatcher dispatcher = new CoreEventDispatcher();
+    private final MetricsManager metrics = new MetricsManager();
     private final PrickleSink prickleSink = new PrickleSink();
     private final GooSink gooSink = new GooSink();
 
     @Before
     public void setUp() {
-        dispatcher.activate();
+        dispatcher.cfgService = new ComponentConfigAdapter();
+        dispatcher.metricsService = metrics;
+        dispatcher.activate(null);
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
     }
@@ -88,6 +111,224 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postEventsOnMultipleLanes() throws Exception {
+        dispatcher.modified(context("dispatchLanes", "4"));
+
+        int devices = 8;
+        int eventsPerDevice = 50;
+        DeviceSink deviceSink = new DeviceSink(devices * eventsPerDevice);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        for (int i = 0; i < eventsPerDevice; i++) {
+            for (int d = 0; d < devices; d++) {
+                dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED,
+                                                device(d), null, i));
+            }
+        }
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        assertEquals("incorrect device count", devices, deviceSink.times.size());
+        deviceSink.times.forEach((id, times) -> {
+            assertEquals("incorrect event count", eventsPerDevice, times.size());
+            for (int i = 0; i < eventsPerDevice; i++) {
+                assertEquals("events out of order for " + id, i, (long) times.get(i));
+            }
+        });
+    }
+
+    @Test
+    public void reconfigureLanes() throws Exception {
+        dispatcher.modified(context("dispatchLanes", "4"));
+
+        int devices = 8;
+        int eventsPerDevice = 50;
+        DeviceSink deviceSink = new DeviceSink(devices * eventsPerDevice);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        for (int i = 0; i < eventsPerDevice; i++) {
+            if (i == eventsPerDevice / 2) {
+                dispatcher.modified(context("dispatchLanes", "2"));
+            }
+            for (int d = 0; d < devices; d++) {
+                dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED,
+                                                device(d), null, i));
+            }
+        }
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        deviceSink.times.forEach((id, times) -> {
+            assertEquals("incorrect event count", eventsPerDevice, times.size());
+            for (int i = 0; i < eventsPerDevice; i++) {
+                assertEquals("events out of order for " + id, i, (long) times.get(i));
+            }
+        });
+    }
+
+    @Test
+    public void laneKeyWithoutStableSubject() {
+        assertEquals(Prickle.class, CoreEventDispatcher.laneKey(new Prickle("a")));
+        assertEquals(DeviceId.deviceId("of:1"),
+                     CoreEventDispatcher.laneKey(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED,
+                                                                 device(1))));
+    }
+
+    @Test
+    public void latencyIncludesQueueWait() throws Exception {
+        BlockingDeviceSink deviceSink = new BlockingDeviceSink(2);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        Device device = device(1);
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 0));
+        assertTrue(deviceSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 1));
+        // Keep the second event waiting in the queue for a while
+        Thread.sleep(50);
+        deviceSink.release.countDown();
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        Timer latency = metrics.getTimers((name, metric) -> name.endsWith("topology.latency"))
+                .values().iterator().next();
+        Timer processTime = metrics.getTimers((name, metric) -> name.endsWith("topology.processTime"))
+                .values().iterator().next();
+        assertAfter(1000, () -> assertEquals(2, latency.getCount()));
+        long waited = TimeUnit.MILLISECONDS.toNanos(50);
+        assertTrue("queue wait not measured", latency.getSnapshot().getMin() >= waited);
+        assertTrue("queue wait measured as processing", processTime.getSnapshot().getMin() < waited);
+    }
+
+    @Test
+    public void coalesceSupersededEvents() throws Exception {
+        dispatcher.modified(context("eventQueueCapacity", "2",
+                                    "overflowPolicy", "COALESCE"));
+        BlockingDeviceSink deviceSink = new BlockingDeviceSink(3);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        Device device = device(1);
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 0));
+        assertTrue(deviceSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_STATS_UPDATED,
+                                            device, null, i));
+        }
+        deviceSink.release.countDown();
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        assertEquals("incorrect event count", 3, deviceSink.events.size());
+        assertEquals(DeviceEvent.Type.DEVICE_UPDATED, deviceSink.events.get(0).type());
+        assertEquals("incorrect event", 1, deviceSink.events.get(1).time());
+        assertEquals("superseded event delivered", 5, deviceSink.events.get(2).time());
+    }
+
+    @Test
+    public void coalesceInPlace() throws Exception {
+        dispatcher.modified(context("eventQueueCapacity", "2",
+                                    "overflowPolicy", "COALESCE"));
+        BlockingDeviceSink deviceSink = new BlockingDeviceSink(3);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        Device device = device(1);
+        Port port1 = new DefaultPort(device, PortNumber.portNumber(1), true);
+        Port port2 = new DefaultPort(device, PortNumber.portNumber(2), true);
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 0));
+        assertTrue(deviceSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port1, 1));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port2, 2));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port1, 3));
+        deviceSink.release.countDown();
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertAfter(100, 1000, () -> assertEquals("incorrect event count",
+                                                  3, deviceSink.events.size()));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        assertEquals("superseding event not in place", 3, deviceSink.events.get(1).time());
+        assertEquals("incorrect event", 2, deviceSink.events.get(2).time());
+    }
+
+    @Test
+    public void coalesceKeepsOrder() throws Exception {
+        dispatcher.modified(context("eventQueueCapacity", "2",
+                                    "overflowPolicy", "COALESCE"));
+        BlockingDeviceSink deviceSink = new BlockingDeviceSink(4);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        Device device = device(1);
+        Port port = new DefaultPort(device, PortNumber.portNumber(1), true);
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 0));
+        assertTrue(deviceSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port, 1));
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.PORT_REMOVED, device, port, 2));
+        // Cannot take the place of the first port update, which is queued
+        // ahead of the port removal, so waits for room in the queue instead
+        Thread producer = new Thread(() -> dispatcher.post(
+                new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port, 3)));
+        producer.start();
+        assertAfter(1000, () -> assertEquals(Thread.State.TIMED_WAITING, producer.getState()));
+        deviceSink.release.countDown();
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        producer.join(1000);
+        dispatcher.removeSink(DeviceEvent.class);
+
+        assertEquals("incorrect event count", 4, deviceSink.events.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("incorrect event", i, deviceSink.events.get(i).time());
+        }
+    }
+
+    @Test
+    public void dropEventsWhenFull() throws Exception {
+        dispatcher.modified(context("eventQueueCapacity", "2",
+                                    "overflowPolicy", "DROP"));
+        BlockingDeviceSink deviceSink = new BlockingDeviceSink(3);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+
+        Device device = device(1);
+        dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device, null, 0));
+        assertTrue(deviceSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED,
+                                            device, null, i));
+        }
+        deviceSink.release.countDown();
+        assertTrue("events not delivered",
+                   deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertAfter(100, 1000, () -> assertEquals("incorrect event count",
+                                                  3, deviceSink.events.size()));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("incorrect event", i, deviceSink.events.get(i).time());
+        }
+    }
+
+    private static ComponentContextAdapter context(String... keysAndValues) {
+        return new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                for (int i = 0; i < keysAndValues.length; i += 2) {
+                    props.put(keysAndValues[i], keysAndValues[i + 1]);
+                }
+                return props;
+            }
+        };
+    }
+
+    private static Device device(int id) {
+        return new DefaultDevice(new ProviderId("of", "foo"), DeviceId.deviceId("of:" + id),
+                                 Device.Type.SWITCH, "m", "h", "s", "n", new ChassisId());
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -141,6 +382,45 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class DeviceSink implements EventSink<DeviceEvent> {
+        final Map<DeviceId, List<Long>> times = new ConcurrentHashMap<>();
+        final CountDownLatch latch;
+
+        DeviceSink(int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void process(DeviceEvent event) {
+            times.computeIfAbsent(event.subject().id(), id -> new CopyOnWriteArrayList<>())
+                    .add(event.time());
+            latch.countDown();
+        }
+    }
+
+    private static class BlockingDeviceSink implements EventSink<DeviceEvent> {
+        final List<DeviceEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch latch;
+
+        BlockingDeviceSink(int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void process(DeviceEvent event) {
+            blocked.countDown();
+            try {
+                release.await(1000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+            latch.countDown();
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
@@ -363,6 +363,37 @@ public class FlowRuleManagerTest {
                        RULE_ADDED, RULE_ADDED, RULE_ADD_REQUESTED);
     }
 
+    @Test
+    public void tableFlowMetrics() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(new TestSelector(2))
+                .withTreatment(new TestTreatment(2))
+                .withPriority(10)
+                .fromApp(appId)
+                .makeTemporary(TIMEOUT)
+                .forTable(1)
+                .build();
+        FlowRule f3 = flowRule(3, 3);
+
+        mgr.applyFlowRules(f1, f2, f3);
+
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+
+        // Only table 0 is reconciled; the rule in table 1 is left alone
+        providerService.pushTableFlowMetrics(DID, 0, Lists.newArrayList(fe1));
+
+        assertTrue("Only table 0 entries should be reconciled.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.PENDING_ADD,
+                           f3, FlowEntryState.PENDING_ADD)));
+
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADD_REQUESTED);
+    }
+
     @Test
     public void extraneousFlow() {
         FlowRule f1 = flowRule(1, 1);
@@ -15,12 +15,16 @@
  */
 package org.onosproject.net.flowobjective.impl;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestUtils;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onlab.packet.ChassisId;
 import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onlab.util.ItemNotFoundException;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
@@ -57,9 +61,20 @@ import org.onosproject.net.flowobjective.ObjectiveEvent;
 import org.onosproject.net.intent.TestTools;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
@@ -87,6 +102,14 @@ public class FlowObjectiveManagerTest {
     List<String> filteringObjectives;
     List<String> forwardingObjectives;
     List<String> nextObjectives;
+    List<Integer> forwardingPriorities;
+
+    // Devices for which no driver can be found
+    final Set<DeviceId> devicesWithoutDriver = Sets.newConcurrentHashSet();
+    // Holds forwarding objectives in the pipeliner while set
+    volatile CountDownLatch forwardGate;
+    final AtomicInteger forwarding = new AtomicInteger();
+    final AtomicInteger maxForwarding = new AtomicInteger();
 
     private class TestDeviceService extends DeviceServiceAdapter {
 
@@ -159,7 +182,18 @@ public class FlowObjectiveManagerTest {
 
         @Override
         public void forward(ForwardingObjective forwardObjective) {
+            CountDownLatch gate = forwardGate;
+            if (gate != null) {
+                maxForwarding.accumulateAndGet(forwarding.incrementAndGet(), Math::max);
+                try {
+                    gate.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                forwarding.decrementAndGet();
+            }
             forwardingObjectives.add(deviceId.toString());
+            forwardingPriorities.add(forwardObjective.priority());
         }
 
         @Override
@@ -171,6 +205,9 @@ public class FlowObjectiveManagerTest {
     private class TestDriverService extends DriverServiceAdapter {
         @Override
         public DriverHandler createHandler(DeviceId deviceId, String... credentials) {
+            if (devicesWithoutDriver.contains(deviceId)) {
+                throw new ItemNotFoundException("No driver for " + deviceId);
+            }
             Driver driver = new TestDriver();
             return new DefaultDriverHandler(new DefaultDriverData(driver, id1));
         }
@@ -187,9 +224,10 @@ public class FlowObjectiveManagerTest {
         manager.driverService = new TestDriverService();
         manager.cfgService = new TestComponentConfigService();
 
-        filteringObjectives = new ArrayList<>();
-        forwardingObjectives = new ArrayList<>();
-        nextObjectives = new ArrayList<>();
+        filteringObjectives = new CopyOnWriteArrayList<>();
+        forwardingObjectives = new CopyOnWriteArrayList<>();
+        nextObjectives = new CopyOnWriteArrayList<>();
+        forwardingPriorities = new CopyOnWriteArrayList<>();
         manager.activate();
     }
 
@@ -369,4 +407,125 @@ public class FlowObjectiveManagerTest {
         assertThat(filteringObjectives, hasSize(0));
         assertThat(nextObjectives, hasSize(0));
     }
+
+    /**
+     * Tests that the objectives of a device are passed to its pipeline in
+     * the order they were submitted.
+     */
+    @Test
+    public void forwardingObjectivesInOrder() {
+        List<Integer> priorities = IntStream.range(1, 100).boxed().collect(Collectors.toList());
+
+        priorities.forEach(priority -> manager.forward(id1, forwarding(priority)));
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(priorities.size())));
+        assertThat(forwardingPriorities, is(priorities));
+    }
+
+    /**
+     * Tests that a batch of forwarding objectives is handed to the pipeliner
+     * in order.
+     */
+    @Test
+    public void forwardingObjectivesBatch() {
+        List<Integer> priorities = IntStream.range(1, 100).boxed().collect(Collectors.toList());
+
+        List<ForwardingObjective> batch = priorities.stream()
+                .map(FlowObjectiveManagerTest::forwarding)
+                .collect(Collectors.toList());
+        manager.apply(id1, batch);
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(priorities.size())));
+        assertThat(forwardingPriorities, is(priorities));
+    }
+
+    /**
+     * Tests that the queue of a removed device is kept until its objectives
+     * have been processed.
+     */
+    @Test
+    public void deviceRemovedWithQueuedObjectives() throws TestUtilsException {
+        List<Integer> priorities = IntStream.range(1, 100).boxed().collect(Collectors.toList());
+
+        priorities.forEach(priority -> manager.forward(id1, forwarding(priority)));
+        DeviceListener listener = TestUtils.getField(manager, "deviceListener");
+        listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, d1));
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(priorities.size())));
+        assertThat(forwardingPriorities, is(priorities));
+        Map<DeviceId, ?> deviceQueues = TestUtils.getField(manager, "deviceQueues");
+        TestTools.assertAfter(RETRY_MS, () -> assertThat(deviceQueues.isEmpty(), is(true)));
+    }
+
+    /**
+     * Tests that objectives waiting for the pipeliner of their device keep
+     * their place in its queue without holding up the objectives of other
+     * devices.
+     */
+    @Test
+    public void retryWhilePipelinerMissing() {
+        manager.modified(context("numThreads", "1"));
+        devicesWithoutDriver.add(id2);
+
+        manager.forward(id2, forwarding(1));
+        manager.forward(id2, forwarding(2));
+        manager.forward(id1, forwarding(10));
+
+        // The only worker is not held by the objectives waiting for a driver
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingPriorities, is(ImmutableList.of(10))));
+
+        devicesWithoutDriver.remove(id2);
+        TestTools.assertAfter((int) FlowObjectiveManager.INSTALL_RETRY_INTERVAL + RETRY_MS, () ->
+                assertThat(forwardingPriorities, is(ImmutableList.of(10, 1, 2))));
+        assertThat(forwardingObjectives, is(ImmutableList.of("of:d1", "of:d2", "of:d2")));
+    }
+
+    /**
+     * Tests that no more than the configured number of objectives of a
+     * device are processed at a time.
+     */
+    @Test
+    public void maxInFlightPerDevice() {
+        manager.modified(context("numThreads", "4", "maxInFlightPerDevice", "2"));
+        forwardGate = new CountDownLatch(1);
+
+        IntStream.range(1, 4).forEach(priority -> manager.forward(id1, forwarding(priority)));
+
+        TestTools.assertAfter(RETRY_MS, () -> assertThat(forwarding.get(), is(2)));
+        // The third objective stays queued while the first two are processed
+        TestTools.assertAfter(RETRY_MS, RETRY_MS, () -> assertThat(forwarding.get(), is(2)));
+
+        forwardGate.countDown();
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingPriorities, hasSize(3)));
+        assertThat(maxForwarding.get(), is(2));
+    }
+
+    private static ForwardingObjective forwarding(int priority) {
+        return DefaultForwardingObjective.builder()
+                .fromApp(NetTestTools.APP_ID)
+                .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                .withSelector(DefaultTrafficSelector.emptySelector())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(priority)
+                .makePermanent()
+                .add();
+    }
+
+    private static ComponentContextAdapter context(String... keysAndValues) {
+        return new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                for (int i = 0; i < keysAndValues.length; i += 2) {
+                    props.put(keysAndValues[i], keysAndValues[i + 1]);
+                }
+                return props;
+            }
+        };
+    }
 }
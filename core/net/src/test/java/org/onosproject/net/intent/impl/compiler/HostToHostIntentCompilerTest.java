@@ -48,6 +48,7 @@ import org.onosproject.net.resource.MockResourceService;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 
 import java.util.Collections;
 import java.util.List;
@@ -175,6 +176,7 @@ public class HostToHostIntentCompilerTest extends AbstractIntentTest {
                                                   ResourceService resourceService) {
         HostToHostIntentCompiler compiler =
                 new HostToHostIntentCompiler();
+        compiler.topologyService = new TopologyServiceAdapter();
         compiler.pathService = new IntentTestsMocks.MockPathService(hops);
         compiler.hostService = mockHostService;
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.common.DefaultTopology;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Path;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
+
+/**
+ * Unit tests for the path cache of intent compilers.
+ */
+public class PathCacheTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final DeviceId D1 = deviceId("of:1");
+    private static final DeviceId D2 = deviceId("of:2");
+    private static final LinkWeigher WEIGHER = adapt(edge -> 1.0);
+
+    private final AtomicInteger computed = new AtomicInteger();
+    private final Supplier<Set<Path>> loader = () -> {
+        computed.incrementAndGet();
+        return ImmutableSet.of();
+    };
+
+    private PathCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new PathCache();
+    }
+
+    private Topology topology() {
+        return new DefaultTopology(PID, new DefaultGraphDescription(1, 1, ImmutableSet.of(), ImmutableSet.of()));
+    }
+
+    /**
+     * Tests that paths are computed once per topology.
+     */
+    @Test
+    public void cachedPerTopology() {
+        Topology topology = topology();
+        Set<Path> paths = cache.getPaths(topology, D1, D2, WEIGHER, loader);
+        assertSame(paths, cache.getPaths(topology, D1, D2, WEIGHER, loader));
+        assertEquals(1, computed.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+
+        cache.getPaths(topology, D2, D1, WEIGHER, loader);
+        cache.getPaths(topology, D1, D2, adapt(edge -> 2.0), loader);
+        assertEquals(3, computed.get());
+
+        cache.getPaths(topology(), D1, D2, WEIGHER, loader);
+        assertEquals(4, computed.get());
+        assertEquals(0, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    /**
+     * Tests that disjoint paths are cached separately.
+     */
+    @Test
+    public void disjointPaths() {
+        Topology topology = topology();
+        cache.getPaths(topology, D1, D2, WEIGHER, loader);
+        cache.getDisjointPaths(topology, D1, D2, WEIGHER, () -> {
+            computed.incrementAndGet();
+            return ImmutableSet.of();
+        });
+        cache.getDisjointPaths(topology, D1, D2, WEIGHER, ImmutableSet::of);
+        assertEquals(2, computed.get());
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    /**
+     * Tests that clearing the cache drops the cached paths.
+     */
+    @Test
+    public void clear() {
+        Topology topology = topology();
+        cache.getPaths(topology, D1, D2, WEIGHER, loader);
+        cache.clear();
+        assertEquals(0, cache.stats().requestCount());
+        cache.getPaths(topology, D1, D2, WEIGHER, loader);
+        assertEquals(2, computed.get());
+    }
+
+    /**
+     * Tests that nothing is cached without a topology.
+     */
+    @Test
+    public void noTopology() {
+        cache.getPaths(null, D1, D2, WEIGHER, loader);
+        cache.getPaths(null, D1, D2, WEIGHER, loader);
+        assertEquals(2, computed.get());
+        assertEquals(0, cache.stats().requestCount());
+    }
+}
@@ -15,11 +15,15 @@
  */
 package org.onosproject.net.intent.impl.compiler;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.util.Bandwidth;
 import org.onosproject.TestApplicationId;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
@@ -36,16 +40,25 @@ import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.Key;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.PointToPointIntent;
+import org.onosproject.net.intent.constraint.AnnotationConstraint;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
+import org.onosproject.net.intent.constraint.LinkTypeConstraint;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.resource.ContinuousResource;
 import org.onosproject.net.resource.MockResourceService;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -219,6 +232,7 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
     private PointToPointIntentCompiler makeCompiler(String[] hops,
                                                     ResourceService resourceService) {
         final PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.topologyService = new TopologyServiceAdapter();
         compiler.pathService = new IntentTestsMocks.MockPathService(hops);
 
         if (resourceService == null) {
@@ -582,4 +596,59 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
         assertThat(resourceAllocations, hasSize(6));
         assertEquals(expectedresourceAllocations, resourceAllocations);
     }
+
+    /**
+     * Tests that the path cache statistics are exposed as metrics while the
+     * compiler is active and that the cache is dropped on deactivation.
+     */
+    @Test
+    public void testPathCacheMetrics() {
+        String[] hops = {S1, S2, S3};
+        PointToPointIntentCompiler compiler = makeCompiler(hops);
+        Topology topology = new DefaultTopology(new ProviderId("of", "foo"),
+                new DefaultGraphDescription(1, 1, ImmutableSet.of(), ImmutableSet.of()));
+        compiler.topologyService = new TopologyServiceAdapter() {
+            @Override
+            public Topology currentTopology() {
+                return topology;
+            }
+        };
+        MetricsManager metrics = new MetricsManager();
+        compiler.metricsService = metrics;
+        compiler.activatePathCache();
+
+        PointToPointIntent intent = makeIntent(new ConnectPoint(DID_1, PORT_1),
+                                               new ConnectPoint(DID_3, PORT_2));
+        compiler.compile(intent, null);
+        compiler.compile(intent, null);
+
+        Map<String, Gauge> hits = metrics.getGauges((name, metric) -> name.endsWith("pathCacheHits"));
+        assertThat(hits.size(), is(1));
+        assertThat((Long) hits.values().iterator().next().getValue(), greaterThan(0L));
+        assertThat(metrics.getGauges((name, metric) -> name.endsWith("pathCacheMisses")).size(), is(1));
+        assertThat(metrics.getGauges((name, metric) -> name.endsWith("pathCacheHitRate")).size(), is(1));
+
+        compiler.deactivatePathCache();
+        assertThat(metrics.getGauges((name, metric) -> name.contains("pathCache")).size(), is(0));
+        assertThat((Long) hits.values().iterator().next().getValue(), is(0L));
+    }
+
+    /**
+     * Tests that only paths computed with topology based constraints are
+     * considered cacheable.
+     */
+    @Test
+    public void testTopologyBasedConstraints() {
+        PointToPointIntentCompiler compiler = makeCompiler(new String[]{S1, S2});
+        assertThat(compiler.new ConstraintBasedLinkWeigher(null).isTopologyBased(), is(true));
+        assertThat(compiler.new ConstraintBasedLinkWeigher(ImmutableList.of(
+                new LinkTypeConstraint(true, Link.Type.DIRECT),
+                new LatencyConstraint(Duration.ofMillis(10)))).isTopologyBased(), is(true));
+        assertThat(compiler.new ConstraintBasedLinkWeigher(ImmutableList.of(
+                new LinkTypeConstraint(true, Link.Type.DIRECT),
+                new BandwidthConstraint(Bandwidth.bps(10)))).isTopologyBased(), is(false));
+        // Subclasses may depend on resources even if their parent does not
+        assertThat(compiler.new ConstraintBasedLinkWeigher(ImmutableList.of(
+                new AnnotationConstraint("key", 1.0) { })).isTopologyBased(), is(false));
+    }
 }
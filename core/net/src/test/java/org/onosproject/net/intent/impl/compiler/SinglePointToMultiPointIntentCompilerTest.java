@@ -51,6 +51,7 @@ import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 
 import java.util.Collections;
 import java.util.List;
@@ -175,6 +176,8 @@ public class SinglePointToMultiPointIntentCompilerTest extends AbstractIntentTes
                 new SinglePointToMultiPointIntentCompiler();
         compiler.deviceService = new IntentTestsMocks.MockDeviceService();
 
+        compiler.topologyService = new TopologyServiceAdapter();
+
         if (pathService == null) {
             compiler.pathService = new IntentTestsMocks.Mp2MpMockPathService(hops);
         } else {
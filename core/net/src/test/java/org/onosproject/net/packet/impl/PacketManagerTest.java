@@ -20,32 +20,53 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onlab.packet.VlanId;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketContextAdapter;
+import org.onosproject.net.packet.PacketProcessorEntry;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
@@ -106,6 +127,69 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are handed only to the processors whose selector
+     * they match.
+     */
+    @Test
+    public void processorSelectors() {
+        List<String> seen = new ArrayList<>();
+        mgr.addProcessor(c -> seen.add("all"), 3);
+        mgr.addProcessor(c -> seen.add("arp"), 2,
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(c -> seen.add("dhcp"), 1,
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                 .matchUdpDst(TpPort.tpPort(UDP.DHCP_SERVER_PORT)).build());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        providerService.processPacket(context(Ethernet.TYPE_ARP, new ARP()));
+        assertEquals("incorrect processors", ImmutableList.of("arp", "all"), seen);
+
+        seen.clear();
+        UDP udp = new UDP();
+        udp.setDestinationPort(UDP.DHCP_SERVER_PORT);
+        providerService.processPacket(context(Ethernet.TYPE_IPV4,
+                                              new IPv4().setProtocol(IPv4.PROTOCOL_UDP).setPayload(udp)));
+        assertEquals("incorrect processors", ImmutableList.of("dhcp", "all"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(Ethernet.TYPE_IPV4,
+                                              new IPv4().setProtocol(IPv4.PROTOCOL_TCP).setPayload(new TCP())));
+        assertEquals("incorrect processors", ImmutableList.of("all"), seen);
+
+        List<PacketProcessorEntry> entries = mgr.getProcessors();
+        assertEquals("incorrect hits", 1, entries.get(0).invocations());
+        assertEquals("incorrect misses", 2, entries.get(0).misses());
+        assertEquals("incorrect hits", 3, entries.get(2).invocations());
+        assertEquals("incorrect misses", 0, entries.get(2).misses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedProcessorSelector() {
+        mgr.addProcessor(c -> { }, 1, DefaultTrafficSelector.builder().matchVlanId(VlanId.vlanId((short) 1)).build());
+    }
+
+    private static PacketContext context(short ethType, IPacket payload) {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(ethType);
+        eth.setPayload(payload);
+        InboundPacket inPkt = new DefaultInboundPacket(new ConnectPoint(FOO_DID, PortNumber.portNumber(1)),
+                                                       eth, ByteBuffer.allocate(0));
+        return new PacketContextAdapter(0, inPkt, null, false);
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
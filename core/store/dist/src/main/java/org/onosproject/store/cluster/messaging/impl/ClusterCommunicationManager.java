@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -247,7 +248,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
             Consumer<M> handler,
             Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        messagingService.registerHandler(subject.toString(),
+        messagingService.registerBufferHandler(subject.toString(),
                 new InternalMessageConsumer<>(decoder, handler),
                 executor);
     }
@@ -322,7 +323,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
-    private class InternalMessageConsumer<M> implements BiConsumer<Endpoint, byte[]> {
+    private class InternalMessageConsumer<M> implements BiConsumer<Endpoint, ByteBuffer> {
         private final Function<byte[], M> decoder;
         private final Consumer<M> consumer;
 
@@ -332,9 +333,10 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
 
         @Override
-        public void accept(Endpoint sender, byte[] bytes) {
+        public void accept(Endpoint sender, ByteBuffer buffer) {
+            // Only the payload is copied out of the receive buffer
             consumer.accept(timeFunction(decoder, subjectMeteringAgent, DESERIALIZING).
-                    apply(ClusterMessage.fromBytes(bytes).payload()));
+                    apply(ClusterMessage.fromBytes(buffer).payload()));
         }
     }
 }
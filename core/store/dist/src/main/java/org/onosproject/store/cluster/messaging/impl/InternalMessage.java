@@ -15,6 +15,9 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 
 /**
@@ -65,7 +68,12 @@ public abstract class InternalMessage {
     private final int preamble;
     private final HybridLogicalTime time;
     private final long id;
-    private final byte[] payload;
+    private final int payloadLength;
+    // Payload is held either as an array or as a buffer; a buffer is
+    // converted to an array, and released, the first time it is needed.
+    // Messages are handed between threads, hence the volatile fields.
+    private volatile byte[] payload;
+    private volatile ByteBuf payloadBuffer;
 
     protected InternalMessage(int preamble,
             HybridLogicalTime time,
@@ -74,9 +82,21 @@ public abstract class InternalMessage {
         this.preamble = preamble;
         this.time = time;
         this.id = id;
+        this.payloadLength = payload.length;
         this.payload = payload;
     }
 
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuf payloadBuffer) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.payloadLength = payloadBuffer.readableBytes();
+        this.payloadBuffer = payloadBuffer;
+    }
+
     public abstract Type type();
 
     public boolean isRequest() {
@@ -99,7 +119,70 @@ public abstract class InternalMessage {
         return id;
     }
 
+    /**
+     * Returns the message payload as an array, copying it out of and
+     * releasing the payload buffer if the message was built from one.
+     *
+     * @return payload bytes
+     */
     public byte[] payload() {
-        return payload;
+        byte[] bytes = payload;
+        if (bytes == null) {
+            synchronized (this) {
+                bytes = payload;
+                if (bytes == null) {
+                    ByteBuf buffer = payloadBuffer;
+                    bytes = new byte[buffer.readableBytes()];
+                    buffer.getBytes(buffer.readerIndex(), bytes);
+                    payload = bytes;
+                    release();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the message payload as a buffer without copying it.
+     * The buffer remains valid until the message is released.
+     *
+     * @return payload buffer
+     */
+    public ByteBuf payloadBuffer() {
+        ByteBuf buffer = payloadBuffer;
+        return buffer != null ? buffer : Unpooled.wrappedBuffer(payload);
+    }
+
+    /**
+     * Returns the size of the message payload.
+     *
+     * @return payload length in bytes
+     */
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    /**
+     * Releases the payload buffer, if any. Must be called once a message
+     * decoded from the network is no longer needed, unless its payload has
+     * been obtained as an array.
+     */
+    public synchronized void release() {
+        ByteBuf buffer = payloadBuffer;
+        if (buffer != null) {
+            payloadBuffer = null;
+            buffer.release();
+        }
+    }
+
+    /**
+     * Returns an object to print the payload with in string representations,
+     * without consuming the payload buffer.
+     *
+     * @return payload printer
+     */
+    protected Object payloadPrinter() {
+        byte[] bytes = payload;
+        return bytes != null ? ByteArraySizeHashPrinter.of(bytes) : payloadLength;
     }
 }
\ No newline at end of file
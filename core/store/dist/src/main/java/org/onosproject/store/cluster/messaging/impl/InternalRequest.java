@@ -17,7 +17,7 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
-import org.onlab.util.ByteArraySizeHashPrinter;
+import io.netty.buffer.ByteBuf;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
@@ -39,6 +39,17 @@ public final class InternalRequest extends InternalMessage {
         this.subject = subject;
     }
 
+    public InternalRequest(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String subject,
+                           ByteBuf payloadBuffer) {
+        super(preamble, time, id, payloadBuffer);
+        this.sender = sender;
+        this.subject = subject;
+    }
+
     @Override
     public Type type() {
         return Type.REQUEST;
@@ -59,7 +70,7 @@ public final class InternalRequest extends InternalMessage {
                 .add("id", id())
                 .add("subject", subject)
                 .add("sender", sender)
-                .add("payload", ByteArraySizeHashPrinter.of(payload()))
+                .add("payload", payloadPrinter())
                 .toString();
     }
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -50,12 +51,26 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private long messageId;
     private int contentLength;
     private byte[] content;
+    private ByteBuf contentBuffer;
     private int subjectLength;
     private String subject;
     private InternalReply.Status status;
 
+    private final Predicate<String> zeroCopy;
+
     public MessageDecoder() {
+        this(subject -> false);
+    }
+
+    /**
+     * Creates a decoder which hands over the payload of requests whose
+     * subject matches the given predicate without copying it.
+     *
+     * @param zeroCopy tells which request subjects are handled zero-copy
+     */
+    public MessageDecoder(Predicate<String> zeroCopy) {
         super(DecoderState.READ_SENDER_IP_VERSION);
+        this.zeroCopy = zeroCopy;
     }
 
     @Override
@@ -96,7 +111,12 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                 contentLength = buffer.readInt();
                 checkpoint(DecoderState.READ_CONTENT);
             case READ_CONTENT:
-                if (contentLength > 0) {
+                if (type == InternalMessage.Type.REQUEST) {
+                    // The subject, which tells whether the payload is handled
+                    // zero-copy, follows the payload; keep a slice of the
+                    // inbound buffer until it has been read.
+                    contentBuffer = buffer.readRetainedSlice(contentLength);
+                } else if (contentLength > 0) {
                     //TODO Perform a sanity check on the size before allocating
                     content = new byte[contentLength];
                     buffer.readBytes(content);
@@ -129,12 +149,27 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                         byte[] messageTypeBytes = new byte[subjectLength];
                         buffer.readBytes(messageTypeBytes);
                         subject = new String(messageTypeBytes, Charsets.UTF_8);
-                        InternalRequest message = new InternalRequest(preamble,
-                                new HybridLogicalTime(logicalTime, logicalCounter),
-                                messageId,
-                                new Endpoint(senderIp, senderPort),
-                                subject,
-                                content);
+                        InternalRequest message;
+                        if (zeroCopy.test(subject)) {
+                            // Slice is released once the request has been handled
+                            message = new InternalRequest(preamble,
+                                    new HybridLogicalTime(logicalTime, logicalCounter),
+                                    messageId,
+                                    new Endpoint(senderIp, senderPort),
+                                    subject,
+                                    contentBuffer);
+                        } else {
+                            byte[] payload = new byte[contentBuffer.readableBytes()];
+                            contentBuffer.getBytes(contentBuffer.readerIndex(), payload);
+                            contentBuffer.release();
+                            message = new InternalRequest(preamble,
+                                    new HybridLogicalTime(logicalTime, logicalCounter),
+                                    messageId,
+                                    new Endpoint(senderIp, senderPort),
+                                    subject,
+                                    payload);
+                        }
+                        contentBuffer = null;
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -163,6 +198,15 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        // Release the payload of a request which could not be completely decoded
+        if (contentBuffer != null) {
+            contentBuffer.release();
+            contentBuffer = null;
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
         log.error("Exception inside channel handling pipeline.", cause);
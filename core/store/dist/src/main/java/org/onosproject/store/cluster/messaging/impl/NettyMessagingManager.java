@@ -23,17 +23,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.MessageDigest;
 import java.security.cert.Certificate;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,6 +54,7 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
@@ -65,10 +69,12 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.WriteBufferWaterMark;
+import io.netty.util.AttributeKey;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
@@ -81,15 +87,22 @@ import org.apache.commons.math3.stat.descriptive.SynchronizedDescriptiveStatisti
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.core.HybridLogicalClockService;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.cluster.messaging.MessagingService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -113,6 +126,23 @@ public class NettyMessagingManager implements MessagingService {
     private static final int CHANNEL_POOL_SIZE = 8;
 
     private static final byte[] EMPTY_PAYLOAD = new byte[0];
+    private static final String FLUSH_SIZE = "flushSize";
+    private static final AttributeKey<Histogram> FLUSH_SIZES = AttributeKey.valueOf("flushSizes");
+
+    private static final boolean DEFAULT_WRITE_BATCHING = false;
+    @Property(name = "writeBatching", boolValue = DEFAULT_WRITE_BATCHING,
+            label = "Gather outgoing messages per channel and flush them together")
+    private boolean writeBatching = DEFAULT_WRITE_BATCHING;
+
+    private static final int DEFAULT_MAX_BATCH_MESSAGES = 64;
+    @Property(name = "maxBatchMessages", intValue = DEFAULT_MAX_BATCH_MESSAGES,
+            label = "Number of pending messages which forces a channel flush when batching")
+    private int maxBatchMessages = DEFAULT_MAX_BATCH_MESSAGES;
+
+    private static final int DEFAULT_MAX_BATCH_BYTES = 64 * 1024;
+    @Property(name = "maxBatchBytes", intValue = DEFAULT_MAX_BATCH_BYTES,
+            label = "Number of pending payload bytes which forces a channel flush when batching")
+    private int maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -128,12 +158,22 @@ public class NettyMessagingManager implements MessagingService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HybridLogicalClockService clockService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private MetricsComponent metricsComponent;
+    // Number of messages written by each flush, by peer with open channels
+    private final Map<Endpoint, PeerFlushSizes> flushSizes = Maps.newConcurrentMap();
+
     private Endpoint localEndpoint;
     private int preamble;
     private final AtomicBoolean started = new AtomicBoolean(false);
     private final Map<String, BiConsumer<InternalRequest, ServerConnection>> handlers = new ConcurrentHashMap<>();
+    // Subjects whose handlers take their payload as a buffer, without a copy
+    private final Set<String> bufferHandlers = ConcurrentHashMap.newKeySet();
     private final Map<Channel, RemoteClientConnection> clientConnections = Maps.newConcurrentMap();
     private final Map<Channel, RemoteServerConnection> serverConnections = Maps.newConcurrentMap();
+    private final Map<Channel, WriteBatcher> writeBatchers = Maps.newConcurrentMap();
     private final AtomicLong messageIdGenerator = new AtomicLong(0);
 
     private ScheduledFuture<?> timeoutFuture;
@@ -157,9 +197,13 @@ public class NettyMessagingManager implements MessagingService {
     protected ClusterMetadataService clusterMetadataService;
 
     @Activate
-    public void activate() throws Exception {
+    public void activate(ComponentContext context) throws Exception {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
+        modified(context);
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent("NettyMessaging");
+        }
 
         if (started.get()) {
             log.warn("Already running at local endpoint: {}", localEndpoint);
@@ -186,9 +230,36 @@ public class NettyMessagingManager implements MessagingService {
             timeoutExecutor.shutdown();
             started.set(false);
         }
+        flushSizes.keySet().forEach(this::removeFlushSizes);
+        flushSizes.clear();
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        Boolean flag = Tools.isPropertyEnabled(properties, "writeBatching");
+        if (flag != null) {
+            writeBatching = flag;
+        }
+
+        Integer value = Tools.getIntegerProperty(properties, "maxBatchMessages");
+        if (value != null && value > 0) {
+            maxBatchMessages = value;
+        }
+
+        value = Tools.getIntegerProperty(properties, "maxBatchBytes");
+        if (value != null && value > 0) {
+            maxBatchBytes = value;
+        }
+        log.info("Settings: writeBatching={}, maxBatchMessages={}, maxBatchBytes={}",
+                 writeBatching, maxBatchMessages, maxBatchBytes);
+    }
+
     private void getTlsParameters() {
         // default is TLS enabled unless key stores cannot be loaded
         enableNettyTls = Boolean.parseBoolean(System.getProperty("enableNettyTLS", Boolean.toString(TLS_ENABLED)));
@@ -434,13 +505,28 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlers.remove(type);
         handlers.put(type, (message, connection) -> executor.execute(() ->
                 handler.accept(message.sender(), message.payload())));
     }
 
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, (message, connection) -> executor.execute(() -> {
+            try {
+                handler.accept(message.sender(), message.payloadBuffer().nioBuffer().asReadOnlyBuffer());
+            } finally {
+                message.release();
+            }
+        }));
+        bufferHandlers.add(type);
+    }
+
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlers.remove(type);
         handlers.put(type, (message, connection) -> executor.execute(() -> {
             byte[] responsePayload = null;
             InternalReply.Status status = InternalReply.Status.OK;
@@ -457,6 +543,7 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlers.remove(type);
         handlers.put(type, (message, connection) -> {
             handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
                 InternalReply.Status status;
@@ -475,6 +562,7 @@ public class NettyMessagingManager implements MessagingService {
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
         handlers.remove(type);
+        bufferHandlers.remove(type);
     }
 
     private Bootstrap bootstrapClient(Endpoint endpoint) {
@@ -534,6 +622,7 @@ public class NettyMessagingManager implements MessagingService {
 
         f.addListener(future -> {
             if (future.isSuccess()) {
+                trackFlushSizes(ep, f.channel());
                 retFuture.complete(f.channel());
             } else {
                 retFuture.completeExceptionally(future.cause());
@@ -543,6 +632,54 @@ public class NettyMessagingManager implements MessagingService {
         return retFuture;
     }
 
+    /**
+     * Attaches the flush size histogram of the given peer to a channel open
+     * to it. The histogram is registered when the first channel to the peer
+     * opens and removed once the last one closes.
+     *
+     * @param peer    remote endpoint of the channel
+     * @param channel channel to the peer
+     */
+    private void trackFlushSizes(Endpoint peer, Channel channel) {
+        if (metricsComponent == null) {
+            return;
+        }
+        PeerFlushSizes sizes = flushSizes.compute(peer, (ep, existing) -> {
+            PeerFlushSizes s = existing != null ? existing : new PeerFlushSizes(
+                    metricsService.createHistogram(metricsComponent, flushSizesFeature(ep), FLUSH_SIZE));
+            s.channels++;
+            return s;
+        });
+        channel.attr(FLUSH_SIZES).set(sizes.histogram);
+        channel.closeFuture().addListener(f -> flushSizes.computeIfPresent(peer, (ep, s) -> {
+            if (--s.channels > 0) {
+                return s;
+            }
+            removeFlushSizes(ep);
+            return null;
+        }));
+    }
+
+    private void removeFlushSizes(Endpoint peer) {
+        metricsService.removeMetric(metricsComponent, flushSizesFeature(peer), FLUSH_SIZE);
+    }
+
+    private MetricsFeature flushSizesFeature(Endpoint peer) {
+        return metricsComponent.registerFeature("writeBatching-" + peer.host() + ":" + peer.port());
+    }
+
+    /**
+     * Flush size histogram of a peer and the number of channels open to it.
+     */
+    private static final class PeerFlushSizes {
+        private final Histogram histogram;
+        private int channels;
+
+        private PeerFlushSizes(Histogram histogram) {
+            this.histogram = histogram;
+        }
+    }
+
     /**
      * Channel initializer for TLS servers.
      */
@@ -564,7 +701,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(serverSslEngine))
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlers::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -589,7 +726,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(clientSslEngine))
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlers::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -604,7 +741,7 @@ public class NettyMessagingManager implements MessagingService {
         protected void initChannel(SocketChannel channel) throws Exception {
             channel.pipeline()
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlers::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -632,6 +769,7 @@ public class NettyMessagingManager implements MessagingService {
                 }
             } catch (RejectedExecutionException e) {
                 log.warn("Unable to dispatch message due to {}", e.getMessage());
+                message.release();
             }
         }
 
@@ -665,6 +803,77 @@ public class NettyMessagingManager implements MessagingService {
         }
     }
 
+    /**
+     * Writes a message to the given channel, either flushing it right away or
+     * handing it to the channel's write batcher when batching is enabled.
+     *
+     * @param channel the channel to write to
+     * @param message the message to write
+     * @return future completed once the message has been written
+     */
+    private ChannelFuture write(Channel channel, InternalMessage message) {
+        if (!writeBatching) {
+            return channel.writeAndFlush(message);
+        }
+        WriteBatcher batcher = writeBatchers.computeIfAbsent(channel, c -> {
+            c.closeFuture().addListener(f -> writeBatchers.remove(c));
+            return new WriteBatcher(c);
+        });
+        return batcher.write(message);
+    }
+
+    /**
+     * Gathers the messages written to a channel and flushes them together,
+     * either once a message or byte threshold is reached or on the next
+     * event loop tick, whichever comes first.
+     */
+    private final class WriteBatcher {
+        private final Channel channel;
+        // Only accessed from the channel event loop
+        private int pendingMessages;
+        private long pendingBytes;
+        private boolean flushScheduled;
+
+        WriteBatcher(Channel channel) {
+            this.channel = channel;
+        }
+
+        ChannelFuture write(InternalMessage message) {
+            ChannelPromise promise = channel.newPromise();
+            if (channel.eventLoop().inEventLoop()) {
+                enqueue(message, promise);
+            } else {
+                channel.eventLoop().execute(() -> enqueue(message, promise));
+            }
+            return promise;
+        }
+
+        private void enqueue(InternalMessage message, ChannelPromise promise) {
+            channel.write(message, promise);
+            pendingMessages++;
+            pendingBytes += message.payloadLength();
+            if (pendingMessages >= maxBatchMessages || pendingBytes >= maxBatchBytes) {
+                flush();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                channel.eventLoop().execute(this::flush);
+            }
+        }
+
+        private void flush() {
+            flushScheduled = false;
+            if (pendingMessages > 0) {
+                Histogram histogram = channel.attr(FLUSH_SIZES).get();
+                if (histogram != null) {
+                    histogram.update(pendingMessages);
+                }
+                pendingMessages = 0;
+                pendingBytes = 0;
+                channel.flush();
+            }
+        }
+    }
+
     /**
      * Wraps a {@link CompletableFuture} and tracks its type and creation time.
      */
@@ -843,7 +1052,7 @@ public class NettyMessagingManager implements MessagingService {
         @Override
         public CompletableFuture<Void> sendAsync(InternalRequest message) {
             CompletableFuture<Void> future = new CompletableFuture<>();
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            write(channel, message).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     future.completeExceptionally(channelFuture.cause());
                 } else {
@@ -858,7 +1067,7 @@ public class NettyMessagingManager implements MessagingService {
             CompletableFuture<byte[]> future = new CompletableFuture<>();
             Callback callback = new Callback(message.subject(), future);
             futures.put(message.id(), callback);
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            write(channel, message).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     futures.remove(message.id());
                     callback.completeExceptionally(channelFuture.cause());
@@ -921,6 +1130,8 @@ public class NettyMessagingManager implements MessagingService {
      */
     private final class RemoteServerConnection implements ServerConnection {
         private final Channel channel;
+        // Peer endpoint, known once it has sent a valid request
+        private Endpoint peer;
 
         RemoteServerConnection(Channel channel) {
             this.channel = channel;
@@ -934,17 +1145,23 @@ public class NettyMessagingManager implements MessagingService {
         private void dispatch(InternalRequest message) {
             if (message.preamble() != preamble) {
                 log.debug("Received {} with invalid preamble from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.PROTOCOL_EXCEPTION, Optional.empty());
                 return;
             }
 
             clockService.recordEventTime(message.time());
+            if (peer == null) {
+                peer = message.sender();
+                trackFlushSizes(peer, channel);
+            }
 
             BiConsumer<InternalRequest, ServerConnection> handler = handlers.get(message.subject());
             if (handler != null) {
                 handler.accept(message, this);
             } else {
                 log.debug("No handler for message type {} from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.ERROR_NO_HANDLER, Optional.empty());
             }
         }
@@ -956,7 +1173,7 @@ public class NettyMessagingManager implements MessagingService {
                     message.id(),
                     payload.orElse(EMPTY_PAYLOAD),
                     status);
-            channel.writeAndFlush(response);
+            write(channel, response);
         }
     }
 
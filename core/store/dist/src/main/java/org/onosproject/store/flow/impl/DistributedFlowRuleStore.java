@@ -15,33 +15,47 @@
  */
 package org.onosproject.store.flow.impl;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
+import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.CoreService;
@@ -70,23 +84,21 @@ import org.onosproject.net.flow.TableStatisticsEntry;
 import org.onosproject.store.AbstractStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoService;
 import org.onosproject.store.impl.MastershipBasedTimestamp;
 import org.onosproject.store.serializers.KryoNamespaces;
-import org.onosproject.store.service.AsyncDocumentTree;
-import org.onosproject.store.service.DocumentPath;
-import org.onosproject.store.service.DocumentTree;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.EventuallyConsistentMapListener;
-import org.onosproject.store.service.IllegalDocumentModificationException;
-import org.onosproject.store.service.NoSuchDocumentPathException;
 import org.onosproject.store.service.Serializer;
-import org.onosproject.store.service.StorageException;
 import org.onosproject.store.service.StorageService;
-import org.onosproject.store.service.Versioned;
 import org.onosproject.store.service.WallClockTimestamp;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_UPDATED;
@@ -94,6 +106,13 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Manages inventory of flow rules using a distributed state management protocol.
+ * <p>
+ * Flow entries are sharded by device. The master of a device owns the
+ * authoritative copy of its flow table and applies all writes to it locally;
+ * the table is then replicated asynchronously to the device's backup nodes.
+ * Other nodes forward reads and removals to the master; reads fall back to
+ * their backup copy if the master cannot be reached, while removals are
+ * queued and retried until the master takes them.
  */
 @Component(immediate = true)
 @Service
@@ -103,24 +122,20 @@ public class DistributedFlowRuleStore
 
     private final Logger log = getLogger(getClass());
 
-    // Constant exception used to indicate an atomic read-modify-write operation needs to be retried.
-    // We don't want to populate a stack trace every time an optimistic lock is retried.
-    private static final StorageException.ConcurrentModification RETRY;
-
-    // Initialize retry exception with an empty stack trace.
-    static {
-        RETRY = new StorageException.ConcurrentModification();
-        RETRY.setStackTrace(new StackTraceElement[0]);
-    }
-
-    private static final int SCHEDULED_THREAD_POOL_SIZE = 8;
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 8;
-    private static final int MAX_RETRY_DELAY_MILLIS = 50;
-
-    private static final String FLOW_TABLE = "onos-flow-table";
+    private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
+    private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
 
     private static final MessageSubject APPLY_BATCH_FLOWS = new MessageSubject("onos-flow-apply");
     private static final MessageSubject COMPLETE_BATCH = new MessageSubject("onos-flow-batch-complete");
+    private static final MessageSubject GET_FLOW_ENTRY = new MessageSubject("onos-flow-get");
+    private static final MessageSubject GET_DEVICE_FLOW_ENTRIES = new MessageSubject("onos-flow-device-get");
+    private static final MessageSubject REMOVE_FLOW_ENTRY = new MessageSubject("onos-flow-remove");
+    private static final MessageSubject FLOW_TABLE_BACKUP = new MessageSubject("onos-flow-backup");
+
+    @Property(name = "backupPeriod", intValue = DEFAULT_BACKUP_PERIOD_MILLIS,
+            label = "Delay in ms between successive backups of device flow tables")
+    private int backupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
@@ -131,6 +146,9 @@ public class DistributedFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected MastershipService mastershipService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ReplicaInfoService replicaInfoManager;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterCommunicationService clusterCommunicator;
 
@@ -140,7 +158,10 @@ public class DistributedFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
-    protected final Serializer serializer = Serializer.using(KryoNamespaces.API);
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    protected final Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableBackup.class);
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
             .register(KryoNamespaces.API)
@@ -150,25 +171,25 @@ public class DistributedFlowRuleStore
     private final EventuallyConsistentMapListener<DeviceId, List<TableStatisticsEntry>> tableStatsListener =
             new InternalTableStatsListener();
 
+    private final InternalFlowTable flowTable = new InternalFlowTable();
+
     private Set<Long> pendingBatches = Sets.newConcurrentHashSet();
-    private ScheduledExecutorService scheduledExecutor;
+    private final Set<FlowEntry> pendingRemovals = Sets.newConcurrentHashSet();
+    private ScheduledExecutorService backupExecutor;
+    private ScheduledFuture<?> backupTask;
     private ExecutorService messageHandlingExecutor;
-    private final Random random = new Random();
-
-    private AsyncDocumentTree<Map<StoredFlowEntry, StoredFlowEntry>> asyncFlows;
-    private DocumentTree<Map<StoredFlowEntry, StoredFlowEntry>> flows;
     private IdGenerator idGenerator;
     private NodeId local;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
         idGenerator = coreService.getIdGenerator(FlowRuleService.FLOW_OP_TOPIC);
 
         local = clusterService.getLocalNode().id();
 
-        scheduledExecutor = Executors.newScheduledThreadPool(
-                SCHEDULED_THREAD_POOL_SIZE,
-                groupedThreads("onos/store/flow", "schedulers", log));
+        backupExecutor = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/store/flow", "backup", log));
 
         messageHandlingExecutor = Executors.newFixedThreadPool(
                 MESSAGE_HANDLER_THREAD_POOL_SIZE,
@@ -183,12 +204,6 @@ public class DistributedFlowRuleStore
                 .build();
         deviceTableStats.addListener(tableStatsListener);
 
-        asyncFlows = storageService.<Map<StoredFlowEntry, StoredFlowEntry>>documentTreeBuilder()
-                .withName(FLOW_TABLE)
-                .withSerializer(serializer)
-                .buildDocumentTree();
-        flows = asyncFlows.asDocumentTree();
-
         clusterCommunicator.addSubscriber(
                 APPLY_BATCH_FLOWS,
                 serializer::decode,
@@ -199,96 +214,79 @@ public class DistributedFlowRuleStore
                 serializer::decode,
                 this::completeBatch,
                 messageHandlingExecutor);
+        clusterCommunicator.<FlowRule, FlowEntry>addSubscriber(
+                GET_FLOW_ENTRY,
+                serializer::decode,
+                flowTable::getFlowEntry,
+                serializer::encode,
+                messageHandlingExecutor);
+        clusterCommunicator.<DeviceId, Set<FlowEntry>>addSubscriber(
+                GET_DEVICE_FLOW_ENTRIES,
+                serializer::decode,
+                flowTable::getFlowEntries,
+                serializer::encode,
+                messageHandlingExecutor);
+        clusterCommunicator.<FlowEntry, FlowRuleEvent>addSubscriber(
+                REMOVE_FLOW_ENTRY,
+                serializer::decode,
+                this::removeFlowRuleInternal,
+                serializer::encode,
+                messageHandlingExecutor);
+        clusterCommunicator.<Map<DeviceId, FlowTableBackup>, Set<DeviceId>>addSubscriber(
+                FLOW_TABLE_BACKUP,
+                serializer::decode,
+                flowTable::onBackupReceipt,
+                serializer::encode,
+                messageHandlingExecutor);
 
+        modified(context);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         deviceTableStats.removeListener(tableStatsListener);
         deviceTableStats.destroy();
         clusterCommunicator.removeSubscriber(APPLY_BATCH_FLOWS);
         clusterCommunicator.removeSubscriber(COMPLETE_BATCH);
+        clusterCommunicator.removeSubscriber(GET_FLOW_ENTRY);
+        clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_ENTRIES);
+        clusterCommunicator.removeSubscriber(REMOVE_FLOW_ENTRY);
+        clusterCommunicator.removeSubscriber(FLOW_TABLE_BACKUP);
         messageHandlingExecutor.shutdownNow();
-        scheduledExecutor.shutdownNow();
+        backupExecutor.shutdownNow();
         log.info("Stopped");
     }
 
-    /**
-     * Retries the given supplier until successful.
-     * <p>
-     * This method retries the given supplier until no {@code ConcurrentModification} exceptions are thrown. In
-     * between retries, it waits a semi-random interval to attempt to avoid transaction conflicts with other processes.
-     *
-     * @param supplier the supplier to retry
-     * @param <T> the return type
-     * @return the return value of the given supplier once it runs successfully
-     */
-    private <T> T retryUntilSuccess(Supplier<T> supplier) {
-        return Tools.retryable(
-                supplier,
-                StorageException.ConcurrentModification.class,
-                Integer.MAX_VALUE,
-                MAX_RETRY_DELAY_MILLIS)
-                .get();
-    }
+    @Modified
+    public void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new Properties();
 
-    /**
-     * Retries the given asynchronous supplier until successful.
-     * <p>
-     * This method retries the given supplier until no {@code ConcurrentModification} exceptions are thrown. In
-     * between retries, it waits a semi-random interval to attempt to avoid transaction conflicts with other processes.
-     *
-     * @param supplier the supplier to retry
-     * @param <T> the return type
-     * @return the return value of the given supplier once it runs successfully
-     */
-    private <T> CompletableFuture<T> retryAsyncUntilSuccess(Supplier<CompletableFuture<T>> supplier) {
-        return retryAsyncUntilSuccess(supplier, new CompletableFuture<>());
-    }
+        int newBackupPeriod;
+        try {
+            String s = get(properties, "backupPeriod");
+            newBackupPeriod = isNullOrEmpty(s) ? backupPeriod : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid backupPeriod, keeping current value of {}", backupPeriod);
+            newBackupPeriod = backupPeriod;
+        }
+        if (newBackupPeriod < 1) {
+            log.warn("backupPeriod must be positive, keeping current value of {}", backupPeriod);
+            newBackupPeriod = backupPeriod;
+        }
 
-    /**
-     * Retries the given asynchronous supplier until successful.
-     * <p>
-     * This method retries the given supplier until no {@code ConcurrentModification} exceptions are thrown. In
-     * between retries, it waits a semi-random interval to attempt to avoid transaction conflicts with other processes.
-     *
-     * @param supplier the supplier to retry
-     * @param future future to be completed once the operation has been successful
-     * @param <T> the return type
-     * @return the return value of the given supplier once it runs successfully
-     */
-    private <T> CompletableFuture<T> retryAsyncUntilSuccess(
-            Supplier<CompletableFuture<T>> supplier,
-            CompletableFuture<T> future) {
-        supplier.get().whenComplete((result, error) -> {
-            if (error == null) {
-                future.complete(result);
-            } else {
-                Throwable cause = error.getCause() != null ? error.getCause() : error;
-                if (cause instanceof StorageException.ConcurrentModification) {
-                    scheduledExecutor.schedule(
-                            () -> retryAsyncUntilSuccess(supplier, future),
-                            random.nextInt(50),
-                            TimeUnit.MILLISECONDS);
-                } else {
-                    future.completeExceptionally(error);
-                }
+        if (backupTask == null || newBackupPeriod != backupPeriod) {
+            if (backupTask != null) {
+                backupTask.cancel(false);
             }
-        });
-        return future;
-    }
-
-    /**
-     * Return method for {@link #retryUntilSuccess(Supplier)} callbacks to indicate that the callback needs to be
-     * retried after a randomized delay.
-     *
-     * @param <T> the return type
-     * @return nothing
-     * @throws StorageException.ConcurrentModification to force a retry of the callback
-     */
-    private <T> T retry() {
-        throw RETRY;
+            backupPeriod = newBackupPeriod;
+            backupTask = backupExecutor.scheduleWithFixedDelay(this::backup,
+                                                               backupPeriod,
+                                                               backupPeriod,
+                                                               TimeUnit.MILLISECONDS);
+        }
+        log.info("Settings: backupPeriod={}", backupPeriod);
     }
 
     /**
@@ -315,55 +313,55 @@ public class DistributedFlowRuleStore
     }
 
     /**
-     * Returns the {@link DocumentPath} for the given {@link DeviceId}.
+     * Returns the master for the given device if it is a remote node.
      *
-     * @param deviceId the device identifier for which to return a path
-     * @return the path for the given device
+     * @param deviceId device identifier
+     * @return remote master or null if this node is the master or there is none
      */
-    private DocumentPath getPathFor(DeviceId deviceId) {
-        return DocumentPath.from("root", deviceId.toString());
-    }
-
-    /**
-     * Returns the {@link DocumentPath} for the given {@link DeviceId} and {@link FlowId}.
-     *
-     * @param deviceId the device identifier for which to return the path
-     * @param flowId the flow identifier for which to return the path
-     * @return the path for the given device/flow
-     */
-    private DocumentPath getPathFor(DeviceId deviceId, FlowId flowId) {
-        return DocumentPath.from("root", deviceId.toString(), flowId.toString());
+    private NodeId remoteMasterFor(DeviceId deviceId) {
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        return master == null || Objects.equals(local, master) ? null : master;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public FlowEntry getFlowEntry(FlowRule rule) {
-        DocumentPath path = getPathFor(rule.deviceId(), rule.id());
-        Versioned<Map<StoredFlowEntry, StoredFlowEntry>> flowEntries = flows.get(path);
-        return flowEntries != null ? flowEntries.value().get(rule) : null;
+        NodeId master = remoteMasterFor(rule.deviceId());
+        if (master == null) {
+            return flowTable.getFlowEntry(rule);
+        }
+
+        log.trace("Forwarding getFlowEntry to {}, which is the primary (master) for device {}",
+                  master, rule.deviceId());
+        return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(rule,
+                                                                        GET_FLOW_ENTRY,
+                                                                        serializer::encode,
+                                                                        serializer::decode,
+                                                                        master),
+                                     FLOW_RULE_STORE_TIMEOUT_MILLIS,
+                                     TimeUnit.MILLISECONDS,
+                                     flowTable.getFlowEntry(rule));
     }
 
     @Override
     public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId) {
-        DocumentPath path = getPathFor(deviceId);
-        try {
-            return getFlowEntries(path);
-        } catch (NoSuchDocumentPathException e) {
-            return Collections.emptyList();
+        NodeId master = remoteMasterFor(deviceId);
+        if (master == null) {
+            return flowTable.getFlowEntries(deviceId);
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    private Iterable<FlowEntry> getFlowEntries(DocumentPath path) {
-        return flows.getChildren(path)
-                .values()
-                .stream()
-                .flatMap(v -> v.value().values().stream())
-                .collect(Collectors.toList());
+        log.trace("Forwarding getFlowEntries to {}, which is the primary (master) for device {}",
+                  master, deviceId);
+        return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(deviceId,
+                                                                        GET_DEVICE_FLOW_ENTRIES,
+                                                                        serializer::encode,
+                                                                        serializer::decode,
+                                                                        master),
+                                     FLOW_RULE_STORE_TIMEOUT_MILLIS,
+                                     TimeUnit.MILLISECONDS,
+                                     flowTable.getFlowEntries(deviceId));
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void storeFlowRule(FlowRule rule) {
         storeBatch(new FlowRuleBatchOperation(
                 Collections.singletonList(new FlowRuleBatchEntry(FlowRuleOperation.ADD, rule)),
@@ -385,11 +383,10 @@ public class DistributedFlowRuleStore
         if (master == null) {
             log.warn("No master for {} ", deviceId);
 
-            updateStoreInternal(operation).whenComplete((result, error) -> {
-                notifyDelegate(FlowRuleBatchEvent.completed(
-                        new FlowRuleBatchRequest(operation.id(), Collections.emptySet()),
-                        new CompletedBatchOperation(true, Collections.emptySet(), operation.deviceId())));
-            });
+            updateStoreInternal(operation);
+            notifyDelegate(FlowRuleBatchEvent.completed(
+                    new FlowRuleBatchRequest(operation.id(), Collections.emptySet()),
+                    new CompletedBatchOperation(true, Collections.emptySet(), operation.deviceId())));
             return;
         }
 
@@ -409,136 +406,46 @@ public class DistributedFlowRuleStore
     }
 
     /**
-     * Asynchronously applies a batch of flows to the store.
+     * Applies a batch of flows to the store.
      * <p>
-     * This operation is performed on the master node to ensure that events occur <em>after</em> flows have been stored
-     * and are visible to the master node. If a non-master node stores flows and then triggers events on the master,
-     * the flows may not yet be visible to the master node due to the nature of sequentially consistent reads on the
-     * underlying {@code DocumentTree} primitive.
+     * This operation is performed on the master node, which owns the flow
+     * table of the device, so that events occur <em>after</em> flows have
+     * been stored and are visible to the master node.
      */
     private void applyBatchFlows(FlowRuleBatchOperation operation) {
-        updateStoreInternal(operation).whenComplete((operations, error) -> {
-            if (error == null) {
-                if (operations.isEmpty()) {
-                    batchOperationComplete(FlowRuleBatchEvent.completed(
-                            new FlowRuleBatchRequest(operation.id(), Collections.emptySet()),
-                            new CompletedBatchOperation(true, Collections.emptySet(), operation.deviceId())));
-                } else {
-                    notifyDelegate(FlowRuleBatchEvent.requested(
-                            new FlowRuleBatchRequest(operation.id(), operations),
-                            operation.deviceId()));
-                }
-            }
-        });
+        Set<FlowRuleBatchEntry> operations = updateStoreInternal(operation);
+        if (operations.isEmpty()) {
+            batchOperationComplete(FlowRuleBatchEvent.completed(
+                    new FlowRuleBatchRequest(operation.id(), Collections.emptySet()),
+                    new CompletedBatchOperation(true, Collections.emptySet(), operation.deviceId())));
+        } else {
+            notifyDelegate(FlowRuleBatchEvent.requested(
+                    new FlowRuleBatchRequest(operation.id(), operations),
+                    operation.deviceId()));
+        }
     }
 
-    private CompletableFuture<Set<FlowRuleBatchEntry>> updateStoreInternal(FlowRuleBatchOperation operation) {
-        return Tools.allOf(operation.getOperations().stream().map(op -> {
+    private Set<FlowRuleBatchEntry> updateStoreInternal(FlowRuleBatchOperation operation) {
+        return operation.getOperations().stream().map(op -> {
             switch (op.operator()) {
                 case ADD:
-                    return addBatchEntry(op).thenApply(succeeded -> succeeded ? op : null);
+                    StoredFlowEntry entry = new DefaultFlowEntry(op.target());
+                    flowTable.add(entry);
+                    log.trace("Stored new flow rule: {}", entry);
+                    return op;
                 case REMOVE:
-                    return removeBatchEntry(op).thenApply(succeeded -> succeeded ? op : null);
+                    return flowTable.update(op.target(), stored -> {
+                        stored.setState(FlowEntryState.PENDING_REMOVE);
+                        log.trace("Updated flow rule state to PENDING_REMOVE: {}", stored);
+                        return op;
+                    });
                 case MODIFY:
-                    return CompletableFuture.<FlowRuleBatchEntry>completedFuture(null);
+                    return null;
                 default:
                     log.warn("Unknown flow operation operator: {}", op.operator());
-                    return CompletableFuture.<FlowRuleBatchEntry>completedFuture(null);
+                    return null;
             }
-        }).collect(Collectors.toList()))
-                .thenApply(results -> results.stream()
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toSet()));
-    }
-
-    @SuppressWarnings("unchecked")
-    private CompletableFuture<Boolean> addBatchEntry(FlowRuleBatchEntry batchEntry) {
-        StoredFlowEntry entry = new DefaultFlowEntry(batchEntry.target());
-        DocumentPath path = getPathFor(entry.deviceId(), entry.id());
-        return retryAsyncUntilSuccess(() -> {
-            CompletableFuture<Boolean> future = new CompletableFuture<>();
-            asyncFlows.get(path).whenComplete((value, getError) -> {
-                if (getError == null) {
-                    if (value != null) {
-                        Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newHashMap(value.value());
-                        entries.put(entry, entry);
-                        asyncFlows.replace(path, entries, value.version()).whenComplete((succeeded, replaceError) -> {
-                            if (replaceError == null) {
-                                if (succeeded) {
-                                    log.trace("Stored new flow rule: {}", entry);
-                                    future.complete(true);
-                                } else {
-                                    log.trace("Failed to store new flow rule: {}", entry);
-                                    future.completeExceptionally(RETRY);
-                                }
-                            } else {
-                                future.completeExceptionally(replaceError);
-                            }
-                        });
-                    } else {
-                        // If there are no entries stored for the device, initialize the device's flows.
-                        Map<StoredFlowEntry, StoredFlowEntry> map = Maps.newHashMap();
-                        map.put(entry, entry);
-                        asyncFlows.createRecursive(path, map).whenComplete((succeeded, createError) -> {
-                            if (createError == null) {
-                                if (succeeded) {
-                                    log.trace("Stored new flow rule: {}", entry);
-                                    future.complete(true);
-                                } else {
-                                    log.trace("Failed to store new flow rule: {}", entry);
-                                    future.completeExceptionally(RETRY);
-                                }
-                            } else {
-                                future.completeExceptionally(createError);
-                            }
-                        });
-                    }
-                } else {
-                    future.completeExceptionally(getError);
-                }
-            });
-            return future;
-        });
-    }
-
-    @SuppressWarnings("unchecked")
-    private CompletableFuture<Boolean> removeBatchEntry(FlowRuleBatchEntry batchEntry) {
-        FlowRule rule = batchEntry.target();
-        DocumentPath path = getPathFor(rule.deviceId(), rule.id());
-        return retryAsyncUntilSuccess(() -> {
-            CompletableFuture<Boolean> future = new CompletableFuture<>();
-            asyncFlows.get(path).whenComplete((value, getError) -> {
-                if (getError == null) {
-                    if (value != null) {
-                        Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newHashMap(value.value());
-                        StoredFlowEntry entry = entries.get(rule);
-                        if (entry != null) {
-                            entry.setState(FlowEntryState.PENDING_REMOVE);
-                            asyncFlows.replace(path, entries, value.version()).whenComplete((succeeded, error) -> {
-                                if (error == null) {
-                                    if (succeeded) {
-                                        log.trace("Updated flow rule state to PENDING_REMOVE: {}", entry);
-                                        future.complete(true);
-                                    } else {
-                                        log.trace("Failed to update flow rule state to PENDING_REMOVE: {}", entry);
-                                        future.completeExceptionally(RETRY);
-                                    }
-                                } else {
-                                    future.completeExceptionally(error);
-                                }
-                            });
-                        } else {
-                            future.complete(false);
-                        }
-                    } else {
-                        future.complete(false);
-                    }
-                } else {
-                    future.completeExceptionally(getError);
-                }
-            });
-            return future;
-        });
+        }).filter(Objects::nonNull).collect(Collectors.toSet());
     }
 
     @Override
@@ -562,137 +469,143 @@ public class DistributedFlowRuleStore
 
     @Override
     public FlowRuleEvent pendingFlowRule(FlowEntry rule) {
-        DocumentPath path = getPathFor(rule.deviceId(), rule.id());
-        return retryUntilSuccess(() -> {
-            Versioned<Map<StoredFlowEntry, StoredFlowEntry>> value = flows.get(path);
-            if (value != null) {
-                Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newHashMap(value.value());
-                StoredFlowEntry entry = entries.get(rule);
-                if (entry != null && entry.state() != FlowEntryState.PENDING_ADD) {
-                    entry.setState(FlowEntryState.PENDING_ADD);
-                    if (flows.replace(path, entries, value.version())) {
-                        log.trace("Updated flow rule state to PENDING_ADD: {}", entry);
-                        return new FlowRuleEvent(RULE_UPDATED, rule);
-                    } else {
-                        log.trace("Failed to update flow rule state to PENDING_ADD: {}", entry);
-                        return retry();
-                    }
-                } else {
-                    return null;
-                }
-            } else {
+        if (remoteMasterFor(rule.deviceId()) != null) {
+            return null;
+        }
+        return flowTable.update(rule, entry -> {
+            if (entry.state() == FlowEntryState.PENDING_ADD) {
                 return null;
             }
+            entry.setState(FlowEntryState.PENDING_ADD);
+            log.trace("Updated flow rule state to PENDING_ADD: {}", entry);
+            return new FlowRuleEvent(RULE_UPDATED, rule);
         });
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule) {
-        DocumentPath path = getPathFor(rule.deviceId(), rule.id());
-        return retryUntilSuccess(() -> {
-            Versioned<Map<StoredFlowEntry, StoredFlowEntry>> value = flows.get(path);
-            if (value != null) {
-                Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newHashMap(value.value());
-                StoredFlowEntry entry = entries.get(rule);
-                if (entry != null) {
-                    FlowRuleEvent event;
-                    String message;
-
-                    entry.setBytes(rule.bytes());
-                    entry.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
-                    entry.setLiveType(rule.liveType());
-                    entry.setPackets(rule.packets());
-                    entry.setLastSeen();
-
-                    // If the entry state is PENDING_ADD, set it to ADDED. Otherwise, just update the rule.
-                    if (entry.state() == FlowEntryState.PENDING_ADD) {
-                        entry.setState(FlowEntryState.ADDED);
-                        event = new FlowRuleEvent(Type.RULE_ADDED, rule);
-                        message = "Updated flow rule state to ADDED: {}";
-                    } else {
-                        event = new FlowRuleEvent(Type.RULE_UPDATED, rule);
-                        message = "Updated flow rule: {}";
-                    }
+        NodeId master = remoteMasterFor(rule.deviceId());
+        if (master != null) {
+            log.debug("Ignoring update of flow rule {} owned by {}", rule, master);
+            return null;
+        }
 
-                    if (flows.replace(path, entries, value.version())) {
-                        log.trace(message, entry);
-                        return event;
-                    } else {
-                        log.trace("Failed to update flow rule: {}", entry);
-                        return retry();
-                    }
-                } else {
-                    // If the rule does not exist, return null. Inserting the rule risks race conditions
-                    // that can result in removed rules being retained.
-                    return null;
-                }
-            } else {
-                return null;
-            }
-        });
+        // If the rule does not exist, return null. Inserting the rule risks race conditions
+        // that can result in removed rules being retained.
+        return flowTable.update(rule, entry -> updateStatistics(entry, rule));
+    }
+
+    @Override
+    public List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId, Iterable<FlowEntry> flowEntries) {
+        NodeId master = remoteMasterFor(deviceId);
+        if (master != null) {
+            log.debug("Ignoring statistics of flow rules of device {} owned by {}", deviceId, master);
+            return Collections.emptyList();
+        }
+        return flowTable.updateAll(deviceId, flowEntries, this::updateStatistics);
+    }
+
+    private FlowRuleEvent updateStatistics(StoredFlowEntry entry, FlowEntry rule) {
+        entry.setBytes(rule.bytes());
+        entry.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        entry.setLiveType(rule.liveType());
+        entry.setPackets(rule.packets());
+        entry.setLastSeen();
+
+        // If the entry state is PENDING_ADD, set it to ADDED. Otherwise, just update the rule.
+        if (entry.state() == FlowEntryState.PENDING_ADD) {
+            entry.setState(FlowEntryState.ADDED);
+            log.trace("Updated flow rule state to ADDED: {}", entry);
+            return new FlowRuleEvent(Type.RULE_ADDED, rule);
+        }
+        log.trace("Updated flow rule: {}", entry);
+        return new FlowRuleEvent(Type.RULE_UPDATED, rule);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public FlowRuleEvent removeFlowRule(FlowEntry rule) {
-        DocumentPath path = getPathFor(rule.deviceId(), rule.id());
-        return retryUntilSuccess(() -> {
-            Versioned<Map<StoredFlowEntry, StoredFlowEntry>> value = flows.get(path);
-            if (value != null) {
-                Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newHashMap(value.value());
-                StoredFlowEntry entry = entries.remove(rule);
-                if (entry != null) {
-                    if (flows.replace(path, entries, value.version())) {
-                        log.trace("Removed flow rule: {}", entry);
-                        return new FlowRuleEvent(RULE_REMOVED, entry);
-                    } else {
-                        log.trace("Failed to remove flow rule: {}", entry);
-                        return retry();
-                    }
-                } else {
-                    return null;
-                }
-            } else {
-                return null;
+        NodeId master = remoteMasterFor(rule.deviceId());
+        if (master == null) {
+            return removeFlowRuleInternal(rule);
+        }
+
+        log.trace("Forwarding removeFlowRule to {}, which is the master for device {}",
+                  master, rule.deviceId());
+        try {
+            return clusterCommunicator.<FlowEntry, FlowRuleEvent>sendAndReceive(rule,
+                                                                               REMOVE_FLOW_ENTRY,
+                                                                               serializer::encode,
+                                                                               serializer::decode,
+                                                                               master)
+                    .get(FLOW_RULE_STORE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Failed to forward removeFlowRule to {}: {}", master, e.getMessage());
+        }
+        // The master cannot be reached; leave the backup copy to it and retry later
+        pendingRemovals.add(rule);
+        FlowEntry entry = flowTable.getFlowEntry(rule);
+        return entry != null ? new FlowRuleEvent(RULE_REMOVED, entry) : null;
+    }
+
+    private FlowRuleEvent removeFlowRuleInternal(FlowEntry rule) {
+        StoredFlowEntry entry = flowTable.remove(rule);
+        if (entry == null) {
+            return null;
+        }
+        log.trace("Removed flow rule: {}", entry);
+        return new FlowRuleEvent(RULE_REMOVED, entry);
+    }
+
+    /**
+     * Sends removals that could not be forwarded earlier to the current
+     * master of their device, or applies them if this node took over.
+     */
+    private void retryRemovals() {
+        for (FlowEntry rule : ImmutableList.copyOf(pendingRemovals)) {
+            NodeId master = mastershipService.getMasterFor(rule.deviceId());
+            if (master == null || !pendingRemovals.remove(rule)) {
+                continue;
             }
-        });
+            if (Objects.equals(local, master)) {
+                removeFlowRuleInternal(rule);
+                continue;
+            }
+            clusterCommunicator.<FlowEntry, FlowRuleEvent>sendAndReceive(rule,
+                                                                        REMOVE_FLOW_ENTRY,
+                                                                        serializer::encode,
+                                                                        serializer::decode,
+                                                                        master)
+                    .whenComplete((event, error) -> {
+                        if (error != null) {
+                            log.debug("Failed to forward removeFlowRule to {}: {}", master, error.getMessage());
+                            pendingRemovals.add(rule);
+                        }
+                    });
+        }
+    }
+
+    private void backup() {
+        try {
+            retryRemovals();
+            flowTable.backup();
+        } catch (Exception e) {
+            // Catch all exceptions to avoid the scheduled task being suppressed.
+            log.warn("Failed to back up flow tables", e);
+        }
     }
 
     @Override
     public void purgeFlowRule(DeviceId deviceId) {
-        DocumentPath path = getPathFor(deviceId);
-        retryUntilSuccess(() -> {
-            try {
-                for (String flowId : flows.getChildren(path).keySet()) {
-                    flows.removeNode(DocumentPath.from("root", deviceId.toString(), flowId));
-                }
-            } catch (NoSuchDocumentPathException e) {
-                // Do nothing. There are no flows for the device.
-            }
-
-            // New children may have been created since they were removed above. Catch
-            // IllegalDocumentModificationException and retry if necessary.
-            try {
-                flows.removeNode(path);
-            } catch (NoSuchDocumentPathException e) {
-                return null;
-            } catch (IllegalDocumentModificationException e) {
-                return retry();
-            }
-            return null;
-        });
+        pendingRemovals.removeIf(rule -> rule.deviceId().equals(deviceId));
+        flowTable.purge(deviceId);
     }
 
     @Override
     public void purgeFlowRules() {
-        try {
-            for (String deviceId : flows.getChildren(flows.root()).keySet()) {
-                purgeFlowRule(DeviceId.deviceId(deviceId));
-            }
-        } catch (NoSuchDocumentPathException e) {
-            // Do nothing if no children exist.
-        }
+        pendingRemovals.clear();
+        flowTable.purgeAll();
     }
 
     @Override
@@ -718,6 +631,341 @@ public class DistributedFlowRuleStore
                 .sum();
     }
 
+    /**
+     * Per-device flow tables held by this node, either as master or as backup.
+     * <p>
+     * Stored entries are never changed once they are in a table: updates
+     * replace them with changed copies, so that readers and backups always
+     * see consistent entries without locking.
+     */
+    private class InternalFlowTable {
+
+        private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
+                flowEntries = Maps.newConcurrentMap();
+
+        // Version of the last change to each flow ID and device table, and of
+        // the last copy of each table acknowledged by each backup node. Only
+        // additions, removals and state changes are sent to backups; statistics
+        // are refreshed by the next poll after a failover.
+        private final AtomicLong versions = new AtomicLong();
+        private final Map<DeviceId, Map<FlowId, Long>> changes = Maps.newConcurrentMap();
+        private final Map<DeviceId, Long> lastUpdates = Maps.newConcurrentMap();
+        private final Map<NodeId, Map<DeviceId, Long>> lastBackups = Maps.newConcurrentMap();
+
+        // Held shared while recording changes and exclusively while reading the
+        // version to acknowledge, so that no change up to that version is missed.
+        private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTable(DeviceId deviceId) {
+            return flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
+        }
+
+        private void recordUpdate(DeviceId deviceId) {
+            lastUpdates.merge(deviceId, versions.incrementAndGet(), Math::max);
+        }
+
+        private void recordChanges(DeviceId deviceId, Collection<FlowId> flowIds) {
+            changeLock.readLock().lock();
+            try {
+                Map<FlowId, Long> deviceChanges = changes.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
+                flowIds.forEach(flowId -> deviceChanges.put(flowId, versions.incrementAndGet()));
+                recordUpdate(deviceId);
+            } finally {
+                changeLock.readLock().unlock();
+            }
+        }
+
+        private long currentVersion() {
+            changeLock.writeLock().lock();
+            try {
+                return versions.get();
+            } finally {
+                changeLock.writeLock().unlock();
+            }
+        }
+
+        FlowEntry getFlowEntry(FlowRule rule) {
+            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(rule.deviceId());
+            Map<StoredFlowEntry, StoredFlowEntry> entries = table != null ? table.get(rule.id()) : null;
+            return entries != null ? entries.get(rule) : null;
+        }
+
+        Set<FlowEntry> getFlowEntries(DeviceId deviceId) {
+            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(deviceId);
+            if (table == null) {
+                return Collections.emptySet();
+            }
+            return table.values()
+                    .stream()
+                    .flatMap(entries -> entries.values().stream())
+                    .collect(Collectors.toSet());
+        }
+
+        void add(StoredFlowEntry entry) {
+            getFlowTable(entry.deviceId()).compute(entry.id(), (id, entries) -> {
+                Map<StoredFlowEntry, StoredFlowEntry> updated =
+                        entries == null ? Maps.newHashMap() : Maps.newHashMap(entries);
+                updated.put(entry, entry);
+                return updated;
+            });
+            recordChanges(entry.deviceId(), Collections.singleton(entry.id()));
+        }
+
+        /**
+         * Applies the given function to the stored entry for the rule while
+         * holding off other updates to the same flow ID.
+         *
+         * @param rule     flow rule
+         * @param function function to apply; returns null if nothing changed
+         * @param <T>      result type
+         * @return result of the function or null if there is no such entry
+         */
+        <T> T update(FlowRule rule, Function<StoredFlowEntry, T> function) {
+            List<T> results = updateAll(rule.deviceId(), Collections.singleton(rule),
+                                        (entry, r) -> function.apply(entry));
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        /**
+         * Applies the given function to the stored entries for the rules of
+         * a device in one pass, recording the flows whose state changed.
+         *
+         * @param deviceId device identifier
+         * @param rules    flow rules of the device
+         * @param function function to apply; returns null if nothing changed
+         * @param <R>      rule type
+         * @param <T>      result type
+         * @return non-null results of the function
+         */
+        <R extends FlowRule, T> List<T> updateAll(DeviceId deviceId, Iterable<R> rules,
+                                                  BiFunction<StoredFlowEntry, R, T> function) {
+            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(deviceId);
+            if (table == null) {
+                return Collections.emptyList();
+            }
+            List<T> results = Lists.newArrayList();
+            List<FlowId> changed = Lists.newArrayList();
+            for (R rule : rules) {
+                table.computeIfPresent(rule.id(), (id, entries) -> {
+                    StoredFlowEntry entry = entries.get(rule);
+                    if (entry == null) {
+                        return entries;
+                    }
+                    StoredFlowEntry copy = DefaultFlowEntry.copyOf(entry);
+                    T result = function.apply(copy, rule);
+                    if (result == null) {
+                        return entries;
+                    }
+                    results.add(result);
+                    if (copy.state() != entry.state()) {
+                        changed.add(id);
+                    }
+                    return replace(entries, copy);
+                });
+            }
+            if (!changed.isEmpty()) {
+                recordChanges(deviceId, changed);
+            }
+            return results;
+        }
+
+        // Returns a copy of the entries of a flow ID with the given entry replaced.
+        private Map<StoredFlowEntry, StoredFlowEntry> replace(Map<StoredFlowEntry, StoredFlowEntry> entries,
+                                                              StoredFlowEntry entry) {
+            Map<StoredFlowEntry, StoredFlowEntry> updated = Maps.newHashMap(entries);
+            updated.remove(entry);
+            updated.put(entry, entry);
+            return updated;
+        }
+
+        StoredFlowEntry remove(FlowRule rule) {
+            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(rule.deviceId());
+            if (table == null) {
+                return null;
+            }
+            AtomicReference<StoredFlowEntry> removed = new AtomicReference<>();
+            table.computeIfPresent(rule.id(), (id, entries) -> {
+                if (!entries.containsKey(rule)) {
+                    return entries;
+                }
+                Map<StoredFlowEntry, StoredFlowEntry> updated = Maps.newHashMap(entries);
+                removed.set(updated.remove(rule));
+                return updated.isEmpty() ? null : updated;
+            });
+            if (removed.get() != null) {
+                recordChanges(rule.deviceId(), Collections.singleton(rule.id()));
+            }
+            return removed.get();
+        }
+
+        void purge(DeviceId deviceId) {
+            flowEntries.remove(deviceId);
+            changes.remove(deviceId);
+            lastUpdates.remove(deviceId);
+            lastBackups.values().forEach(backups -> backups.remove(deviceId));
+        }
+
+        void purgeAll() {
+            ImmutableSet.copyOf(flowEntries.keySet()).forEach(this::purge);
+        }
+
+        /**
+         * Sends the changes to the flow tables of the devices this node
+         * masters to any backup node that has not yet acknowledged them.
+         * <p>
+         * Changes acknowledged by all backups of a device are forgotten;
+         * a node that has no acknowledged copy of a table gets all of it.
+         */
+        void backup() {
+            Map<NodeId, Set<DeviceId>> pending = Maps.newHashMap();
+            lastUpdates.forEach((deviceId, version) -> {
+                ReplicaInfo replicaInfo = replicaInfoManager.getReplicaInfoFor(deviceId);
+                if (!Objects.equals(local, replicaInfo.master().orElse(null))) {
+                    return;
+                }
+                long minBackedUp = version;
+                for (NodeId backup : replicaInfo.backups()) {
+                    long backedUp = lastBackups.getOrDefault(backup, Collections.emptyMap())
+                            .getOrDefault(deviceId, 0L);
+                    if (backedUp < version) {
+                        pending.computeIfAbsent(backup, id -> Sets.newHashSet()).add(deviceId);
+                    }
+                    minBackedUp = Math.min(minBackedUp, backedUp);
+                }
+                // Nodes that are no longer backups get the whole table should they become one again
+                lastBackups.forEach((nodeId, backups) -> {
+                    if (!replicaInfo.backups().contains(nodeId)) {
+                        backups.remove(deviceId);
+                    }
+                });
+                long pruneUpTo = minBackedUp;
+                Map<FlowId, Long> deviceChanges = changes.get(deviceId);
+                if (deviceChanges != null) {
+                    deviceChanges.values().removeIf(changed -> changed <= pruneUpTo);
+                }
+            });
+            pending.forEach(this::sendBackups);
+        }
+
+        private void sendBackups(NodeId nodeId, Set<DeviceId> deviceIds) {
+            Map<DeviceId, Long> acked = lastBackups.computeIfAbsent(nodeId, id -> Maps.newConcurrentMap());
+            long version = currentVersion();
+            Map<DeviceId, FlowTableBackup> backups = Maps.newHashMap();
+            deviceIds.forEach(deviceId -> {
+                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(deviceId);
+                if (table == null) {
+                    return;
+                }
+                long backedUp = acked.getOrDefault(deviceId, 0L);
+                if (backedUp == 0L) {
+                    backups.put(deviceId, new FlowTableBackup(true, Maps.newHashMap(table)));
+                    return;
+                }
+                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> delta = Maps.newHashMap();
+                changes.getOrDefault(deviceId, Collections.emptyMap()).forEach((flowId, changed) -> {
+                    if (changed > backedUp) {
+                        Map<StoredFlowEntry, StoredFlowEntry> entries = table.get(flowId);
+                        delta.put(flowId, entries != null ? entries : Maps.newHashMap());
+                    }
+                });
+                backups.put(deviceId, new FlowTableBackup(false, delta));
+            });
+            log.debug("Sending flow table backups of {} devices to {}", backups.size(), nodeId);
+            clusterCommunicator.<Map<DeviceId, FlowTableBackup>, Set<DeviceId>>sendAndReceive(backups,
+                                                                                             FLOW_TABLE_BACKUP,
+                                                                                             serializer::encode,
+                                                                                             serializer::decode,
+                                                                                             nodeId)
+                    .whenComplete((backedUp, error) -> {
+                        if (error != null) {
+                            log.debug("Failed to send flow table backups to {}: {}", nodeId, error.getMessage());
+                            return;
+                        }
+                        backups.keySet().forEach(deviceId -> {
+                            if (backedUp.contains(deviceId)) {
+                                acked.put(deviceId, version);
+                            } else {
+                                // the backup has no copy to apply changes to; send it all next time
+                                acked.remove(deviceId);
+                            }
+                        });
+                    });
+        }
+
+        /**
+         * Applies the given flow table backups.
+         * <p>
+         * Backups of devices this node has meanwhile become master for are
+         * rejected so that a stale backup never overwrites the primary copy,
+         * as are changes to tables this node holds no copy of.
+         *
+         * @param backups flow table backups keyed by device
+         * @return devices whose backups were accepted
+         */
+        Set<DeviceId> onBackupReceipt(Map<DeviceId, FlowTableBackup> backups) {
+            Set<DeviceId> accepted = Sets.newHashSet();
+            backups.forEach((deviceId, backup) -> {
+                if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+                    return;
+                }
+                if (backup.isFull()) {
+                    Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = Maps.newConcurrentMap();
+                    copy.putAll(backup.entries());
+                    flowEntries.put(deviceId, copy);
+                } else {
+                    Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = flowEntries.get(deviceId);
+                    if (table == null) {
+                        return;
+                    }
+                    backup.entries().forEach((flowId, entries) -> {
+                        if (entries.isEmpty()) {
+                            table.remove(flowId);
+                        } else {
+                            table.put(flowId, entries);
+                        }
+                    });
+                }
+                // ensures the whole table gets backed up should this node take over as master
+                changes.remove(deviceId);
+                lastBackups.values().forEach(acked -> acked.remove(deviceId));
+                recordUpdate(deviceId);
+                accepted.add(deviceId);
+            });
+            return accepted;
+        }
+    }
+
+    /**
+     * Flow table of a device, or changes to it, sent to one of its backup nodes.
+     */
+    static final class FlowTableBackup {
+        private final boolean full;
+        private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> entries;
+
+        FlowTableBackup(boolean full, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> entries) {
+            this.full = full;
+            this.entries = entries;
+        }
+
+        /**
+         * Returns whether the entries make up the whole table rather than changes to it.
+         *
+         * @return true for a whole table
+         */
+        boolean isFull() {
+            return full;
+        }
+
+        /**
+         * Returns the entries by flow ID; a flow ID without entries was removed.
+         *
+         * @return entries by flow ID
+         */
+        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> entries() {
+            return entries;
+        }
+    }
+
     private class InternalTableStatsListener
             implements EventuallyConsistentMapListener<DeviceId, List<TableStatisticsEntry>> {
         @Override
@@ -726,4 +974,4 @@ public class DistributedFlowRuleStore
             //TODO: Generate an event to listeners (do we need?)
         }
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@ package org.onosproject.store.group.impl;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -86,7 +87,6 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -148,7 +148,10 @@ public class DistributedGroupStore
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 1;
     private final HashMap<DeviceId, Boolean> deviceAuditStatus = new HashMap<>();
 
-    private final AtomicInteger groupIdGen = new AtomicInteger();
+    // Per device allocator of group ids, aware of the ids in the group id
+    // and extraneous group tables
+    private final ConcurrentMap<DeviceId, GroupIdAllocator>
+            groupIdAllocators = new ConcurrentHashMap<>();
 
     private KryoNamespace clusterMsgSerializer;
 
@@ -281,8 +284,7 @@ public class DistributedGroupStore
      */
     private void matchGroupEntries() {
         for (Entry<GroupStoreKeyMapKey, StoredGroupEntry> entry : groupStoreEntriesByKey.asJavaMap().entrySet()) {
-            StoredGroupEntry group = entry.getValue();
-            getGroupIdTable(entry.getKey().deviceId()).put(group.id(), group);
+            indexGroup(entry.getValue());
         }
     }
 
@@ -290,9 +292,38 @@ public class DistributedGroupStore
     private void synchronizeGroupStoreEntries() {
         Map<GroupStoreKeyMapKey, StoredGroupEntry> groupEntryMap = groupStoreEntriesByKey.asJavaMap();
         for (Entry<GroupStoreKeyMapKey, StoredGroupEntry> entry : groupEntryMap.entrySet()) {
-            StoredGroupEntry value = entry.getValue();
-            ConcurrentMap<GroupId, StoredGroupEntry> groupIdTable = getGroupIdTable(value.deviceId());
-            groupIdTable.put(value.id(), value);
+            indexGroup(entry.getValue());
+        }
+    }
+
+    /**
+     * Adds the group to the group id table of its device, alongside the group
+     * key map.
+     *
+     * @param group group entry
+     */
+    private void indexGroup(StoredGroupEntry group) {
+        getGroupIdTable(group.deviceId()).put(group.id(), group);
+        getGroupIdAllocator(group.deviceId()).reserve(group.id().id());
+    }
+
+    /**
+     * Removes the group from the group id table of its device, alongside the
+     * group key map.
+     *
+     * @param group group entry
+     */
+    private void unindexGroup(StoredGroupEntry group) {
+        if (getGroupIdTable(group.deviceId()).remove(group.id(), group)) {
+            releaseGroupId(group.deviceId(), group.id());
+        }
+    }
+
+    // Frees the group id unless a stored or extraneous group still uses it.
+    private void releaseGroupId(DeviceId deviceId, GroupId groupId) {
+        if (!getGroupIdTable(deviceId).containsKey(groupId) &&
+                !getExtraneousGroupIdTable(deviceId).containsKey(groupId)) {
+            getGroupIdAllocator(deviceId).release(groupId.id());
         }
     }
 
@@ -316,6 +347,16 @@ public class DistributedGroupStore
         return groupEntriesById.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
     }
 
+    /**
+     * Returns the group id allocator for specified device.
+     *
+     * @param deviceId identifier of the device
+     * @return group id allocator of given device
+     */
+    private GroupIdAllocator getGroupIdAllocator(DeviceId deviceId) {
+        return groupIdAllocators.computeIfAbsent(deviceId, k -> new GroupIdAllocator());
+    }
+
     /**
      * Returns the pending group request table.
      *
@@ -367,11 +408,8 @@ public class DistributedGroupStore
             return Collections.emptySet();
         }
 
-        Set<StoredGroupEntry> storedGroups = getGroupStoreKeyMap().values()
-                .stream()
-                .filter(input -> input.deviceId().equals(deviceId))
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(storedGroups);
+        // The group id table holds the same entries as the key map, per device
+        return ImmutableSet.copyOf(getGroupIdTable(deviceId).values());
     }
 
     /**
@@ -403,22 +441,14 @@ public class DistributedGroupStore
     }
 
     private int getFreeGroupIdValue(DeviceId deviceId) {
-        int freeId = groupIdGen.incrementAndGet();
-
-        while (true) {
-            Group existing = getGroup(deviceId, new GroupId(freeId));
-            if (existing == null) {
-                existing = (
-                        extraneousGroupEntriesById.get(deviceId) != null) ?
-                        extraneousGroupEntriesById.get(deviceId).
-                                get(new GroupId(freeId)) :
-                        null;
-            }
-            if (existing != null) {
-                freeId = groupIdGen.incrementAndGet();
-            } else {
-                break;
-            }
+        GroupIdAllocator allocator = getGroupIdAllocator(deviceId);
+        int freeId = allocator.allocate();
+
+        // The allocator is told of every group in the tables, so this
+        // only guards against groups indexed concurrently
+        while (getGroupIdTable(deviceId).containsKey(new GroupId(freeId)) ||
+                getExtraneousGroupIdTable(deviceId).containsKey(new GroupId(freeId))) {
+            freeId = allocator.allocate();
         }
         log.debug("getFreeGroupIdValue: Next Free ID is {}", freeId);
         return freeId;
@@ -569,8 +599,7 @@ public class DistributedGroupStore
                                                         groupDesc.appCookie()), group);
                     // Ensure it also inserted into group id based table to
                     // avoid any chances of duplication in group id generation
-                    getGroupIdTable(groupDesc.deviceId()).
-                            put(matchingExtraneousGroup.id(), group);
+                    indexGroup(group);
                     addOrUpdateGroupEntry(matchingExtraneousGroup);
                     removeExtraneousGroupEntry(matchingExtraneousGroup);
                     return;
@@ -589,8 +618,7 @@ public class DistributedGroupStore
                                                         groupDesc.appCookie()), modifiedGroup);
                     // Ensure it also inserted into group id based table to
                     // avoid any chances of duplication in group id generation
-                    getGroupIdTable(groupDesc.deviceId()).
-                            put(matchingExtraneousGroup.id(), modifiedGroup);
+                    indexGroup(modifiedGroup);
                     removeExtraneousGroupEntry(matchingExtraneousGroup);
                     log.debug("storeGroupDescriptionInternal: Triggering Group "
                                       + "UPDATE request for {} in device {}",
@@ -618,8 +646,7 @@ public class DistributedGroupStore
                                                     groupDesc.appCookie()), group);
                 // Ensure it also inserted into group id based table to
                 // avoid any chances of duplication in group id generation
-                getGroupIdTable(groupDesc.deviceId()).
-                        put(matchingExtraneousGroup.id(), group);
+                indexGroup(group);
                 addOrUpdateGroupEntry(matchingExtraneousGroup);
                 removeExtraneousGroupEntry(matchingExtraneousGroup);
                 return;
@@ -658,8 +685,7 @@ public class DistributedGroupStore
                                             groupDesc.appCookie()), group);
         // Ensure it also inserted into group id based table to
         // avoid any chances of duplication in group id generation
-        getGroupIdTable(groupDesc.deviceId()).
-                put(id, group);
+        indexGroup(group);
         log.debug("storeGroupDescriptionInternal: Processing Group ADD request for Id {} in device {}",
                   id,
                   groupDesc.deviceId());
@@ -1006,9 +1032,9 @@ public class DistributedGroupStore
         Set<Entry<GroupStoreKeyMapKey, StoredGroupEntry>> entriesPendingRemove =
                 new HashSet<>();
 
-        getGroupStoreKeyMap().entrySet().stream()
-                .filter(entry -> entry.getKey().deviceId().equals(deviceId))
-                .forEach(entriesPendingRemove::add);
+        getGroupIdTable(deviceId).values()
+                .forEach(group -> entriesPendingRemove.add(
+                        Maps.immutableEntry(new GroupStoreKeyMapKey(deviceId, group.appCookie()), group)));
 
         purgeGroupEntries(entriesPendingRemove);
     }
@@ -1134,6 +1160,7 @@ public class DistributedGroupStore
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
         extraneousIdTable.put(group.id(), group);
+        getGroupIdAllocator(group.deviceId()).reserve(group.id().id());
         // Don't remove the extraneous groups, instead re-use it when
         // a group request comes with the same set of buckets
     }
@@ -1145,7 +1172,9 @@ public class DistributedGroupStore
                   group.deviceId());
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
-        extraneousIdTable.remove(group.id());
+        if (extraneousIdTable.remove(group.id()) != null) {
+            releaseGroupId(group.deviceId(), group.id());
+        }
     }
 
     @Override
@@ -1187,7 +1216,7 @@ public class DistributedGroupStore
                       (key != null ? key.deviceId() : null));
             if (mapEvent.type() == MapEvent.Type.INSERT || mapEvent.type() == MapEvent.Type.UPDATE) {
                 // Update the group ID table
-                getGroupIdTable(group.deviceId()).put(group.id(), group);
+                indexGroup(group);
                 StoredGroupEntry value = Versioned.valueOrNull(mapEvent.newValue());
                 if (value.state() == Group.GroupState.ADDED) {
                     if (value.isGroupStateAddedFirstTime()) {
@@ -1205,7 +1234,7 @@ public class DistributedGroupStore
             } else if (mapEvent.type() == MapEvent.Type.REMOVE) {
                 groupEvent = new GroupEvent(Type.GROUP_REMOVED, group);
                 // Remove the entry from the group ID table
-                getGroupIdTable(group.deviceId()).remove(group.id(), group);
+                unindexGroup(group);
             }
 
             if (groupEvent != null) {
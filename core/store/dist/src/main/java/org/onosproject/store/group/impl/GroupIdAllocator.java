@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+
+/**
+ * Allocator of the group identifiers of a device.
+ * <p>
+ * Identifiers in use are kept as a set of ranges, so that finding a free
+ * identifier skips whole runs of used identifiers at once rather than probing
+ * them one by one. Identifiers are handed out in increasing order, wrapping
+ * around once the identifier space is exhausted, so that released identifiers
+ * are not reused right away.
+ */
+final class GroupIdAllocator {
+
+    private final RangeSet<Integer> used = TreeRangeSet.create();
+    private int last;
+
+    /**
+     * Allocates the next free identifier, marking it as used.
+     *
+     * @return group identifier
+     */
+    synchronized int allocate() {
+        int candidate = last + 1;
+        Range<Integer> range = used.rangeContaining(candidate);
+        while (range != null) {
+            // Ranges are closed-open, so their upper end is the first free identifier
+            candidate = range.hasUpperBound() ? range.upperEndpoint() : Integer.MIN_VALUE;
+            range = used.rangeContaining(candidate);
+        }
+        last = candidate;
+        used.add(range(candidate));
+        return candidate;
+    }
+
+    /**
+     * Marks the given identifier as used.
+     *
+     * @param id group identifier
+     */
+    synchronized void reserve(int id) {
+        used.add(range(id));
+    }
+
+    /**
+     * Marks the given identifier as free.
+     *
+     * @param id group identifier
+     */
+    synchronized void release(int id) {
+        used.remove(range(id));
+    }
+
+    /**
+     * Indicates whether the given identifier is used.
+     *
+     * @param id group identifier
+     * @return true if the identifier is used
+     */
+    synchronized boolean isUsed(int id) {
+        return used.contains(id);
+    }
+
+    private static Range<Integer> range(int id) {
+        return Range.singleton(id).canonical(DiscreteDomain.integers());
+    }
+}
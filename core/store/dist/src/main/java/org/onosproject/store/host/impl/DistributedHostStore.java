@@ -55,7 +55,6 @@ import org.onosproject.store.service.DistributedPrimitive.Status;
 import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -67,7 +66,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -95,6 +94,14 @@ public class DistributedHostStore
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
     private Map<HostId, DefaultHost> hosts;
     private Map<IpAddress, Set<Host>> hostsByIp;
+
+    // Local view of the hosts, maintained from the map events, along with
+    // its secondary indexes
+    private Map<HostId, Host> localHosts = new ConcurrentHashMap<>();
+    private HostIndex<ConnectPoint> hostsByLocation = new HostIndex<>(DistributedHostStore::locationsOf);
+    private HostIndex<DeviceId> hostsByDevice = new HostIndex<>(DistributedHostStore::devicesOf);
+    private HostIndex<MacAddress> hostsByMac = new HostIndex<>(host -> ImmutableSet.of(host.mac()));
+    private HostIndex<VlanId> hostsByVlan = new HostIndex<>(host -> ImmutableSet.of(host.vlan()));
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
@@ -161,11 +168,11 @@ public class DistributedHostStore
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/hosts", "store", log));
         statusChangeListener = status -> {
             if (status == Status.ACTIVE) {
-                executor.execute(this::loadHostsByIp);
+                executor.execute(this::loadHosts);
             }
         };
         hostsConsistentMap.addStatusChangeListener(statusChangeListener);
-        loadHostsByIp();
+        loadHosts();
         log.info("Started");
     }
 
@@ -178,9 +185,20 @@ public class DistributedHostStore
         log.info("Stopped");
     }
 
-    private void loadHostsByIp() {
+    private void loadHosts() {
+        Map<HostId, Host> hostsById = new ConcurrentHashMap<>();
+        HostIndex<ConnectPoint> byLocation = new HostIndex<>(DistributedHostStore::locationsOf);
+        HostIndex<DeviceId> byDevice = new HostIndex<>(DistributedHostStore::devicesOf);
+        HostIndex<MacAddress> byMac = new HostIndex<>(host -> ImmutableSet.of(host.mac()));
+        HostIndex<VlanId> byVlan = new HostIndex<>(host -> ImmutableSet.of(host.vlan()));
         hostsByIp = new ConcurrentHashMap<IpAddress, Set<Host>>();
-        hostsConsistentMap.asJavaMap().values().forEach(host -> {
+        hostsConsistentMap.iterator().forEachRemaining(entry -> {
+            Host host = entry.getValue().value();
+            hostsById.put(host.id(), host);
+            byLocation.update(null, host);
+            byDevice.update(null, host);
+            byMac.update(null, host);
+            byVlan.update(null, host);
             host.ipAddresses().forEach(ip -> {
                 Set<Host> existingHosts = hostsByIp.get(ip);
                 if (existingHosts == null) {
@@ -190,6 +208,11 @@ public class DistributedHostStore
                 }
             });
         });
+        localHosts = hostsById;
+        hostsByLocation = byLocation;
+        hostsByDevice = byDevice;
+        hostsByMac = byMac;
+        hostsByVlan = byVlan;
     }
 
     private boolean shouldUpdate(DefaultHost existingHost,
@@ -335,12 +358,12 @@ public class DistributedHostStore
 
     @Override
     public int getHostCount() {
-        return hosts.size();
+        return localHosts.size();
     }
 
     @Override
     public Iterable<Host> getHosts() {
-        return ImmutableSet.copyOf(hosts.values());
+        return ImmutableSet.copyOf(localHosts.values());
     }
 
     @Override
@@ -350,12 +373,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return hostsByVlan.get(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return hostsByMac.get(mac);
     }
 
     @Override
@@ -366,21 +389,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().contains(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return hostsByLocation.get(new ConnectPoint(connectPoint.elementId(), connectPoint.port()));
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().stream()
-                        .map(HostLocation::deviceId).anyMatch(dpid -> dpid.equals(deviceId)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return hostsByDevice.get(deviceId);
     }
 
     @Override
@@ -410,10 +424,6 @@ public class DistributedHostStore
         return phl != null;
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
-    }
-
     private Set<Host> addHosts(Host host) {
         Set<Host> hosts = Sets.newConcurrentHashSet();
         hosts.add(host);
@@ -466,6 +476,69 @@ public class DistributedHostStore
         hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host));
     }
 
+    private void updateLocalHosts(Host previous, Host host) {
+        if (host != null) {
+            localHosts.put(host.id(), host);
+        } else if (previous != null) {
+            localHosts.remove(previous.id());
+        }
+        hostsByLocation.update(previous, host);
+        hostsByDevice.update(previous, host);
+        hostsByMac.update(previous, host);
+        hostsByVlan.update(previous, host);
+    }
+
+    private static Set<ConnectPoint> locationsOf(Host host) {
+        return host.locations().stream()
+                .map(l -> new ConnectPoint(l.elementId(), l.port()))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<DeviceId> devicesOf(Host host) {
+        return host.locations().stream()
+                .map(HostLocation::deviceId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Secondary index of the local view of hosts, by a key derived from
+     * each host.
+     *
+     * @param <K> type of index key
+     */
+    private static final class HostIndex<K> {
+        private final Map<K, Map<HostId, Host>> index = new ConcurrentHashMap<>();
+        private final Function<Host, Set<K>> keys;
+
+        HostIndex(Function<Host, Set<K>> keys) {
+            this.keys = keys;
+        }
+
+        // Replaces the previous version of a host with its current one;
+        // either may be null.
+        void update(Host previous, Host host) {
+            Set<K> current = host != null ? keys.apply(host) : ImmutableSet.of();
+            if (previous != null) {
+                keys.apply(previous).stream()
+                        .filter(k -> !current.contains(k))
+                        .forEach(k -> index.computeIfPresent(k, (key, hosts) -> {
+                            hosts.remove(previous.id());
+                            return hosts.isEmpty() ? null : hosts;
+                        }));
+            }
+            current.forEach(k -> index.compute(k, (key, hosts) -> {
+                Map<HostId, Host> updated = hosts != null ? hosts : new ConcurrentHashMap<>();
+                updated.put(host.id(), host);
+                return updated;
+            }));
+        }
+
+        Set<Host> get(K key) {
+            Map<HostId, Host> hosts = index.get(key);
+            return hosts != null ? ImmutableSet.copyOf(hosts.values()) : ImmutableSet.of();
+        }
+    }
+
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
         @Override
         public void event(MapEvent<HostId, DefaultHost> event) {
@@ -473,11 +546,13 @@ public class DistributedHostStore
             switch (event.type()) {
                 case INSERT:
                     updateHostsByIp(host);
+                    updateLocalHosts(null, host);
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
                     break;
                 case UPDATE:
                     updateHostsByIp(host);
                     DefaultHost prevHost = checkNotNull(event.oldValue().value());
+                    updateLocalHosts(prevHost, host);
                     if (!Objects.equals(prevHost.locations(), host.locations())) {
                         notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
                     } else if (!Objects.equals(prevHost, host)) {
@@ -486,6 +561,7 @@ public class DistributedHostStore
                     break;
                 case REMOVE:
                     removeHostsByIp(host);
+                    updateLocalHosts(host, null);
                     notifyDelegate(new HostEvent(HOST_REMOVED, host));
                     break;
                 default:
@@ -15,12 +15,10 @@
  */
 package org.onosproject.store.link.impl;
 
-import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -69,6 +67,7 @@ import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -117,6 +116,13 @@ public class ECLinkStore
 
     private final Map<LinkKey, Link> links = Maps.newConcurrentMap();
     private final Map<LinkKey, Set<ProviderId>> linkProviders = Maps.newConcurrentMap();
+
+    // Indexes of the links by their source and destination; maintained
+    // along with the links under the same per-key atomic operations
+    private final Map<ConnectPoint, Set<LinkKey>> egressLinks = Maps.newConcurrentMap();
+    private final Map<ConnectPoint, Set<LinkKey>> ingressLinks = Maps.newConcurrentMap();
+    private final Map<DeviceId, Set<LinkKey>> deviceEgressLinks = Maps.newConcurrentMap();
+    private final Map<DeviceId, Set<LinkKey>> deviceIngressLinks = Maps.newConcurrentMap();
     private EventuallyConsistentMap<Provided<LinkKey>, LinkDescription> linkDescriptions;
 
 
@@ -201,6 +207,7 @@ public class ECLinkStore
         linkDescriptions.destroy();
         linkProviders.clear();
         links.clear();
+        clearIndexes();
         clusterCommunicator.removeSubscriber(LINK_INJECT_MESSAGE);
         netCfgService.removeListener(cfgListener);
         netCfgService.unregisterConfigFactory(factory);
@@ -220,12 +227,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getDeviceEgressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.src().deviceId()));
+        return lookup(deviceEgressLinks, deviceId);
     }
 
     @Override
     public Set<Link> getDeviceIngressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.dst().deviceId()));
+        return lookup(deviceIngressLinks, deviceId);
     }
 
     @Override
@@ -235,12 +242,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getEgressLinks(ConnectPoint src) {
-        return filter(links.values(), link -> src.equals(link.src()));
+        return lookup(egressLinks, src);
     }
 
     @Override
     public Set<Link> getIngressLinks(ConnectPoint dst) {
-        return filter(links.values(), link -> dst.equals(link.dst()));
+        return lookup(ingressLinks, dst);
     }
 
     @Override
@@ -322,10 +329,14 @@ public class ECLinkStore
         Link link = links.compute(linkKey, (key, existingLink) -> {
             Link newLink = composeLink(linkKey);
             if (newLink == null) {
+                if (existingLink != null) {
+                    unindex(linkKey);
+                }
                 return null;
             }
             if (existingLink == null) {
                 eventType.set(LINK_ADDED);
+                index(linkKey);
                 return newLink;
             } else if (existingLink.state() != newLink.state() ||
                     existingLink.isExpected() != newLink.isExpected() ||
@@ -417,7 +428,12 @@ public class ECLinkStore
                 (oldLink.type() == INDIRECT && newLink.type() == DIRECT) ||
                 !AnnotationsUtil.isEqual(oldLink.annotations(), newLink.annotations())) {
 
-            links.put(key, newLink);
+            links.compute(key, (k, existingLink) -> {
+                if (existingLink == null) {
+                    index(key);
+                }
+                return newLink;
+            });
             return new LinkEvent(LINK_UPDATED, newLink);
         }
         return null;
@@ -464,7 +480,13 @@ public class ECLinkStore
     }
 
     private LinkEvent purgeLinkCache(LinkKey linkKey) {
-        Link removedLink = links.remove(linkKey);
+        AtomicReference<Link> removed = new AtomicReference<>();
+        links.computeIfPresent(linkKey, (key, existingLink) -> {
+            removed.set(existingLink);
+            unindex(linkKey);
+            return null;
+        });
+        Link removedLink = removed.get();
         if (removedLink != null) {
             getAllProviders(linkKey).forEach(p -> linkDescriptions.remove(new Provided<>(linkKey, p)));
             linkProviders.remove(linkKey);
@@ -473,8 +495,53 @@ public class ECLinkStore
         return null;
     }
 
-    private Set<Link> filter(Collection<Link> links, Predicate<Link> predicate) {
-        return links.stream().filter(predicate).collect(Collectors.toSet());
+    // Adds the given link to the source and destination indexes.
+    private void index(LinkKey linkKey) {
+        addToIndex(egressLinks, linkKey.src(), linkKey);
+        addToIndex(ingressLinks, linkKey.dst(), linkKey);
+        addToIndex(deviceEgressLinks, linkKey.src().deviceId(), linkKey);
+        addToIndex(deviceIngressLinks, linkKey.dst().deviceId(), linkKey);
+    }
+
+    // Removes the given link from the source and destination indexes.
+    private void unindex(LinkKey linkKey) {
+        removeFromIndex(egressLinks, linkKey.src(), linkKey);
+        removeFromIndex(ingressLinks, linkKey.dst(), linkKey);
+        removeFromIndex(deviceEgressLinks, linkKey.src().deviceId(), linkKey);
+        removeFromIndex(deviceIngressLinks, linkKey.dst().deviceId(), linkKey);
+    }
+
+    private void clearIndexes() {
+        egressLinks.clear();
+        ingressLinks.clear();
+        deviceEgressLinks.clear();
+        deviceIngressLinks.clear();
+    }
+
+    private static <K> void addToIndex(Map<K, Set<LinkKey>> index, K key, LinkKey linkKey) {
+        index.compute(key, (k, keys) -> {
+            Set<LinkKey> updated = keys != null ? keys : Sets.newConcurrentHashSet();
+            updated.add(linkKey);
+            return updated;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<LinkKey>> index, K key, LinkKey linkKey) {
+        index.computeIfPresent(key, (k, keys) -> {
+            keys.remove(linkKey);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private <K> Set<Link> lookup(Map<K, Set<LinkKey>> index, K key) {
+        Set<LinkKey> keys = index.get(key);
+        if (keys == null) {
+            return ImmutableSet.of();
+        }
+        return keys.stream()
+                .map(links::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     private LinkEvent injectLink(Provided<LinkDescription> linkInjectRequest) {
@@ -522,6 +589,7 @@ public class ECLinkStore
                 }
                 if (links != null) {
                     links.clear();
+                    clearIndexes();
                 }
             }
             log.debug("config set link discovery mode to {}",
@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.topology.impl;
 
+import com.codahale.metrics.Timer;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -24,6 +25,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
@@ -68,6 +72,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -116,6 +121,17 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private static final String FULL_COMPUTATION = "fullComputation";
+    private static final String INCREMENTAL_COMPUTATION = "incrementalComputation";
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+    private Timer fullComputationTimer;
+    private Timer incrementalComputationTimer;
+
     private static final String HOP_COUNT = "hopCount";
     private static final String LINK_METRIC = "linkMetric";
     private static final String GEO_DISTANCE = "geoDistance";
@@ -146,6 +162,17 @@ public class DistributedTopologyStore
                 .withTimestampProvider((k, v) -> clockService.getTimestamp())
                 .build();
         broadcastPoints.addListener(listener);
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent("Topology");
+            metricsFeature = metricsComponent.registerFeature("Computation");
+            fullComputationTimer = metricsService.createTimer(metricsComponent, metricsFeature,
+                                                              FULL_COMPUTATION);
+            incrementalComputationTimer = metricsService.createTimer(metricsComponent, metricsFeature,
+                                                                     INCREMENTAL_COMPUTATION);
+        } else {
+            fullComputationTimer = new Timer();
+            incrementalComputationTimer = new Timer();
+        }
         log.info("Started");
     }
 
@@ -154,6 +181,10 @@ public class DistributedTopologyStore
         configService.unregisterProperties(getClass(), false);
         broadcastPoints.removeListener(listener);
         broadcastPoints.destroy();
+        if (metricsComponent != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, FULL_COMPUTATION);
+            metricsService.removeMetric(metricsComponent, metricsFeature, INCREMENTAL_COMPUTATION);
+        }
         log.info("Stopped");
     }
 
@@ -309,9 +340,22 @@ public class DistributedTopologyStore
     public TopologyEvent updateTopology(ProviderId providerId,
                                         GraphDescription graphDescription,
                                         List<Event> reasons) {
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // reusing whatever it can of the current topology.
+        long start = System.nanoTime();
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint, current);
+        // Clusters and broadcast sets are otherwise computed on first use, so
+        // force them in order for both timers to measure the same work.
+        newTopology.getClusters().stream().findFirst()
+                .ifPresent(cluster -> newTopology.broadcastPoints(cluster.id()));
+        long elapsed = System.nanoTime() - start;
+        Timer timer = newTopology.isIncremental() ? incrementalComputationTimer : fullComputationTimer;
+        timer.update(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Computed {} topology with {} clusters in {} ns",
+                  newTopology.isIncremental() ? "incremental" : "full",
+                  newTopology.clusterCount(), elapsed);
+
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
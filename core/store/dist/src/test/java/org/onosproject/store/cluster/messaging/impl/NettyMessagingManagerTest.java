@@ -22,6 +22,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ClusterMetadata;
 import org.onosproject.cluster.ClusterMetadataEventListener;
@@ -34,17 +36,23 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
 import java.net.ConnectException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
 import static org.junit.Assert.assertEquals;
@@ -52,6 +60,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
 import static org.onlab.junit.TestTools.findAvailablePort;
 
 /**
@@ -87,13 +96,13 @@ public class NettyMessagingManagerTest {
         netty1 = new NettyMessagingManager();
         netty1.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep1);
         netty1.clockService = testClockService;
-        netty1.activate();
+        netty1.activate(null);
 
         ep2 = new Endpoint(IpAddress.valueOf("127.0.0.1"), findAvailablePort(5003));
         netty2 = new NettyMessagingManager();
         netty2.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep2);
         netty2.clockService = testClockService;
-        netty2.activate();
+        netty2.activate(null);
     }
 
     /**
@@ -136,6 +145,86 @@ public class NettyMessagingManagerTest {
         Uninterruptibles.awaitUninterruptibly(latch2);
     }
 
+    @Test
+    public void testSendAsyncToBufferHandler() {
+        String subject = nextSubject();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        netty2.registerBufferHandler(subject, (ep, payload) -> {
+            assertTrue(payload.isReadOnly());
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            received.set(bytes);
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        CompletableFuture<Void> response = netty1.sendAsync(ep2, subject, "hello world".getBytes());
+        assertNull(response.join());
+        assertTrue(Uninterruptibles.awaitUninterruptibly(latch, 5, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals("hello world".getBytes(), received.get()));
+    }
+
+    @Test
+    public void testSendAsyncWithWriteBatching() {
+        netty1.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("writeBatching", "true");
+                props.put("maxBatchMessages", "4");
+                return props;
+            }
+        });
+
+        String subject = nextSubject();
+        int count = 10;
+        CountDownLatch latch = new CountDownLatch(count);
+        BiConsumer<Endpoint, byte[]> handler = (ep, payload) -> latch.countDown();
+        netty2.registerHandler(subject, handler, MoreExecutors.directExecutor());
+
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(netty1.sendAsync(ep2, subject, "hello world".getBytes()));
+        }
+        responses.forEach(response -> assertNull(response.join()));
+        assertTrue(Uninterruptibles.awaitUninterruptibly(latch, 5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that flush sizes are recorded per peer, and that a peer's
+     * histogram is removed once the channels to it have closed.
+     */
+    @Test
+    public void testFlushSizesPerPeer() throws Exception {
+        MetricsManager metrics = new MetricsManager();
+        netty1.metricsService = metrics;
+        netty1.activate(null);
+        netty1.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("writeBatching", "true");
+                return props;
+            }
+        });
+
+        String subject = nextSubject();
+        CountDownLatch latch = new CountDownLatch(1);
+        netty2.registerHandler(subject, (BiConsumer<Endpoint, byte[]>) (ep, payload) -> latch.countDown(),
+                MoreExecutors.directExecutor());
+        assertNull(netty1.sendAsync(ep2, subject, "hello world".getBytes()).join());
+        assertTrue(Uninterruptibles.awaitUninterruptibly(latch, 5, TimeUnit.SECONDS));
+
+        String peer = ep2.host() + ":" + ep2.port();
+        assertAfter(100, 5000, () -> assertEquals(1, metrics.getHistograms(
+                (name, metric) -> name.contains(peer)).size()));
+
+        netty2.deactivate();
+        netty2 = null;
+        assertAfter(100, 5000, () -> assertTrue(metrics.getHistograms(
+                (name, metric) -> name.contains(peer)).isEmpty()));
+    }
+
     @Test
     @Ignore // FIXME disabled on 9/29/16 due to random failures
     public void testSendAndReceive() {
@@ -17,13 +17,26 @@ package org.onosproject.store.flow.impl;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.Ip4Address;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
@@ -36,27 +49,33 @@ import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.net.flow.FlowRuleOperation;
+import org.onosproject.net.flow.StoredFlowEntry;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
-import org.onosproject.store.service.AsyncDocumentTree;
-import org.onosproject.store.service.DocumentTreeBuilder;
-import org.onosproject.store.service.Serializer;
-import org.onosproject.store.service.TestAsyncDocumentTree;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoEventListener;
+import org.onosproject.store.flow.ReplicaInfoService;
+import org.onosproject.store.flow.impl.DistributedFlowRuleStore.FlowTableBackup;
 import org.onosproject.store.service.TestStorageService;
-import org.onosproject.store.service.TestTopic;
-import org.onosproject.store.service.Topic;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.onlab.junit.TestUtils.callMethod;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.did;
 
@@ -65,9 +84,16 @@ import static org.onosproject.net.NetTestTools.did;
  */
 public class DistributedFlowRuleStoreTest {
 
+    private static final MessageSubject APPLY_BATCH_FLOWS = new MessageSubject("onos-flow-apply");
+    private static final MessageSubject GET_FLOW_ENTRY = new MessageSubject("onos-flow-get");
+    private static final MessageSubject REMOVE_FLOW_ENTRY = new MessageSubject("onos-flow-remove");
+    private static final MessageSubject FLOW_TABLE_BACKUP = new MessageSubject("onos-flow-backup");
+    private static final NodeId REMOTE = new NodeId("2");
+
     DistributedFlowRuleStore flowStoreImpl;
     private ClusterService mockClusterService;
     private ControllerNode mockControllerNode;
+    private TestClusterCommunicator communicator;
 
     private NodeId nodeId;
 
@@ -108,6 +134,40 @@ public class DistributedFlowRuleStoreTest {
     }
 
 
+    private static class MasterOf extends MastershipServiceAdapter {
+        private final NodeId master;
+
+        MasterOf(NodeId master) {
+            this.master = master;
+        }
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return master;
+        }
+    }
+
+    private static class LocalReplicaInfoService implements ReplicaInfoService {
+        private final List<NodeId> backups;
+
+        LocalReplicaInfoService(NodeId... backups) {
+            this.backups = ImmutableList.copyOf(backups);
+        }
+
+        @Override
+        public ReplicaInfo getReplicaInfoFor(DeviceId deviceId) {
+            return new ReplicaInfo(new NodeId("1"), backups);
+        }
+
+        @Override
+        public void addListener(ReplicaInfoEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(ReplicaInfoEventListener listener) {
+        }
+    }
+
     private static class MockControllerNode implements ControllerNode {
         final NodeId id;
 
@@ -131,33 +191,53 @@ public class DistributedFlowRuleStoreTest {
         }
     }
 
-    private static class MockStorageService extends TestStorageService {
+    /**
+     * Records the messages sent to other nodes and answers them with the
+     * configured replies; messages without a reply time out.
+     */
+    private static class TestClusterCommunicator extends ClusterCommunicationServiceAdapter {
+        final Map<MessageSubject, Function<Object, Object>> handlers = Maps.newConcurrentMap();
+        final Map<MessageSubject, Function<Object, Object>> replies = Maps.newConcurrentMap();
+        final Multimap<MessageSubject, Object> messages = ArrayListMultimap.create();
+        final Multimap<MessageSubject, NodeId> targets = ArrayListMultimap.create();
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            messages.put(subject, message);
+            targets.put(subject, toNodeId);
+            return CompletableFuture.completedFuture(null);
+        }
+
         @Override
-        public <V> DocumentTreeBuilder<V> documentTreeBuilder() {
-            return new DocumentTreeBuilder<V>() {
-                @Override
-                public AsyncDocumentTree<V> buildDocumentTree() {
-                    return build();
-                }
-
-                @Override
-                @SuppressWarnings("unchecked")
-                public AsyncDocumentTree<V> build() {
-                    return new TestAsyncDocumentTree<>(name());
-                }
-            };
+        @SuppressWarnings("unchecked")
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder, NodeId toNodeId) {
+            messages.put(subject, message);
+            targets.put(subject, toNodeId);
+            Function<Object, Object> reply = replies.get(subject);
+            if (reply == null) {
+                CompletableFuture<R> future = new CompletableFuture<>();
+                future.completeExceptionally(new TimeoutException());
+                return future;
+            }
+            return CompletableFuture.completedFuture((R) reply.apply(message));
         }
 
         @Override
-        public <T> Topic<T> getTopic(String name, Serializer serializer) {
-            return new TestTopic<>(name);
+        @SuppressWarnings("unchecked")
+        public <M, R> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                         Function<M, R> handler, Function<R, byte[]> encoder,
+                                         Executor executor) {
+            handlers.put(subject, (Function<Object, Object>) handler);
         }
     }
 
     @Before
     public void setUp() throws Exception {
         flowStoreImpl = new DistributedFlowRuleStore();
-        flowStoreImpl.storageService = new MockStorageService();
+        flowStoreImpl.storageService = new TestStorageService();
         mockClusterService = createMock(ClusterService.class);
         flowStoreImpl.clusterService = mockClusterService;
         nodeId = new NodeId("1");
@@ -167,11 +247,14 @@ public class DistributedFlowRuleStoreTest {
                 .andReturn(mockControllerNode).anyTimes();
         replay(mockClusterService);
 
-        flowStoreImpl.clusterCommunicator = new ClusterCommunicationServiceAdapter();
+        communicator = new TestClusterCommunicator();
+        flowStoreImpl.clusterCommunicator = communicator;
         flowStoreImpl.mastershipService = new MasterOfAll();
         flowStoreImpl.deviceService = new DeviceServiceAdapter();
         flowStoreImpl.coreService = new CoreServiceAdapter();
-        flowStoreImpl.activate();
+        flowStoreImpl.replicaInfoManager = new LocalReplicaInfoService();
+        flowStoreImpl.cfgService = new ComponentConfigAdapter();
+        flowStoreImpl.activate(null);
     }
 
     @After
@@ -255,6 +338,30 @@ public class DistributedFlowRuleStoreTest {
         assertThat(sum, is(0));
     }
 
+    /**
+     * Tests updating the statistics of flow entries in bulk.
+     */
+    @Test
+    public void testUpdateFlowStatistics() {
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(
+                Collections.singletonList(new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule)),
+                deviceId, 1));
+
+        FlowEntry reported = new DefaultFlowEntry(flowRule, FlowEntry.FlowEntryState.ADDED, 5, 42, 1000);
+        FlowEntry unknown = new DefaultFlowEntry(flowRule1, FlowEntry.FlowEntryState.ADDED, 5, 1, 1);
+        List<FlowRuleEvent> events = flowStoreImpl.updateFlowStatistics(deviceId, ImmutableList.of(reported, unknown));
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).type(), is(FlowRuleEvent.Type.RULE_ADDED));
+
+        FlowEntry stored = flowStoreImpl.getFlowEntry(flowRule);
+        assertThat(stored.state(), is(FlowEntry.FlowEntryState.ADDED));
+        assertThat(stored.packets(), is(42L));
+        assertThat(stored.bytes(), is(1000L));
+
+        events = flowStoreImpl.updateFlowStatistics(deviceId, ImmutableList.of(reported));
+        assertThat(events.get(0).type(), is(FlowRuleEvent.Type.RULE_UPDATED));
+    }
+
     /**
      * Tests purge flow for a device.
      */
@@ -289,4 +396,167 @@ public class DistributedFlowRuleStoreTest {
         }
         assertThat(sum3, is(0));
     }
+
+    /**
+     * Tests that a removal first marks the flow pending and then drops it.
+     */
+    @Test
+    public void testRemoveBatchEntry() {
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(
+                ImmutableList.of(new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule),
+                                 new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule1)),
+                deviceId, 1));
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(
+                Collections.singletonList(
+                        new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.REMOVE, flowRule)),
+                deviceId, 2));
+        assertEquals("PENDING_REMOVE", flowStoreImpl.getFlowEntry(flowRule).state().toString());
+        assertEquals("PENDING_ADD", flowStoreImpl.getFlowEntry(flowRule1).state().toString());
+
+        assertThat(flowStoreImpl.removeFlowRule(new DefaultFlowEntry(flowRule)), notNullValue());
+        assertThat(flowStoreImpl.getFlowEntry(flowRule), nullValue());
+        assertThat(Iterables.size(flowStoreImpl.getFlowEntries(deviceId)), is(1));
+    }
+
+    private void storeFlowRule(FlowRule rule) {
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(
+                Collections.singletonList(new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, rule)),
+                rule.deviceId(), 1));
+    }
+
+    private void backup() {
+        callMethod(flowStoreImpl, "backup", new Class<?>[]{});
+    }
+
+    private FlowTableBackup lastBackup() {
+        @SuppressWarnings("unchecked")
+        Map<DeviceId, FlowTableBackup> backups =
+                (Map<DeviceId, FlowTableBackup>) Iterables.getLast(communicator.messages.get(FLOW_TABLE_BACKUP));
+        return backups.get(deviceId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<DeviceId> receiveBackups(Map<DeviceId, FlowTableBackup> backups) {
+        return (Set<DeviceId>) communicator.handlers.get(FLOW_TABLE_BACKUP).apply(backups);
+    }
+
+    /**
+     * Tests that writes and reads of a device mastered elsewhere go to its master.
+     */
+    @Test
+    public void testForwardToMaster() {
+        flowStoreImpl.mastershipService = new MasterOf(REMOTE);
+        communicator.replies.put(GET_FLOW_ENTRY, rule -> new DefaultFlowEntry((FlowRule) rule));
+
+        storeFlowRule(flowRule);
+        assertThat(communicator.targets.get(APPLY_BATCH_FLOWS), contains(REMOTE));
+
+        assertThat(flowStoreImpl.getFlowEntry(flowRule), notNullValue());
+        assertThat(communicator.targets.get(GET_FLOW_ENTRY), contains(REMOTE));
+
+        // the batch was applied by the master, not by this node
+        assertThat(flowStoreImpl.getFlowEntries(deviceId), is(emptyIterable()));
+    }
+
+    /**
+     * Tests that a removal the master cannot take is queued rather than
+     * applied to the backup copy, and retried until the master takes it.
+     */
+    @Test
+    public void testRemovalQueuedWhileMasterUnreachable() {
+        storeFlowRule(flowRule);
+        flowStoreImpl.mastershipService = new MasterOf(REMOTE);
+
+        FlowRuleEvent event = flowStoreImpl.removeFlowRule(new DefaultFlowEntry(flowRule));
+        assertThat(event.type(), is(FlowRuleEvent.Type.RULE_REMOVED));
+        assertThat(flowStoreImpl.getFlowEntry(flowRule), notNullValue());
+
+        backup();
+        assertThat(communicator.targets.get(REMOVE_FLOW_ENTRY), contains(REMOTE, REMOTE));
+
+        communicator.replies.put(REMOVE_FLOW_ENTRY, rule -> null);
+        backup();
+        backup();
+        assertThat(communicator.targets.get(REMOVE_FLOW_ENTRY), contains(REMOTE, REMOTE, REMOTE));
+    }
+
+    /**
+     * Tests that a queued removal is applied locally once this node takes
+     * over as master.
+     */
+    @Test
+    public void testRemovalAppliedOnTakeover() {
+        storeFlowRule(flowRule);
+        flowStoreImpl.mastershipService = new MasterOf(REMOTE);
+        flowStoreImpl.removeFlowRule(new DefaultFlowEntry(flowRule));
+
+        flowStoreImpl.mastershipService = new MasterOfAll();
+        assertThat(flowStoreImpl.getFlowEntry(flowRule), notNullValue());
+        backup();
+        assertThat(flowStoreImpl.getFlowEntry(flowRule), nullValue());
+    }
+
+    /**
+     * Tests that a backup node first gets the whole table and then only the
+     * entries that were added, removed or changed state.
+     */
+    @Test
+    public void testBackupChangedEntries() {
+        flowStoreImpl.replicaInfoManager = new LocalReplicaInfoService(REMOTE);
+        communicator.replies.put(FLOW_TABLE_BACKUP, backups -> ImmutableSet.copyOf(((Map<?, ?>) backups).keySet()));
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(
+                ImmutableList.of(new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule),
+                                 new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule1)),
+                deviceId, 1));
+
+        backup();
+        FlowTableBackup backup = lastBackup();
+        assertThat(backup.isFull(), is(true));
+        assertThat(backup.entries().keySet(), containsInAnyOrder(flowRule.id(), flowRule1.id()));
+
+        // the first statistics move the flow to ADDED
+        flowStoreImpl.updateFlowStatistics(deviceId, ImmutableList.of(
+                new DefaultFlowEntry(flowRule, FlowEntry.FlowEntryState.ADDED, 5, 42, 1000)));
+        backup();
+        backup = lastBackup();
+        assertThat(backup.isFull(), is(false));
+        assertThat(backup.entries().keySet(), contains(flowRule.id()));
+        assertThat(Iterables.getOnlyElement(backup.entries().get(flowRule.id()).values()).state(),
+                   is(FlowEntry.FlowEntryState.ADDED));
+
+        // later statistics alone are not backed up
+        int sent = communicator.messages.get(FLOW_TABLE_BACKUP).size();
+        flowStoreImpl.updateFlowStatistics(deviceId, ImmutableList.of(
+                new DefaultFlowEntry(flowRule, FlowEntry.FlowEntryState.ADDED, 6, 50, 2000)));
+        backup();
+        assertThat(communicator.messages.get(FLOW_TABLE_BACKUP).size(), is(sent));
+
+        flowStoreImpl.removeFlowRule(new DefaultFlowEntry(flowRule1));
+        backup();
+        backup = lastBackup();
+        assertThat(backup.entries().keySet(), contains(flowRule1.id()));
+        assertThat(backup.entries().get(flowRule1.id()), is(Collections.emptyMap()));
+    }
+
+    /**
+     * Tests that backups of devices this node masters and changes to tables
+     * it holds no copy of are rejected.
+     */
+    @Test
+    public void testBackupReceipt() {
+        StoredFlowEntry entry = new DefaultFlowEntry(flowRule);
+        StoredFlowEntry entry1 = new DefaultFlowEntry(flowRule1);
+        FlowTableBackup full = new FlowTableBackup(true, ImmutableMap.of(flowRule.id(), ImmutableMap.of(entry, entry)));
+        FlowTableBackup delta =
+                new FlowTableBackup(false, ImmutableMap.of(flowRule1.id(), ImmutableMap.of(entry1, entry1)));
+
+        assertThat(receiveBackups(ImmutableMap.of(deviceId, full)), is(empty()));
+        assertThat(flowStoreImpl.getFlowEntries(deviceId), is(emptyIterable()));
+
+        flowStoreImpl.mastershipService = new MasterOf(REMOTE);
+        assertThat(receiveBackups(ImmutableMap.of(deviceId, delta)), is(empty()));
+        assertThat(receiveBackups(ImmutableMap.of(deviceId, full)), contains(deviceId));
+        assertThat(receiveBackups(ImmutableMap.of(deviceId, delta)), contains(deviceId));
+        assertThat(Iterables.size(flowStoreImpl.getFlowEntries(deviceId)), is(2));
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the group id allocator.
+ */
+public class GroupIdAllocatorTest {
+
+    private GroupIdAllocator allocator;
+
+    @Before
+    public void setUp() {
+        allocator = new GroupIdAllocator();
+    }
+
+    /**
+     * Tests that identifiers are allocated in increasing order.
+     */
+    @Test
+    public void allocateInOrder() {
+        assertThat(allocator.allocate(), is(1));
+        assertThat(allocator.allocate(), is(2));
+        assertThat(allocator.isUsed(2), is(true));
+        assertThat(allocator.isUsed(3), is(false));
+    }
+
+    /**
+     * Tests that reserved identifiers are skipped.
+     */
+    @Test
+    public void skipReserved() {
+        for (int id = 1; id <= 10_000; id++) {
+            allocator.reserve(id);
+        }
+        allocator.reserve(10_002);
+        assertThat(allocator.allocate(), is(10_001));
+        assertThat(allocator.allocate(), is(10_003));
+    }
+
+    /**
+     * Tests that released identifiers are not reused right away.
+     */
+    @Test
+    public void release() {
+        assertThat(allocator.allocate(), is(1));
+        allocator.release(1);
+        assertThat(allocator.isUsed(1), is(false));
+        assertThat(allocator.allocate(), is(2));
+    }
+
+    /**
+     * Tests that releasing an identifier splits a run of used identifiers.
+     */
+    @Test
+    public void releaseWithinRun() {
+        for (int id = 1; id <= 5; id++) {
+            allocator.reserve(id);
+        }
+        allocator.release(3);
+        assertThat(allocator.isUsed(2), is(true));
+        assertThat(allocator.isUsed(3), is(false));
+        assertThat(allocator.isUsed(4), is(true));
+        assertThat(allocator.allocate(), is(3));
+        assertThat(allocator.allocate(), is(6));
+    }
+
+    /**
+     * Tests that the largest identifier can be reserved and released.
+     */
+    @Test
+    public void maxIdentifier() {
+        allocator.reserve(Integer.MAX_VALUE);
+        assertThat(allocator.isUsed(Integer.MAX_VALUE), is(true));
+        assertThat(allocator.isUsed(Integer.MAX_VALUE - 1), is(false));
+        allocator.release(Integer.MAX_VALUE);
+        assertThat(allocator.isUsed(Integer.MAX_VALUE), is(false));
+    }
+}
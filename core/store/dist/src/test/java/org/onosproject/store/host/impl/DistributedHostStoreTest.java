@@ -20,9 +20,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
@@ -146,6 +149,35 @@ public class DistributedHostStoreTest {
         assertEquals(PID2, hostInStore.providerId());
     }
 
+    @Test
+    public void testHostIndexes() {
+        HostLocation loc1 = new HostLocation(DeviceId.deviceId("of:1"), PortNumber.portNumber(1), 0);
+        HostLocation loc2 = new HostLocation(DeviceId.deviceId("of:2"), PortNumber.portNumber(2), 0);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, new DefaultHostDescription(
+                HOSTID.mac(), HOSTID.vlanId(), loc1, Sets.newHashSet(IP1)), false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID1, new DefaultHostDescription(
+                HOSTID1.mac(), HOSTID1.vlanId(), loc1, Sets.newHashSet(IP2)), false);
+
+        assertEquals(2, ecXHostStore.getConnectedHosts(new ConnectPoint(loc1.deviceId(), loc1.port())).size());
+        assertEquals(2, ecXHostStore.getConnectedHosts(loc1.deviceId()).size());
+        assertEquals(2, ecXHostStore.getHosts(HOSTID.vlanId()).size());
+        assertEquals(1, ecXHostStore.getHosts(HOSTID.mac()).size());
+        assertEquals(2, ecXHostStore.getHostCount());
+
+        // Move a host and check the indexes follow
+        ecXHostStore.createOrUpdateHost(PID, HOSTID1, new DefaultHostDescription(
+                HOSTID1.mac(), HOSTID1.vlanId(), loc2, Sets.newHashSet(IP2)), false);
+        assertEquals(1, ecXHostStore.getConnectedHosts(loc1).size());
+        assertEquals(1, ecXHostStore.getConnectedHosts(loc2.deviceId()).size());
+        assertEquals(loc2, ecXHostStore.getHosts(HOSTID1.mac()).iterator().next().location());
+
+        ecXHostStore.removeHost(HOSTID);
+        assertTrue(ecXHostStore.getConnectedHosts(loc1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(loc1.deviceId()).isEmpty());
+        assertTrue(ecXHostStore.getHosts(HOSTID.mac()).isEmpty());
+        assertEquals(1, ecXHostStore.getHosts(HOSTID.vlanId()).size());
+    }
+
     private static HostDescription createHostDesc(HostId hostId, Set<IpAddress> ips) {
         return createHostDesc(hostId, ips, false);
     }
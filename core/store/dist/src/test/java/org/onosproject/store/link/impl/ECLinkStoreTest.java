@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.link.impl;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 import org.junit.After;
@@ -27,6 +28,7 @@ import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.mastership.MastershipServiceAdapter;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
@@ -36,6 +38,7 @@ import org.onosproject.net.Link.Type;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.SparseAnnotations;
+import org.onosproject.net.config.NetworkConfigRegistryAdapter;
 import org.onosproject.net.device.DeviceClockService;
 import org.onosproject.net.device.DeviceClockServiceAdapter;
 import org.onosproject.net.link.DefaultLinkDescription;
@@ -50,8 +53,11 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.impl.MastershipBasedTimestamp;
+import org.onosproject.store.service.TestStorageService;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -73,7 +79,6 @@ import static org.onosproject.net.link.LinkEvent.Type.LINK_UPDATED;
 /**
  * Test of the GossipLinkStoreTest implementation.
  */
-@Ignore
 public class ECLinkStoreTest {
 
     private static final ProviderId PID = new ProviderId("of", "foo");
@@ -114,6 +119,7 @@ public class ECLinkStoreTest {
 
     private ECLinkStore linkStoreImpl;
     private LinkStore linkStore;
+    private TestLinkStoreDelegate delegate;
 
     private DeviceClockService deviceClockService;
     private ClusterCommunicationService clusterCommunicator;
@@ -142,16 +148,23 @@ public class ECLinkStoreTest {
         linkStoreImpl.clusterService = new TestClusterService();
         linkStoreImpl.deviceClockService = new TestDeviceClockService();
         linkStoreImpl.mastershipService = new TestMastershipService();
+        linkStoreImpl.storageService = new TestStorageService();
+        linkStoreImpl.coreService = new CoreServiceAdapter();
+        linkStoreImpl.netCfgService = new NetworkConfigRegistryAdapter();
         linkStoreImpl.activate();
         linkStore = linkStoreImpl;
+        delegate = new TestLinkStoreDelegate();
+        linkStore.setDelegate(delegate);
 
         verify(clusterCommunicator);
         reset(clusterCommunicator);
+        replay(clusterCommunicator);
 
     }
 
     @After
     public void tearDown() throws Exception {
+        linkStore.unsetDelegate(delegate);
         linkStoreImpl.deactivate();
     }
 
@@ -338,23 +351,28 @@ public class ECLinkStoreTest {
         ConnectPoint dst = new ConnectPoint(DID2, P2);
 
         final DefaultLinkDescription linkDescription = new DefaultLinkDescription(src, dst, INDIRECT);
-        LinkEvent event = linkStore.createOrUpdateLink(PID,
-                    linkDescription);
+        linkStore.createOrUpdateLink(PID, linkDescription);
 
+        LinkEvent event = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, INDIRECT, event.subject());
         assertEquals(LINK_ADDED, event.type());
+        assertEquals(ImmutableSet.of(event.subject()), linkStore.getEgressLinks(src));
+        assertEquals(ImmutableSet.of(event.subject()), linkStore.getIngressLinks(dst));
 
-        LinkEvent event2 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, DIRECT));
 
+        LinkEvent event2 = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, DIRECT, event2.subject());
         assertEquals(LINK_UPDATED, event2.type());
+        assertEquals(ImmutableSet.of(event2.subject()), linkStore.getEgressLinks(src));
+        assertEquals(ImmutableSet.of(event2.subject()), linkStore.getDeviceIngressLinks(DID2));
 
         // no change
-        LinkEvent event3 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, DIRECT));
 
-        assertNull("No change event expected", event3);
+        assertTrue("No change event expected", delegate.events.isEmpty());
     }
 
     private static void assertLinkDescriptionEquals(ConnectPoint src,
@@ -373,54 +391,64 @@ public class ECLinkStoreTest {
         ConnectPoint dst = new ConnectPoint(DID2, P2);
 
         // add Ancillary link
-        LinkEvent event = linkStore.createOrUpdateLink(PIDA,
+        linkStore.createOrUpdateLink(PIDA,
                     new DefaultLinkDescription(src, dst, INDIRECT, A1));
 
-        assertNotNull("Ancillary only link is ignored", event);
+        LinkEvent event = delegate.takeEvent();
+        assertEquals("Ancillary only link is not ignored", LINK_ADDED, event.type());
+        assertEquals(1, linkStore.getEgressLinks(src).size());
 
         // add Primary link
-        LinkEvent event2 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, INDIRECT, A2));
 
+        LinkEvent event2 = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, INDIRECT, event2.subject());
         assertAnnotationsEquals(event2.subject().annotations(), A2, A1);
         assertEquals(LINK_UPDATED, event2.type());
 
         // update link type
-        LinkEvent event3 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, DIRECT, A2));
 
+        LinkEvent event3 = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, DIRECT, event3.subject());
         assertAnnotationsEquals(event3.subject().annotations(), A2, A1);
         assertEquals(LINK_UPDATED, event3.type());
 
 
         // no change
-        LinkEvent event4 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, DIRECT));
 
-        assertNull("No change event expected", event4);
+        assertTrue("No change event expected", delegate.events.isEmpty());
 
         // update link annotation (Primary)
-        LinkEvent event5 = linkStore.createOrUpdateLink(PID,
+        linkStore.createOrUpdateLink(PID,
                 new DefaultLinkDescription(src, dst, DIRECT, A2_2));
 
+        LinkEvent event5 = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, DIRECT, event5.subject());
         assertAnnotationsEquals(event5.subject().annotations(), A2, A2_2, A1);
         assertEquals(LINK_UPDATED, event5.type());
 
         // update link annotation (Ancillary)
-        LinkEvent event6 = linkStore.createOrUpdateLink(PIDA,
+        linkStore.createOrUpdateLink(PIDA,
                 new DefaultLinkDescription(src, dst, DIRECT, A1_2));
 
+        LinkEvent event6 = delegate.takeEvent();
         assertLink(DID1, P1, DID2, P2, DIRECT, event6.subject());
         assertAnnotationsEquals(event6.subject().annotations(), A2, A2_2, A1, A1_2);
         assertEquals(LINK_UPDATED, event6.type());
 
         // update link type (Ancillary) : ignored
-        LinkEvent event7 = linkStore.createOrUpdateLink(PIDA,
+        linkStore.createOrUpdateLink(PIDA,
                 new DefaultLinkDescription(src, dst, EDGE));
-        assertNull("Ancillary change other than annotation is ignored", event7);
+        assertTrue("Ancillary change other than annotation is ignored", delegate.events.isEmpty());
+
+        // the updates replace the indexed link rather than adding to it
+        assertEquals(ImmutableSet.of(event6.subject()), linkStore.getEgressLinks(src));
+        assertEquals(ImmutableSet.of(event6.subject()), linkStore.getIngressLinks(dst));
     }
 
 
@@ -433,24 +461,60 @@ public class ECLinkStoreTest {
 
         putLink(linkId1, DIRECT, A1);
         putLink(linkId2, DIRECT, A2);
+        delegate.events.clear();
 
         // DID1,P1 => DID2,P2
         // DID2,P2 => DID1,P1
         // DID1,P2 => DID2,P3
 
-        LinkEvent event = linkStore.removeLink(d1P1, d2P2);
+        linkStore.removeLink(d1P1, d2P2);
+        LinkEvent event = delegate.takeEvent();
         assertEquals(LINK_REMOVED, event.type());
         assertAnnotationsEquals(event.subject().annotations(), A1);
-        LinkEvent event2 = linkStore.removeLink(d1P1, d2P2);
-        assertNull(event2);
+        assertTrue(linkStore.getEgressLinks(d1P1).isEmpty());
+        assertTrue(linkStore.getDeviceIngressLinks(DID2).isEmpty());
+
+        linkStore.removeLink(d1P1, d2P2);
+        assertTrue(delegate.events.isEmpty());
 
         assertLink(linkId2, DIRECT, linkStore.getLink(d2P2, d1P1));
         assertAnnotationsEquals(linkStore.getLink(d2P2, d1P1).annotations(), A2);
+        assertEquals(1, linkStore.getEgressLinks(d2P2).size());
 
         // annotations, etc. should not survive remove
         putLink(linkId1, DIRECT);
+        assertEquals(LINK_ADDED, delegate.takeEvent().type());
         assertLink(linkId1, DIRECT, linkStore.getLink(d1P1, d2P2));
         assertAnnotationsEquals(linkStore.getLink(d1P1, d2P2).annotations());
+        assertEquals(1, linkStore.getEgressLinks(d1P1).size());
+    }
+
+    @Test
+    public final void testIndexesFollowRemoval() {
+        final ConnectPoint d1P1 = new ConnectPoint(DID1, P1);
+        final ConnectPoint d2P2 = new ConnectPoint(DID2, P2);
+        LinkKey linkId1 = LinkKey.linkKey(d1P1, d2P2);
+        LinkKey linkId2 = LinkKey.linkKey(d2P2, d1P1);
+
+        putLink(linkId1, DIRECT, A1);
+        putLink(linkId2, DIRECT, A2);
+        assertEquals(1, linkStore.getEgressLinks(d1P1).size());
+        assertEquals(1, linkStore.getIngressLinks(d2P2).size());
+
+        linkStore.removeLink(d1P1, d2P2);
+        assertNull(linkStore.getLink(d1P1, d2P2));
+
+        // removed link should be gone from the neighbourhood queries
+        assertTrue(linkStore.getEgressLinks(d1P1).isEmpty());
+        assertTrue(linkStore.getIngressLinks(d2P2).isEmpty());
+        assertTrue(linkStore.getDeviceEgressLinks(DID1).isEmpty());
+        assertEquals(1, linkStore.getDeviceIngressLinks(DID1).size());
+
+        // and come back with the link
+        putLink(linkId1, DIRECT);
+        assertEquals(1, linkStore.getEgressLinks(d1P1).size());
+        assertEquals(1, linkStore.getIngressLinks(d2P2).size());
+        assertEquals(1, linkStore.getDeviceEgressLinks(DID1).size());
     }
 
     @Test
@@ -511,6 +575,31 @@ public class ECLinkStoreTest {
         assertTrue("Remove event fired", removeLatch.await(1, TimeUnit.SECONDS));
     }
 
+    /**
+     * Link store delegate recording the events it is notified of.
+     */
+    private static final class TestLinkStoreDelegate implements LinkStoreDelegate {
+        private final List<LinkEvent> events = new ArrayList<>();
+
+        @Override
+        public void notify(LinkEvent event) {
+            // the store notifies null when nothing changed, which managers drop
+            if (event != null) {
+                events.add(event);
+            }
+        }
+
+        /**
+         * Returns the only event received since the last call.
+         *
+         * @return link event
+         */
+        LinkEvent takeEvent() {
+            assertEquals("Expected exactly one event: " + events, 1, events.size());
+            return events.remove(0);
+        }
+    }
+
     private static final class TestClusterService extends StaticClusterService {
 
         public TestClusterService() {
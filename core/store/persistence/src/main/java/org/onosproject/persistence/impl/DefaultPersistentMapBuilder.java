@@ -21,16 +21,18 @@ import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent maps stored in the mapDB local database via the persistence service.
+ * Default builder for persistent maps stored in the mapDB local database, or in memory-mapped logs,
+ * via the persistence service.
  */
 public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K, V> {
 
-    private final DB localDB;
+    private final Function<String, Map<byte[], byte[]>> storage;
 
     private String name = null;
 
@@ -39,7 +41,16 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
 
     public DefaultPersistentMapBuilder(DB localDB) {
         checkNotNull(localDB, "The local database cannot be null.");
-        this.localDB = localDB;
+        this.storage = name -> PersistentMap.mapDbItems(localDB, name);
+    }
+
+    /**
+     * Creates a builder for maps whose serialized entries are provided by the given function.
+     *
+     * @param storage function returning the byte array map for a map name
+     */
+    DefaultPersistentMapBuilder(Function<String, Map<byte[], byte[]>> storage) {
+        this.storage = checkNotNull(storage, "The storage cannot be null.");
     }
 
     public PersistentMapBuilder<K, V> withName(String name) {
@@ -58,6 +69,6 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The key serializer must be assigned.");
 
-        return new PersistentMap<K, V>(serializer, localDB, name);
+        return new PersistentMap<K, V>(serializer, name, storage.apply(name));
     }
 }
\ No newline at end of file
@@ -20,22 +20,36 @@ import org.mapdb.DB;
 import org.onosproject.persistence.PersistentSetBuilder;
 import org.onosproject.store.service.Serializer;
 
+import java.util.Set;
+import java.util.function.Function;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent sets stored in the mapDB local database via the persistence service..
+ * Default builder for persistent sets stored in the mapDB local database, or in memory-mapped logs,
+ * via the persistence service..
  */
 public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
 
-    private final DB localDB;
+    private final Function<String, Set<byte[]>> storage;
 
     private String name = null;
 
     private Serializer serializer = null;
 
     public DefaultPersistentSetBuilder(DB localDB) {
-        this.localDB = checkNotNull(localDB, "The local database cannot be null.");
+        checkNotNull(localDB, "The local database cannot be null.");
+        this.storage = name -> PersistentSet.mapDbItems(localDB, name);
+    }
+
+    /**
+     * Creates a builder for sets whose serialized elements are provided by the given function.
+     *
+     * @param storage function returning the byte array set for a set name
+     */
+    DefaultPersistentSetBuilder(Function<String, Set<byte[]>> storage) {
+        this.storage = checkNotNull(storage, "The storage cannot be null.");
     }
 
     public PersistentSetBuilder<E> withName(String name) {
@@ -54,6 +68,6 @@ public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The serializer must be assigned.");
 
-        return new PersistentSet<E>(serializer, localDB, name);
+        return new PersistentSet<E>(serializer, name, storage.apply(name));
     }
 }
\ No newline at end of file
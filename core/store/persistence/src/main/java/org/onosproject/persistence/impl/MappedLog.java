@@ -0,0 +1,581 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Byte array map persisted in an append-only, memory-mapped log file.
+ * <p>
+ * Every update appends a checksummed record to the log, and an {@link OffHeapIndex}
+ * maps each key to its latest record. On open, the log is scanned to rebuild the index and
+ * is truncated after the last intact record, which discards writes torn by a crash.
+ * Once superseded records make up most of the log, live records are copied to a new file
+ * that atomically replaces the old one.
+ * <p>
+ * Values are read from the mapped file on demand, so neither reopening nor iterating over
+ * a large log retains its contents on the heap.
+ */
+final class MappedLog extends AbstractMap<byte[], byte[]> {
+
+    /**
+     * Policy controlling when written records are forced to disk.
+     */
+    enum SyncPolicy {
+        /**
+         * Records are written to disk by the operating system at its own pace.
+         */
+        NEVER,
+
+        /**
+         * Records are forced to disk by periodic calls to {@link MappedLog#sync()}, so that
+         * all updates made since the previous sync are committed together.
+         */
+        PERIODIC,
+
+        /**
+         * Records are forced to disk after every update.
+         */
+        ALWAYS
+    }
+
+    private static final int MAGIC = 0x4f4e4c47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 3;
+    private static final int TOMBSTONE = -1;
+    private static final int INITIAL_SIZE = 1024 * 1024;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024 * 4;
+    private static final byte[] EMPTY_VALUE = new byte[0];
+
+    private final File file;
+    private final MappedLogMetrics metrics;
+    private final OffHeapIndex index = new OffHeapIndex(this::keyMatches);
+    private volatile SyncPolicy syncPolicy;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private long liveBytes;
+    private boolean dirty;
+
+    private MappedLog(File file, SyncPolicy syncPolicy, MappedLogMetrics metrics) {
+        this.file = file;
+        this.syncPolicy = syncPolicy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Opens the log stored in the given file, creating the file if it does not exist.
+     *
+     * @param file log file
+     * @param syncPolicy policy controlling when records are forced to disk
+     * @param metrics metrics to update
+     * @return opened log
+     * @throws PersistenceException if the file cannot be opened or is not a log
+     */
+    static MappedLog open(File file, SyncPolicy syncPolicy, MappedLogMetrics metrics) {
+        MappedLog log = new MappedLog(checkNotNull(file), checkNotNull(syncPolicy), checkNotNull(metrics));
+        try {
+            log.load();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to open log " + file, e);
+        }
+        return log;
+    }
+
+    /**
+     * Changes the policy controlling when records are forced to disk.
+     *
+     * @param syncPolicy new sync policy
+     */
+    void setSyncPolicy(SyncPolicy syncPolicy) {
+        this.syncPolicy = checkNotNull(syncPolicy);
+    }
+
+    /**
+     * Forces any records written since the previous sync to disk.
+     */
+    synchronized void sync() {
+        if (dirty && buffer != null) {
+            try (Timer.Context ignored = metrics.syncs.time()) {
+                buffer.force();
+            }
+            dirty = false;
+        }
+    }
+
+    /**
+     * Rewrites the log so that it contains only the latest record of each key.
+     */
+    synchronized void compact() {
+        checkOpen();
+        try (Timer.Context ignored = metrics.compactions.time()) {
+            long[] positions = new long[index.size()];
+            int[] count = {0};
+            index.forEach(position -> positions[count[0]++] = position);
+            Arrays.sort(positions);
+
+            File compacted = compactionFile(file);
+            FileChannel target = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer out = target.map(FileChannel.MapMode.READ_WRITE, 0,
+                    mappedSize(HEADER_SIZE + liveBytes));
+            writeHeader(out);
+            int outPosition = HEADER_SIZE;
+            for (long position : positions) {
+                int size = recordSize((int) position);
+                ByteBuffer record = buffer.duplicate();
+                record.limit((int) position + size).position((int) position);
+                out.position(outPosition);
+                out.put(record);
+                outPosition += size;
+            }
+            out.force();
+
+            channel.close();
+            Files.move(compacted.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel = target;
+            buffer = out;
+            dirty = false;
+            recover();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to compact log " + file, e);
+        }
+    }
+
+    /**
+     * Syncs and closes the log.
+     */
+    synchronized void close() {
+        if (buffer == null) {
+            return;
+        }
+        sync();
+        buffer = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to close log " + file, e);
+        }
+    }
+
+    /**
+     * Closes the log and deletes its file.
+     */
+    synchronized void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to delete log " + file, e);
+        }
+    }
+
+    /**
+     * Returns a set view of the keys of the log, in which adding an element maps it to an
+     * empty value.
+     *
+     * @return set of keys
+     */
+    Set<byte[]> asSet() {
+        return new KeySet();
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        checkOpen();
+        return key instanceof byte[] && index.get((byte[]) key) != OffHeapIndex.NOT_FOUND;
+    }
+
+    @Override
+    public synchronized byte[] get(Object key) {
+        checkOpen();
+        if (!(key instanceof byte[])) {
+            return null;
+        }
+        long position = index.get((byte[]) key);
+        return position == OffHeapIndex.NOT_FOUND ? null : readValue((int) position);
+    }
+
+    @Override
+    public synchronized byte[] put(byte[] key, byte[] value) {
+        checkNotNull(key, "Key cannot be null.");
+        checkNotNull(value, "Value cannot be null.");
+        checkArgument(key.length > 0, "Key cannot be empty.");
+        checkOpen();
+        int position = append(key, value);
+        long previous = index.put(key, position);
+        liveBytes += recordSize(position);
+        byte[] previousValue = null;
+        if (previous != OffHeapIndex.NOT_FOUND) {
+            previousValue = readValue((int) previous);
+            liveBytes -= recordSize((int) previous);
+        }
+        written();
+        return previousValue;
+    }
+
+    @Override
+    public synchronized byte[] remove(Object key) {
+        checkOpen();
+        if (!(key instanceof byte[])) {
+            return null;
+        }
+        long previous = index.get((byte[]) key);
+        if (previous == OffHeapIndex.NOT_FOUND) {
+            return null;
+        }
+        byte[] previousValue = readValue((int) previous);
+        append((byte[]) key, null);
+        index.remove((byte[]) key);
+        liveBytes -= recordSize((int) previous);
+        written();
+        return previousValue;
+    }
+
+    @Override
+    public synchronized void clear() {
+        checkOpen();
+        try {
+            buffer = null;
+            channel.truncate(HEADER_SIZE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_SIZE);
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to clear log " + file, e);
+        }
+        index.clear();
+        writePosition = HEADER_SIZE;
+        liveBytes = 0;
+        written();
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer<? super byte[], ? super byte[]> action) {
+        checkOpen();
+        index.forEach(position -> action.accept(readKey((int) position), readValue((int) position)));
+    }
+
+    @Override
+    public Set<Entry<byte[], byte[]>> entrySet() {
+        return new EntrySet();
+    }
+
+    private void load() throws IOException {
+        Files.deleteIfExists(compactionFile(file).toPath());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(length));
+        if (length < HEADER_SIZE) {
+            writeHeader(buffer);
+            dirty = true;
+            sync();
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            channel.close();
+            throw new PersistenceException("Unrecognized log format in " + file);
+        }
+        recover();
+        if (length > writePosition) {
+            // Drop the remains of a torn record so that they are never mistaken for data.
+            buffer = null;
+            channel.truncate(writePosition);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(writePosition));
+        }
+    }
+
+    private void recover() {
+        try (Timer.Context ignored = metrics.recoveries.time()) {
+            index.clear();
+            liveBytes = 0;
+            int position = HEADER_SIZE;
+            int size;
+            while ((size = validRecordSize(position)) > 0) {
+                byte[] key = readKey(position);
+                long previous;
+                if (buffer.getInt(position + Integer.BYTES) == TOMBSTONE) {
+                    previous = index.remove(key);
+                } else {
+                    previous = index.put(key, position);
+                    liveBytes += size;
+                }
+                if (previous != OffHeapIndex.NOT_FOUND) {
+                    liveBytes -= recordSize((int) previous);
+                }
+                position += size;
+            }
+            writePosition = position;
+        }
+    }
+
+    private int append(byte[] key, byte[] value) {
+        int valueLength = value == null ? TOMBSTONE : value.length;
+        int size = RECORD_HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        ensureCapacity(size);
+        int position = writePosition;
+        buffer.putInt(position, key.length);
+        buffer.putInt(position + Integer.BYTES, valueLength);
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + RECORD_HEADER_SIZE);
+        record.put(key);
+        if (value != null) {
+            record.put(value);
+        }
+        buffer.putInt(position + Integer.BYTES * 2, checksum(position, size));
+        writePosition += size;
+        metrics.writes.mark();
+        metrics.writtenBytes.mark(size);
+        return position;
+    }
+
+    private void written() {
+        dirty = true;
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            sync();
+        }
+        long deadBytes = writePosition - HEADER_SIZE - liveBytes;
+        if (deadBytes > MIN_COMPACTION_BYTES && deadBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        long required = (long) writePosition + size;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    mappedSize(Math.max(required, (long) buffer.capacity() * 2)));
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to grow log " + file, e);
+        }
+    }
+
+    private int validRecordSize(int position) {
+        if ((long) position + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int keyLength = buffer.getInt(position);
+        int valueLength = buffer.getInt(position + Integer.BYTES);
+        if (keyLength <= 0 || valueLength < TOMBSTONE) {
+            return -1;
+        }
+        long size = (long) RECORD_HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+        if (position + size > buffer.capacity()) {
+            return -1;
+        }
+        if (buffer.getInt(position + Integer.BYTES * 2) != checksum(position, (int) size)) {
+            return -1;
+        }
+        return (int) size;
+    }
+
+    private int recordSize(int position) {
+        return RECORD_HEADER_SIZE + buffer.getInt(position)
+                + Math.max(buffer.getInt(position + Integer.BYTES), 0);
+    }
+
+    private int checksum(int position, int size) {
+        CRC32 crc = new CRC32();
+        ByteBuffer record = buffer.duplicate();
+        record.limit(position + Integer.BYTES * 2).position(position);
+        crc.update(record);
+        record.limit(position + size).position(position + RECORD_HEADER_SIZE);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private byte[] readKey(int position) {
+        byte[] key = new byte[buffer.getInt(position)];
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + RECORD_HEADER_SIZE);
+        record.get(key);
+        return key;
+    }
+
+    private byte[] readValue(int position) {
+        int keyLength = buffer.getInt(position);
+        byte[] value = new byte[buffer.getInt(position + Integer.BYTES)];
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + RECORD_HEADER_SIZE + keyLength);
+        record.get(value);
+        return value;
+    }
+
+    private boolean keyMatches(long position, byte[] key) {
+        int offset = (int) position;
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+        offset += RECORD_HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkOpen() {
+        checkState(buffer != null, "Log " + file + " is closed");
+    }
+
+    private synchronized List<Entry<byte[], byte[]>> entries() {
+        List<Entry<byte[], byte[]>> entries = Lists.newArrayListWithCapacity(size());
+        forEach((key, value) -> entries.add(Maps.immutableEntry(key, value)));
+        return entries;
+    }
+
+    private static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(Integer.BYTES, VERSION);
+    }
+
+    private static int mappedSize(long size) {
+        long mappedSize = INITIAL_SIZE;
+        while (mappedSize < size) {
+            mappedSize *= 2;
+        }
+        if (mappedSize > Integer.MAX_VALUE) {
+            if (size > Integer.MAX_VALUE) {
+                throw new PersistenceException("Log size limit exceeded");
+            }
+            return Integer.MAX_VALUE;
+        }
+        return (int) mappedSize;
+    }
+
+    private static File compactionFile(File file) {
+        return new File(file.getPath() + ".compact");
+    }
+
+    /**
+     * Iterator over a point in time copy of the log entries, removing entries from the log.
+     */
+    private final class SnapshotIterator<T> implements Iterator<T> {
+        private final Iterator<Entry<byte[], byte[]>> entries = entries().iterator();
+        private final Function<Entry<byte[], byte[]>, T> mapper;
+        private Entry<byte[], byte[]> current;
+
+        private SnapshotIterator(Function<Entry<byte[], byte[]>, T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public T next() {
+            current = entries.next();
+            return mapper.apply(current);
+        }
+
+        @Override
+        public void remove() {
+            checkState(current != null);
+            MappedLog.this.remove(current.getKey());
+            current = null;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<byte[], byte[]>> {
+        @Override
+        public int size() {
+            return MappedLog.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<byte[], byte[]>> iterator() {
+            return new SnapshotIterator<>(entry -> entry);
+        }
+
+        @Override
+        public void forEach(Consumer<? super Entry<byte[], byte[]>> action) {
+            MappedLog.this.forEach((key, value) -> action.accept(Maps.immutableEntry(key, value)));
+        }
+    }
+
+    private final class KeySet extends AbstractSet<byte[]> {
+        @Override
+        public int size() {
+            return MappedLog.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean add(byte[] key) {
+            return put(key, EMPTY_VALUE) == null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return MappedLog.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            MappedLog.this.clear();
+        }
+
+        @Override
+        public Iterator<byte[]> iterator() {
+            return new SnapshotIterator<>(Map.Entry::getKey);
+        }
+
+        @Override
+        public void forEach(Consumer<? super byte[]> action) {
+            MappedLog.this.forEach((key, value) -> action.accept(key));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+
+/**
+ * Metrics shared by the memory-mapped logs of a persistence service.
+ */
+final class MappedLogMetrics {
+
+    private static final String FEATURE = "mappedLog";
+
+    final Meter writes;
+    final Meter writtenBytes;
+    final Timer syncs;
+    final Timer compactions;
+    final Timer recoveries;
+
+    /**
+     * Creates metrics that are not registered with any metrics service.
+     */
+    MappedLogMetrics() {
+        writes = new Meter();
+        writtenBytes = new Meter();
+        syncs = new Timer();
+        compactions = new Timer();
+        recoveries = new Timer();
+    }
+
+    /**
+     * Creates metrics registered with the given metrics service.
+     *
+     * @param metricsService metrics service
+     * @param component component the metrics belong to
+     */
+    MappedLogMetrics(MetricsService metricsService, MetricsComponent component) {
+        MetricsFeature feature = component.registerFeature(FEATURE);
+        writes = metricsService.createMeter(component, feature, "writes");
+        writtenBytes = metricsService.createMeter(component, feature, "writtenBytes");
+        syncs = metricsService.createTimer(component, feature, "syncs");
+        compactions = metricsService.createTimer(component, feature, "compactions");
+        recoveries = metricsService.createTimer(component, feature, "recoveries");
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.persistence.PersistenceService;
+import org.onosproject.persistence.PersistentMapBuilder;
+import org.onosproject.persistence.PersistentSetBuilder;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.Dictionary;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.security.AppGuard.checkPermission;
+import static org.onosproject.security.AppPermission.Type.PERSISTENCE_WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Service that maintains local disk backed maps and sets in append-only, memory-mapped log files.
+ * This is an alternative to the mapDB based {@link PersistenceManager}; only one of the two
+ * components should be enabled at a time. Empty structures are deleted on shutdown.
+ */
+@Component(immediate = true, enabled = false)
+@Service
+public class MappedPersistenceManager implements PersistenceService {
+
+    private static final String LOG_PATH = "mappedLog";
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final String DEFAULT_SYNC_POLICY = "PERIODIC";
+
+    private static final int DEFAULT_SYNC_INTERVAL_MILLIS = 3000;
+
+    private final Logger log = getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    @Property(name = "syncPolicy", value = DEFAULT_SYNC_POLICY,
+            label = "When to force log updates to disk: NEVER, PERIODIC or ALWAYS")
+    private String syncPolicy = DEFAULT_SYNC_POLICY;
+
+    @Property(name = "syncIntervalMillis", intValue = DEFAULT_SYNC_INTERVAL_MILLIS,
+            label = "Interval between group commits of log updates when the PERIODIC sync policy is used")
+    private int syncIntervalMillis = DEFAULT_SYNC_INTERVAL_MILLIS;
+
+    private final Map<String, MappedLog> logs = new ConcurrentHashMap<>();
+
+    private File logFolder;
+
+    private MappedLogMetrics metrics;
+
+    private ScheduledExecutorService syncExecutor;
+
+    private ScheduledFuture<?> syncFuture;
+
+    @Activate
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        logFolder = new File(context.getBundleContext().getDataFile(""), LOG_PATH);
+        try {
+            Files.createDirectories(logFolder.toPath());
+        } catch (IOException e) {
+            log.error("Could not create the required folder for the persistent logs.");
+            throw new PersistenceException("Log folder could not be created.", e);
+        }
+        metrics = new MappedLogMetrics(metricsService, metricsService.registerComponent("MappedPersistence"));
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/persistence", "log-sync", log));
+        modified(context);
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
+        syncExecutor.shutdown();
+        logs.forEach((name, mappedLog) -> {
+            if (mappedLog.isEmpty()) {
+                mappedLog.delete();
+            } else {
+                mappedLog.close();
+            }
+        });
+        logs.clear();
+        log.info("Stopped");
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context.getProperties();
+
+        String policy = Tools.get(properties, "syncPolicy");
+        MappedLog.SyncPolicy newSyncPolicy = parseSyncPolicy(isNullOrEmpty(policy) ? syncPolicy : policy);
+        syncPolicy = newSyncPolicy.name();
+
+        Integer interval = Tools.getIntegerProperty(properties, "syncIntervalMillis");
+        if (interval != null && interval > 0) {
+            syncIntervalMillis = interval;
+        }
+
+        logs.values().forEach(mappedLog -> mappedLog.setSyncPolicy(newSyncPolicy));
+        if (syncFuture != null) {
+            syncFuture.cancel(false);
+            syncFuture = null;
+        }
+        if (newSyncPolicy == MappedLog.SyncPolicy.PERIODIC) {
+            syncFuture = syncExecutor.scheduleAtFixedRate(this::syncLogs, syncIntervalMillis,
+                    syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        log.info("Settings: syncPolicy={}, syncIntervalMillis={}", syncPolicy, syncIntervalMillis);
+    }
+
+    @Override
+    public <K, V> PersistentMapBuilder<K, V> persistentMapBuilder() {
+        checkPermission(PERSISTENCE_WRITE);
+        return new DefaultPersistentMapBuilder<>(this::getLog);
+    }
+
+    @Override
+    public <E> PersistentSetBuilder<E> persistentSetBuilder() {
+        checkPermission(PERSISTENCE_WRITE);
+        return new DefaultPersistentSetBuilder<>(name -> getLog(name).asSet());
+    }
+
+    private MappedLog getLog(String name) {
+        return logs.computeIfAbsent(name, n -> MappedLog.open(new File(logFolder, fileName(n)),
+                MappedLog.SyncPolicy.valueOf(syncPolicy), metrics));
+    }
+
+    private void syncLogs() {
+        logs.values().forEach(mappedLog -> {
+            try {
+                mappedLog.sync();
+            } catch (RuntimeException e) {
+                log.warn("Failed to sync persistent log", e);
+            }
+        });
+    }
+
+    private MappedLog.SyncPolicy parseSyncPolicy(String policy) {
+        try {
+            return MappedLog.SyncPolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown sync policy {}; using {}", policy, DEFAULT_SYNC_POLICY);
+            return MappedLog.SyncPolicy.valueOf(DEFAULT_SYNC_POLICY);
+        }
+    }
+
+    private static String fileName(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8") + LOG_SUFFIX;
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Open addressing hash index from keys to log positions, held in a direct buffer.
+ * <p>
+ * The index stores only the hash of each key and the position of the record holding it,
+ * so the keys themselves stay in the log and the index does not create heap objects per
+ * entry. Keys are compared against the log through a {@link KeyMatcher}.
+ * <p>
+ * This class is not thread safe.
+ */
+final class OffHeapIndex {
+
+    /**
+     * Compares a key against the key of the record stored at a log position.
+     */
+    interface KeyMatcher {
+        /**
+         * Returns whether the record at the given position holds the given key.
+         *
+         * @param position record position
+         * @param key key to compare
+         * @return {@code true} if the keys are equal
+         */
+        boolean matches(long position, byte[] key);
+    }
+
+    static final long NOT_FOUND = -1L;
+
+    private static final int SLOT_SIZE = Long.BYTES + Integer.BYTES;
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+    private static final int MIN_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final HashFunction HASH = Hashing.murmur3_32();
+
+    private final KeyMatcher matcher;
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int deleted;
+
+    /**
+     * Creates a new index.
+     *
+     * @param matcher matcher used to compare keys with log records
+     */
+    OffHeapIndex(KeyMatcher matcher) {
+        this.matcher = matcher;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the log position of the record holding the given key.
+     *
+     * @param key key to look up
+     * @return record position, or {@link #NOT_FOUND}
+     */
+    long get(byte[] key) {
+        int slot = find(key, hash(key));
+        return slot < 0 ? NOT_FOUND : position(slot);
+    }
+
+    /**
+     * Sets the log position of the record holding the given key.
+     *
+     * @param key key to index
+     * @param position position of the record holding the key
+     * @return previous record position, or {@link #NOT_FOUND}
+     */
+    long put(byte[] key, long position) {
+        int hash = hash(key);
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            long previous = position(slot);
+            slots.putLong(slot * SLOT_SIZE, position);
+            return previous;
+        }
+        if (size + deleted + 1 > capacity * LOAD_FACTOR) {
+            resize();
+        }
+        insert(hash, position);
+        size++;
+        return NOT_FOUND;
+    }
+
+    /**
+     * Removes the given key from the index.
+     *
+     * @param key key to remove
+     * @return position of the record that held the key, or {@link #NOT_FOUND}
+     */
+    long remove(byte[] key) {
+        int slot = find(key, hash(key));
+        if (slot < 0) {
+            return NOT_FOUND;
+        }
+        long previous = position(slot);
+        slots.putLong(slot * SLOT_SIZE, DELETED);
+        size--;
+        deleted++;
+        return previous;
+    }
+
+    /**
+     * Passes the record position of every indexed key to the given consumer.
+     *
+     * @param consumer position consumer
+     */
+    void forEach(LongConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            long position = position(slot);
+            if (position != EMPTY && position != DELETED) {
+                consumer.accept(position);
+            }
+        }
+    }
+
+    /**
+     * Removes all keys and releases excess capacity.
+     */
+    void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private int find(byte[] key, int hash) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long position = position(slot);
+            if (position == EMPTY) {
+                return -1;
+            }
+            if (position != DELETED && slots.getInt(slot * SLOT_SIZE + Long.BYTES) == hash
+                    && matcher.matches(position, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int hash, long position) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        while (true) {
+            long current = position(slot);
+            if (current == EMPTY || current == DELETED) {
+                if (current == DELETED) {
+                    deleted--;
+                }
+                slots.putLong(slot * SLOT_SIZE, position);
+                slots.putInt(slot * SLOT_SIZE + Long.BYTES, hash);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        ByteBuffer previousSlots = slots;
+        int previousCapacity = capacity;
+        // Only grow if live keys fill the table; otherwise rehashing purges deleted slots.
+        allocate(size + 1 > previousCapacity * LOAD_FACTOR / 2 ? previousCapacity * 2 : previousCapacity);
+        for (int slot = 0; slot < previousCapacity; slot++) {
+            long position = previousSlots.getLong(slot * SLOT_SIZE);
+            if (position != EMPTY && position != DELETED) {
+                insert(previousSlots.getInt(slot * SLOT_SIZE + Long.BYTES), position);
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        capacity = newCapacity;
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        size = 0;
+        deleted = 0;
+    }
+
+    private long position(int slot) {
+        return slots.getLong(slot * SLOT_SIZE);
+    }
+
+    private static int hash(byte[] key) {
+        return HASH.hashBytes(key).asInt();
+    }
+}
@@ -36,18 +36,36 @@ public class PersistentMap<K, V> implements Map<K, V> {
 
     private final Serializer serializer;
 
-    private final org.mapdb.DB database;
-
     private final Map<byte[], byte[]> items;
 
     private final String name;
 
     public PersistentMap(Serializer serializer, DB database, String name) {
+        this(serializer, name, mapDbItems(checkNotNull(database), checkNotNull(name)));
+    }
+
+    /**
+     * Creates a map that stores its serialized entries in the given byte array map.
+     *
+     * @param serializer serializer for keys and values
+     * @param name name of the map
+     * @param items serialized entries
+     */
+    PersistentMap(Serializer serializer, String name, Map<byte[], byte[]> items) {
         this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
         this.name = checkNotNull(name);
+        this.items = checkNotNull(items);
+    }
 
-        items = database
+    /**
+     * Returns the byte array map with the given name in a mapDB database.
+     *
+     * @param database mapDB database
+     * @param name name of the map
+     * @return byte array map
+     */
+    static Map<byte[], byte[]> mapDbItems(DB database, String name) {
+        return database
                 .createHashMap(name)
                 .keySerializer(org.mapdb.Serializer.BYTE_ARRAY)
                 .valueSerializer(org.mapdb.Serializer.BYTE_ARRAY)
@@ -147,23 +165,22 @@ public class PersistentMap<K, V> implements Map<K, V> {
     @Override
     public Set<K> keySet() {
         Set<K> keys = Sets.newHashSet();
-        items.keySet().forEach(k -> keys.add(serializer.decode(k)));
+        items.forEach((k, v) -> keys.add(serializer.decode(k)));
         return keys;
     }
 
     @Override
     public Collection<V> values() {
         Collection<V> values = Sets.newHashSet();
-        items.values().forEach(v -> values.add(serializer.decode(v)));
+        items.forEach((k, v) -> values.add(serializer.decode(v)));
         return values;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
         Set<Entry<K, V>> entries = Sets.newHashSet();
-        items.entrySet().
-                forEach(e -> entries.add(Maps.immutableEntry(serializer.decode(e.getKey()),
-                                                             serializer.decode(e.getValue()))));
+        items.forEach((k, v) -> entries.add(Maps.immutableEntry(serializer.decode(k),
+                                                                serializer.decode(v))));
         return entries;
     }
 
@@ -35,18 +35,36 @@ public class PersistentSet<E> implements Set<E> {
 
     private final org.onosproject.store.service.Serializer serializer;
 
-    private final org.mapdb.DB database;
-
     private final Set<byte[]> items;
 
     private final String name;
 
     public PersistentSet(org.onosproject.store.service.Serializer serializer, DB database, String name) {
+        this(serializer, name, mapDbItems(checkNotNull(database), checkNotNull(name)));
+    }
+
+    /**
+     * Creates a set that stores its serialized elements in the given byte array set.
+     *
+     * @param serializer serializer for the elements
+     * @param name name of the set
+     * @param items serialized elements
+     */
+    PersistentSet(org.onosproject.store.service.Serializer serializer, String name, Set<byte[]> items) {
         this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
         this.name = checkNotNull(name);
-
-        items = database
+        this.items = checkNotNull(items);
+    }
+
+    /**
+     * Returns the byte array set with the given name in a mapDB database.
+     *
+     * @param database mapDB database
+     * @param name name of the set
+     * @return byte array set
+     */
+    static Set<byte[]> mapDbItems(DB database, String name) {
+        return database
                 .createHashSet(name)
                 .serializer(Serializer.BYTE_ARRAY)
                 .hasher(Hasher.BYTE_ARRAY)
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test suite for the memory-mapped log backing persistent maps and sets.
+ */
+public class MappedLogTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File file;
+
+    private MappedLog log;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(tmpFolder.getRoot(), "test.log");
+        log = open();
+    }
+
+    @After
+    public void tearDown() {
+        log.close();
+    }
+
+    private MappedLog open() {
+        return MappedLog.open(file, MappedLog.SyncPolicy.PERIODIC, new MappedLogMetrics());
+    }
+
+    private MappedLog reopen() {
+        log.close();
+        log = open();
+        return log;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    /**
+     * Tests updates and their recovery after reopening the log.
+     */
+    @Test
+    public void testReopen() {
+        assertNull(log.put(bytes("a"), bytes("1")));
+        assertNull(log.put(bytes("b"), bytes("2")));
+        assertNull(log.put(bytes("c"), bytes("3")));
+        assertArrayEquals(bytes("2"), log.put(bytes("b"), bytes("22")));
+        assertArrayEquals(bytes("3"), log.remove(bytes("c")));
+        assertNull(log.remove(bytes("c")));
+        assertEquals(2, log.size());
+
+        reopen();
+        assertEquals(2, log.size());
+        assertArrayEquals(bytes("1"), log.get(bytes("a")));
+        assertArrayEquals(bytes("22"), log.get(bytes("b")));
+        assertFalse(log.containsKey(bytes("c")));
+
+        log.clear();
+        assertTrue(log.isEmpty());
+        reopen();
+        assertTrue(log.isEmpty());
+    }
+
+    /**
+     * Tests that a partially written record is discarded on recovery.
+     *
+     * @throws Exception if the log file cannot be modified
+     */
+    @Test
+    public void testTornWrite() throws Exception {
+        log.put(bytes("a"), bytes("1"));
+        log.put(bytes("b"), bytes("2"));
+        log.close();
+
+        // Corrupt the last byte of the value of the last record.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long lastByte = 8 + (12 + 1 + 1) * 2 - 1;
+            raf.seek(lastByte);
+            raf.write('x');
+        }
+
+        log = open();
+        assertEquals(1, log.size());
+        assertArrayEquals(bytes("1"), log.get(bytes("a")));
+        assertNull(log.get(bytes("b")));
+
+        log.put(bytes("c"), bytes("3"));
+        reopen();
+        assertEquals(2, log.size());
+        assertArrayEquals(bytes("3"), log.get(bytes("c")));
+    }
+
+    /**
+     * Tests that superseded records are compacted away.
+     */
+    @Test
+    public void testCompaction() {
+        byte[] value = new byte[1024 * 64];
+        for (int i = 0; i < 200; i++) {
+            value[0] = (byte) i;
+            log.put(bytes("key"), value);
+        }
+        log.put(bytes("other"), bytes("value"));
+        log.sync();
+        assertTrue(file.length() < 200L * value.length);
+        assertEquals(2, log.size());
+        assertEquals((byte) 199, log.get(bytes("key"))[0]);
+
+        log.compact();
+        reopen();
+        assertEquals(2, log.size());
+        assertEquals((byte) 199, log.get(bytes("key"))[0]);
+        assertArrayEquals(bytes("value"), log.get(bytes("other")));
+    }
+
+    /**
+     * Tests that the index grows and purges removed keys as needed.
+     */
+    @Test
+    public void testManyKeys() {
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            log.put(bytes("key" + i), bytes("value" + i));
+        }
+        for (int i = 0; i < count; i += 2) {
+            log.remove(bytes("key" + i));
+        }
+        assertEquals(count / 2, log.size());
+        for (int i = 0; i < count; i++) {
+            byte[] value = log.get(bytes("key" + i));
+            if (i % 2 == 0) {
+                assertNull(value);
+            } else {
+                assertArrayEquals(bytes("value" + i), value);
+            }
+        }
+        int[] entries = {0};
+        log.forEach((key, value) -> entries[0]++);
+        assertEquals(count / 2, entries[0]);
+    }
+
+    /**
+     * Tests the set view of the log keys.
+     */
+    @Test
+    public void testSetView() {
+        Set<byte[]> set = log.asSet();
+        assertTrue(set.add(bytes("a")));
+        assertFalse(set.add(bytes("a")));
+        assertTrue(set.add(bytes("b")));
+        assertTrue(set.contains(bytes("a")));
+        assertEquals(2, set.size());
+
+        Iterator<byte[]> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next()[0] == 'a') {
+                iterator.remove();
+            }
+        }
+        assertFalse(set.contains(bytes("a")));
+        assertTrue(set.remove(bytes("b")));
+        assertTrue(set.isEmpty());
+    }
+}
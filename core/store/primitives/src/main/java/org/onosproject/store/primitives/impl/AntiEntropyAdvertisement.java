@@ -17,10 +17,13 @@ package org.onosproject.store.primitives.impl;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import org.onosproject.cluster.NodeId;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -31,6 +34,8 @@ public class AntiEntropyAdvertisement<K> {
 
     private final NodeId sender;
     private final Map<K, MapValue.Digest> digest;
+    private final int bucketCount;
+    private final Set<Integer> buckets;
 
     /**
      * Creates a new anti entropy advertisement message.
@@ -40,8 +45,26 @@ public class AntiEntropyAdvertisement<K> {
      */
     public AntiEntropyAdvertisement(NodeId sender,
                                     Map<K, MapValue.Digest> digest) {
+        this(sender, digest, 1, ImmutableSet.of(0));
+    }
+
+    /**
+     * Creates a new anti entropy advertisement message covering only the
+     * given buckets of an {@link AntiEntropyTree}.
+     *
+     * @param sender      the sender's node ID
+     * @param digest      for map entries in the given buckets
+     * @param bucketCount number of buckets the key space is split into
+     * @param buckets     buckets covered by this advertisement
+     */
+    public AntiEntropyAdvertisement(NodeId sender,
+                                    Map<K, MapValue.Digest> digest,
+                                    int bucketCount,
+                                    Set<Integer> buckets) {
         this.sender = checkNotNull(sender);
         this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+        this.bucketCount = bucketCount;
+        this.buckets = ImmutableSet.copyOf(checkNotNull(buckets));
     }
 
     /**
@@ -62,11 +85,25 @@ public class AntiEntropyAdvertisement<K> {
         return digest;
     }
 
+    /**
+     * Returns whether the given key falls into the part of the key space
+     * covered by this advertisement.
+     *
+     * @param key     map key
+     * @param keyHash hash function of keys
+     * @return true if the advertisement covers the key
+     */
+    public boolean covers(K key, ToLongFunction<? super K> keyHash) {
+        return bucketCount == 1 ||
+                buckets.contains(AntiEntropyTree.bucket(keyHash.applyAsLong(key), bucketCount));
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
                 .add("sender", sender)
                 .add("totalEntries", digest.size())
+                .add("buckets", buckets.size() + "/" + bucketCount)
                 .toString();
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.collect.Maps;
+
+import org.onosproject.cluster.NodeId;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bucket hashes of the contents of an eventually consistent map, kept up to
+ * date as entries change so that anti-entropy trees are built without
+ * serializing the map contents.
+ * <p>
+ * Hashes are kept for the largest bucket count; a tree with fewer buckets
+ * folds them, which gives the same hashes as {@link AntiEntropyTree#create}.
+ * The hash of every key is computed once and cached while the key is in the
+ * map.
+ *
+ * @param <K> key type
+ */
+final class AntiEntropyHashes<K> {
+
+    private final Function<Object, byte[]> encoder;
+    private final AtomicLongArray hashes = new AtomicLongArray(AntiEntropyTree.MAX_BUCKETS);
+    private final Map<K, Long> keyHashes = Maps.newConcurrentMap();
+
+    /**
+     * Creates hashes of an empty map.
+     *
+     * @param encoder serializer of keys and timestamps
+     */
+    AntiEntropyHashes(Function<Object, byte[]> encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Accounts for an update of the given key from the previous to the
+     * current value. Updates of a key may be accounted for in any order.
+     *
+     * @param key      map key
+     * @param previous previous value; null if the key was absent
+     * @param current  current value; null if the key was removed
+     */
+    void update(K key, MapValue<?> previous, MapValue<?> current) {
+        long keyHash = keyHash(key);
+        long delta = 0;
+        if (previous != null) {
+            delta ^= AntiEntropyTree.entryHash(keyHash, previous.digest(), encoder);
+        }
+        if (current != null) {
+            delta ^= AntiEntropyTree.entryHash(keyHash, current.digest(), encoder);
+        } else {
+            keyHashes.remove(key);
+        }
+        hashes.accumulateAndGet(AntiEntropyTree.bucket(keyHash, AntiEntropyTree.MAX_BUCKETS),
+                                delta, (hash, d) -> hash ^ d);
+    }
+
+    /**
+     * Returns the hash of the given key.
+     *
+     * @param key map key
+     * @return key hash
+     */
+    long keyHash(K key) {
+        return keyHashes.computeIfAbsent(key, k -> AntiEntropyTree.keyHash(k, encoder));
+    }
+
+    /**
+     * Returns the bucket the given key falls into.
+     *
+     * @param key     map key
+     * @param buckets number of buckets; must be a power of two
+     * @return bucket index
+     */
+    int bucket(K key, int buckets) {
+        return AntiEntropyTree.bucket(keyHash(key), buckets);
+    }
+
+    /**
+     * Returns the anti-entropy tree of the map contents.
+     *
+     * @param sender  the local node ID
+     * @param buckets number of buckets; must be a power of two
+     * @return anti-entropy tree
+     */
+    AntiEntropyTree tree(NodeId sender, int buckets) {
+        checkArgument(buckets <= AntiEntropyTree.MAX_BUCKETS, "too many buckets");
+        long[] folded = new long[buckets];
+        for (int i = 0; i < AntiEntropyTree.MAX_BUCKETS; i++) {
+            folded[AntiEntropyTree.bucket(i, buckets)] ^= hashes.get(i);
+        }
+        return new AntiEntropyTree(sender, folded);
+    }
+}
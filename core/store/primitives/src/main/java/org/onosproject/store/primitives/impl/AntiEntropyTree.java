@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+
+import org.onosproject.cluster.NodeId;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bucketed hash summary of the contents of an eventually consistent map.
+ * <p>
+ * Keys are spread over a power-of-two number of buckets; each bucket carries
+ * an order-independent hash of the key and digest of every entry in it.
+ * Peers exchange these summaries first and only advertise full digests for
+ * the buckets whose hashes differ.
+ * <p>
+ * Since the hashes are compared across nodes, they are computed over the
+ * serialized keys and digests rather than their {@code hashCode}, which is
+ * not stable across JVMs for keys hashing enums or identities.
+ */
+public class AntiEntropyTree {
+
+    static final int MAX_BUCKETS = 4096;
+    static final int ENTRIES_PER_BUCKET = 64;
+
+    private final NodeId sender;
+    private final long[] hashes;
+
+    /**
+     * Creates a new anti-entropy tree message.
+     *
+     * @param sender the sender's node ID
+     * @param hashes per-bucket hashes; length must be a power of two
+     */
+    public AntiEntropyTree(NodeId sender, long[] hashes) {
+        checkArgument(hashes.length > 0 && Integer.bitCount(hashes.length) == 1,
+                      "bucket count must be a power of two");
+        this.sender = checkNotNull(sender);
+        this.hashes = hashes;
+    }
+
+    /**
+     * Builds the tree for the given map contents.
+     *
+     * @param sender  the local node ID
+     * @param items   map contents
+     * @param buckets number of buckets; must be a power of two
+     * @param encoder serializer of keys and timestamps
+     * @param <K>     key type
+     * @return anti-entropy tree
+     */
+    public static <K> AntiEntropyTree create(NodeId sender,
+                                             Map<K, ? extends MapValue<?>> items,
+                                             int buckets,
+                                             Function<Object, byte[]> encoder) {
+        long[] hashes = new long[buckets];
+        items.forEach((key, value) -> {
+            long keyHash = keyHash(key, encoder);
+            hashes[bucket(keyHash, buckets)] ^= entryHash(keyHash, value.digest(), encoder);
+        });
+        return new AntiEntropyTree(sender, hashes);
+    }
+
+    /**
+     * Returns the bucket count to use for a map with the given number of entries.
+     *
+     * @param size number of entries, including tombstones
+     * @return power-of-two bucket count
+     */
+    public static int bucketCount(int size) {
+        int target = Math.max(1, Math.min(MAX_BUCKETS, size / ENTRIES_PER_BUCKET));
+        return Integer.highestOneBit(target);
+    }
+
+    /**
+     * Returns the bucket the given key falls into.
+     *
+     * @param key     map key
+     * @param buckets number of buckets; must be a power of two
+     * @param encoder serializer of keys
+     * @return bucket index
+     */
+    public static int bucket(Object key, int buckets, Function<Object, byte[]> encoder) {
+        return bucket(keyHash(key, encoder), buckets);
+    }
+
+    /**
+     * Returns the bucket a key with the given hash falls into.
+     *
+     * @param keyHash key hash
+     * @param buckets number of buckets; must be a power of two
+     * @return bucket index
+     */
+    static int bucket(long keyHash, int buckets) {
+        return (int) keyHash & (buckets - 1);
+    }
+
+    /**
+     * Returns the hash of the given key, over its serialized form.
+     *
+     * @param key     map key
+     * @param encoder serializer of keys
+     * @return key hash
+     */
+    static long keyHash(Object key, Function<Object, byte[]> encoder) {
+        return Hashing.murmur3_128().hashBytes(encoder.apply(key)).asLong();
+    }
+
+    /**
+     * Returns the hash of a map entry.
+     *
+     * @param keyHash hash of the entry key
+     * @param digest  digest of the entry value
+     * @param encoder serializer of timestamps
+     * @return entry hash
+     */
+    static long entryHash(long keyHash, MapValue.Digest digest, Function<Object, byte[]> encoder) {
+        return Hashing.murmur3_128().newHasher()
+                .putLong(keyHash)
+                .putBytes(encoder.apply(digest.timestamp()))
+                .putBoolean(digest.isTombstone())
+                .hash().asLong();
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the number of buckets in this tree.
+     *
+     * @return bucket count
+     */
+    public int bucketCount() {
+        return hashes.length;
+    }
+
+    /**
+     * Returns the indexes of buckets whose hashes differ from the given tree.
+     *
+     * @param other tree with the same bucket count
+     * @return set of differing bucket indexes; empty if the trees match
+     */
+    public Set<Integer> diff(AntiEntropyTree other) {
+        checkArgument(other.hashes.length == hashes.length, "bucket count mismatch");
+        ImmutableSet.Builder<Integer> buckets = ImmutableSet.builder();
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != other.hashes[i]) {
+                buckets.add(i);
+            }
+        }
+        return buckets.build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("buckets", hashes.length)
+                .toString();
+    }
+}
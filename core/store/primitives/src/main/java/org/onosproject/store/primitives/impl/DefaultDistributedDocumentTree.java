@@ -22,6 +22,7 @@ import java.util.concurrent.CompletableFuture;
 import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncDocumentTree;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.DocumentPath;
 import org.onosproject.store.service.DocumentTreeEvent;
 import org.onosproject.store.service.DocumentTreeListener;
@@ -74,6 +75,14 @@ public class DefaultDistributedDocumentTree<V> implements AsyncDocumentTree<V> {
                           .thenApply(map -> Maps.transformValues(map, v -> v.map(serializer::decode)));
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<V>>>> childIterator(DocumentPath path) {
+        return backingTree.childIterator(path)
+                          .thenApply(iterator -> new TranscodingAsyncIterator<>(iterator,
+                                  entry -> Maps.immutableEntry(entry.getKey(),
+                                          entry.getValue().map(serializer::decode))));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> get(DocumentPath path) {
         return backingTree.get(path)
@@ -23,6 +23,7 @@ import com.google.common.base.MoreObjects;
 import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncDocumentTree;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.DocumentPath;
 import org.onosproject.store.service.DocumentTreeListener;
 import org.onosproject.store.service.TransactionLog;
@@ -50,6 +51,11 @@ public class DelegatingAsyncDocumentTree<V> extends DelegatingDistributedPrimiti
         return delegateTree.getChildren(path);
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<V>>>> childIterator(DocumentPath path) {
+        return delegateTree.childIterator(path);
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> get(DocumentPath path) {
         return delegateTree.get(path);
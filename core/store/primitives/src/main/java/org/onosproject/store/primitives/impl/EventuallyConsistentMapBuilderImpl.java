@@ -21,6 +21,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
@@ -56,6 +57,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private boolean persistent = false;
     private boolean persistentMap = false;
     private final PersistenceService persistenceService;
+    private final MetricsService metricsService;
 
     /**
      * Creates a new eventually consistent map builder.
@@ -68,9 +70,27 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
             ClusterService clusterService,
             ClusterCommunicationService clusterCommunicator,
             PersistenceService persistenceService) {
+        this(clusterService, clusterCommunicator, persistenceService, null);
+    }
+
+    /**
+     * Creates a new eventually consistent map builder whose maps publish
+     * their entry counts through the given metrics service.
+     *
+     * @param clusterService cluster service
+     * @param clusterCommunicator cluster communication service
+     * @param persistenceService persistence service
+     * @param metricsService metrics service; may be null
+     */
+    public EventuallyConsistentMapBuilderImpl(
+            ClusterService clusterService,
+            ClusterCommunicationService clusterCommunicator,
+            PersistenceService persistenceService,
+            MetricsService metricsService) {
         this.persistenceService = persistenceService;
         this.clusterService = checkNotNull(clusterService);
         this.clusterCommunicator = checkNotNull(clusterCommunicator);
+        this.metricsService = metricsService;
     }
 
     @Override
@@ -161,20 +181,25 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         }
         checkNotNull(serializer, "serializer is a mandatory parameter");
 
-        return new EventuallyConsistentMapImpl<>(name,
-                                                 clusterService,
-                                                 clusterCommunicator,
-                                                 serializer,
-                                                 timestampProvider,
-                                                 peerUpdateFunction,
-                                                 eventExecutor,
-                                                 communicationExecutor,
-                                                 backgroundExecutor,
-                                                 tombstonesDisabled,
-                                                 antiEntropyPeriod,
-                                                 antiEntropyTimeUnit,
-                                                 convergeFaster,
-                                                 persistent,
-                                                 persistenceService);
+        EventuallyConsistentMapImpl<K, V> map =
+                new EventuallyConsistentMapImpl<>(name,
+                                                  clusterService,
+                                                  clusterCommunicator,
+                                                  serializer,
+                                                  timestampProvider,
+                                                  peerUpdateFunction,
+                                                  eventExecutor,
+                                                  communicationExecutor,
+                                                  backgroundExecutor,
+                                                  tombstonesDisabled,
+                                                  antiEntropyPeriod,
+                                                  antiEntropyTimeUnit,
+                                                  convergeFaster,
+                                                  persistent,
+                                                  persistenceService);
+        if (metricsService != null) {
+            map.registerMetrics(metricsService);
+        }
+        return map;
     }
 }
@@ -39,6 +39,8 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -46,6 +48,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Pair;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.SlidingWindowCounter;
@@ -57,6 +62,7 @@ import org.onosproject.store.LogicalTimestamp;
 import org.onosproject.store.Timestamp;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.DistributedPrimitive;
 import org.onosproject.store.service.EventuallyConsistentMap;
@@ -85,6 +91,9 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final Logger log = LoggerFactory.getLogger(EventuallyConsistentMapImpl.class);
 
     private final Map<K, MapValue<V>> items;
+    private final AtomicInteger liveEntries = new AtomicInteger();
+    private final AtomicInteger tombstones = new AtomicInteger();
+    private final AntiEntropyHashes<K> antiEntropyHashes;
 
     private final ClusterService clusterService;
     private final ClusterCommunicationService clusterCommunicator;
@@ -98,6 +107,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject initializeMessageSubject;
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyTreeSubject;
     private final MessageSubject updateRequestSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
@@ -133,6 +143,15 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private final boolean persistent;
 
+    private static final String METRICS_COMPONENT = "ecMap";
+    private static final String LIVE_ENTRIES = "liveEntries";
+    private static final String TOMBSTONES = "tombstones";
+    private final Gauge<Integer> liveEntriesGauge = liveEntries::get;
+    private final Gauge<Integer> tombstonesGauge = tombstones::get;
+    private MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     /**
      * Creates a new eventually consistent map shared amongst multiple instances.
      * <p>
@@ -189,6 +208,8 @@ public class EventuallyConsistentMapImpl<K, V>
         } else {
             items = Maps.newConcurrentMap();
         }
+        antiEntropyHashes = new AntiEntropyHashes<>(this.serializer::encode);
+        items.forEach((key, value) -> trackUpdate(key, null, value));
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -266,6 +287,13 @@ public class EventuallyConsistentMapImpl<K, V>
                                           serializer::encode,
                                           this.backgroundExecutor);
 
+        antiEntropyTreeSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-tree");
+        clusterCommunicator.addSubscriber(antiEntropyTreeSubject,
+                                          serializer::decode,
+                                          this::handleAntiEntropyTree,
+                                          serializer::encode,
+                                          this.backgroundExecutor);
+
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(updateRequestSubject,
                                           serializer::decode,
@@ -298,6 +326,7 @@ public class EventuallyConsistentMapImpl<K, V>
                          .register(WallClockTimestamp.class)
                          .register(AntiEntropyAdvertisement.class)
                          .register(AntiEntropyResponse.class)
+                         .register(AntiEntropyTree.class)
                          .register(UpdateEntry.class)
                          .register(MapValue.class)
                          .register(MapValue.Digest.class)
@@ -313,8 +342,7 @@ public class EventuallyConsistentMapImpl<K, V>
     @Override
     public int size() {
         checkState(!destroyed, destroyedMessage);
-        // TODO: Maintain a separate counter for tracking live elements in map.
-        return Maps.filterValues(items, MapValue::isAlive).size();
+        return liveEntries.get();
     }
 
     @Override
@@ -423,6 +451,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 return existing;
             }
         });
+        if (updated.get()) {
+            trackUpdate(key, previousValue.get(), tombstone.orElse(null));
+        }
         return previousValue.get();
     }
 
@@ -452,6 +483,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
         });
         if (updated.get()) {
+            trackUpdate(key, previousValue.get(), computedValue);
             notifyPeers(new UpdateEntry<>(key, computedValue), peerUpdateFunction.apply(key, computedValue.get()));
             EventuallyConsistentMapEvent.Type updateType = computedValue.isTombstone() ? REMOVE : PUT;
             V value = computedValue.isTombstone()
@@ -514,16 +546,61 @@ public class EventuallyConsistentMapImpl<K, V>
         checkState(newValue.isAlive());
         counter.incrementCount();
         AtomicBoolean updated = new AtomicBoolean(false);
+        AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                previousValue.set(existing);
                 return newValue;
             }
+            updated.set(false);
             return existing;
         });
+        if (updated.get()) {
+            trackUpdate(key, previousValue.get(), newValue);
+        }
         return updated.get();
     }
 
+    /**
+     * Adjusts the live entry and tombstone counts and the anti-entropy hashes
+     * after a successful update of a single key from the previous to the
+     * current value.
+     */
+    private void trackUpdate(K key, MapValue<V> previous, MapValue<V> current) {
+        antiEntropyHashes.update(key, previous, current);
+        if (previous != null) {
+            (previous.isAlive() ? liveEntries : tombstones).decrementAndGet();
+        }
+        if (current != null) {
+            (current.isAlive() ? liveEntries : tombstones).incrementAndGet();
+        }
+    }
+
+    /**
+     * Publishes the live entry and tombstone counts of this map as gauges.
+     *
+     * @param metricsService metrics service
+     */
+    void registerMetrics(MetricsService metricsService) {
+        this.metricsService = checkNotNull(metricsService);
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(mapName);
+        // a map re-created under the same name takes over the existing gauges
+        metricsService.removeMetric(metricsComponent, metricsFeature, LIVE_ENTRIES);
+        metricsService.removeMetric(metricsComponent, metricsFeature, TOMBSTONES);
+        metricsService.registerMetric(metricsComponent, metricsFeature, LIVE_ENTRIES, liveEntriesGauge);
+        metricsService.registerMetric(metricsComponent, metricsFeature, TOMBSTONES, tombstonesGauge);
+    }
+
+    // Removes the gauges of this map only, leaving those of a map that took them over.
+    private void removeMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsService.removeMatching((name, metric) -> metric == liveEntriesGauge || metric == tombstonesGauge);
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -558,6 +635,8 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        clusterCommunicator.removeSubscriber(antiEntropyTreeSubject);
+        removeMetrics();
         return CompletableFuture.completedFuture(null);
     }
 
@@ -606,9 +685,40 @@ public class EventuallyConsistentMapImpl<K, V>
         return activePeers.isEmpty() ? Optional.empty() : Optional.of(activePeers.get(0));
     }
 
+    /**
+     * Exchanges bucket hashes with the peer first and then advertises digests
+     * only for the buckets that differ. Falls back to a full advertisement if
+     * the peer does not understand the tree exchange.
+     */
     private void sendAdvertisementToPeer(NodeId peer) {
-        long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
+        long treeCreationTime = System.currentTimeMillis();
+        int bucketCount = AntiEntropyTree.bucketCount(items.size());
+        AntiEntropyTree tree = antiEntropyHashes.tree(localNodeId, bucketCount);
+        clusterCommunicator.<AntiEntropyTree, Set<Integer>>sendAndReceive(tree,
+                antiEntropyTreeSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenComplete((buckets, error) -> {
+                    if (error != null) {
+                        if (Throwables.getRootCause(error) instanceof MessagingException.NoRemoteHandler) {
+                            sendAdvertisementToPeer(peer, treeCreationTime, createAdvertisement());
+                        } else {
+                            log.debug("Failed to send anti-entropy tree to {}: {}",
+                                    peer, error.getMessage());
+                        }
+                    } else if (buckets == null) {
+                        log.debug("Anti-entropy tree ignored by {}", peer);
+                    } else if (buckets.isEmpty()) {
+                        antiEntropyTimes.put(peer, treeCreationTime);
+                    } else {
+                        sendAdvertisementToPeer(peer, System.currentTimeMillis(),
+                                createAdvertisement(bucketCount, buckets));
+                    }
+                });
+    }
+
+    private void sendAdvertisementToPeer(NodeId peer, long adCreationTime, AntiEntropyAdvertisement<K> ad) {
         clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
                 serializer::encode,
@@ -643,6 +753,31 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private AntiEntropyAdvertisement<K> createAdvertisement(int bucketCount, Set<Integer> buckets) {
+        Map<K, MapValue.Digest> digest = Maps.newHashMap();
+        items.forEach((key, value) -> {
+            if (buckets.contains(antiEntropyHashes.bucket(key, bucketCount))) {
+                digest.put(key, value.digest());
+            }
+        });
+        return new AntiEntropyAdvertisement<>(localNodeId, digest, bucketCount, buckets);
+    }
+
+    /**
+     * Returns the buckets whose hashes differ from the given tree, or null
+     * if the tree is ignored.
+     */
+    private Set<Integer> handleAntiEntropyTree(AntiEntropyTree tree) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("Received anti-entropy tree from {} for {} with {} buckets in it",
+                    tree.sender(), mapName, tree.bucketCount());
+        }
+        return tree.diff(antiEntropyHashes.tree(localNodeId, tree.bucketCount()));
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
@@ -675,6 +810,9 @@ public class EventuallyConsistentMapImpl<K, V>
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
         items.forEach((key, localValue) -> {
+            if (!ad.covers(key, antiEntropyHashes::keyHash)) {
+                return;
+            }
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -737,7 +875,11 @@ public class EventuallyConsistentMapImpl<K, V>
                                           .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                                           .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            if (items.remove(entry.getKey(), entry.getValue())) {
+                trackUpdate(entry.getKey(), entry.getValue(), null);
+            }
+        });
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
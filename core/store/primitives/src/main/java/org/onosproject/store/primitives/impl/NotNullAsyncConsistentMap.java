@@ -25,6 +25,9 @@ import java.util.stream.Collectors;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.Versioned;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 /**
  * {@link org.onosproject.store.service.AsyncConsistentMap} that doesn't allow null values.
  */
@@ -54,6 +57,30 @@ public class NotNullAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.getOrDefault(key, defaultValue).thenApply(v -> v != null && v.value() == null ? null : v);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return super.getAll(keys).thenApply(values -> values.entrySet().stream()
+            .filter(e -> e.getValue().value() != null)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        Map<K, V> values = Maps.newHashMap();
+        Set<K> removed = Sets.newHashSet();
+        entries.forEach((key, value) -> {
+            if (value == null) {
+                removed.add(key);
+            } else {
+                values.put(key, value);
+            }
+        });
+        if (removed.isEmpty()) {
+            return super.putAll(values);
+        }
+        return CompletableFuture.allOf(super.putAll(values), super.removeAll(removed));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> put(K key, V value) {
         if (value == null) {
@@ -18,6 +18,7 @@ package org.onosproject.store.primitives.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -27,6 +28,7 @@ import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.onlab.util.Match;
@@ -35,14 +37,17 @@ import org.onosproject.cluster.PartitionId;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.TransactionLog;
 import org.onosproject.store.service.Version;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * {@link AsyncConsistentMap} that has its entries partitioned horizontally across
@@ -126,6 +131,32 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).remove(key);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        List<CompletableFuture<Map<K, Versioned<V>>>> futures = groupByMap(keys).entrySet().stream()
+                .map(e -> e.getKey().getAll(e.getValue()))
+                .collect(Collectors.toList());
+        return Tools.allOf(futures, this::merge, ImmutableMap.of());
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        Map<AsyncConsistentMap<K, V>, Map<K, V>> entriesByMap = Maps.newHashMap();
+        entries.forEach((key, value) ->
+                entriesByMap.computeIfAbsent(getMap(key), m -> Maps.newHashMap()).put(key, value));
+        return CompletableFuture.allOf(entriesByMap.entrySet().stream()
+                                                   .map(e -> e.getKey().putAll(e.getValue()))
+                                                   .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> removeAll(Set<K> keys) {
+        List<CompletableFuture<Map<K, Versioned<V>>>> futures = groupByMap(keys).entrySet().stream()
+                .map(e -> e.getKey().removeAll(e.getValue()))
+                .collect(Collectors.toList());
+        return Tools.allOf(futures, this::merge, ImmutableMap.of());
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return CompletableFuture.allOf(getMaps().stream()
@@ -154,6 +185,13 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
                 ImmutableSet.of());
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Entry<K, Versioned<V>>>> iterator() {
+        return CompletableFuture.completedFuture(new PartitionedAsyncIterator<>(getMaps().stream()
+                .<Supplier<CompletableFuture<AsyncIterator<Entry<K, Versioned<V>>>>>>map(map -> map::iterator)
+                .collect(Collectors.toList())));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
         return getMap(key).putIfAbsent(key, value);
@@ -247,6 +285,22 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return partitions.get(keyHasher.hash(key));
     }
 
+    /**
+     * Groups the given keys by the partition map that owns them.
+     *
+     * @param keys keys to group
+     * @return map of partition maps to the keys they own
+     */
+    private Map<AsyncConsistentMap<K, V>, Set<K>> groupByMap(Set<K> keys) {
+        Map<AsyncConsistentMap<K, V>, Set<K>> keysByMap = Maps.newHashMap();
+        keys.forEach(key -> keysByMap.computeIfAbsent(getMap(key), m -> Sets.newHashSet()).add(key));
+        return keysByMap;
+    }
+
+    private Map<K, Versioned<V>> merge(Map<K, Versioned<V>> m1, Map<K, Versioned<V>> m2) {
+        return ImmutableMap.<K, Versioned<V>>builder().putAll(m1).putAll(m2).build();
+    }
+
     /**
      * Returns all the constituent maps.
      * @return collection of maps.
@@ -16,10 +16,12 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Maps;
@@ -28,6 +30,7 @@ import org.onosproject.cluster.PartitionId;
 import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncDocumentTree;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.DocumentPath;
 import org.onosproject.store.service.DocumentTreeListener;
 import org.onosproject.store.service.NoSuchDocumentPathException;
@@ -95,6 +98,15 @@ public class PartitionedAsyncDocumentTree<V> implements AsyncDocumentTree<V> {
         });
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<V>>>> childIterator(DocumentPath path) {
+        return CompletableFuture.completedFuture(new PartitionedAsyncIterator<>(partitions().stream()
+                .<Supplier<CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<V>>>>>>map(
+                        partition -> () -> partition.childIterator(path)
+                                .exceptionally(e -> AsyncIterator.of(Collections.emptyIterator())))
+                .collect(Collectors.toList())));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> get(DocumentPath path) {
         return partition(path).get(path);
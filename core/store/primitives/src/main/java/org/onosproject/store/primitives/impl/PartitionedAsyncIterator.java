@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.onlab.util.Tools;
+import org.onosproject.store.service.AsyncIterator;
+
+/**
+ * An {@code AsyncIterator} that iterates over several partition iterators in turn.
+ * <p>
+ * Partition iterators are only opened once the preceding partition has been exhausted,
+ * so at most one partition holds iterator state at a time.
+ *
+ * @param <T> element type
+ */
+public class PartitionedAsyncIterator<T> implements AsyncIterator<T> {
+    private final Iterator<Supplier<CompletableFuture<AsyncIterator<T>>>> partitions;
+    private AsyncIterator<T> current = AsyncIterator.of(Collections.emptyIterator());
+    private CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+
+    public PartitionedAsyncIterator(Iterable<Supplier<CompletableFuture<AsyncIterator<T>>>> partitions) {
+        this.partitions = partitions.iterator();
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> hasNext() {
+        CompletableFuture<Boolean> future = ready.thenCompose(v -> advance());
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    @Override
+    public synchronized CompletableFuture<T> next() {
+        CompletableFuture<T> future = ready.thenCompose(v -> advance()).thenCompose(hasNext -> hasNext
+                ? current.next()
+                : Tools.exceptionalFuture(new NoSuchElementException()));
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> close() {
+        CompletableFuture<Void> future = ready.thenCompose(v -> current.close());
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    /**
+     * Moves on to the next partitions until one with remaining elements is found.
+     *
+     * @return future to be completed with whether an element is available
+     */
+    private CompletableFuture<Boolean> advance() {
+        return current.hasNext().thenCompose(hasNext -> {
+            if (hasNext) {
+                return CompletableFuture.completedFuture(true);
+            } else if (!partitions.hasNext()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return partitions.next().get().thenCompose(iterator -> {
+                current = iterator;
+                return advance();
+            });
+        });
+    }
+}
@@ -43,6 +43,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixCounterService;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeService;
 import org.onosproject.store.primitives.resources.impl.AtomixLeaderElectorService;
 import org.onosproject.store.primitives.resources.impl.AtomixWorkQueueService;
+import org.onosproject.store.primitives.resources.impl.SnapshotStatistics;
 import org.onosproject.store.service.DistributedPrimitive;
 import org.onosproject.store.service.Ordering;
 import org.onosproject.store.service.PartitionInfo;
@@ -64,22 +65,32 @@ public class StoragePartition implements Managed<StoragePartition> {
     private StoragePartitionServer server;
     private StoragePartitionClient client;
 
-    public static final Map<String, Supplier<RaftService>> RAFT_SERVICES =
-            ImmutableMap.<String, Supplier<RaftService>>builder()
-                    .put(DistributedPrimitive.Type.CONSISTENT_MAP.name(), AtomixConsistentMapService::new)
-                    .put(DistributedPrimitive.Type.CONSISTENT_TREEMAP.name(), AtomixConsistentTreeMapService::new)
-                    .put(DistributedPrimitive.Type.CONSISTENT_MULTIMAP.name(), AtomixConsistentSetMultimapService::new)
-                    .put(DistributedPrimitive.Type.COUNTER_MAP.name(), AtomixAtomicCounterMapService::new)
-                    .put(DistributedPrimitive.Type.COUNTER.name(), AtomixCounterService::new)
-                    .put(DistributedPrimitive.Type.LEADER_ELECTOR.name(), AtomixLeaderElectorService::new)
-                    .put(DistributedPrimitive.Type.WORK_QUEUE.name(), AtomixWorkQueueService::new)
-                    .put(DistributedPrimitive.Type.DOCUMENT_TREE.name(),
-                            () -> new AtomixDocumentTreeService(Ordering.NATURAL))
-                    .put(String.format("%s-%s", DistributedPrimitive.Type.DOCUMENT_TREE.name(), Ordering.NATURAL),
-                            () -> new AtomixDocumentTreeService(Ordering.NATURAL))
-                    .put(String.format("%s-%s", DistributedPrimitive.Type.DOCUMENT_TREE.name(), Ordering.INSERTION),
-                            () -> new AtomixDocumentTreeService(Ordering.INSERTION))
-                    .build();
+    /**
+     * Returns the factories for the state machines run by a partition server.
+     *
+     * @param statistics snapshot statistics to be updated by the state machines
+     * @return state machine factories by primitive type
+     */
+    public static Map<String, Supplier<RaftService>> raftServices(SnapshotStatistics statistics) {
+        return ImmutableMap.<String, Supplier<RaftService>>builder()
+                .put(DistributedPrimitive.Type.CONSISTENT_MAP.name(),
+                        () -> new AtomixConsistentMapService(statistics))
+                .put(DistributedPrimitive.Type.CONSISTENT_TREEMAP.name(),
+                        () -> new AtomixConsistentTreeMapService(statistics))
+                .put(DistributedPrimitive.Type.CONSISTENT_MULTIMAP.name(),
+                        () -> new AtomixConsistentSetMultimapService(statistics))
+                .put(DistributedPrimitive.Type.COUNTER_MAP.name(), AtomixAtomicCounterMapService::new)
+                .put(DistributedPrimitive.Type.COUNTER.name(), AtomixCounterService::new)
+                .put(DistributedPrimitive.Type.LEADER_ELECTOR.name(), AtomixLeaderElectorService::new)
+                .put(DistributedPrimitive.Type.WORK_QUEUE.name(), AtomixWorkQueueService::new)
+                .put(DistributedPrimitive.Type.DOCUMENT_TREE.name(),
+                        () -> new AtomixDocumentTreeService(Ordering.NATURAL, statistics))
+                .put(String.format("%s-%s", DistributedPrimitive.Type.DOCUMENT_TREE.name(), Ordering.NATURAL),
+                        () -> new AtomixDocumentTreeService(Ordering.NATURAL, statistics))
+                .put(String.format("%s-%s", DistributedPrimitive.Type.DOCUMENT_TREE.name(), Ordering.INSERTION),
+                        () -> new AtomixDocumentTreeService(Ordering.INSERTION, statistics))
+                .build();
+    }
 
     public StoragePartition(
             Partition partition,
@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 
 import io.atomix.protocols.raft.cluster.RaftMember;
 import org.onosproject.cluster.PartitionId;
+import org.onosproject.store.primitives.resources.impl.SnapshotStatistics;
 import org.onosproject.store.service.PartitionInfo;
 
 import com.google.common.base.MoreObjects;
@@ -37,17 +38,28 @@ public class StoragePartitionDetails {
     private final Set<RaftMember> configuredMembers;
     private final RaftMember leader;
     private final long leaderTerm;
+    private final SnapshotStatistics snapshotStatistics;
 
     public StoragePartitionDetails(PartitionId partitionId,
             Collection<RaftMember> activeMembers,
             Collection<RaftMember> configuredMembers,
             RaftMember leader,
             long leaderTerm) {
+        this(partitionId, activeMembers, configuredMembers, leader, leaderTerm, new SnapshotStatistics());
+    }
+
+    public StoragePartitionDetails(PartitionId partitionId,
+            Collection<RaftMember> activeMembers,
+            Collection<RaftMember> configuredMembers,
+            RaftMember leader,
+            long leaderTerm,
+            SnapshotStatistics snapshotStatistics) {
         this.partitionId = partitionId;
         this.activeMembers = ImmutableSet.copyOf(activeMembers);
         this.configuredMembers = ImmutableSet.copyOf(configuredMembers);
         this.leader = leader;
         this.leaderTerm = leaderTerm;
+        this.snapshotStatistics = snapshotStatistics;
     }
 
     /**
@@ -82,6 +94,14 @@ public class StoragePartitionDetails {
         return leaderTerm;
     }
 
+    /**
+     * Returns the progress and duration of the snapshots taken and installed by the partition.
+     * @return snapshot statistics
+     */
+    public SnapshotStatistics snapshotStatistics() {
+        return snapshotStatistics;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
@@ -89,6 +109,7 @@ public class StoragePartitionDetails {
                 .add("configuredMembers", configuredMembers)
                 .add("leader", leader)
                 .add("leaderTerm", leaderTerm)
+                .add("snapshotStatistics", snapshotStatistics)
                 .toString();
     }
 
@@ -30,6 +30,7 @@ import io.atomix.storage.StorageLevel;
 import org.onosproject.core.Version;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.primitives.resources.impl.AtomixSerializerAdapter;
+import org.onosproject.store.primitives.resources.impl.SnapshotStatistics;
 import org.onosproject.store.service.PartitionInfo;
 import org.onosproject.store.service.Serializer;
 import org.slf4j.Logger;
@@ -50,6 +51,7 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
     private final MemberId localMemberId;
     private final StoragePartition partition;
     private final ClusterCommunicationService clusterCommunicator;
+    private final SnapshotStatistics snapshotStatistics = new SnapshotStatistics();
     private RaftServer server;
 
     public StoragePartitionServer(
@@ -123,7 +125,7 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
                         .withDirectory(partition.getDataFolder())
                         .withMaxSegmentSize(MAX_SEGMENT_SIZE)
                         .build());
-        StoragePartition.RAFT_SERVICES.forEach(builder::addService);
+        StoragePartition.raftServices(snapshotStatistics).forEach(builder::addService);
         RaftServer server = builder.build();
         return server.join(partition.getMemberIds(version))
                 .thenCompose(v -> server.shutdown())
@@ -164,7 +166,7 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
                         .withDirectory(partition.getDataFolder())
                         .withMaxSegmentSize(MAX_SEGMENT_SIZE)
                         .build());
-        StoragePartition.RAFT_SERVICES.forEach(builder::addService);
+        StoragePartition.raftServices(snapshotStatistics).forEach(builder::addService);
         return builder.build();
     }
 
@@ -186,14 +188,23 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
     }
 
     /**
-     * Returns the partition information.
-     * @return partition info
+     * Returns the partition operational details.
+     * @return partition details
      */
-    public PartitionInfo info() {
+    public StoragePartitionDetails details() {
         return new StoragePartitionDetails(partition.getId(),
                 server.cluster().getMembers(),
                 server.cluster().getMembers(),
                 server.cluster().getLeader(),
-                server.cluster().getTerm()).toPartitionInfo();
+                server.cluster().getTerm(),
+                snapshotStatistics);
+    }
+
+    /**
+     * Returns the partition information.
+     * @return partition info
+     */
+    public PartitionInfo info() {
+        return details().toPartitionInfo();
     }
 }
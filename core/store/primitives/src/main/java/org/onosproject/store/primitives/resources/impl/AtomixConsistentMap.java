@@ -17,6 +17,7 @@ package org.onosproject.store.primitives.resources.impl;
 
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -35,9 +36,12 @@ import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsKey;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PutAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Remove;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveVersion;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Replace;
@@ -50,6 +54,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperat
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionRollback;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.ConsistentMapException;
 import org.onosproject.store.service.MapEvent;
 import org.onosproject.store.service.MapEventListener;
@@ -62,20 +67,26 @@ import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMa
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ADD_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.BEGIN;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CLEAR;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CLOSE_ITERATOR;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_KEY;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ENTRY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_OR_DEFAULT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.IS_EMPTY;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ITERATE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.KEY_SET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.NEXT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_AND_COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_AND_GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_IF_ABSENT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VERSION;
@@ -152,6 +163,18 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
                 serializer()::decode);
     }
 
+    @Override
+    public CompletableFuture<Map<String, Versioned<byte[]>>> getAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        return proxy.invoke(
+                GET_ALL,
+                serializer()::encode,
+                new GetAll(keys),
+                serializer()::decode);
+    }
+
     @Override
     public CompletableFuture<Set<String>> keySet() {
         return proxy.invoke(KEY_SET, serializer()::decode);
@@ -167,6 +190,18 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
         return proxy.invoke(ENTRY_SET, serializer()::decode);
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Entry<String, Versioned<byte[]>>>> iterator() {
+        return proxy.<Long>invoke(ITERATE, serializer()::decode)
+                .thenApply(iteratorId -> new AtomixIterator<>(
+                        position -> proxy.invoke(
+                                NEXT,
+                                serializer()::encode,
+                                new IteratorPosition(iteratorId, position),
+                                serializer()::decode),
+                        () -> proxy.invoke(CLOSE_ITERATOR, serializer()::encode, iteratorId)));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public CompletableFuture<Versioned<byte[]>> put(String key, byte[] value) {
@@ -191,6 +226,20 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
                 .thenApply(v -> v.result());
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, byte[]> entries) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return proxy.<PutAll, MapEntryUpdateResult.Status>invoke(
+                PUT_ALL,
+                serializer()::encode,
+                new PutAll(entries),
+                serializer()::decode)
+                .whenComplete((r, e) -> throwIfLocked(r))
+                .thenApply(v -> null);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public CompletableFuture<Versioned<byte[]>> putIfAbsent(String key, byte[] value) {
@@ -215,6 +264,28 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
                 .thenApply(v -> v.result());
     }
 
+    @Override
+    public CompletableFuture<Map<String, Versioned<byte[]>>> removeAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        return proxy.<RemoveAll, List<MapEntryUpdateResult<String, byte[]>>>invoke(
+                REMOVE_ALL,
+                serializer()::encode,
+                new RemoveAll(keys),
+                serializer()::decode)
+                .whenComplete((r, e) -> {
+                    if (r != null) {
+                        r.forEach(this::throwIfLocked);
+                    }
+                })
+                .thenApply(results -> {
+                    Map<String, Versioned<byte[]>> removed = new HashMap<>();
+                    results.forEach(result -> removed.put(result.key(), result.result()));
+                    return removed;
+                });
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public CompletableFuture<Boolean> remove(String key, byte[] value) {
@@ -15,6 +15,11 @@
  */
 package org.onosproject.store.primitives.resources.impl;
 
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import io.atomix.protocols.raft.operation.OperationId;
 import io.atomix.protocols.raft.operation.OperationType;
 import io.atomix.utils.ArraySizeHashPrinter;
@@ -39,19 +44,25 @@ public enum AtomixConsistentMapOperations implements OperationId {
     CONTAINS_VALUE("containsValue", OperationType.QUERY),
     GET("get", OperationType.QUERY),
     GET_OR_DEFAULT("getOrDefault", OperationType.QUERY),
+    GET_ALL("getAll", OperationType.QUERY),
     KEY_SET("keySet", OperationType.QUERY),
     VALUES("values", OperationType.QUERY),
     ENTRY_SET("entrySet", OperationType.QUERY),
+    NEXT("next", OperationType.QUERY),
     PUT("put", OperationType.COMMAND),
     PUT_IF_ABSENT("putIfAbsent", OperationType.COMMAND),
     PUT_AND_GET("putAndGet", OperationType.COMMAND),
+    PUT_ALL("putAll", OperationType.COMMAND),
     REMOVE("remove", OperationType.COMMAND),
     REMOVE_VALUE("removeValue", OperationType.COMMAND),
     REMOVE_VERSION("removeVersion", OperationType.COMMAND),
+    REMOVE_ALL("removeAll", OperationType.COMMAND),
     REPLACE("replace", OperationType.COMMAND),
     REPLACE_VALUE("replaceValue", OperationType.COMMAND),
     REPLACE_VERSION("replaceVersion", OperationType.COMMAND),
     CLEAR("clear", OperationType.COMMAND),
+    ITERATE("iterate", OperationType.COMMAND),
+    CLOSE_ITERATOR("closeIterator", OperationType.COMMAND),
     ADD_LISTENER("addListener", OperationType.COMMAND),
     REMOVE_LISTENER("removeListener", OperationType.COMMAND),
     BEGIN("begin", OperationType.COMMAND),
@@ -109,6 +120,11 @@ public enum AtomixConsistentMapOperations implements OperationId {
             .register(MapEntryUpdateResult.Status.class)
             .register(Versioned.class)
             .register(byte[].class)
+            .register(GetAll.class)
+            .register(PutAll.class)
+            .register(RemoveAll.class)
+            .register(IteratorPosition.class)
+            .register(IteratorBatch.class)
             .build("AtomixConsistentMapOperations");
 
     /**
@@ -247,6 +263,36 @@ public enum AtomixConsistentMapOperations implements OperationId {
         }
     }
 
+    /**
+     * Abstract multi-key operation.
+     */
+    @SuppressWarnings("serial")
+    public abstract static class KeysOperation extends MapOperation {
+        protected Set<String> keys;
+
+        public KeysOperation() {
+        }
+
+        public KeysOperation(Set<String> keys) {
+            this.keys = Sets.newHashSet(checkNotNull(keys, "keys cannot be null"));
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(getClass())
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
+
     /**
      * Contains key command.
      */
@@ -285,6 +331,35 @@ public enum AtomixConsistentMapOperations implements OperationId {
         }
     }
 
+    /**
+     * Map put all operation.
+     */
+    public static class PutAll extends MapOperation {
+        private Map<String, byte[]> entries;
+
+        public PutAll() {
+        }
+
+        public PutAll(Map<String, byte[]> entries) {
+            this.entries = Maps.newHashMap(checkNotNull(entries, "entries cannot be null"));
+        }
+
+        /**
+         * Returns the entries to put.
+         * @return entries
+         */
+        public Map<String, byte[]> entries() {
+            return entries;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this)
+                    .add("keys", entries.keySet())
+                    .toString();
+        }
+    }
+
     /**
      * Remove operation.
      */
@@ -297,6 +372,18 @@ public enum AtomixConsistentMapOperations implements OperationId {
         }
     }
 
+    /**
+     * Remove all operation.
+     */
+    public static class RemoveAll extends KeysOperation {
+        public RemoveAll() {
+        }
+
+        public RemoveAll(Set<String> keys) {
+            super(keys);
+        }
+    }
+
     /**
      * Remove if value match operation.
      */
@@ -531,6 +618,19 @@ public enum AtomixConsistentMapOperations implements OperationId {
         }
     }
 
+    /**
+     * Get all query.
+     */
+    @SuppressWarnings("serial")
+    public static class GetAll extends KeysOperation {
+        public GetAll() {
+        }
+
+        public GetAll(Set<String> keys) {
+            super(keys);
+        }
+    }
+
     /**
      * Get or default query.
      */
@@ -43,9 +43,12 @@ import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsKey;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PutAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Remove;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveVersion;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Replace;
@@ -67,22 +70,28 @@ import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMa
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ADD_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.BEGIN;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CLEAR;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CLOSE_ITERATOR;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_KEY;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ENTRY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_OR_DEFAULT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.IS_EMPTY;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ITERATE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.KEY_SET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.NEXT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_AND_COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_AND_GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_IF_ABSENT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VALUE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VERSION;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REPLACE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REPLACE_VALUE;
@@ -113,9 +122,16 @@ public class AtomixConsistentMapService extends AbstractRaftService {
     private Map<String, MapEntryValue> map;
     protected Set<String> preparedKeys = Sets.newHashSet();
     protected Map<TransactionId, TransactionScope> activeTransactions = Maps.newHashMap();
+    protected Map<Long, IteratorContext<Void>> iterators = Maps.newLinkedHashMap();
     protected long currentVersion;
+    private final SnapshotStatistics statistics;
 
     public AtomixConsistentMapService() {
+        this(new SnapshotStatistics());
+    }
+
+    public AtomixConsistentMapService(SnapshotStatistics statistics) {
+        this.statistics = statistics;
         map = createMap();
     }
 
@@ -135,9 +151,10 @@ public class AtomixConsistentMapService extends AbstractRaftService {
     public void snapshot(SnapshotWriter writer) {
         writer.writeObject(Sets.newHashSet(listeners.keySet()), serializer()::encode);
         writer.writeObject(preparedKeys, serializer()::encode);
-        writer.writeObject(entries(), serializer()::encode);
         writer.writeObject(activeTransactions, serializer()::encode);
         writer.writeLong(currentVersion);
+        SnapshotChunks.writeMap(writer, entries(), serializer(), statistics.snapshots());
+        IteratorContext.write(writer, iterators, serializer());
     }
 
     @Override
@@ -147,9 +164,12 @@ public class AtomixConsistentMapService extends AbstractRaftService {
             listeners.put(sessionId, sessions().getSession(sessionId));
         }
         preparedKeys = reader.readObject(serializer()::decode);
-        map = reader.readObject(serializer()::decode);
         activeTransactions = reader.readObject(serializer()::decode);
         currentVersion = reader.readLong();
+        map = createMap();
+        SnapshotChunks.readMap(reader, map, serializer(), statistics.installs());
+        iterators = Maps.newLinkedHashMap();
+        IteratorContext.read(reader, iterators, serializer());
     }
 
     @Override
@@ -163,21 +183,27 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         executor.register(ENTRY_SET, (Commit<Void> c) -> entrySet(), serializer()::encode);
         executor.register(GET, serializer()::decode, this::get, serializer()::encode);
         executor.register(GET_OR_DEFAULT, serializer()::decode, this::getOrDefault, serializer()::encode);
+        executor.register(GET_ALL, serializer()::decode, this::getAll, serializer()::encode);
         executor.register(IS_EMPTY, (Commit<Void> c) -> isEmpty(), serializer()::encode);
         executor.register(KEY_SET, (Commit<Void> c) -> keySet(), serializer()::encode);
+        executor.register(NEXT, serializer()::decode, this::next, serializer()::encode);
         executor.register(SIZE, (Commit<Void> c) -> size(), serializer()::encode);
         executor.register(VALUES, (Commit<Void> c) -> values(), serializer()::encode);
         // Commands
         executor.register(PUT, serializer()::decode, this::put, serializer()::encode);
         executor.register(PUT_IF_ABSENT, serializer()::decode, this::putIfAbsent, serializer()::encode);
         executor.register(PUT_AND_GET, serializer()::decode, this::putAndGet, serializer()::encode);
+        executor.register(PUT_ALL, serializer()::decode, this::putAll, serializer()::encode);
         executor.register(REMOVE, serializer()::decode, this::remove, serializer()::encode);
         executor.register(REMOVE_VALUE, serializer()::decode, this::removeValue, serializer()::encode);
         executor.register(REMOVE_VERSION, serializer()::decode, this::removeVersion, serializer()::encode);
+        executor.register(REMOVE_ALL, serializer()::decode, this::removeAll, serializer()::encode);
         executor.register(REPLACE, serializer()::decode, this::replace, serializer()::encode);
         executor.register(REPLACE_VALUE, serializer()::decode, this::replaceValue, serializer()::encode);
         executor.register(REPLACE_VERSION, serializer()::decode, this::replaceVersion, serializer()::encode);
         executor.register(CLEAR, (Commit<Void> c) -> clear(), serializer()::encode);
+        executor.register(ITERATE, this::iterate, serializer()::encode);
+        executor.register(CLOSE_ITERATOR, serializer()::decode, this::closeIterator);
         executor.register(BEGIN, serializer()::decode, this::begin, serializer()::encode);
         executor.register(PREPARE, serializer()::decode, this::prepare, serializer()::encode);
         executor.register(PREPARE_AND_COMMIT, serializer()::decode, this::prepareAndCommit, serializer()::encode);
@@ -219,6 +245,23 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         return toVersioned(entries().get(commit.value().key()));
     }
 
+    /**
+     * Handles a get all commit.
+     *
+     * @param commit get all commit
+     * @return values mapped to the keys that are present in the map
+     */
+    protected Map<String, Versioned<byte[]>> getAll(Commit<? extends GetAll> commit) {
+        Map<String, Versioned<byte[]>> values = Maps.newHashMap();
+        commit.value().keys().forEach(key -> {
+            Versioned<byte[]> value = toVersioned(entries().get(key));
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
     /**
      * Handles a get or default commit.
      *
@@ -327,6 +370,42 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         return value == null || value.type() == MapEntryValue.Type.TOMBSTONE;
     }
 
+    /**
+     * Handles an iterate commit.
+     * <p>
+     * The iterator is identified by the commit index and reads the entries of the map in
+     * key order, one batch at a time.
+     *
+     * @param commit iterate commit
+     * @return iterator identifier
+     */
+    protected long iterate(Commit<Void> commit) {
+        IteratorContext.open(iterators, commit.index(), new IteratorContext<>(commit.session().sessionId().id(), null));
+        return commit.index();
+    }
+
+    /**
+     * Handles a next commit.
+     *
+     * @param commit next commit
+     * @return the next batch of entries or {@code null} if the iterator does not exist
+     */
+    protected IteratorBatch<Map.Entry<String, Versioned<byte[]>>> next(Commit<? extends IteratorPosition> commit) {
+        if (!iterators.containsKey(commit.value().iteratorId())) {
+            return null;
+        }
+        return IteratorContext.next(entries(), commit.value().position(), this::toVersioned);
+    }
+
+    /**
+     * Handles a close iterator commit.
+     *
+     * @param commit close iterator commit
+     */
+    protected void closeIterator(Commit<? extends Long> commit) {
+        iterators.remove(commit.value());
+    }
+
     /**
      * Handles a put commit.
      *
@@ -373,6 +452,40 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         return new MapEntryUpdateResult<>(MapEntryUpdateResult.Status.NOOP, commit.index(), key, toVersioned(oldValue));
     }
 
+    /**
+     * Handles a putAll commit.
+     * <p>
+     * The entries are applied together: if any key whose value would change is locked by a
+     * transaction, no entry is updated and a WRITE_LOCK status is returned.
+     *
+     * @param commit putAll commit
+     * @return map update status
+     */
+    protected MapEntryUpdateResult.Status putAll(Commit<? extends PutAll> commit) {
+        Map<String, MapEntryValue> updates = Maps.newHashMap();
+        for (Map.Entry<String, byte[]> entry : commit.value().entries().entrySet()) {
+            MapEntryValue oldValue = entries().get(entry.getKey());
+            MapEntryValue newValue = new MapEntryValue(MapEntryValue.Type.VALUE, commit.index(), entry.getValue());
+            if (valueIsNull(oldValue) || !valuesEqual(oldValue, newValue)) {
+                if (preparedKeys.contains(entry.getKey())) {
+                    return MapEntryUpdateResult.Status.WRITE_LOCK;
+                }
+                updates.put(entry.getKey(), newValue);
+            }
+        }
+
+        List<MapEvent<String, byte[]>> events = Lists.newArrayListWithCapacity(updates.size());
+        updates.forEach((key, newValue) -> {
+            Versioned<byte[]> oldValue = toVersioned(entries().put(key, newValue));
+            MapEvent.Type type = oldValue == null ? MapEvent.Type.INSERT : MapEvent.Type.UPDATE;
+            events.add(new MapEvent<>(type, "", key, toVersioned(newValue), oldValue));
+        });
+        if (!events.isEmpty()) {
+            publish(events);
+        }
+        return updates.isEmpty() ? MapEntryUpdateResult.Status.NOOP : MapEntryUpdateResult.Status.OK;
+    }
+
     /**
      * Handles a putIfAbsent commit.
      *
@@ -495,6 +608,47 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         return removeIf(commit.index(), commit.value().key(), v -> true);
     }
 
+    /**
+     * Handles a removeAll commit.
+     * <p>
+     * The keys are removed together: if any present key is locked by a transaction, no entry
+     * is removed and a single WRITE_LOCK result is returned.
+     *
+     * @param commit removeAll commit
+     * @return map entry update results for the removed keys
+     */
+    protected List<MapEntryUpdateResult<String, byte[]>> removeAll(Commit<? extends RemoveAll> commit) {
+        Map<String, MapEntryValue> removals = Maps.newHashMap();
+        for (String key : commit.value().keys()) {
+            MapEntryValue value = entries().get(key);
+            if (!valueIsNull(value)) {
+                if (preparedKeys.contains(key)) {
+                    return Lists.newArrayList(new MapEntryUpdateResult<>(
+                            MapEntryUpdateResult.Status.WRITE_LOCK, commit.index(), key, null));
+                }
+                removals.put(key, value);
+            }
+        }
+
+        List<MapEntryUpdateResult<String, byte[]>> results = Lists.newArrayListWithCapacity(removals.size());
+        List<MapEvent<String, byte[]>> events = Lists.newArrayListWithCapacity(removals.size());
+        removals.forEach((key, value) -> {
+            // If no transactions are active, remove the key. Otherwise, replace it with a tombstone.
+            if (activeTransactions.isEmpty()) {
+                entries().remove(key);
+            } else {
+                entries().put(key, new MapEntryValue(MapEntryValue.Type.TOMBSTONE, commit.index(), null));
+            }
+            Versioned<byte[]> result = toVersioned(value);
+            results.add(new MapEntryUpdateResult<>(MapEntryUpdateResult.Status.OK, commit.index(), key, result));
+            events.add(new MapEvent<>(MapEvent.Type.REMOVE, "", key, null, result));
+        });
+        if (!events.isEmpty()) {
+            publish(events);
+        }
+        return results;
+    }
+
     /**
      * Handles a removeValue commit.
      *
@@ -920,17 +1074,23 @@ public class AtomixConsistentMapService extends AbstractRaftService {
     @Override
     public void onExpire(RaftSession session) {
         closeListener(session.sessionId().id());
+        closeIterators(session.sessionId().id());
     }
 
     @Override
     public void onClose(RaftSession session) {
         closeListener(session.sessionId().id());
+        closeIterators(session.sessionId().id());
     }
 
     private void closeListener(Long sessionId) {
         listeners.remove(sessionId);
     }
 
+    private void closeIterators(long sessionId) {
+        iterators.values().removeIf(context -> context.sessionId() == sessionId);
+    }
+
     /**
      * Interface implemented by map values.
      */
@@ -116,12 +116,21 @@ public class AtomixConsistentSetMultimapService extends AbstractRaftService {
     private AtomicLong globalVersion = new AtomicLong(1);
     private Map<Long, RaftSession> listeners = new LinkedHashMap<>();
     private Map<String, MapEntryValue> backingMap = Maps.newHashMap();
+    private final SnapshotStatistics statistics;
+
+    public AtomixConsistentSetMultimapService() {
+        this(new SnapshotStatistics());
+    }
+
+    public AtomixConsistentSetMultimapService(SnapshotStatistics statistics) {
+        this.statistics = statistics;
+    }
 
     @Override
     public void snapshot(SnapshotWriter writer) {
         writer.writeLong(globalVersion.get());
         writer.writeObject(Sets.newHashSet(listeners.keySet()), serializer::encode);
-        writer.writeObject(backingMap, serializer::encode);
+        SnapshotChunks.writeMap(writer, backingMap, serializer, statistics.snapshots());
     }
 
     @Override
@@ -133,7 +142,8 @@ public class AtomixConsistentSetMultimapService extends AbstractRaftService {
             listeners.put(sessionId, sessions().getSession(sessionId));
         }
 
-        backingMap = reader.readObject(serializer::decode);
+        backingMap = Maps.newHashMap();
+        SnapshotChunks.readMap(reader, backingMap, serializer, statistics.installs());
     }
 
     @Override
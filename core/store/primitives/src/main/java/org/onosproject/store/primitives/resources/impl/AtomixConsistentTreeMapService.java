@@ -78,6 +78,14 @@ public class AtomixConsistentTreeMapService extends AtomixConsistentMapService {
             .register(TreeMap.class)
             .build());
 
+    public AtomixConsistentTreeMapService() {
+        super();
+    }
+
+    public AtomixConsistentTreeMapService(SnapshotStatistics statistics) {
+        super(statistics);
+    }
+
     @Override
     protected TreeMap<String, MapEntryValue> createMap() {
         return Maps.newTreeMap();
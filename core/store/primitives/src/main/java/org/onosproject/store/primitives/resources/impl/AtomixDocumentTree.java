@@ -32,6 +32,7 @@ import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Get;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GetChildren;
+import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.IterateChildren;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Listen;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Unlisten;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Update;
@@ -42,6 +43,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperati
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.TransactionRollback;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.AsyncDocumentTree;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.DocumentPath;
 import org.onosproject.store.service.DocumentTreeEvent;
 import org.onosproject.store.service.DocumentTreeListener;
@@ -62,6 +64,9 @@ import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTree
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.CLEAR;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GET_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.ITERATE_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.NEXT_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.CLOSE_ITERATOR;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.UPDATE;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.ADD_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.REMOVE_LISTENER;
@@ -124,6 +129,28 @@ public class AtomixDocumentTree extends AbstractRaftPrimitive implements AsyncDo
                 }).thenApply(result -> result.result());
     }
 
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<String, Versioned<byte[]>>>> childIterator(DocumentPath path) {
+        return proxy.<IterateChildren, DocumentTreeResult<Long>>invoke(
+                ITERATE_CHILDREN,
+                SERIALIZER::encode,
+                new IterateChildren(checkNotNull(path)),
+                SERIALIZER::decode)
+                .thenCompose(result -> {
+                    if (result.status() == INVALID_PATH) {
+                        return Tools.exceptionalFuture(new NoSuchDocumentPathException());
+                    }
+                    long iteratorId = result.result();
+                    return CompletableFuture.completedFuture(new AtomixIterator<Map.Entry<String, Versioned<byte[]>>>(
+                            position -> proxy.invoke(
+                                    NEXT_CHILDREN,
+                                    SERIALIZER::encode,
+                                    new IteratorPosition(iteratorId, position),
+                                    SERIALIZER::decode),
+                            () -> proxy.invoke(CLOSE_ITERATOR, SERIALIZER::encode, iteratorId)));
+                });
+    }
+
     @Override
     public CompletableFuture<Versioned<byte[]>> get(DocumentPath path) {
         return proxy.invoke(GET, SERIALIZER::encode, new Get(checkNotNull(path)), SERIALIZER::decode);
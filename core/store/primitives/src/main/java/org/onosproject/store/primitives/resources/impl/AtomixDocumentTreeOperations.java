@@ -39,6 +39,9 @@ public enum AtomixDocumentTreeOperations implements OperationId {
     REMOVE_LISTENER("compareAndSet", OperationType.COMMAND),
     GET("incrementAndGet", OperationType.QUERY),
     GET_CHILDREN("getAndIncrement", OperationType.QUERY),
+    ITERATE_CHILDREN("iterateChildren", OperationType.COMMAND),
+    NEXT_CHILDREN("nextChildren", OperationType.QUERY),
+    CLOSE_ITERATOR("closeIterator", OperationType.COMMAND),
     UPDATE("addAndGet", OperationType.COMMAND),
     CLEAR("getAndAdd", OperationType.COMMAND),
     BEGIN("begin", OperationType.COMMAND),
@@ -91,6 +94,9 @@ public enum AtomixDocumentTreeOperations implements OperationId {
             .register(Versioned.class)
             .register(DocumentTreeResult.class)
             .register(DocumentTreeResult.Status.class)
+            .register(IterateChildren.class)
+            .register(IteratorPosition.class)
+            .register(IteratorBatch.class)
             .build("AtomixDocumentTreeOperations");
 
     /**
@@ -157,6 +163,27 @@ public enum AtomixDocumentTreeOperations implements OperationId {
         }
     }
 
+    /**
+     * DocumentTree#childIterator command.
+     */
+    @SuppressWarnings("serial")
+    public static class IterateChildren extends PathOperation {
+        public IterateChildren() {
+            super(null);
+        }
+
+        public IterateChildren(DocumentPath path) {
+            super(path);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("path", path())
+                    .toString();
+        }
+    }
+
     /**
      * DocumentTree update command.
      */
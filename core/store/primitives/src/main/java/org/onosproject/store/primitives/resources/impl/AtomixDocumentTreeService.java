@@ -17,6 +17,7 @@
 package org.onosproject.store.primitives.resources.impl;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -50,6 +51,7 @@ import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Get;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GetChildren;
+import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.IterateChildren;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Listen;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Unlisten;
 import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.Update;
@@ -62,7 +64,6 @@ import org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperati
 import org.onosproject.store.primitives.resources.impl.DocumentTreeResult.Status;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.DocumentPath;
-import org.onosproject.store.service.DocumentTree;
 import org.onosproject.store.service.DocumentTreeEvent;
 import org.onosproject.store.service.DocumentTreeEvent.Type;
 import org.onosproject.store.service.IllegalDocumentModificationException;
@@ -82,6 +83,9 @@ import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTree
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.CLEAR;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GET_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.ITERATE_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.NEXT_CHILDREN;
+import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.CLOSE_ITERATOR;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.UPDATE;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.ADD_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.REMOVE_LISTENER;
@@ -134,11 +138,21 @@ public class AtomixDocumentTreeService extends AbstractRaftService {
 
     private Map<Long, SessionListenCommits> listeners = new HashMap<>();
     private AtomicLong versionCounter = new AtomicLong(0);
-    private DocumentTree<byte[]> docTree;
+    private DefaultDocumentTree<byte[]> docTree;
     private Map<TransactionId, TransactionScope> activeTransactions = Maps.newHashMap();
     private Set<DocumentPath> preparedKeys = Sets.newHashSet();
+    private Map<Long, IteratorContext<DocumentPath>> iterators = Maps.newLinkedHashMap();
+
+    private final Ordering ordering;
+    private final SnapshotStatistics statistics;
 
     public AtomixDocumentTreeService(Ordering ordering) {
+        this(ordering, new SnapshotStatistics());
+    }
+
+    public AtomixDocumentTreeService(Ordering ordering, SnapshotStatistics statistics) {
+        this.ordering = ordering;
+        this.statistics = statistics;
         this.docTree = new DefaultDocumentTree<>(versionCounter::incrementAndGet, ordering);
     }
 
@@ -146,18 +160,25 @@ public class AtomixDocumentTreeService extends AbstractRaftService {
     public void snapshot(SnapshotWriter writer) {
         writer.writeLong(versionCounter.get());
         writer.writeObject(listeners, serializer::encode);
-        writer.writeObject(docTree, serializer::encode);
         writer.writeObject(preparedKeys, serializer::encode);
         writer.writeObject(activeTransactions, serializer::encode);
+        SnapshotChunks.write(writer, docTree.nodes(), serializer, statistics.snapshots());
+        IteratorContext.write(writer, iterators, serializer);
     }
 
     @Override
     public void install(SnapshotReader reader) {
         versionCounter = new AtomicLong(reader.readLong());
         listeners = reader.readObject(serializer::decode);
-        docTree = reader.readObject(serializer::decode);
         preparedKeys = reader.readObject(serializer::decode);
         activeTransactions = reader.readObject(serializer::decode);
+        DefaultDocumentTree<byte[]> tree = new DefaultDocumentTree<>(versionCounter::incrementAndGet,
+                new DefaultDocumentTreeNode<>(DocumentPath.from("root"), null, 0, ordering, null));
+        SnapshotChunks.<Map.Entry<DocumentPath, Versioned<byte[]>>>read(reader, serializer, statistics.installs(),
+                node -> tree.restore(node.getKey(), node.getValue()));
+        docTree = tree;
+        iterators = Maps.newLinkedHashMap();
+        IteratorContext.read(reader, iterators, serializer);
     }
 
     @Override
@@ -168,9 +189,12 @@ public class AtomixDocumentTreeService extends AbstractRaftService {
         // queries
         executor.register(GET, serializer::decode, this::get, serializer::encode);
         executor.register(GET_CHILDREN, serializer::decode, this::getChildren, serializer::encode);
+        executor.register(NEXT_CHILDREN, serializer::decode, this::nextChildren, serializer::encode);
         // commands
         executor.register(UPDATE, serializer::decode, this::update, serializer::encode);
         executor.register(CLEAR, this::clear);
+        executor.register(ITERATE_CHILDREN, serializer::decode, this::iterateChildren, serializer::encode);
+        executor.register(CLOSE_ITERATOR, serializer::decode, this::closeIterator);
         executor.register(BEGIN, serializer::decode, this::begin, serializer::encode);
         executor.register(PREPARE, serializer::decode, this::prepare, serializer::encode);
         executor.register(PREPARE_AND_COMMIT, serializer::decode, this::prepareAndCommit, serializer::encode);
@@ -219,6 +243,33 @@ public class AtomixDocumentTreeService extends AbstractRaftService {
         }
     }
 
+    protected DocumentTreeResult<Long> iterateChildren(Commit<? extends IterateChildren> commit) {
+        DocumentPath path = commit.value().path();
+        if (docTree.get(path) == null) {
+            return DocumentTreeResult.invalidPath();
+        }
+        // Children are handed out in name order, one batch at a time
+        IteratorContext.open(iterators, commit.index(), new IteratorContext<>(commit.session().sessionId().id(), path));
+        return DocumentTreeResult.ok(commit.index());
+    }
+
+    protected IteratorBatch<Map.Entry<String, Versioned<byte[]>>> nextChildren(
+            Commit<? extends IteratorPosition> commit) {
+        IteratorContext<DocumentPath> context = iterators.get(commit.value().iteratorId());
+        if (context == null) {
+            return null;
+        }
+        try {
+            return IteratorContext.next(docTree.getChildren(context.target()), commit.value().position(), v -> v);
+        } catch (NoSuchDocumentPathException e) {
+            return new IteratorBatch<>(commit.value().position(), Collections.emptyList(), true);
+        }
+    }
+
+    protected void closeIterator(Commit<? extends Long> commit) {
+        iterators.remove(commit.value());
+    }
+
     protected DocumentTreeResult<Versioned<byte[]>> update(Commit<? extends Update> commit) {
         DocumentTreeResult<Versioned<byte[]>> result = null;
         DocumentPath path = commit.value().path();
@@ -553,17 +604,23 @@ public class AtomixDocumentTreeService extends AbstractRaftService {
     @Override
     public void onExpire(RaftSession session) {
         closeListener(session.sessionId().id());
+        closeIterators(session.sessionId().id());
     }
 
     @Override
     public void onClose(RaftSession session) {
         closeListener(session.sessionId().id());
+        closeIterators(session.sessionId().id());
     }
 
     private void closeListener(Long sessionId) {
         listeners.remove(sessionId);
     }
 
+    private void closeIterators(long sessionId) {
+        iterators.values().removeIf(context -> context.sessionId() == sessionId);
+    }
+
     private class SessionListenCommits {
         private final List<Listener> listeners = Lists.newArrayList();
         private DocumentPath leastCommonAncestorPath;
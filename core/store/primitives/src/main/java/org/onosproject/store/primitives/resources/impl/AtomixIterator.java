@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.onlab.util.Tools;
+import org.onosproject.store.service.AsyncIterator;
+import org.onosproject.store.service.StorageException;
+
+/**
+ * Client side of an iterator that fetches its elements from a state machine in batches.
+ * <p>
+ * Operations are applied in the order in which they are invoked, and the next batch is
+ * only requested once the current one has been consumed. The state machine iterator is
+ * closed once the final batch has been consumed or the iterator is explicitly closed.
+ *
+ * @param <T> element type
+ */
+public class AtomixIterator<T> implements AsyncIterator<T> {
+    private final Function<String, CompletableFuture<IteratorBatch<T>>> fetcher;
+    private final Supplier<CompletableFuture<Void>> closer;
+    private CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+    private Iterator<T> entries = Collections.emptyIterator();
+    private String position;
+    private boolean exhausted;
+    private boolean closed;
+
+    /**
+     * Creates a new iterator.
+     *
+     * @param fetcher function fetching the batch following a position
+     * @param closer supplier closing the state machine iterator
+     */
+    public AtomixIterator(Function<String, CompletableFuture<IteratorBatch<T>>> fetcher,
+                          Supplier<CompletableFuture<Void>> closer) {
+        this.fetcher = fetcher;
+        this.closer = closer;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> hasNext() {
+        CompletableFuture<Boolean> future = ready.thenCompose(v -> fill());
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    @Override
+    public synchronized CompletableFuture<T> next() {
+        CompletableFuture<T> future = ready.thenCompose(v -> fill()).thenCompose(hasNext -> hasNext
+                ? CompletableFuture.completedFuture(entries.next())
+                : Tools.exceptionalFuture(new NoSuchElementException()));
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> close() {
+        CompletableFuture<Void> future = ready.thenCompose(v -> closeIterator());
+        ready = future.handle((r, e) -> null);
+        return future;
+    }
+
+    /**
+     * Fetches batches until an entry is available or the iterator is exhausted.
+     *
+     * @return future to be completed with whether an entry is available
+     */
+    private CompletableFuture<Boolean> fill() {
+        if (entries.hasNext()) {
+            return CompletableFuture.completedFuture(true);
+        } else if (exhausted) {
+            return closeIterator().thenApply(v -> false);
+        }
+        return fetcher.apply(position).thenCompose(batch -> {
+            if (batch == null) {
+                exhausted = true;
+                closed = true;
+                return Tools.exceptionalFuture(new StorageException.Unavailable());
+            }
+            position = batch.position();
+            entries = batch.entries().iterator();
+            exhausted = batch.isLast();
+            return fill();
+        });
+    }
+
+    private CompletableFuture<Void> closeIterator() {
+        exhausted = true;
+        entries = Collections.emptyIterator();
+        if (closed) {
+            return CompletableFuture.completedFuture(null);
+        }
+        closed = true;
+        return closer.get();
+    }
+}
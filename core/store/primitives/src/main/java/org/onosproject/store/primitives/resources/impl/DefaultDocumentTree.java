@@ -16,7 +16,10 @@
 
 package org.onosproject.store.primitives.resources.impl;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
@@ -32,6 +35,7 @@ import org.onosproject.store.service.Versioned;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -185,6 +189,52 @@ public class DefaultDocumentTree<V> implements DocumentTree<V> {
         // TODO Auto-generated method stub
     }
 
+    /**
+     * Returns the paths and values of all nodes in the tree, including the root.
+     * <p>
+     * Each node is listed before any of its children, and siblings are listed in the order
+     * defined by the tree ordering.
+     *
+     * @return list of node paths and values
+     */
+    List<Map.Entry<DocumentPath, Versioned<V>>> nodes() {
+        List<Map.Entry<DocumentPath, Versioned<V>>> nodes = Lists.newArrayList();
+        Deque<Iterator<DocumentTreeNode<V>>> stack = new ArrayDeque<>();
+        nodes.add(Maps.immutableEntry(root.path(), root.value()));
+        stack.push(root.children());
+        while (!stack.isEmpty()) {
+            Iterator<DocumentTreeNode<V>> children = stack.peek();
+            if (children.hasNext()) {
+                DocumentTreeNode<V> node = children.next();
+                nodes.add(Maps.immutableEntry(node.path(), node.value()));
+                stack.push(node.children());
+            } else {
+                stack.pop();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Restores a node listed by {@link #nodes()}, preserving its version.
+     * <p>
+     * Nodes must be restored in the order in which they were listed.
+     *
+     * @param path node path
+     * @param value node value
+     */
+    void restore(DocumentPath path, Versioned<V> value) {
+        if (ROOT_PATH.equals(path)) {
+            root.update(value.value(), value.version());
+            return;
+        }
+        DefaultDocumentTreeNode<V> parentNode = getNode(path.parent());
+        if (parentNode == null) {
+            throw new IllegalDocumentModificationException();
+        }
+        parentNode.addChild(simpleName(path), value.value(), value.version());
+    }
+
     private DefaultDocumentTreeNode<V> getNode(DocumentPath path) {
         Iterator<String> pathElements = path.pathElements().iterator();
         DefaultDocumentTreeNode<V> currentNode = root;
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Batch of elements returned by a state machine iterator.
+ *
+ * @param <T> element type
+ */
+public class IteratorBatch<T> {
+    private String position;
+    private List<T> entries;
+    private boolean last;
+
+    public IteratorBatch() {
+    }
+
+    public IteratorBatch(String position, List<T> entries, boolean last) {
+        this.position = position;
+        this.entries = entries;
+        this.last = last;
+    }
+
+    /**
+     * Returns the iterator position following this batch.
+     * <p>
+     * The position is the key of the last element in this batch, or the position the
+     * batch was requested at if the batch is empty.
+     *
+     * @return iterator position
+     */
+    public String position() {
+        return position;
+    }
+
+    /**
+     * Returns the elements in this batch.
+     *
+     * @return batch elements
+     */
+    public List<T> entries() {
+        return entries;
+    }
+
+    /**
+     * Returns whether this is the final batch of the iteration.
+     *
+     * @return {@code true} if the iterator has been exhausted
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("position", position)
+                .add("size", entries.size())
+                .add("last", last)
+                .toString();
+    }
+}
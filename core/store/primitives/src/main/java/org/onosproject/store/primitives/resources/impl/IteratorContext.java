@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.atomix.protocols.raft.storage.snapshot.SnapshotReader;
+import io.atomix.protocols.raft.storage.snapshot.SnapshotWriter;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.Versioned;
+
+/**
+ * State machine side of an iterator.
+ * <p>
+ * The context only records the session that owns the iterator and what it iterates over.
+ * Entries are handed out in key order and each batch is read from the current state,
+ * starting after the last key the client has received, so no copy of the underlying
+ * collection is kept between batches and every replica returns the same batch for a
+ * given position and state. Iterators may therefore observe updates to keys they have
+ * not reached yet.
+ *
+ * @param <T> type of the iterated object
+ */
+class IteratorContext<T> {
+    private static final int MAX_BATCH_SIZE = 1024 * 32;
+    private static final int MAX_BATCH_ENTRIES = 1024;
+
+    /**
+     * Maximum number of iterators a session may keep open.
+     */
+    static final int MAX_SESSION_ITERATORS = 128;
+
+    private final long sessionId;
+    private final T target;
+
+    /**
+     * Creates a new iterator context.
+     *
+     * @param sessionId identifier of the session that owns the iterator
+     * @param target the iterated object, or {@code null} for the whole state machine
+     */
+    IteratorContext(long sessionId, T target) {
+        this.sessionId = sessionId;
+        this.target = target;
+    }
+
+    /**
+     * Returns the identifier of the session that owns the iterator.
+     *
+     * @return session identifier
+     */
+    long sessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns the iterated object.
+     *
+     * @return iterated object, or {@code null} for the whole state machine
+     */
+    T target() {
+        return target;
+    }
+
+    /**
+     * Registers a new iterator context.
+     * <p>
+     * Once the owning session has {@link #MAX_SESSION_ITERATORS} iterators open, the
+     * oldest of them is closed to make room for the new one. The iterator map must
+     * preserve insertion order.
+     *
+     * @param iterators iterator contexts by iterator identifier
+     * @param iteratorId identifier of the new iterator
+     * @param context the new iterator context
+     * @param <T> type of the iterated object
+     */
+    static <T> void open(Map<Long, IteratorContext<T>> iterators, long iteratorId, IteratorContext<T> context) {
+        long open = iterators.values().stream()
+                .filter(other -> other.sessionId == context.sessionId)
+                .count();
+        if (open >= MAX_SESSION_ITERATORS) {
+            Iterator<IteratorContext<T>> oldest = iterators.values().iterator();
+            while (oldest.hasNext()) {
+                if (oldest.next().sessionId == context.sessionId) {
+                    oldest.remove();
+                    break;
+                }
+            }
+        }
+        iterators.put(iteratorId, context);
+    }
+
+    /**
+     * Returns the batch of entries following the given key.
+     * <p>
+     * Entries whose value maps to {@code null} are skipped. Batches are bounded by their
+     * estimated size and number of entries but always contain at least one entry unless
+     * the iterator is exhausted. Sorted sources are read from their tail; other sources
+     * are scanned once to select the smallest following keys without copying them.
+     *
+     * @param source entries to iterate over
+     * @param position key of the last entry received by the client, or {@code null} to start
+     * @param mapper function mapping source values to entry values
+     * @param <V> source value type
+     * @return next batch of entries
+     */
+    static <V> IteratorBatch<Map.Entry<String, Versioned<byte[]>>> next(
+            Map<String, V> source, String position, Function<V, Versioned<byte[]>> mapper) {
+        List<Map.Entry<String, Versioned<byte[]>>> candidates = source instanceof NavigableMap
+                ? following((NavigableMap<String, V>) source, position, mapper)
+                : select(source, position, mapper);
+        List<Map.Entry<String, Versioned<byte[]>>> batch = Lists.newArrayList();
+        int size = 0;
+        for (Map.Entry<String, Versioned<byte[]>> entry : candidates) {
+            if (batch.size() >= MAX_BATCH_ENTRIES || size >= MAX_BATCH_SIZE) {
+                break;
+            }
+            batch.add(entry);
+            size += weight(entry);
+        }
+        String last = batch.isEmpty() ? position : batch.get(batch.size() - 1).getKey();
+        return new IteratorBatch<>(last, batch, batch.size() == candidates.size());
+    }
+
+    /**
+     * Returns up to one more than a full batch of entries following a key of a sorted map.
+     */
+    private static <V> List<Map.Entry<String, Versioned<byte[]>>> following(
+            NavigableMap<String, V> source, String position, Function<V, Versioned<byte[]>> mapper) {
+        Map<String, V> tail = position == null ? source : source.tailMap(position, false);
+        List<Map.Entry<String, Versioned<byte[]>>> entries = Lists.newArrayList();
+        for (Map.Entry<String, V> entry : tail.entrySet()) {
+            Versioned<byte[]> value = mapper.apply(entry.getValue());
+            if (value != null) {
+                entries.add(Maps.immutableEntry(entry.getKey(), value));
+                if (entries.size() > MAX_BATCH_ENTRIES) {
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns up to one more than a full batch of entries following a key of an unsorted map.
+     */
+    private static <V> List<Map.Entry<String, Versioned<byte[]>>> select(
+            Map<String, V> source, String position, Function<V, Versioned<byte[]>> mapper) {
+        // Max-heap holding the smallest keys seen so far
+        PriorityQueue<Map.Entry<String, Versioned<byte[]>>> heap =
+                new PriorityQueue<>(Map.Entry.<String, Versioned<byte[]>>comparingByKey().reversed());
+        for (Map.Entry<String, V> entry : source.entrySet()) {
+            String key = entry.getKey();
+            if (position != null && key.compareTo(position) <= 0) {
+                continue;
+            }
+            if (heap.size() > MAX_BATCH_ENTRIES && key.compareTo(heap.peek().getKey()) >= 0) {
+                continue;
+            }
+            Versioned<byte[]> value = mapper.apply(entry.getValue());
+            if (value != null) {
+                heap.add(Maps.immutableEntry(key, value));
+                if (heap.size() > MAX_BATCH_ENTRIES + 1) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Map.Entry<String, Versioned<byte[]>>> entries = Lists.newArrayList(heap);
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+
+    private static int weight(Map.Entry<String, Versioned<byte[]>> entry) {
+        Versioned<byte[]> value = entry.getValue();
+        return entry.getKey().length() + (value == null || value.value() == null ? 0 : value.value().length);
+    }
+
+    /**
+     * Writes the given iterator contexts to a snapshot.
+     *
+     * @param writer snapshot writer
+     * @param iterators iterator contexts by iterator identifier
+     * @param serializer serializer for the iterated objects
+     * @param <T> type of the iterated object
+     */
+    static <T> void write(SnapshotWriter writer, Map<Long, IteratorContext<T>> iterators, Serializer serializer) {
+        writer.writeInt(iterators.size());
+        iterators.forEach((iteratorId, context) -> {
+            writer.writeLong(iteratorId);
+            writer.writeLong(context.sessionId);
+            writer.writeObject(context.target, serializer::encode);
+        });
+    }
+
+    /**
+     * Reads iterator contexts from a snapshot into the given map.
+     *
+     * @param reader snapshot reader
+     * @param iterators map to populate with iterator contexts by iterator identifier
+     * @param serializer serializer for the iterated objects
+     * @param <T> type of the iterated object
+     */
+    static <T> void read(SnapshotReader reader, Map<Long, IteratorContext<T>> iterators, Serializer serializer) {
+        int count = reader.readInt();
+        for (int i = 0; i < count; i++) {
+            long iteratorId = reader.readLong();
+            long sessionId = reader.readLong();
+            T target = reader.readObject(serializer::decode);
+            iterators.put(iteratorId, new IteratorContext<>(sessionId, target));
+        }
+    }
+}
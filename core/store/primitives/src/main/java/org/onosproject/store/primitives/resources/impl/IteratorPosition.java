@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Position of a client within a state machine iterator.
+ */
+public class IteratorPosition {
+    private long iteratorId;
+    private String position;
+
+    public IteratorPosition() {
+    }
+
+    public IteratorPosition(long iteratorId, String position) {
+        this.iteratorId = iteratorId;
+        this.position = position;
+    }
+
+    /**
+     * Returns the iterator identifier.
+     *
+     * @return iterator identifier
+     */
+    public long iteratorId() {
+        return iteratorId;
+    }
+
+    /**
+     * Returns the key of the last element the client has received.
+     *
+     * @return iterator position, or {@code null} if no element has been received yet
+     */
+    public String position() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("iteratorId", iteratorId)
+                .add("position", position)
+                .toString();
+    }
+}
@@ -89,6 +89,14 @@ public class MapEntryUpdateResult<K, V> {
         return version;
     }
 
+    /**
+     * Returns the key.
+     * @return key
+     */
+    public K key() {
+        return key;
+    }
+
     /**
      * Returns the value.
      * @return the value associated with key if updated was successful, otherwise current value
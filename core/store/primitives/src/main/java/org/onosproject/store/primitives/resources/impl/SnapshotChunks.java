@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Collections2;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.atomix.protocols.raft.storage.snapshot.SnapshotReader;
+import io.atomix.protocols.raft.storage.snapshot.SnapshotWriter;
+import org.onosproject.store.service.Serializer;
+
+/**
+ * Utilities for writing and reading large state machine collections to and from snapshots
+ * in bounded chunks.
+ * <p>
+ * A chunked collection is written as the number of elements followed by a sequence of
+ * serialized lists of at most {@link #CHUNK_SIZE} elements, so neither the writer nor the
+ * reader ever needs to serialize the whole collection into a single buffer.
+ */
+final class SnapshotChunks {
+
+    static final int CHUNK_SIZE = 1024;
+
+    private SnapshotChunks() {
+    }
+
+    /**
+     * Writes the entries of a map to a snapshot in chunks.
+     *
+     * @param writer snapshot writer
+     * @param map map to write
+     * @param serializer serializer for the map entries
+     * @param progress snapshot progress to update
+     * @param <K> key type
+     * @param <V> value type
+     */
+    static <K, V> void writeMap(SnapshotWriter writer, Map<K, V> map,
+                                Serializer serializer, SnapshotStatistics.Progress progress) {
+        write(writer, Collections2.transform(map.entrySet(), e -> Maps.immutableEntry(e.getKey(), e.getValue())),
+                serializer, progress);
+    }
+
+    /**
+     * Reads chunked map entries from a snapshot into the given map.
+     *
+     * @param reader snapshot reader
+     * @param map map to populate
+     * @param serializer serializer for the map entries
+     * @param progress install progress to update
+     * @param <K> key type
+     * @param <V> value type
+     */
+    static <K, V> void readMap(SnapshotReader reader, Map<K, V> map,
+                               Serializer serializer, SnapshotStatistics.Progress progress) {
+        SnapshotChunks.<Map.Entry<K, V>>read(reader, serializer, progress,
+                entry -> map.put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Writes the elements of a collection to a snapshot in chunks.
+     *
+     * @param writer snapshot writer
+     * @param elements elements to write
+     * @param serializer serializer for the elements
+     * @param progress snapshot progress to update
+     * @param <T> element type
+     */
+    static <T> void write(SnapshotWriter writer, Collection<T> elements,
+                          Serializer serializer, SnapshotStatistics.Progress progress) {
+        SnapshotStatistics.Tracker tracker = progress.begin(elements.size());
+        try {
+            writer.writeInt(elements.size());
+            List<T> chunk = Lists.newArrayListWithCapacity(Math.min(elements.size(), CHUNK_SIZE));
+            for (T element : elements) {
+                chunk.add(element);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writer.writeObject(chunk, serializer::encode);
+                    tracker.processed(chunk.size());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writer.writeObject(chunk, serializer::encode);
+                tracker.processed(chunk.size());
+            }
+        } finally {
+            tracker.complete();
+        }
+    }
+
+    /**
+     * Reads chunked elements from a snapshot.
+     *
+     * @param reader snapshot reader
+     * @param serializer serializer for the elements
+     * @param progress install progress to update
+     * @param consumer consumer to which elements are passed in the order they were written
+     * @param <T> element type
+     */
+    static <T> void read(SnapshotReader reader, Serializer serializer,
+                         SnapshotStatistics.Progress progress, Consumer<T> consumer) {
+        int size = reader.readInt();
+        SnapshotStatistics.Tracker tracker = progress.begin(size);
+        try {
+            int remaining = size;
+            while (remaining > 0) {
+                List<T> chunk = reader.readObject(serializer::decode);
+                chunk.forEach(consumer);
+                tracker.processed(chunk.size());
+                remaining -= chunk.size();
+            }
+        } finally {
+            tracker.complete();
+        }
+    }
+}
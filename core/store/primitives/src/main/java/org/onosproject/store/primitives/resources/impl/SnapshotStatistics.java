@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics on the snapshots taken and installed by the state machines of a partition.
+ */
+public class SnapshotStatistics {
+
+    private final Progress snapshots = new Progress();
+    private final Progress installs = new Progress();
+
+    /**
+     * Returns the progress of snapshots taken by the partition state machines.
+     *
+     * @return snapshot progress
+     */
+    public Progress snapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Returns the progress of snapshots installed by the partition state machines.
+     *
+     * @return install progress
+     */
+    public Progress installs() {
+        return installs;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("snapshots", snapshots)
+                .add("installs", installs)
+                .toString();
+    }
+
+    /**
+     * Progress and duration of a kind of snapshot operation.
+     */
+    public static final class Progress {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong totalEntries = new AtomicLong();
+        private final AtomicLong processedEntries = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private volatile long lastDurationMillis;
+        private volatile long maxDurationMillis;
+
+        /**
+         * Records the start of an operation.
+         *
+         * @param entries number of entries the operation will process
+         * @return tracker for the operation
+         */
+        public Tracker begin(long entries) {
+            active.incrementAndGet();
+            totalEntries.addAndGet(entries);
+            return new Tracker(this, entries);
+        }
+
+        /**
+         * Returns the number of operations currently in progress.
+         *
+         * @return number of operations in progress
+         */
+        public int active() {
+            return active.get();
+        }
+
+        /**
+         * Returns the total number of entries of the operations in progress.
+         *
+         * @return number of entries to be processed
+         */
+        public long totalEntries() {
+            return totalEntries.get();
+        }
+
+        /**
+         * Returns the number of entries already processed by the operations in progress.
+         *
+         * @return number of processed entries
+         */
+        public long processedEntries() {
+            return processedEntries.get();
+        }
+
+        /**
+         * Returns the number of completed operations.
+         *
+         * @return number of completed operations
+         */
+        public long completed() {
+            return completed.get();
+        }
+
+        /**
+         * Returns the duration of the last completed operation.
+         *
+         * @return duration in milliseconds
+         */
+        public long lastDurationMillis() {
+            return lastDurationMillis;
+        }
+
+        /**
+         * Returns the duration of the longest completed operation.
+         *
+         * @return duration in milliseconds
+         */
+        public long maxDurationMillis() {
+            return maxDurationMillis;
+        }
+
+        private synchronized void complete(Tracker tracker, long durationMillis) {
+            totalEntries.addAndGet(-tracker.entries);
+            processedEntries.addAndGet(-tracker.processed);
+            active.decrementAndGet();
+            completed.incrementAndGet();
+            lastDurationMillis = durationMillis;
+            maxDurationMillis = Math.max(maxDurationMillis, durationMillis);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("active", active())
+                    .add("processedEntries", processedEntries())
+                    .add("totalEntries", totalEntries())
+                    .add("completed", completed())
+                    .add("lastDurationMillis", lastDurationMillis)
+                    .add("maxDurationMillis", maxDurationMillis)
+                    .toString();
+        }
+    }
+
+    /**
+     * Tracks a single snapshot operation.
+     */
+    public static final class Tracker {
+        private final Progress progress;
+        private final long entries;
+        private final long startMillis = System.currentTimeMillis();
+        private long processed;
+
+        private Tracker(Progress progress, long entries) {
+            this.progress = progress;
+            this.entries = entries;
+        }
+
+        /**
+         * Records that a number of entries have been processed.
+         *
+         * @param count number of processed entries
+         */
+        public void processed(int count) {
+            processed += count;
+            progress.processedEntries.addAndGet(count);
+        }
+
+        /**
+         * Records the completion of the operation.
+         */
+        public void complete() {
+            progress.complete(this, System.currentTimeMillis() - startMillis);
+        }
+    }
+}
@@ -26,9 +26,13 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestUtils.callMethod;
+import static org.onlab.junit.TestUtils.getField;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,6 +46,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -49,6 +54,8 @@ import java.util.function.Function;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
@@ -66,9 +73,13 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.EventuallyConsistentMapListener;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.WallClockTimestamp;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -92,6 +103,8 @@ public class EventuallyConsistentMapImplTest {
             = new MessageSubject("ecm-" + MAP_NAME + "-update");
     private static final MessageSubject ANTI_ENTROPY_MESSAGE_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
+    private static final MessageSubject ANTI_ENTROPY_TREE_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-tree");
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
 
@@ -106,6 +119,7 @@ public class EventuallyConsistentMapImplTest {
     private Consumer<Collection<UpdateEntry<String, String>>> updateHandler;
     private Consumer<Collection<UpdateRequest<String>>> requestHandler;
     private Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse> antiEntropyHandler;
+    private Function<AntiEntropyTree, Set<Integer>> antiEntropyTreeHandler;
 
     @Before
     public void setUp() throws Exception {
@@ -140,7 +154,7 @@ public class EventuallyConsistentMapImplTest {
                                                           anyObject(Function.class),
                                                           anyObject(Function.class),
                                                           anyObject(Executor.class));
-        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
+        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(2);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
@@ -649,6 +663,193 @@ public class EventuallyConsistentMapImplTest {
         return true;
     }
 
+    @Test
+    public void testAntiEntropyTree() throws Exception {
+        expectPeerMessage(clusterCommunicator);
+
+        NodeId peer = new NodeId("peer");
+        Function<Object, byte[]> encoder = Serializer.using(KryoNamespaces.API)::encode;
+        Map<String, MapValue<String>> remote = new HashMap<>();
+        AntiEntropyTree empty = AntiEntropyTree.create(peer, remote, 1, encoder);
+        assertTrue(antiEntropyTreeHandler.apply(empty).isEmpty());
+
+        ecMap.put(KEY1, VALUE1);
+        assertEquals(ImmutableSet.of(0), antiEntropyTreeHandler.apply(empty));
+
+        // Only the buckets holding keys unknown to the peer should differ
+        int buckets = AntiEntropyTree.MAX_BUCKETS;
+        Set<Integer> expected = new HashSet<>();
+        expected.add(AntiEntropyTree.bucket(KEY1, buckets, encoder));
+        for (int i = 0; i < 100; i++) {
+            ecMap.put("" + i, "" + i);
+            expected.add(AntiEntropyTree.bucket("" + i, buckets, encoder));
+        }
+        AntiEntropyTree tree = AntiEntropyTree.create(peer, remote, buckets, encoder);
+        // Trees are ignored while the map is under high load
+        assertNull(antiEntropyTreeHandler.apply(tree));
+        assertAfter(100, 5000, () -> assertEquals(expected, antiEntropyTreeHandler.apply(tree)));
+
+        AntiEntropyAdvertisement<String> ad =
+                new AntiEntropyAdvertisement<>(peer, ImmutableMap.of(), buckets,
+                                               ImmutableSet.of(AntiEntropyTree.bucket(KEY1, buckets, encoder)));
+        assertTrue(ad.covers(KEY1, key -> AntiEntropyTree.keyHash(key, encoder)));
+    }
+
+    /**
+     * Tests that the anti-entropy tree hashes do not depend on the hash codes
+     * of the keys, which may differ between nodes.
+     */
+    @Test
+    public void testAntiEntropyTreeUnstableHashCode() {
+        Function<Object, byte[]> encoder =
+                Serializer.using(KryoNamespaces.API, WallClockTimestamp.class, UnstableHashKey.class)::encode;
+        UnstableHashKey local = new UnstableHashKey("key");
+        UnstableHashKey remote = new UnstableHashKey("key");
+        assertNotEquals(local.hashCode(), remote.hashCode());
+
+        Timestamp timestamp = new WallClockTimestamp(1);
+        int buckets = AntiEntropyTree.MAX_BUCKETS;
+        AntiEntropyTree localTree = AntiEntropyTree.create(
+                new NodeId("local"), ImmutableMap.of(local, new MapValue<>(VALUE1, timestamp)), buckets, encoder);
+        AntiEntropyTree remoteTree = AntiEntropyTree.create(
+                new NodeId("peer"), ImmutableMap.of(remote, new MapValue<>(VALUE1, timestamp)), buckets, encoder);
+        assertTrue(localTree.diff(remoteTree).isEmpty());
+
+        AntiEntropyAdvertisement<UnstableHashKey> ad =
+                new AntiEntropyAdvertisement<>(new NodeId("peer"), ImmutableMap.of(), buckets,
+                                               ImmutableSet.of(AntiEntropyTree.bucket(remote, buckets, encoder)));
+        assertTrue(ad.covers(local, key -> AntiEntropyTree.keyHash(key, encoder)));
+    }
+
+    /**
+     * Tests that the bucket hashes maintained on updates match the hashes of
+     * a tree built from the map contents.
+     */
+    @Test
+    public void testAntiEntropyHashesFollowUpdates() {
+        Function<Object, byte[]> encoder = Serializer.using(KryoNamespaces.API, WallClockTimestamp.class)::encode;
+        AntiEntropyHashes<String> hashes = new AntiEntropyHashes<>(encoder);
+        Map<String, MapValue<String>> contents = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            MapValue<String> value = new MapValue<>("" + i, new WallClockTimestamp(i));
+            hashes.update("" + i, null, value);
+            contents.put("" + i, value);
+        }
+        // update, tombstone and purge some of the entries
+        for (int i = 0; i < 50; i++) {
+            MapValue<String> previous = contents.get("" + i);
+            MapValue<String> current = i % 2 == 0
+                    ? new MapValue<>("x", new WallClockTimestamp(1000 + i))
+                    : MapValue.tombstone(new WallClockTimestamp(1000 + i));
+            hashes.update("" + i, previous, current);
+            contents.put("" + i, current);
+        }
+        for (int i = 1; i < 50; i += 4) {
+            hashes.update("" + i, contents.remove("" + i), null);
+        }
+
+        NodeId node = new NodeId("local");
+        for (int buckets = 1; buckets <= AntiEntropyTree.MAX_BUCKETS; buckets *= 8) {
+            assertTrue(hashes.tree(node, buckets)
+                               .diff(AntiEntropyTree.create(node, contents, buckets, encoder))
+                               .isEmpty());
+        }
+        assertEquals(AntiEntropyTree.bucket("7", 64, encoder), hashes.bucket("7", 64));
+    }
+
+    /**
+     * Key whose hash code differs between equal instances, as the hash code
+     * of a key hashing an enum differs between JVMs.
+     */
+    private static final class UnstableHashKey {
+        private static final AtomicInteger NEXT_HASH = new AtomicInteger();
+
+        private final String name;
+        private final transient int hash = NEXT_HASH.incrementAndGet();
+
+        private UnstableHashKey(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof UnstableHashKey && ((UnstableHashKey) obj).name.equals(name);
+        }
+    }
+
+    private int gauge(MetricsService metricsService, String metric) {
+        String gaugeName = "ecMap." + MAP_NAME + "." + metric;
+        return (Integer) Iterables.getOnlyElement(
+                metricsService.getGauges((name, m) -> name.equals(gaugeName)).values()).getValue();
+    }
+
+    /**
+     * Tests that the live entry and tombstone gauges follow local updates,
+     * updates and anti-entropy from a peer and tombstone purges, and that
+     * they stay with a map re-created under the same name.
+     */
+    @Test
+    public void testEntryCountMetrics() throws Exception {
+        ControllerNode peer = new DefaultControllerNode(new NodeId("peer"), IpAddress.valueOf(2));
+        ClusterService peerClusterService = createMock(ClusterService.class);
+        expect(peerClusterService.getLocalNode()).andReturn(self).anyTimes();
+        expect(peerClusterService.getNodes()).andReturn(ImmutableSet.of(self, peer)).anyTimes();
+        expect(peerClusterService.getState(peer.id())).andReturn(ControllerNode.State.ACTIVE).anyTimes();
+        replay(peerClusterService);
+
+        MetricsService metricsService = new MetricsManager();
+        KryoNamespace.Builder serializer = KryoNamespace.newBuilder()
+                .register(KryoNamespaces.API)
+                .register(TestTimestamp.class);
+        EventuallyConsistentMapBuilderImpl<String, String> builder = new EventuallyConsistentMapBuilderImpl<>(
+                peerClusterService, new TestClusterCommunicationService(), persistenceService, metricsService);
+        builder.withName(MAP_NAME)
+                .withSerializer(serializer)
+                .withTimestampProvider((k, v) -> clockService.getTimestamp(k, v))
+                .withCommunicationExecutor(MoreExecutors.newDirectExecutorService());
+        EventuallyConsistentMap<String, String> map = builder.build();
+
+        map.put(KEY1, VALUE1);
+        map.put(KEY2, VALUE2);
+        assertEquals(2, gauge(metricsService, "liveEntries"));
+        assertEquals(0, gauge(metricsService, "tombstones"));
+
+        map.remove(KEY1);
+        assertEquals(1, gauge(metricsService, "liveEntries"));
+        assertEquals(1, gauge(metricsService, "tombstones"));
+
+        // a newer value from the peer replaces the tombstone
+        updateHandler.accept(ImmutableList.of(
+                generatePutMessage(KEY1, VALUE1, clockService.getTimestamp(KEY1, VALUE1))));
+        assertEquals(2, gauge(metricsService, "liveEntries"));
+        assertEquals(0, gauge(metricsService, "tombstones"));
+
+        // a newer tombstone advertised by the peer removes the entry
+        AntiEntropyAdvertisement<String> ad = new AntiEntropyAdvertisement<>(peer.id(), ImmutableMap.of(
+                KEY2, new MapValue.Digest(clockService.getTimestamp(KEY2, null), true)));
+        assertAfter(100, 5000, () -> assertEquals(AntiEntropyResponse.PROCESSED, antiEntropyHandler.apply(ad)));
+        assertEquals(1, gauge(metricsService, "liveEntries"));
+        assertEquals(1, gauge(metricsService, "tombstones"));
+
+        Map<NodeId, Long> antiEntropyTimes = getField(map, "antiEntropyTimes");
+        antiEntropyTimes.put(peer.id(), Long.MAX_VALUE);
+        callMethod(map, "purgeTombstones", new Class<?>[]{});
+        assertEquals(1, gauge(metricsService, "liveEntries"));
+        assertEquals(0, gauge(metricsService, "tombstones"));
+
+        // destroying the old map leaves the gauges of the one that took them over
+        EventuallyConsistentMap<String, String> recreated = builder.build();
+        map.destroy();
+        assertEquals(0, gauge(metricsService, "liveEntries"));
+        recreated.destroy();
+        assertTrue(metricsService.getGauges((name, m) -> name.startsWith("ecMap." + MAP_NAME)).isEmpty());
+    }
+
     @Test
     public void testDestroy() throws Exception {
         clusterCommunicator.removeSubscriber(BOOTSTRAP_MESSAGE_SUBJECT);
@@ -656,6 +857,7 @@ public class EventuallyConsistentMapImplTest {
         clusterCommunicator.removeSubscriber(UPDATE_MESSAGE_SUBJECT);
         clusterCommunicator.removeSubscriber(UPDATE_REQUEST_SUBJECT);
         clusterCommunicator.removeSubscriber(ANTI_ENTROPY_MESSAGE_SUBJECT);
+        clusterCommunicator.removeSubscriber(ANTI_ENTROPY_TREE_SUBJECT);
 
         replay(clusterCommunicator);
 
@@ -796,6 +998,19 @@ public class EventuallyConsistentMapImplTest {
     private final class TestClusterCommunicationService
             extends ClusterCommunicationServiceAdapter {
 
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder, NodeId toNodeId) {
+            return CompletableFuture.completedFuture(null);
+        }
+
         @Override
         public <M> void addSubscriber(MessageSubject subject,
                 Function<byte[], M> decoder, Consumer<M> handler,
@@ -814,6 +1029,8 @@ public class EventuallyConsistentMapImplTest {
                 Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
             if (subject.equals(ANTI_ENTROPY_MESSAGE_SUBJECT)) {
                 antiEntropyHandler = (Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse>) handler;
+            } else if (subject.equals(ANTI_ENTROPY_TREE_SUBJECT)) {
+                antiEntropyTreeHandler = (Function<AntiEntropyTree, Set<Integer>>) handler;
             } else if (!subject.equals(INITIALIZE_MESSAGE_SUBJECT)) {
                 throw new RuntimeException("Unexpected message subject " + subject.toString());
             }
@@ -23,6 +23,7 @@ import org.onosproject.cluster.PartitionId;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.AsyncConsistentMapAdapter;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.Versioned;
@@ -30,6 +31,7 @@ import org.onosproject.store.service.Versioned;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -291,6 +293,15 @@ public class PartitionedAsyncConsistentMapTest {
         assertThat(partitionedAsyncConsistentMap.keySet().join().size(), is(5));
         assertThat(partitionedAsyncConsistentMap.keySet().join(), hasItem("CCC"));
 
+        AsyncIterator<Map.Entry<String, Versioned<String>>> iterator =
+                partitionedAsyncConsistentMap.iterator().join();
+        Set<String> iteratedKeys = new HashSet<>();
+        while (iterator.hasNext().join()) {
+            iteratedKeys.add(iterator.next().join().getKey());
+        }
+        assertThat(iteratedKeys, hasItem("CCC"));
+        assertThat(iteratedKeys, hasItem(KEY2));
+
 
         partitionedAsyncConsistentMap.clear().join();
         assertThat(partitionedAsyncConsistentMap.size().join(), is(0));
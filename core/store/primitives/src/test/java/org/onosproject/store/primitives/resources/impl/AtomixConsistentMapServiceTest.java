@@ -15,8 +15,14 @@
  */
 package org.onosproject.store.primitives.resources.impl;
 
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+
 import io.atomix.protocols.raft.service.ServiceId;
 import io.atomix.protocols.raft.service.impl.DefaultCommit;
+import io.atomix.protocols.raft.session.SessionId;
 import io.atomix.protocols.raft.session.impl.RaftSessionContext;
 import io.atomix.protocols.raft.storage.RaftStorage;
 import io.atomix.protocols.raft.storage.snapshot.Snapshot;
@@ -28,10 +34,17 @@ import io.atomix.time.WallClockTimestamp;
 import org.junit.Test;
 import org.onosproject.store.service.Versioned;
 
+import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.mock;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ITERATE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.NEXT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
 
@@ -76,4 +89,187 @@ public class AtomixConsistentMapServiceTest {
         assertNotNull(value);
         assertArrayEquals("Hello world!".getBytes(), value.value());
     }
+
+    @Test
+    public void testChunkedSnapshot() throws Exception {
+        SnapshotStore store = new SnapshotStore(RaftStorage.newBuilder()
+                .withPrefix("test")
+                .withStorageLevel(StorageLevel.MEMORY)
+                .build());
+        Snapshot snapshot = store.newSnapshot(ServiceId.from(1), 2, new WallClockTimestamp());
+
+        int count = SnapshotChunks.CHUNK_SIZE * 2 + 1;
+        SnapshotStatistics statistics = new SnapshotStatistics();
+        AtomixConsistentMapService service = new AtomixConsistentMapService(statistics);
+        for (int i = 0; i < count; i++) {
+            service.put(new DefaultCommit<>(
+                    2 + i,
+                    PUT,
+                    new Put("foo" + i, ("Hello world " + i).getBytes()),
+                    mock(RaftSessionContext.class),
+                    System.currentTimeMillis()));
+        }
+
+        try (SnapshotWriter writer = snapshot.openWriter()) {
+            service.snapshot(writer);
+        }
+
+        snapshot.complete();
+
+        assertEquals(1, statistics.snapshots().completed());
+        assertEquals(0, statistics.snapshots().active());
+        assertEquals(0, statistics.snapshots().totalEntries());
+
+        service = new AtomixConsistentMapService(statistics);
+        try (SnapshotReader reader = snapshot.openReader()) {
+            service.install(reader);
+        }
+
+        assertEquals(1, statistics.installs().completed());
+        assertEquals(0, statistics.installs().processedEntries());
+
+        for (int i = 0; i < count; i++) {
+            Versioned<byte[]> value = service.get(new DefaultCommit<>(
+                    2,
+                    GET,
+                    new AtomixConsistentMapOperations.Get("foo" + i),
+                    mock(RaftSessionContext.class),
+                    System.currentTimeMillis()));
+            assertNotNull(value);
+            assertArrayEquals(("Hello world " + i).getBytes(), value.value());
+        }
+    }
+
+    @Test
+    public void testIteratorSnapshot() throws Exception {
+        SnapshotStore store = new SnapshotStore(RaftStorage.newBuilder()
+                .withPrefix("test")
+                .withStorageLevel(StorageLevel.MEMORY)
+                .build());
+        Snapshot snapshot = store.newSnapshot(ServiceId.from(1), 2, new WallClockTimestamp());
+
+        RaftSessionContext session = session(1);
+        AtomixConsistentMapService service = new AtomixConsistentMapService();
+        for (int i = 9; i >= 0; i--) {
+            put(service, session, 2, "foo" + i, "Hello world " + i);
+        }
+        long iteratorId = service.iterate(new DefaultCommit<>(
+                3, ITERATE, null, session, System.currentTimeMillis()));
+
+        IteratorBatch<Map.Entry<String, Versioned<byte[]>>> batch = next(service, session, iteratorId, null);
+        assertNotNull(batch);
+        assertTrue(batch.isLast());
+        assertEquals("foo9", batch.position());
+
+        try (SnapshotWriter writer = snapshot.openWriter()) {
+            service.snapshot(writer);
+        }
+
+        snapshot.complete();
+
+        service = new AtomixConsistentMapService();
+        try (SnapshotReader reader = snapshot.openReader()) {
+            service.install(reader);
+        }
+
+        // Updates to keys the iterator has not reached yet are seen by it
+        put(service, session, 4, "foo0", "Goodbye");
+
+        batch = next(service, session, iteratorId, null);
+        assertNotNull(batch);
+        assertTrue(batch.isLast());
+        assertEquals(10, batch.entries().size());
+        assertArrayEquals("Goodbye".getBytes(), batch.entries().get(0).getValue().value());
+        for (int i = 1; i < 10; i++) {
+            Map.Entry<String, Versioned<byte[]>> entry = batch.entries().get(i);
+            assertEquals("foo" + i, entry.getKey());
+            assertArrayEquals(("Hello world " + i).getBytes(), entry.getValue().value());
+        }
+
+        batch = next(service, session, iteratorId, "foo4");
+        assertEquals(5, batch.entries().size());
+        assertEquals("foo5", batch.entries().get(0).getKey());
+    }
+
+    @Test
+    public void testIteratorBatches() throws Exception {
+        RaftSessionContext session = session(1);
+        AtomixConsistentMapService service = new AtomixConsistentMapService();
+        for (int i = 0; i < 2500; i++) {
+            put(service, session, 2, String.format("key%04d", i), "value");
+        }
+        long iteratorId = service.iterate(new DefaultCommit<>(
+                3, ITERATE, null, session, System.currentTimeMillis()));
+
+        List<String> keys = Lists.newArrayList();
+        String position = null;
+        int batches = 0;
+        IteratorBatch<Map.Entry<String, Versioned<byte[]>>> batch;
+        do {
+            batch = next(service, session, iteratorId, position);
+            batch.entries().forEach(entry -> keys.add(entry.getKey()));
+            position = batch.position();
+            batches++;
+        } while (!batch.isLast());
+
+        assertEquals(3, batches);
+        assertEquals(2500, keys.size());
+        for (int i = 0; i < 2500; i++) {
+            assertEquals(String.format("key%04d", i), keys.get(i));
+        }
+    }
+
+    @Test
+    public void testIteratorLimit() throws Exception {
+        RaftSessionContext session = session(1);
+        RaftSessionContext otherSession = session(2);
+        AtomixConsistentMapService service = new AtomixConsistentMapService();
+        long otherIteratorId = service.iterate(new DefaultCommit<>(
+                1, ITERATE, null, otherSession, System.currentTimeMillis()));
+        for (int i = 0; i < IteratorContext.MAX_SESSION_ITERATORS; i++) {
+            service.iterate(new DefaultCommit<>(2 + i, ITERATE, null, session, System.currentTimeMillis()));
+        }
+        assertNotNull(next(service, session, 2, null));
+
+        // Opening one more iterator closes the oldest iterator of the same session
+        service.iterate(new DefaultCommit<>(1000, ITERATE, null, session, System.currentTimeMillis()));
+        assertNull(next(service, session, 2, null));
+        assertNotNull(next(service, session, 3, null));
+        assertNotNull(next(service, session, 1000, null));
+        assertNotNull(next(service, otherSession, otherIteratorId, null));
+
+        // Closing a session closes its iterators
+        service.onClose(session);
+        assertNull(next(service, session, 1000, null));
+        assertNotNull(next(service, otherSession, otherIteratorId, null));
+        service.onExpire(otherSession);
+        assertNull(next(service, otherSession, otherIteratorId, null));
+    }
+
+    private static RaftSessionContext session(long sessionId) {
+        RaftSessionContext session = mock(RaftSessionContext.class);
+        expect(session.sessionId()).andReturn(SessionId.from(sessionId)).anyTimes();
+        replay(session);
+        return session;
+    }
+
+    private static void put(AtomixConsistentMapService service, RaftSessionContext session,
+                            long index, String key, String value) {
+        service.put(new DefaultCommit<>(
+                index,
+                PUT,
+                new Put(key, value.getBytes()),
+                session,
+                System.currentTimeMillis()));
+    }
+
+    private static IteratorBatch<Map.Entry<String, Versioned<byte[]>>> next(
+            AtomixConsistentMapService service, RaftSessionContext session, long iteratorId, String position) {
+        return service.next(new DefaultCommit<>(
+                iteratorId,
+                NEXT,
+                new IteratorPosition(iteratorId, position),
+                session,
+                System.currentTimeMillis()));
+    }
 }
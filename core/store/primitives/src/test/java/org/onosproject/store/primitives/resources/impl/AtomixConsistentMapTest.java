@@ -18,12 +18,18 @@ package org.onosproject.store.primitives.resources.impl;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.atomix.protocols.raft.proxy.RaftProxy;
 import io.atomix.protocols.raft.service.RaftService;
@@ -31,6 +37,7 @@ import org.junit.Test;
 import org.onlab.util.Tools;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.MapEvent;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.TransactionLog;
@@ -116,6 +123,110 @@ public class AtomixConsistentMapTest extends AtomixTestBase<AtomixConsistentMap>
         }).join();
     }
 
+    /**
+     * Tests bulk map operations.
+     */
+    @Test
+    public void testBulkMapOperations() throws Throwable {
+        final byte[] value1 = Tools.getBytesUtf8("value1");
+        final byte[] value2 = Tools.getBytesUtf8("value2");
+        final byte[] value3 = Tools.getBytesUtf8("value3");
+
+        AtomixConsistentMap map = newPrimitive("testBulkMapOperations");
+        TestMapEventListener listener = new TestMapEventListener();
+        map.addListener(listener).join();
+
+        map.putAll(ImmutableMap.of("foo", value1, "bar", value2)).join();
+        assertEquals(MapEvent.Type.INSERT, listener.event().type());
+        assertEquals(MapEvent.Type.INSERT, listener.event().type());
+        assertEquals(2, map.size().join().intValue());
+
+        map.putAll(ImmutableMap.of("foo", value1, "bar", value3)).join();
+        MapEvent<String, byte[]> event = listener.event();
+        assertEquals(MapEvent.Type.UPDATE, event.type());
+        assertEquals("bar", event.key());
+        assertFalse(listener.eventReceived());
+
+        Map<String, Versioned<byte[]>> values = map.getAll(ImmutableSet.of("foo", "bar", "baz")).join();
+        assertEquals(ImmutableSet.of("foo", "bar"), values.keySet());
+        assertArrayEquals(value1, values.get("foo").value());
+        assertArrayEquals(value3, values.get("bar").value());
+
+        Map<String, Versioned<byte[]>> removed = map.removeAll(ImmutableSet.of("foo", "baz")).join();
+        assertEquals(ImmutableSet.of("foo"), removed.keySet());
+        assertArrayEquals(value1, removed.get("foo").value());
+        assertEquals(MapEvent.Type.REMOVE, listener.event().type());
+        assertNull(map.get("foo").join());
+        assertEquals(1, map.size().join().intValue());
+
+        TransactionId transactionId = TransactionId.from("tx1");
+        Version version = map.begin(transactionId).join();
+        MapUpdate<String, byte[]> update = MapUpdate.<String, byte[]>newBuilder()
+                .withType(MapUpdate.Type.PUT_IF_VERSION_MATCH)
+                .withKey("bar")
+                .withValue(value1)
+                .withVersion(values.get("bar").version())
+                .build();
+        assertTrue(map.prepare(new TransactionLog<>(transactionId, version.value(), Arrays.asList(update))).join());
+
+        try {
+            map.putAll(ImmutableMap.of("baz", value1, "bar", value2)).join();
+            fail("bulk update to map entry in open tx should fail with Exception");
+        } catch (CompletionException e) {
+            assertEquals(ConcurrentModificationException.class, e.getCause().getClass());
+        }
+        assertNull(map.get("baz").join());
+
+        try {
+            map.removeAll(ImmutableSet.of("bar")).join();
+            fail("bulk removal of map entry in open tx should fail with Exception");
+        } catch (CompletionException e) {
+            assertEquals(ConcurrentModificationException.class, e.getCause().getClass());
+        }
+        assertFalse(listener.eventReceived());
+        map.rollback(transactionId).join();
+    }
+
+    /**
+     * Tests iterating over the map in batches.
+     */
+    @Test
+    public void testMapIterator() throws Throwable {
+        final byte[] value = new byte[1024];
+
+        AtomixConsistentMap map = newPrimitive("testMapIterator");
+        assertFalse(map.iterator().join().hasNext().join());
+
+        Map<String, byte[]> entries = Maps.newHashMap();
+        for (int i = 0; i < 100; i++) {
+            entries.put(String.valueOf(i), value);
+        }
+        map.putAll(entries).join();
+
+        AsyncIterator<Map.Entry<String, Versioned<byte[]>>> iterator = map.iterator().join();
+
+        // Entries added or removed ahead of the iterator are reflected by it.
+        map.remove("0").join();
+        map.put("100", value).join();
+        entries.remove("0");
+        entries.put("100", value);
+
+        Set<String> keys = Sets.newHashSet();
+        while (iterator.hasNext().join()) {
+            Map.Entry<String, Versioned<byte[]>> entry = iterator.next().join();
+            assertArrayEquals(value, entry.getValue().value());
+            keys.add(entry.getKey());
+        }
+        assertEquals(entries.keySet(), keys);
+
+        try {
+            iterator.next().join();
+            fail("exhausted iterator should fail with Exception");
+        } catch (CompletionException e) {
+            assertEquals(NoSuchElementException.class, e.getCause().getClass());
+        }
+    }
+
     /**
      * Tests map event notifications.
      */
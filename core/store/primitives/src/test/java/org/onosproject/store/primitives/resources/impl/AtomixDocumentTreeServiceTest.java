@@ -35,6 +35,7 @@ import org.onosproject.store.service.Versioned;
 
 import static org.easymock.EasyMock.mock;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixDocumentTreeOperations.UPDATE;
@@ -72,6 +73,22 @@ public class AtomixDocumentTreeServiceTest {
                         Match.ifNull()),
                 mock(RaftSessionContext.class),
                 System.currentTimeMillis()));
+        service.update(new DefaultCommit<>(
+                3,
+                UPDATE,
+                new AtomixDocumentTreeOperations.Update(
+                        DocumentPath.from("root|foo|bar"),
+                        Optional.of("Hello bar!".getBytes()),
+                        Match.any(),
+                        Match.ifNull()),
+                mock(RaftSessionContext.class),
+                System.currentTimeMillis()));
+        Versioned<byte[]> barValue = service.get(new DefaultCommit<>(
+                3,
+                GET,
+                new AtomixDocumentTreeOperations.Get(DocumentPath.from("root|foo|bar")),
+                mock(RaftSessionContext.class),
+                System.currentTimeMillis()));
 
         try (SnapshotWriter writer = snapshot.openWriter()) {
             service.snapshot(writer);
@@ -92,5 +109,15 @@ public class AtomixDocumentTreeServiceTest {
                 System.currentTimeMillis()));
         assertNotNull(value);
         assertArrayEquals("Hello world!".getBytes(), value.value());
+
+        value = service.get(new DefaultCommit<>(
+                3,
+                GET,
+                new AtomixDocumentTreeOperations.Get(DocumentPath.from("root|foo|bar")),
+                mock(RaftSessionContext.class),
+                System.currentTimeMillis()));
+        assertNotNull(value);
+        assertArrayEquals("Hello bar!".getBytes(), value.value());
+        assertEquals(barValue.version(), value.version());
     }
 }
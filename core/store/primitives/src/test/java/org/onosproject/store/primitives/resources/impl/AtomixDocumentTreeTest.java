@@ -20,16 +20,19 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
 import io.atomix.protocols.raft.proxy.RaftProxy;
 import io.atomix.protocols.raft.service.RaftService;
 import org.junit.Test;
 import org.onosproject.store.primitives.NodeUpdate;
 import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncIterator;
 import org.onosproject.store.service.DocumentPath;
 import org.onosproject.store.service.DocumentTreeEvent;
 import org.onosproject.store.service.DocumentTreeListener;
@@ -335,6 +338,37 @@ public class AtomixDocumentTreeTest extends AtomixTestBase<AtomixDocumentTree> {
         assertEquals(0, tree.getChildren(path("root.a.c")).join().size());
     }
 
+    /**
+     * Tests iterating over children.
+     */
+    @Test
+    public void testChildIterator() throws Throwable {
+        AtomixDocumentTree tree = newPrimitive(UUID.randomUUID().toString());
+        tree.create(path("root.a"), "a".getBytes()).join();
+        for (int i = 0; i < 100; i++) {
+            tree.create(path("root.a." + i), new byte[1024]).join();
+        }
+
+        AsyncIterator<Map.Entry<String, Versioned<byte[]>>> iterator = tree.childIterator(path("root.a")).join();
+        Set<String> names = Sets.newHashSet();
+        while (iterator.hasNext().join()) {
+            Map.Entry<String, Versioned<byte[]>> entry = iterator.next().join();
+            assertEquals(1024, entry.getValue().value().length);
+            names.add(entry.getKey());
+        }
+        assertEquals(100, names.size());
+        assertTrue(names.contains("99"));
+
+        assertFalse(tree.childIterator(path("root.a.0")).join().hasNext().join());
+
+        try {
+            tree.childIterator(path("root.b")).join();
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof NoSuchDocumentPathException);
+        }
+    }
+
     /**
      * Tests destroy.
      */
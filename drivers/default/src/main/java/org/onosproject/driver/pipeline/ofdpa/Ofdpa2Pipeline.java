@@ -86,8 +86,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -256,35 +261,161 @@ public class Ofdpa2Pipeline extends AbstractHandlerBehaviour implements Pipeline
 
     protected void sendForward(ForwardingObjective fwd, Collection<FlowRule> rules) {
         FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
+        if (!addForwardOps(flowOpsBuilder, fwd, rules)) {
+            return;
+        }
+        log.debug("Applying a {} fwd-obj {} to sw:{}", fwd.op(), fwd.id(), deviceId);
+
+        flowRuleService.apply(flowOpsBuilder.build(new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                pass(fwd);
+            }
+
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                fail(fwd, ObjectiveError.FLOWINSTALLATIONFAILED);
+            }
+        }));
+    }
+
+    /**
+     * Adds the operations installing or removing the given rules of a
+     * forwarding objective to the current stage of the given builder.
+     *
+     * @param flowOpsBuilder flow rule operations builder
+     * @param fwd forwarding objective
+     * @param rules flow rules of the forwarding objective
+     * @return false if the objective operation is not supported, in which
+     *         case the objective has been failed
+     */
+    private boolean addForwardOps(FlowRuleOperations.Builder flowOpsBuilder,
+                                  ForwardingObjective fwd, Collection<FlowRule> rules) {
         switch (fwd.op()) {
         case ADD:
             rules.stream()
             .filter(Objects::nonNull)
             .forEach(flowOpsBuilder::add);
-            log.debug("Applying a add fwd-obj {} to sw:{}", fwd.id(), deviceId);
-            break;
+            return true;
         case REMOVE:
             rules.stream()
             .filter(Objects::nonNull)
             .forEach(flowOpsBuilder::remove);
-            log.debug("Deleting a flow rule to sw:{}", deviceId);
-            break;
+            return true;
         default:
             fail(fwd, ObjectiveError.UNKNOWN);
             log.warn("Unknown forwarding type {}", fwd.op());
+            return false;
         }
+    }
 
-        flowRuleService.apply(flowOpsBuilder.build(new FlowRuleOperationsContext() {
-            @Override
-            public void onSuccess(FlowRuleOperations ops) {
-                pass(fwd);
-            }
+    /**
+     * Applies the given objectives in order. The flow rules of consecutive
+     * forwarding objectives are installed together, as one batch of flow
+     * rule operations. A filtering or next objective, or a forwarding
+     * objective touching a rule already in the pending batch, is only
+     * processed once that batch has completed. Forwarding objectives are
+     * reported once the last batch has completed.
+     *
+     * @param objectives list of objectives
+     */
+    @Override
+    public void apply(List<? extends Objective> objectives) {
+        new ObjectiveBatch(objectives).proceed();
+    }
 
-            @Override
-            public void onError(FlowRuleOperations ops) {
-                fail(fwd, ObjectiveError.FLOWINSTALLATIONFAILED);
+    /**
+     * Objectives applied together, processed one batch of forwarding rules
+     * at a time.
+     */
+    private final class ObjectiveBatch {
+        private final Iterator<? extends Objective> objectives;
+        private final List<ForwardingObjective> fwds = new ArrayList<>();
+        private final Set<ForwardingObjective> failed = new HashSet<>();
+
+        // Objective, and its rules if it is a forwarding objective, waiting
+        // for the pending batch to complete
+        private Objective held;
+        private Collection<FlowRule> heldRules;
+
+        private ObjectiveBatch(List<? extends Objective> objectives) {
+            this.objectives = objectives.iterator();
+        }
+
+        private void proceed() {
+            FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
+            Map<FlowRule, Set<ForwardingObjective>> ruleToFwds = new HashMap<>();
+            while (held != null || objectives.hasNext()) {
+                Objective objective = held != null ? held : objectives.next();
+                Collection<FlowRule> rules = heldRules;
+                held = null;
+                heldRules = null;
+                if (objective instanceof ForwardingObjective) {
+                    ForwardingObjective fwd = (ForwardingObjective) objective;
+                    if (rules == null) {
+                        rules = processForward(fwd);
+                        if (rules == null || rules.isEmpty()) {
+                            // Assumes fail message has already been generated
+                            continue;
+                        }
+                    }
+                    if (rules.stream().anyMatch(ruleToFwds::containsKey)) {
+                        held = fwd;
+                        heldRules = rules;
+                        break;
+                    }
+                    if (!addForwardOps(flowOpsBuilder, fwd, rules)) {
+                        continue;
+                    }
+                    rules.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(rule -> ruleToFwds.computeIfAbsent(rule, r -> new HashSet<>()).add(fwd));
+                    fwds.add(fwd);
+                } else if (!ruleToFwds.isEmpty()) {
+                    held = objective;
+                    break;
+                } else if (objective instanceof FilteringObjective) {
+                    filter((FilteringObjective) objective);
+                } else if (objective instanceof NextObjective) {
+                    next((NextObjective) objective);
+                } else {
+                    fail(objective, ObjectiveError.UNSUPPORTED);
+                }
             }
-        }));
+            if (ruleToFwds.isEmpty()) {
+                report();
+                return;
+            }
+
+            log.debug("Applying a batch of {} flow rules to sw:{}", ruleToFwds.size(), deviceId);
+            // All rules are for this device, hence exactly one of the
+            // callbacks is invoked, once the batch has completed
+            flowRuleService.apply(flowOpsBuilder.build(new FlowRuleOperationsContext() {
+                @Override
+                public void onSuccess(FlowRuleOperations ops) {
+                    proceed();
+                }
+
+                @Override
+                public void onError(FlowRuleOperations ops) {
+                    // Only the objectives whose rules failed are reported as failed
+                    ops.stages().forEach(stage -> stage.forEach(
+                            op -> failed.addAll(ruleToFwds.getOrDefault(op.rule(),
+                                                                        Collections.emptySet()))));
+                    proceed();
+                }
+            }));
+        }
+
+        private void report() {
+            fwds.forEach(fwd -> {
+                if (failed.contains(fwd)) {
+                    fail(fwd, ObjectiveError.FLOWINSTALLATIONFAILED);
+                } else {
+                    pass(fwd);
+                }
+            });
+        }
     }
 
     @Override
@@ -903,7 +1034,7 @@ public class Ofdpa2Pipeline extends AbstractHandlerBehaviour implements Pipeline
         return builder.add(rule).build();
     }
 
-    private Collection<FlowRule> processForward(ForwardingObjective fwd) {
+    protected Collection<FlowRule> processForward(ForwardingObjective fwd) {
         switch (fwd.flag()) {
             case SPECIFIC:
                 return processSpecific(fwd);
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.driver.pipeline.ofdpa;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleService;
+import org.onosproject.net.flowobjective.DefaultForwardingObjective;
+import org.onosproject.net.flowobjective.DefaultNextObjective;
+import org.onosproject.net.flowobjective.FilteringObjective;
+import org.onosproject.net.flowobjective.ForwardingObjective;
+import org.onosproject.net.flowobjective.NextObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveContext;
+import org.onosproject.net.flowobjective.ObjectiveError;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the batched objective installation of the OF-DPA pipeline.
+ */
+public class Ofdpa2PipelineTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "test");
+
+    private final Capture<FlowRuleOperations> applied = Capture.newInstance(CaptureType.ALL);
+    private final List<Objective> passed = new ArrayList<>();
+    private final List<Objective> failed = new ArrayList<>();
+    private TestPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        FlowRuleService flowRuleService = createMock(FlowRuleService.class);
+        flowRuleService.apply(capture(applied));
+        expectLastCall().anyTimes();
+        replay(flowRuleService);
+
+        pipeline = new TestPipeline();
+        pipeline.deviceId = DID;
+        pipeline.flowRuleService = flowRuleService;
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.executorService.shutdownNow();
+    }
+
+    /**
+     * Tests that a forwarding objective touching a rule of the pending batch
+     * goes into a later batch, and that objectives are only reported, once
+     * each, after the last batch has completed.
+     */
+    @Test
+    public void stageSplitAndPartialFailure() {
+        FlowRule rule1 = rule(1);
+        FlowRule rule2 = rule(2);
+        ForwardingObjective addRule1 = forward(rule1, true);
+        ForwardingObjective addRule2 = forward(rule2, true);
+        ForwardingObjective removeRule1 = forward(rule1, false);
+
+        pipeline.apply(ImmutableList.of(addRule1, addRule2, removeRule1));
+
+        assertThat(applied.getValues().size(), is(1));
+        assertThat(operations(lastApplied()), is(ImmutableMap.of(
+                rule1, FlowRuleOperation.Type.ADD,
+                rule2, FlowRuleOperation.Type.ADD)));
+
+        // rule2 failed; rules unknown to the batch are ignored
+        lastApplied().callback().onError(FlowRuleOperations.builder()
+                .add(rule2)
+                .add(rule(3))
+                .build());
+        assertThat(passed, is(empty()));
+        assertThat(failed, is(empty()));
+
+        assertThat(applied.getValues().size(), is(2));
+        assertThat(operations(lastApplied()), is(ImmutableMap.of(
+                rule1, FlowRuleOperation.Type.REMOVE)));
+        lastApplied().callback().onSuccess(lastApplied());
+
+        assertThat(passed, contains(addRule1, removeRule1));
+        assertThat(failed, contains(addRule2));
+    }
+
+    /**
+     * Tests that a next objective is only processed once the forwarding rules
+     * before it have been applied.
+     */
+    @Test
+    public void nextWaitsForPendingBatch() {
+        ForwardingObjective removeRule = forward(rule(1), false);
+        NextObjective removeNext = DefaultNextObjective.builder()
+                .withId(1)
+                .withType(NextObjective.Type.SIMPLE)
+                .addTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .fromApp(APP_ID)
+                .remove();
+
+        pipeline.apply(ImmutableList.of(removeRule, removeNext));
+        assertThat(pipeline.dispatched, is(empty()));
+
+        lastApplied().callback().onSuccess(lastApplied());
+        assertThat(pipeline.dispatched, contains(removeNext));
+        assertThat(passed, contains(removeRule));
+        assertThat(applied.getValues().size(), is(1));
+    }
+
+    private FlowRuleOperations lastApplied() {
+        List<FlowRuleOperations> values = applied.getValues();
+        return values.get(values.size() - 1);
+    }
+
+    private static Map<FlowRule, FlowRuleOperation.Type> operations(FlowRuleOperations ops) {
+        assertThat(ops.stages().size(), is(1));
+        return ops.stages().get(0).stream()
+                .collect(Collectors.toMap(FlowRuleOperation::rule, FlowRuleOperation::type));
+    }
+
+    private static FlowRule rule(int priority) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .forTable(Ofdpa2Pipeline.ACL_TABLE)
+                .withPriority(priority)
+                .withSelector(DefaultTrafficSelector.emptySelector())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+
+    private ForwardingObjective forward(FlowRule rule, boolean add) {
+        ObjectiveContext context = new ObjectiveContext() {
+            @Override
+            public void onSuccess(Objective objective) {
+                passed.add(objective);
+            }
+
+            @Override
+            public void onError(Objective objective, ObjectiveError error) {
+                failed.add(objective);
+            }
+        };
+        DefaultForwardingObjective.Builder builder = DefaultForwardingObjective.builder()
+                .withSelector(DefaultTrafficSelector.emptySelector())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withFlag(ForwardingObjective.Flag.VERSATILE)
+                .withPriority(rule.priority())
+                .fromApp(APP_ID)
+                .makePermanent();
+        ForwardingObjective fwd = add ? builder.add(context) : builder.remove(context);
+        pipeline.rules.put(fwd, ImmutableList.of(rule));
+        return fwd;
+    }
+
+    /**
+     * Pipeline translating each forwarding objective into given rules and
+     * recording the other objectives it processes.
+     */
+    private static final class TestPipeline extends Ofdpa2Pipeline {
+        private final Map<ForwardingObjective, Collection<FlowRule>> rules = new HashMap<>();
+        private final List<Objective> dispatched = new ArrayList<>();
+
+        @Override
+        protected Collection<FlowRule> processForward(ForwardingObjective fwd) {
+            return rules.get(fwd);
+        }
+
+        @Override
+        public void filter(FilteringObjective filteringObjective) {
+            dispatched.add(filteringObjective);
+        }
+
+        @Override
+        public void next(NextObjective nextObjective) {
+            dispatched.add(nextObjective);
+        }
+    }
+}
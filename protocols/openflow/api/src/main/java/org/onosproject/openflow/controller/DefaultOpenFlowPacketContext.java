@@ -50,6 +50,10 @@ public final class DefaultOpenFlowPacketContext implements OpenFlowPacketContext
 
     private final boolean isBuffered;
 
+    // Decoded packet-in payload, memoized on first use and shared by all
+    // listeners; empty if the payload could not be decoded.
+    private volatile Optional<Ethernet> parsed = null;
+
     private DefaultOpenFlowPacketContext(OpenFlowSwitch s, OFPacketIn pkt) {
         this.sw = s;
         this.pktin = pkt;
@@ -104,13 +108,23 @@ public final class DefaultOpenFlowPacketContext implements OpenFlowPacketContext
     public Ethernet parsed() {
         checkPermission(PACKET_READ);
 
+        Optional<Ethernet> frame = parsed;
+        if (frame == null) {
+            frame = deserialize();
+            parsed = frame;
+        }
+        return frame.orElse(null);
+    }
+
+    private Optional<Ethernet> deserialize() {
+        byte[] data = pktin.getData();
         try {
-            return Ethernet.deserializer().deserialize(pktin.getData(), 0, pktin.getData().length);
+            return Optional.of(Ethernet.deserializer().deserialize(data, 0, data.length));
         } catch (BufferUnderflowException | NullPointerException |
                 DeserializationException e) {
             Logger log = LoggerFactory.getLogger(getClass());
             log.error("packet deserialization problem : {}", e.getMessage());
-            return null;
+            return Optional.empty();
         }
     }
 
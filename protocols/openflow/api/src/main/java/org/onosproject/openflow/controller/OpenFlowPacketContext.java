@@ -65,7 +65,9 @@ public interface OpenFlowPacketContext {
     void build(Ethernet ethFrame, OFPort outPort);
 
     /**
-     * Provided a handle onto the parsed payload.
+     * Provided a handle onto the parsed payload. The payload is decoded
+     * once and the same frame is returned on every call, hence it must
+     * not be modified.
      *
      * @return the parsed form of the payload.
      */
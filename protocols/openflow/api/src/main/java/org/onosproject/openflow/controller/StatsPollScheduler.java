@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Scheduler shared by the statistics collectors of all OpenFlow switches.
+ * <p>
+ * Polls are jittered so that the polls of many switches do not fire in
+ * phase, and stretched by up to {@link #MAX_BACKOFF} times their interval
+ * while a switch is slow to reply or the controller is busy.
+ */
+public interface StatsPollScheduler {
+
+    /**
+     * Maximum factor by which the interval of a poll is stretched.
+     */
+    int MAX_BACKOFF = 8;
+
+    /**
+     * Schedules periodic polling of the given switch.
+     * <p>
+     * The poller returns whether it sent a request; in that case the
+     * collector is expected to report the reply through
+     * {@link Poll#replyReceived()}.
+     *
+     * @param dpid            switch to poll
+     * @param intervalSeconds poll interval in seconds
+     * @param poller          sends a statistics request to the switch
+     * @return poll handle
+     */
+    Poll schedule(Dpid dpid, int intervalSeconds, BooleanSupplier poller);
+
+    /**
+     * Returns how far, in milliseconds, the latest poll of the given switch
+     * ran behind its schedule. Polls deliberately stretched by backoff are
+     * not counted as lagging.
+     *
+     * @param dpid switch identifier
+     * @return poll lag in milliseconds
+     */
+    long pollLagMillis(Dpid dpid);
+
+    /**
+     * Returns the average time, in milliseconds, the given switch takes to
+     * reply to statistics requests.
+     *
+     * @param dpid switch identifier
+     * @return reply latency in milliseconds
+     */
+    long replyLatencyMillis(Dpid dpid);
+
+    /**
+     * Returns the factor by which the poll intervals of the given switch are
+     * currently stretched.
+     *
+     * @param dpid switch identifier
+     * @return backoff factor, between 1 and {@link #MAX_BACKOFF}
+     */
+    int backoff(Dpid dpid);
+
+    /**
+     * Handle of a periodic poll of a switch.
+     */
+    interface Poll {
+
+        /**
+         * Changes the poll interval, starting with the next poll.
+         *
+         * @param intervalSeconds poll interval in seconds
+         */
+        void setInterval(int intervalSeconds);
+
+        /**
+         * Notes that the switch replied to the latest request of this poll.
+         */
+        void replyReceived();
+
+        /**
+         * Stops polling.
+         */
+        void cancel();
+    }
+}
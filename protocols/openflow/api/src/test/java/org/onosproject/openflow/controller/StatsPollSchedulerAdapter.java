@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Test adapter for the statistics poll scheduler; polls never run.
+ */
+public class StatsPollSchedulerAdapter implements StatsPollScheduler {
+    @Override
+    public Poll schedule(Dpid dpid, int intervalSeconds, BooleanSupplier poller) {
+        return new Poll() {
+            @Override
+            public void setInterval(int intervalSeconds) {
+            }
+
+            @Override
+            public void replyReceived() {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+    }
+
+    @Override
+    public long pollLagMillis(Dpid dpid) {
+        return 0;
+    }
+
+    @Override
+    public long replyLatencyMillis(Dpid dpid) {
+        return 0;
+    }
+
+    @Override
+    public int backoff(Dpid dpid) {
+        return 1;
+    }
+}
@@ -46,6 +46,7 @@ import org.projectfloodlight.openflow.protocol.OFAsyncGetReply;
 import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
 import org.projectfloodlight.openflow.protocol.OFBarrierReply;
 import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
+import org.projectfloodlight.openflow.protocol.OFBundleCtrlMsg;
 import org.projectfloodlight.openflow.protocol.OFDescStatsReply;
 import org.projectfloodlight.openflow.protocol.OFDescStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFEchoReply;
@@ -825,6 +826,11 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
                 h.dispatchMessage(m);
             }
 
+            @Override
+            void processOFBundleCtrl(OFChannelHandler h, OFBundleCtrlMsg m) {
+                h.dispatchMessage(m);
+            }
+
             @Override
             void processOFFeaturesReply(OFChannelHandler h, OFFeaturesReply  m) {
                 h.sw.setFeaturesReply(m);
@@ -1084,6 +1090,9 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             case GET_ASYNC_REPLY:
                 processOFGetAsyncReply(h, (OFAsyncGetReply) m);
                 break;
+            case BUNDLE_CONTROL:
+                processOFBundleCtrl(h, (OFBundleCtrlMsg) m);
+                break;
 
                 // The following messages are sent to switches. The controller
                 // should never receive them
@@ -1213,6 +1222,10 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             unhandledMessageReceived(h, m);
         }
 
+        void processOFBundleCtrl(OFChannelHandler h, OFBundleCtrlMsg m) {
+            unhandledMessageReceived(h, m);
+        }
+
         void processIdle(OFChannelHandler h) throws IOException {
             // disconnect channel which did no complete handshake
             log.error("{} idle in state {}, disconnecting", h.getSwitchInfoString(), this);
@@ -76,7 +76,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -160,8 +162,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     protected Set<OpenFlowMessageListener> ofMessageListener = new CopyOnWriteArraySet<>();
 
-    protected Multimap<Dpid, OFFlowStatsEntry> fullFlowStats =
-            ArrayListMultimap.create();
+    // Flow statistics replies are aggregated per request, as several flow
+    // statistics requests to a switch may be outstanding at once
+    protected Map<Dpid, Multimap<Long, OFFlowStatsEntry>> fullFlowStats =
+            new HashMap<>();
 
     protected Multimap<Dpid, OFFlowLightweightStatsEntry> fullFlowLightweightStats =
             ArrayListMultimap.create();
@@ -357,6 +361,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         case STATS_REPLY:
             processStatsReply(dpid, (OFStatsReply) msg);
             break;
+        case BUNDLE_CONTROL:
+            executorMsgs.execute(new OFMessageHandler(dpid, msg));
+            break;
         case BARRIER_REPLY:
             if (errorMsgs.containsKey(msg.getXid())) {
                 //To make oferror msg handling and corresponding barrier reply serialized,
@@ -444,6 +451,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                     OFTableStatsReply.Builder rep =
                             OFFactories.getFactory(reply.getVersion()).buildTableStatsReply();
                     rep.setEntries(ImmutableList.copyOf(tableStats));
+                    rep.setXid(reply.getXid());
                     executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
                 }
                 break;
@@ -537,13 +545,23 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private synchronized Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid,
                                                                        OFFlowStatsReply reply) {
         //TODO: Get rid of synchronized
-        fullFlowStats.putAll(dpid, reply.getEntries());
+        Multimap<Long, OFFlowStatsEntry> pending =
+                fullFlowStats.computeIfAbsent(dpid, k -> ArrayListMultimap.create());
+        pending.putAll(reply.getXid(), reply.getEntries());
         if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowStats.removeAll(dpid);
+            Collection<OFFlowStatsEntry> entries = pending.removeAll(reply.getXid());
+            if (pending.isEmpty()) {
+                fullFlowStats.remove(dpid);
+            }
+            return entries;
         }
         return null;
     }
 
+    private synchronized void discardFlowStats(Dpid dpid) {
+        fullFlowStats.remove(dpid);
+    }
+
     private synchronized Collection<OFFlowLightweightStatsEntry> publishFlowStatsLightweight(
             Dpid dpid,
             OFFlowLightweightStatsReply reply) {
@@ -777,6 +795,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                 log.debug("sw was null for {}", dpid);
                 sw = activeEqualSwitches.remove(dpid);
             }
+            discardFlowStats(dpid);
             for (OpenFlowSwitchListener l : ofSwitchListener) {
                 l.switchRemoved(dpid);
             }
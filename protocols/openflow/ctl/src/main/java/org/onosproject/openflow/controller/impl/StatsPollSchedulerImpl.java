@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.google.common.collect.Maps;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Service;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.StatsPollScheduler;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Scheduler shared by the statistics collectors of all OpenFlow switches.
+ * <p>
+ * Each poll starts at a random offset within its interval and every
+ * following delay is jittered, so that the polls of many switches do not
+ * fire in phase. The polls of a switch are stretched by up to
+ * {@link #MAX_BACKOFF} times their interval while the switch is slow to
+ * reply or while the scheduler itself runs late because the controller is
+ * busy. A poll whose previous request is still unanswered when it next runs
+ * is stretched on its own, without slowing down the other polls of the
+ * switch; the unanswered request is then given up on. How late the polls
+ * of every switch run and the reply latency of the switch are tracked so
+ * they can be exposed as metrics.
+ */
+@Component(immediate = true)
+@Service
+public class StatsPollSchedulerImpl implements StatsPollScheduler {
+
+    private static final long INITIAL_DELAY_MILLIS = 1000;
+    private static final double JITTER = 0.1;
+    private static final double LATENCY_WEIGHT = 0.25;
+
+    private final Logger log = getLogger(getClass());
+
+    private final Map<Dpid, SwitchLoad> switches = Maps.newConcurrentMap();
+    private final LongSupplier clock;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a scheduler that starts its own executor when activated.
+     */
+    public StatsPollSchedulerImpl() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    /**
+     * Creates a scheduler running polls on the given executor and reading
+     * the time from the given clock.
+     *
+     * @param executor executor to run polls on
+     * @param clock    current time in milliseconds
+     */
+    StatsPollSchedulerImpl(ScheduledExecutorService executor, LongSupplier clock) {
+        this.executor = checkNotNull(executor);
+        this.clock = checkNotNull(clock);
+    }
+
+    @Activate
+    public void activate() {
+        executor = newSingleThreadScheduledExecutor(groupedThreads("onos/of-stats", "poll-scheduler", log));
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        executor.shutdownNow();
+        switches.clear();
+        log.info("Stopped");
+    }
+
+    @Override
+    public Poll schedule(Dpid dpid, int intervalSeconds, BooleanSupplier poller) {
+        checkArgument(intervalSeconds > 0, "Poll interval must be positive");
+        SwitchLoad load = switches.compute(dpid, (d, l) -> {
+            SwitchLoad current = l == null ? new SwitchLoad() : l;
+            current.polls++;
+            return current;
+        });
+        DefaultPoll poll = new DefaultPoll(dpid, load, intervalSeconds, checkNotNull(poller));
+        long intervalMillis = TimeUnit.SECONDS.toMillis(intervalSeconds);
+        poll.scheduleNext(INITIAL_DELAY_MILLIS + ThreadLocalRandom.current().nextLong(intervalMillis));
+        return poll;
+    }
+
+    @Override
+    public long pollLagMillis(Dpid dpid) {
+        SwitchLoad load = switches.get(dpid);
+        return load == null ? 0 : load.lagMillis;
+    }
+
+    @Override
+    public long replyLatencyMillis(Dpid dpid) {
+        SwitchLoad load = switches.get(dpid);
+        return load == null ? 0 : (long) load.latencyMillis;
+    }
+
+    @Override
+    public int backoff(Dpid dpid) {
+        SwitchLoad load = switches.get(dpid);
+        return load == null ? 1 : load.backoff;
+    }
+
+    private void release(Dpid dpid) {
+        switches.computeIfPresent(dpid, (d, l) -> --l.polls == 0 ? null : l);
+    }
+
+    /**
+     * Load measured for a switch, shared by all of its polls.
+     */
+    private static final class SwitchLoad {
+        private int polls;
+        private volatile long lagMillis;
+        private volatile double latencyMillis;
+        private volatile int backoff = 1;
+
+        synchronized void recordLatency(long millis) {
+            latencyMillis = latencyMillis == 0 ? millis :
+                    latencyMillis + LATENCY_WEIGHT * (millis - latencyMillis);
+        }
+
+        synchronized void adjust(boolean overloaded, long intervalMillis) {
+            if (overloaded || latencyMillis > intervalMillis / 2) {
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            } else if (latencyMillis < intervalMillis / 8) {
+                backoff = Math.max(backoff / 2, 1);
+            }
+        }
+    }
+
+    /**
+     * Periodic poll of a switch.
+     */
+    private final class DefaultPoll implements Poll {
+        private final Dpid dpid;
+        private final SwitchLoad load;
+        private final BooleanSupplier poller;
+        private volatile long intervalMillis;
+        private volatile long sentAt;
+        private int backoff = 1;
+        private long due;
+        private ScheduledFuture<?> future;
+        private boolean cancelled;
+
+        private DefaultPoll(Dpid dpid, SwitchLoad load, int intervalSeconds, BooleanSupplier poller) {
+            this.dpid = dpid;
+            this.load = load;
+            this.poller = poller;
+            this.intervalMillis = TimeUnit.SECONDS.toMillis(intervalSeconds);
+        }
+
+        @Override
+        public void setInterval(int intervalSeconds) {
+            checkArgument(intervalSeconds > 0, "Poll interval must be positive");
+            intervalMillis = TimeUnit.SECONDS.toMillis(intervalSeconds);
+        }
+
+        @Override
+        public void replyReceived() {
+            long sent = sentAt;
+            if (sent != 0) {
+                sentAt = 0;
+                load.recordLatency(clock.getAsLong() - sent);
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                if (future != null) {
+                    future.cancel(false);
+                }
+                release(dpid);
+            }
+        }
+
+        private synchronized void scheduleNext(long delayMillis) {
+            if (!cancelled) {
+                due = clock.getAsLong() + delayMillis;
+                try {
+                    future = executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Scheduler stopped; no longer polling {}", dpid);
+                    cancelled = true;
+                }
+            }
+        }
+
+        private void run() {
+            long now = clock.getAsLong();
+            long interval = intervalMillis;
+
+            // Measured against the stretched and jittered delay this poll
+            // was scheduled with, so that only a late scheduler counts
+            long late = now - due;
+            load.lagMillis = Math.max(late, 0);
+
+            // A late scheduler means a busy controller
+            load.adjust(late > interval / 2, interval);
+
+            // A request still unanswered by now is given up on; it stretches
+            // this poll only, as the switch may just not answer this request
+            if (sentAt != 0) {
+                sentAt = 0;
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            } else {
+                backoff = Math.max(backoff / 2, 1);
+            }
+
+            try {
+                if (poller.getAsBoolean()) {
+                    sentAt = now;
+                } else {
+                    sentAt = 0;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to poll statistics of {}", dpid, e);
+            }
+
+            double jitter = 1 + JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+            scheduleNext((long) (interval * Math.max(load.backoff, backoff) * jitter));
+        }
+    }
+}
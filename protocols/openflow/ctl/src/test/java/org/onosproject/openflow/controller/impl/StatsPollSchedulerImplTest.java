@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.StatsPollScheduler.Poll;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.openflow.controller.StatsPollScheduler.MAX_BACKOFF;
+
+/**
+ * Tests the jitter, backoff and latency tracking of the statistics poll scheduler.
+ */
+public class StatsPollSchedulerImplTest {
+
+    private static final Dpid DPID = new Dpid(1);
+    private static final int INTERVAL_SECONDS = 10;
+    private static final long INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(INTERVAL_SECONDS);
+
+    private long now = 1_000_000;
+    private ManualExecutor executor;
+    private StatsPollSchedulerImpl scheduler;
+
+    /**
+     * Executor that records the latest scheduled poll so that tests can run
+     * it at the time of their choosing.
+     */
+    private class ManualExecutor extends ScheduledThreadPoolExecutor {
+        private Runnable task;
+        private long scheduledAt;
+        private long delayMillis;
+
+        ManualExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            task = command;
+            scheduledAt = now;
+            delayMillis = unit.toMillis(delay);
+            return super.schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        scheduler = new StatsPollSchedulerImpl(executor, () -> now);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Runs the scheduled poll the given time after it was due and returns
+    // the delay it had been scheduled with.
+    private long runNext(long lateMillis) {
+        long delay = executor.delayMillis;
+        now = executor.scheduledAt + delay + lateMillis;
+        executor.task.run();
+        return delay;
+    }
+
+    private void assertStretch(int factor, long delayMillis) {
+        assertTrue("delay " + delayMillis + " not stretched " + factor + " times",
+                   delayMillis >= factor * INTERVAL_MILLIS * 0.9 && delayMillis <= factor * INTERVAL_MILLIS * 1.1);
+    }
+
+    /**
+     * Tests that polls start at a random offset and are jittered around
+     * their interval.
+     */
+    @Test
+    public void jitter() {
+        scheduler.schedule(DPID, INTERVAL_SECONDS, () -> false);
+        assertTrue(executor.delayMillis >= 1000 && executor.delayMillis < 1000 + INTERVAL_MILLIS);
+        runNext(0);
+
+        Set<Long> delays = Sets.newHashSet();
+        for (int i = 0; i < 50; i++) {
+            long delay = runNext(0);
+            assertStretch(1, delay);
+            delays.add(delay);
+        }
+        assertTrue("delays not jittered", delays.size() > 1);
+    }
+
+    /**
+     * Tests that unanswered requests stretch their poll up to the maximum
+     * backoff and that replies shrink it again, while a slow switch
+     * stretches all of its polls.
+     */
+    @Test
+    public void backoff() {
+        Poll poll = scheduler.schedule(DPID, INTERVAL_SECONDS, () -> true);
+        runNext(0);
+        assertStretch(1, executor.delayMillis);
+        for (int factor = 2; factor <= 2 * MAX_BACKOFF; factor *= 2) {
+            runNext(0);
+            assertStretch(Math.min(factor, MAX_BACKOFF), executor.delayMillis);
+        }
+        assertEquals(1, scheduler.backoff(DPID));
+
+        for (int factor = MAX_BACKOFF / 2; factor >= 1; factor /= 2) {
+            poll.replyReceived();
+            runNext(0);
+            assertStretch(factor, executor.delayMillis);
+        }
+
+        // a reply taking more than half the interval slows down the switch
+        now += INTERVAL_MILLIS;
+        poll.replyReceived();
+        runNext(0);
+        assertEquals(2, scheduler.backoff(DPID));
+        assertStretch(2, executor.delayMillis);
+
+        poll.cancel();
+        assertEquals(1, scheduler.backoff(DPID));
+    }
+
+    /**
+     * Tests that the reply latency is an exponentially weighted moving
+     * average of the reply times.
+     */
+    @Test
+    public void replyLatency() {
+        Poll poll = scheduler.schedule(DPID, INTERVAL_SECONDS, () -> true);
+        runNext(0);
+        now += 400;
+        poll.replyReceived();
+        assertEquals(400, scheduler.replyLatencyMillis(DPID));
+
+        runNext(0);
+        now += 800;
+        poll.replyReceived();
+        assertEquals(500, scheduler.replyLatencyMillis(DPID));
+
+        // a second notice of the same reply is ignored
+        poll.replyReceived();
+        assertEquals(500, scheduler.replyLatencyMillis(DPID));
+    }
+
+    /**
+     * Tests that the poll lag counts how late a poll runs but not the
+     * stretch of a backed-off poll.
+     */
+    @Test
+    public void pollLag() {
+        scheduler.schedule(DPID, INTERVAL_SECONDS, () -> true);
+        runNext(300);
+        assertEquals(300, scheduler.pollLagMillis(DPID));
+
+        // the unanswered request stretches the next poll
+        runNext(0);
+        assertStretch(2, executor.delayMillis);
+        runNext(0);
+        assertEquals(0, scheduler.pollLagMillis(DPID));
+    }
+}
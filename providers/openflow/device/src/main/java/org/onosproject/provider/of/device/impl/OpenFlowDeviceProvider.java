@@ -71,6 +71,7 @@ import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PortDescPropertyType;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.osgi.service.component.ComponentContext;
 import org.projectfloodlight.openflow.protocol.OFCalientPortDescProp;
 import org.projectfloodlight.openflow.protocol.OFCalientPortDescPropOptical;
@@ -119,7 +120,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.Timer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -220,6 +220,9 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected StatsPollScheduler pollScheduler;
+
     private DeviceProviderService providerService;
 
     private final InternalDeviceProvider listener = new InternalDeviceProvider();
@@ -230,8 +233,6 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
     label = "Frequency (in seconds) for polling switch Port statistics")
     private int portStatsPollFrequency = POLL_INTERVAL;
 
-    private final Timer timer = new Timer("onos-openflow-portstats-collector");
-
     private HashMap<Dpid, PortStatsCollector> collectors = Maps.newHashMap();
 
     /**
@@ -469,7 +470,8 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
             providerService.deviceConnected(did, description);
             providerService.updatePorts(did, buildPortDescriptions(sw));
 
-            PortStatsCollector psc = new PortStatsCollector(timer, sw, portStatsPollFrequency);
+            PortStatsCollector psc =
+                    new PortStatsCollector(pollScheduler, sw, portStatsPollFrequency);
             stopCollectorIfNeeded(collectors.put(dpid, psc));
             psc.start();
 
@@ -1110,6 +1112,10 @@ public class OpenFlowDeviceProvider extends AbstractProvider implements DevicePr
                             portStatsReplyList.addAll(portStatsReply.getEntries());
                             portStatsReplies.put(dpid, portStatsReplyList);
                             if (!portStatsReply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+                                PortStatsCollector psc = collectors.get(dpid);
+                                if (psc != null) {
+                                    psc.replyReceived();
+                                }
                                 List<OFPortStatsEntry> statsEntries = portStatsReplies.get(dpid);
                                 if (statsEntries != null) {
                                     pushPortMetrics(dpid, statsEntries);
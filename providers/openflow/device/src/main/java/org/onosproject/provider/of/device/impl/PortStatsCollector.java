@@ -16,14 +16,14 @@
 
 package org.onosproject.provider.of.device.impl;
 
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFPortStatsRequest;
 import org.projectfloodlight.openflow.types.OFPort;
 import org.slf4j.Logger;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -36,11 +36,9 @@ public class PortStatsCollector {
 
     private final Logger log = getLogger(getClass());
 
-    private static final int SECONDS = 1000;
-
     private OpenFlowSwitch sw;
-    private Timer timer;
-    private TimerTask task;
+    private final StatsPollScheduler scheduler;
+    private StatsPollScheduler.Poll poll;
 
     private int refreshInterval;
     private final AtomicLong xidAtomic = new AtomicLong(1);
@@ -48,62 +46,60 @@ public class PortStatsCollector {
     /**
      * Creates a port states collector object.
      *
-     * @param timer     timer to use for scheduling
+     * @param scheduler scheduler to use for polling
      * @param sw        switch to pull
      * @param interval  interval for collecting port statistic
      */
-    PortStatsCollector(Timer timer, OpenFlowSwitch sw, int interval) {
-        this.timer = timer;
+    PortStatsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int interval) {
+        this.scheduler = scheduler;
         this.sw = checkNotNull(sw, "Null switch");
         this.refreshInterval = interval;
     }
 
-    private class InternalTimerTask extends TimerTask {
-
-        @Override
-        public void run() {
-            sendPortStatisticRequest();
-        }
-    }
-
     /**
      * Starts the port statistic collector.
      */
     public synchronized void start() {
-        log.info("Starting Port Stats collection thread for {}", sw.getStringId());
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, 1 * SECONDS,
-                                  refreshInterval * SECONDS);
+        log.info("Starting Port Stats collection for {}", sw.getStringId());
+        poll = scheduler.schedule(new Dpid(sw.getId()), refreshInterval, this::sendPortStatisticRequest);
     }
 
     /**
      * Stops the port statistic collector.
      */
     public synchronized void stop() {
-        log.info("Stopping Port Stats collection thread for {}", sw.getStringId());
-        task.cancel();
-        task = null;
+        log.info("Stopping Port Stats collection for {}", sw.getStringId());
+        poll.cancel();
+        poll = null;
     }
 
     /**
-     * Adjusts poll interval of the port statistic collector and restart.
+     * Adjusts poll interval of the port statistic collector.
      *
      * @param pollInterval period of collecting port statistic
      */
     public synchronized void adjustPollInterval(int pollInterval) {
         this.refreshInterval = pollInterval;
-        task.cancel();
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, refreshInterval * SECONDS,
-                                  refreshInterval * SECONDS);
+        poll.setInterval(pollInterval);
+    }
+
+    /**
+     * Notes that the switch replied to the port statistic request.
+     */
+    public synchronized void replyReceived() {
+        if (poll != null) {
+            poll.replyReceived();
+        }
     }
 
     /**
      * Sends port statistic request to switch.
+     *
+     * @return true if the request was sent
      */
-    private void sendPortStatisticRequest() {
+    private boolean sendPortStatisticRequest() {
         if (sw.getRole() != RoleState.MASTER) {
-            return;
+            return false;
         }
         Long statsXid = xidAtomic.getAndIncrement();
         OFPortStatsRequest statsRequest = sw.factory().buildPortStatsRequest()
@@ -111,5 +107,6 @@ public class PortStatsCollector {
                 .setXid(statsXid)
                 .build();
         sw.sendMsg(statsRequest);
+        return true;
     }
 }
\ No newline at end of file
@@ -16,44 +16,200 @@
 package org.onosproject.provider.of.flow.impl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.projectfloodlight.openflow.protocol.OFTableStatsRequest;
 import org.projectfloodlight.openflow.types.OFPort;
 import org.projectfloodlight.openflow.types.TableId;
 import org.slf4j.Logger;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Map;
+import java.util.Set;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Collects flow statistics for the specified switch.
+ * <p>
+ * By default every poll requests all flows of the switch. In table
+ * reconciliation mode, only one poll in {@link #FULL_POLL_CYCLES} requests
+ * all flows; the others request the table statistics of the switch and then
+ * only the flows of tables whose active flow count changed or to which flow
+ * rules were written since the previous poll.
  */
 class FlowStatsCollector implements SwitchDataCollector {
 
     private final Logger log = getLogger(getClass());
 
-    public static final int SECONDS = 1000;
+    /**
+     * Number of polls between requests for all flows in table
+     * reconciliation mode.
+     */
+    static final int FULL_POLL_CYCLES = 12;
+
+    /**
+     * Number of polls after which a table flow statistics request that got
+     * no reply is given up on.
+     */
+    static final int REQUEST_EXPIRY_CYCLES = 2;
 
     private final OpenFlowSwitch sw;
-    private Timer timer;
-    private TimerTask task;
+    private final StatsPollScheduler scheduler;
+    private StatsPollScheduler.Poll poll;
 
     private int pollInterval;
 
+    private final boolean reconcileByTable;
+    private final Set<Integer> modifiedTables = Sets.newConcurrentHashSet();
+    private final Map<Integer, Long> activeCounts = Maps.newConcurrentMap();
+    private final Map<Long, TableFlowRequest> tableFlowRequests = Maps.newConcurrentMap();
+    private volatile long tableStatsXid = -1;
+    private volatile long allFlowsXid = -1;
+    private volatile boolean fullPoll;
+    private volatile int polls;
+
     /**
      * Creates a new collector for the given switch and poll frequency.
      *
-     * @param timer        timer to use for scheduling
+     * @param scheduler    scheduler to use for polling
      * @param sw           switch to pull
      * @param pollInterval poll frequency in seconds
      */
-    FlowStatsCollector(Timer timer, OpenFlowSwitch sw, int pollInterval) {
-        this.timer = timer;
+    FlowStatsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int pollInterval) {
+        this(scheduler, sw, pollInterval, false);
+    }
+
+    /**
+     * Creates a new collector for the given switch and poll frequency.
+     *
+     * @param scheduler        scheduler to use for polling
+     * @param sw               switch to pull
+     * @param pollInterval     poll frequency in seconds
+     * @param reconcileByTable whether to poll only the flows of changed tables
+     */
+    FlowStatsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int pollInterval,
+                       boolean reconcileByTable) {
+        this.scheduler = scheduler;
         this.sw = checkNotNull(sw, "Null switch");
         this.pollInterval = pollInterval;
+        this.reconcileByTable = reconcileByTable;
+    }
+
+    /**
+     * Notes that flow rules were written to the given table, so that its
+     * flows are requested on the next poll in table reconciliation mode.
+     *
+     * @param tableId table identifier
+     */
+    void tableModified(int tableId) {
+        if (reconcileByTable) {
+            modifiedTables.add(tableId);
+        }
+    }
+
+    /**
+     * Handles a table statistics reply, requesting the flows of every table
+     * that needs to be reconciled if the reply answers this collector's
+     * request.
+     *
+     * @param reply table statistics reply
+     */
+    void tableStatsReceived(OFTableStatsReply reply) {
+        if (!reconcileByTable || reply.getXid() != tableStatsXid) {
+            return;
+        }
+        replyReceived();
+        for (OFTableStatsEntry entry : reply.getEntries()) {
+            int tableId = entry.getTableId().getValue();
+            Long previousCount = activeCounts.put(tableId, entry.getActiveCount());
+            if (fullPoll) {
+                // All flows were requested along with these statistics
+                continue;
+            }
+            boolean modified = modifiedTables.remove(tableId);
+            if (modified || previousCount == null || previousCount != entry.getActiveCount()) {
+                sendTableFlowStatsRequest(tableId);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a flow statistics reply answers a pending request. In
+     * table reconciliation mode, replies to requests given up on are not
+     * expected, as reconciling them could report flows as missing.
+     *
+     * @param xid flow statistics request identifier
+     * @return true if the reply is to be processed
+     */
+    boolean flowStatsExpected(long xid) {
+        return !reconcileByTable || xid == allFlowsXid || tableFlowRequests.containsKey(xid);
+    }
+
+    /**
+     * Returns the table whose flows were requested by the given flow
+     * statistics request, if the request was sent by this collector in table
+     * reconciliation mode.
+     *
+     * @param xid flow statistics request identifier
+     * @return table identifier, or null if the request covered all tables
+     */
+    Integer tableFlowStatsReceived(long xid) {
+        TableFlowRequest request = tableFlowRequests.remove(xid);
+        return request == null ? null : request.tableId;
+    }
+
+    /**
+     * Notes that the switch replied to a statistics request of this
+     * collector.
+     */
+    synchronized void replyReceived() {
+        if (poll != null) {
+            poll.replyReceived();
+        }
+    }
+
+    private void sendTableFlowStatsRequest(int tableId) {
+        OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
+                .setMatch(sw.factory().matchWildcardAll())
+                .setTableId(TableId.of(tableId))
+                .setOutPort(OFPort.NO_MASK)
+                .build();
+        tableFlowRequests.put(request.getXid(), new TableFlowRequest(tableId, polls));
+        sw.sendMsg(request);
+    }
+
+    private void sendTableStatsRequest(boolean full) {
+        OFTableStatsRequest request = sw.factory().buildTableStatsRequest().build();
+        fullPoll = full;
+        tableStatsXid = request.getXid();
+        sw.sendMsg(request);
+    }
+
+    private void expireTableFlowRequests() {
+        tableFlowRequests.entrySet().removeIf(e -> {
+            if (polls - e.getValue().poll <= REQUEST_EXPIRY_CYCLES) {
+                return false;
+            }
+            // Request the flows of the table again on the next poll
+            modifiedTables.add(e.getValue().tableId);
+            return true;
+        });
+    }
+
+    private void resetTables() {
+        activeCounts.clear();
+        tableFlowRequests.clear();
+        tableStatsXid = -1;
+        allFlowsXid = -1;
+        polls = 0;
     }
 
     /**
@@ -63,38 +219,64 @@ class FlowStatsCollector implements SwitchDataCollector {
      */
     synchronized void adjustPollInterval(int pollInterval) {
         this.pollInterval = pollInterval;
-        task.cancel();
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, pollInterval * SECONDS, pollInterval * 1000);
-    }
-
-    private class InternalTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            if (sw.getRole() == RoleState.MASTER) {
-                log.trace("Collecting stats for {}", sw.getStringId());
-                OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
-                        .setMatch(sw.factory().matchWildcardAll())
-                        .setTableId(TableId.ALL)
-                        .setOutPort(OFPort.NO_MASK)
-                        .build();
-                sw.sendMsg(request);
+        poll.setInterval(pollInterval);
+    }
+
+    private boolean sendRequests() {
+        if (sw.getRole() != RoleState.MASTER) {
+            // Start from scratch if mastership comes back
+            resetTables();
+            return false;
+        }
+        if (reconcileByTable) {
+            expireTableFlowRequests();
+        }
+        if (reconcileByTable && polls++ % FULL_POLL_CYCLES != 0) {
+            log.trace("Collecting table stats for {}", sw.getStringId());
+            sendTableStatsRequest(false);
+        } else {
+            log.trace("Collecting stats for {}", sw.getStringId());
+            if (reconcileByTable) {
+                modifiedTables.clear();
+            }
+            OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
+                    .setMatch(sw.factory().matchWildcardAll())
+                    .setTableId(TableId.ALL)
+                    .setOutPort(OFPort.NO_MASK)
+                    .build();
+            if (reconcileByTable) {
+                allFlowsXid = request.getXid();
+            }
+            sw.sendMsg(request);
+            if (reconcileByTable) {
+                sendTableStatsRequest(true);
             }
         }
+        return true;
     }
 
     public synchronized void start() {
-        // Initially start polling quickly. Then drop down to configured value
-        log.debug("Starting Stats collection thread for {}", sw.getStringId());
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, 1 * SECONDS,
-                                  pollInterval * SECONDS);
+        log.debug("Starting Stats collection for {}", sw.getStringId());
+        poll = scheduler.schedule(new Dpid(sw.getId()), pollInterval, this::sendRequests);
     }
 
     public synchronized void stop() {
-        log.debug("Stopping Stats collection thread for {}", sw.getStringId());
-        task.cancel();
-        task = null;
+        log.debug("Stopping Stats collection for {}", sw.getStringId());
+        poll.cancel();
+        poll = null;
+        resetTables();
     }
 
+    /**
+     * Request for the flows of a single table.
+     */
+    private static final class TableFlowRequest {
+        private final int tableId;
+        private final int poll;
+
+        private TableFlowRequest(int tableId, int poll) {
+            this.tableId = tableId;
+            this.poll = poll;
+        }
+    }
 }
@@ -57,12 +57,18 @@ import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.onosproject.openflow.controller.ThirdPartyMessage;
 import org.onosproject.provider.of.flow.util.FlowEntryBuilder;
 import org.osgi.service.component.ComponentContext;
 import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
 import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
+import org.projectfloodlight.openflow.protocol.OFBundleAddMsg;
+import org.projectfloodlight.openflow.protocol.OFBundleCtrlMsg;
+import org.projectfloodlight.openflow.protocol.OFBundleCtrlType;
+import org.projectfloodlight.openflow.protocol.OFBundleFlags;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
+import org.projectfloodlight.openflow.protocol.OFFactory;
 import org.projectfloodlight.openflow.protocol.OFFlowLightweightStatsReply;
 import org.projectfloodlight.openflow.protocol.OFFlowMod;
 import org.projectfloodlight.openflow.protocol.OFFlowRemoved;
@@ -79,7 +85,9 @@ import org.projectfloodlight.openflow.protocol.errormsg.OFBadActionErrorMsg;
 import org.projectfloodlight.openflow.protocol.errormsg.OFBadInstructionErrorMsg;
 import org.projectfloodlight.openflow.protocol.errormsg.OFBadMatchErrorMsg;
 import org.projectfloodlight.openflow.protocol.errormsg.OFBadRequestErrorMsg;
+import org.projectfloodlight.openflow.protocol.errormsg.OFBundleFailedErrorMsg;
 import org.projectfloodlight.openflow.protocol.errormsg.OFFlowModFailedErrorMsg;
+import org.projectfloodlight.openflow.types.BundleId;
 import org.projectfloodlight.openflow.types.U16;
 import org.projectfloodlight.openflow.types.U64;
 import org.slf4j.Logger;
@@ -91,8 +99,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Timer;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -122,10 +130,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected StatsPollScheduler pollScheduler;
+
     private static final int DEFAULT_POLL_FREQUENCY = 5;
     private static final int MIN_EXPECTED_BYTE_LEN = 56;
     private static final int SKIP_BYTES = 4;
     private static final boolean DEFAULT_ADAPTIVE_FLOW_SAMPLING = false;
+    private static final boolean DEFAULT_USE_BUNDLES = false;
+    private static final boolean DEFAULT_RECONCILE_BY_TABLE = false;
+    private static final Set<OFBundleFlags> BUNDLE_FLAGS =
+            ImmutableSet.of(OFBundleFlags.ATOMIC, OFBundleFlags.ORDERED);
 
     @Property(name = "flowPollFrequency", intValue = DEFAULT_POLL_FREQUENCY,
             label = "Frequency (in seconds) for polling flow statistics")
@@ -135,14 +150,24 @@ public class OpenFlowRuleProvider extends AbstractProvider
             label = "Adaptive Flow Sampling is on or off")
     private boolean adaptiveFlowSampling = DEFAULT_ADAPTIVE_FLOW_SAMPLING;
 
+    @Property(name = "useBundles", boolValue = DEFAULT_USE_BUNDLES,
+            label = "Install flow rule batches atomically in bundles on OpenFlow 1.4+ switches")
+    private boolean useBundles = DEFAULT_USE_BUNDLES;
+
+    @Property(name = "reconcileByTable", boolValue = DEFAULT_RECONCILE_BY_TABLE,
+            label = "Poll only the flows of tables whose flow count changed or which were written to, " +
+                    "polling all flows once every " + FlowStatsCollector.FULL_POLL_CYCLES + " polls; " +
+                    "not used with adaptive flow sampling")
+    private boolean reconcileByTable = DEFAULT_RECONCILE_BY_TABLE;
+
     private FlowRuleProviderService providerService;
 
     private final InternalFlowProvider listener = new InternalFlowProvider();
 
     private Cache<Long, InternalCacheEntry> pendingBatches;
 
-    private final Timer timer = new Timer("onos-openflow-collector");
-
+    // Bundles opened on each switch
+    private final Map<Dpid, SwitchBundles> switchBundles = Maps.newConcurrentMap();
 
     // Old simple collector set
     private final Map<Dpid, FlowStatsCollector> simpleCollectors = Maps.newConcurrentMap();
@@ -208,21 +233,32 @@ public class OpenFlowRuleProvider extends AbstractProvider
         String s = get(properties, "adaptiveFlowSampling");
         newAdaptiveFlowSampling = isNullOrEmpty(s) ? adaptiveFlowSampling : Boolean.parseBoolean(s.trim());
 
-        if (newAdaptiveFlowSampling != adaptiveFlowSampling) {
+        s = get(properties, "reconcileByTable");
+        boolean newReconcileByTable = isNullOrEmpty(s) ? reconcileByTable : Boolean.parseBoolean(s.trim());
+
+        if (newAdaptiveFlowSampling != adaptiveFlowSampling || newReconcileByTable != reconcileByTable) {
             // stop previous collector
             stopCollectors();
             adaptiveFlowSampling = newAdaptiveFlowSampling;
+            reconcileByTable = newReconcileByTable;
             // create new collectors
             createCollectors();
         }
 
         log.info("Settings: adaptiveFlowSampling={}", adaptiveFlowSampling);
+        log.info("Settings: reconcileByTable={}", reconcileByTable);
+
+        s = get(properties, "useBundles");
+        useBundles = isNullOrEmpty(s) ? useBundles : Boolean.parseBoolean(s.trim());
+
+        log.info("Settings: useBundles={}", useBundles);
     }
 
     private Cache<Long, InternalCacheEntry> createBatchCache() {
         return CacheBuilder.newBuilder()
                 .expireAfterWrite(10, TimeUnit.SECONDS)
                 .removalListener((RemovalNotification<Long, InternalCacheEntry> notification) -> {
+                    closeBundle(notification.getValue());
                     if (notification.getCause() == RemovalCause.EXPIRED) {
                         providerService.batchOperationCompleted(notification.getKey(),
                                                                 notification.getValue().failedCompletion());
@@ -245,11 +281,13 @@ public class OpenFlowRuleProvider extends AbstractProvider
             stopCollectorIfNeeded(afsCollectors.put(new Dpid(sw.getId()), fsc));
             fsc.start();
         } else {
-            FlowStatsCollector fsc = new FlowStatsCollector(timer, sw, flowPollFrequency);
+            FlowStatsCollector fsc = new FlowStatsCollector(pollScheduler, sw, flowPollFrequency,
+                                                            reconcileByTable);
             stopCollectorIfNeeded(simpleCollectors.put(new Dpid(sw.getId()), fsc));
             fsc.start();
         }
-        TableStatisticsCollector tsc = new TableStatisticsCollector(timer, sw, flowPollFrequency);
+        TableStatisticsCollector tsc = new TableStatisticsCollector(pollScheduler, sw,
+                                                                    flowPollFrequency);
         stopCollectorIfNeeded(tableStatsCollectors.put(new Dpid(sw.getId()), tsc));
         tsc.start();
     }
@@ -305,6 +343,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
             sw.sendMsg(msg);
             return;
         }
+        tableModified(dpid, flowRule);
         sw.sendMsg(FlowModBuilder.builder(flowRule, sw.factory(),
                 Optional.empty(), Optional.of(driverService)).buildFlowAdd());
     }
@@ -330,6 +369,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
             sw.sendMsg(msg);
             return;
         }
+        tableModified(dpid, flowRule);
         sw.sendMsg(FlowModBuilder.builder(flowRule, sw.factory(),
                                           Optional.empty(), Optional.of(driverService)).buildFlowDel());
     }
@@ -354,7 +394,11 @@ public class OpenFlowRuleProvider extends AbstractProvider
                                                     new CompletedBatchOperation(false, failures, batch.deviceId()));
             return;
         }
-        pendingBatches.put(batch.id(), new InternalCacheEntry(batch));
+        InternalCacheEntry entry = new InternalCacheEntry(batch);
+        pendingBatches.put(batch.id(), entry);
+        boolean bundled = useBundles && supportsBundles(sw) &&
+                batch.getOperations().stream().noneMatch(fbe -> hasPayload(fbe.target().payLoad()));
+        List<OFMessage> bundledMods = Lists.newArrayList();
         OFFlowMod mod;
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             // flow is the third party privacy flow
@@ -384,13 +428,92 @@ public class OpenFlowRuleProvider extends AbstractProvider
                             fbe.operator(), fbe);
                     continue;
             }
-            sw.sendMsg(mod);
+            tableModified(dpid, fbe.target());
+            if (bundled) {
+                bundledMods.add(mod);
+            } else {
+                sw.sendMsg(mod);
+            }
+        }
+        if (bundled) {
+            sendBundle(sw, entry, bundledMods);
         }
         OFBarrierRequest.Builder builder = sw.factory().buildBarrierRequest()
                 .setXid(batch.id());
         sw.sendMsg(builder.build());
     }
 
+    private void tableModified(Dpid dpid, FlowRule flowRule) {
+        FlowStatsCollector collector = simpleCollectors.get(dpid);
+        if (collector != null) {
+            collector.tableModified(flowRule.tableId());
+        }
+    }
+
+    private boolean supportsBundles(OpenFlowSwitch sw) {
+        return sw.factory().getVersion().compareTo(OFVersion.OF_14) >= 0;
+    }
+
+    /**
+     * Sends the given flow mods to the switch as a single atomic bundle.
+     * The bundle identifier is allocated per switch and mapped to the batch
+     * until the batch completes, so that errors reported for the bundle or
+     * any of its flow mods are attributed to the batch. All bundle messages
+     * also carry the batch identifier as their transaction identifier.
+     * Completion is still signalled by the barrier reply that follows the
+     * commit.
+     *
+     * @param sw switch to send the bundle to
+     * @param entry pending batch
+     * @param mods flow mods to bundle
+     */
+    private void sendBundle(OpenFlowSwitch sw, InternalCacheEntry entry, List<OFMessage> mods) {
+        OFFactory factory = sw.factory();
+        long batchId = entry.operation.id();
+        entry.bundleId = switchBundles.computeIfAbsent(new Dpid(sw.getId()), dpid -> new SwitchBundles())
+                .open(batchId);
+        BundleId bundleId = BundleId.of(entry.bundleId);
+        List<OFMessage> msgs = Lists.newArrayListWithCapacity(mods.size() + 2);
+        msgs.add(factory.buildBundleCtrlMsg()
+                         .setXid(batchId)
+                         .setBundleId(bundleId)
+                         .setBundleCtrlType(OFBundleCtrlType.OPEN_REQUEST)
+                         .setFlags(BUNDLE_FLAGS)
+                         .build());
+        for (OFMessage mod : mods) {
+            msgs.add(factory.buildBundleAddMsg()
+                             .setXid(batchId)
+                             .setBundleId(bundleId)
+                             .setFlags(BUNDLE_FLAGS)
+                             .setData(mod)
+                             .build());
+        }
+        msgs.add(factory.buildBundleCtrlMsg()
+                         .setXid(batchId)
+                         .setBundleId(bundleId)
+                         .setBundleCtrlType(OFBundleCtrlType.COMMIT_REQUEST)
+                         .setFlags(BUNDLE_FLAGS)
+                         .build());
+        sw.sendMsg(msgs);
+    }
+
+    // Forgets the bundle which carried the given batch, if any.
+    private void closeBundle(InternalCacheEntry entry) {
+        if (entry != null && entry.bundleId != 0) {
+            SwitchBundles bundles = switchBundles.get(Dpid.dpid(entry.operation.deviceId().uri()));
+            if (bundles != null) {
+                bundles.close(entry.bundleId);
+            }
+        }
+    }
+
+    // Returns the pending batch carried by the given bundle of the device, if any.
+    private InternalCacheEntry bundleEntry(DeviceId deviceId, BundleId bundleId) {
+        SwitchBundles bundles = switchBundles.get(Dpid.dpid(deviceId.uri()));
+        Long batchId = bundles != null ? bundles.batch(bundleId.getInt()) : null;
+        return batchId != null ? pendingBatches.getIfPresent(batchId) : null;
+    }
+
     private boolean hasPayload(FlowRuleExtPayLoad flowRuleExtPayLoad) {
         return flowRuleExtPayLoad != null &&
                 flowRuleExtPayLoad.payLoad() != null &&
@@ -413,6 +536,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            switchBundles.remove(dpid);
         }
 
         @Override
@@ -442,6 +566,14 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     if (((OFStatsReply) msg).getStatsType() == OFStatsType.FLOW) {
                         pushFlowMetrics(dpid, (OFFlowStatsReply) msg);
                     } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.TABLE) {
+                        FlowStatsCollector fsc = simpleCollectors.get(dpid);
+                        if (fsc != null) {
+                            fsc.tableStatsReceived((OFTableStatsReply) msg);
+                        }
+                        TableStatisticsCollector tsc = tableStatsCollectors.get(dpid);
+                        if (tsc != null) {
+                            tsc.replyReceived(msg.getXid());
+                        }
                         pushTableStatistics(dpid, (OFTableStatsReply) msg);
                     } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.FLOW_LIGHTWEIGHT) {
                         pushFlowLightWeightMetrics(dpid, (OFFlowLightweightStatsReply) msg);
@@ -506,12 +638,40 @@ public class OpenFlowRuleProvider extends AbstractProvider
                         ofMessage = fmFailed.getData().getParsedMessage().get();
                     }
                     break;
+                case BUNDLE_FAILED:
+                    // Bundles are committed atomically, so none of the batch was applied.
+                    OFBundleFailedErrorMsg bfErrorMsg = (OFBundleFailedErrorMsg) error;
+                    InternalCacheEntry bundled = null;
+                    if (bfErrorMsg.getData().getParsedMessage().isPresent() &&
+                            bfErrorMsg.getData().getParsedMessage().get() instanceof OFBundleCtrlMsg) {
+                        OFBundleCtrlMsg bundleCtrl = (OFBundleCtrlMsg) bfErrorMsg.getData().getParsedMessage().get();
+                        bundled = bundleEntry(deviceId, bundleCtrl.getBundleId());
+                    }
+                    bundled = bundled != null ? bundled : entry;
+                    if (bundled != null) {
+                        for (FlowRuleBatchEntry fbe : bundled.operation.getOperations()) {
+                            bundled.appendFailure(fbe.target());
+                        }
+                    } else {
+                        log.error("No matching batch for this error: {}", error);
+                    }
+                    return;
                 default:
                     // Do nothing.
                     return;
                 }
 
-                if (ofMessage != null) {
+                if (ofMessage instanceof OFBundleAddMsg) {
+                    // Error for a flow mod sent within a bundle
+                    OFBundleAddMsg bundleAdd = (OFBundleAddMsg) ofMessage;
+                    InternalCacheEntry bundled = bundleEntry(deviceId, bundleAdd.getBundleId());
+                    entry = bundled != null ? bundled : entry;
+                    ofMessage = bundleAdd.getData();
+                }
+
+                if (ofMessage != null && !(ofMessage instanceof OFFlowMod)) {
+                    log.debug("Ignoring error for message other than a flow mod: {}", error);
+                } else if (ofMessage != null) {
 
                     if (entry != null)  {
                         OFFlowMod ofFlowMod = (OFFlowMod) ofMessage;
@@ -642,8 +802,23 @@ public class OpenFlowRuleProvider extends AbstractProvider
                         .map(entry -> new FlowEntryBuilder(did, entry, driverService).build())
                         .collect(Collectors.toList());
 
-                // call existing entire flow stats update with flowMissing synchronization
-                providerService.pushFlowMetrics(did, flowEntries);
+                FlowStatsCollector fsc = simpleCollectors.get(dpid);
+                if (fsc != null) {
+                    fsc.replyReceived();
+                    if (!fsc.flowStatsExpected(replies.getXid())) {
+                        log.debug("Ignoring flow stats reply {} to an expired request for {}",
+                                  replies.getXid(), dpid);
+                        return;
+                    }
+                }
+                Integer tableId = fsc == null ? null : fsc.tableFlowStatsReceived(replies.getXid());
+                if (tableId != null) {
+                    // reconcile only the table that was requested
+                    providerService.pushTableFlowMetrics(did, tableId, flowEntries);
+                } else {
+                    // call existing entire flow stats update with flowMissing synchronization
+                    providerService.pushFlowMetrics(did, flowEntries);
+                }
             }
         }
 
@@ -719,6 +894,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
 
         private final FlowRuleBatchOperation operation;
         private final Set<FlowRule> failures = Sets.newConcurrentHashSet();
+        // Identifier of the bundle carrying the batch; 0 if not bundled
+        private volatile int bundleId;
 
         public InternalCacheEntry(FlowRuleBatchOperation operation) {
             this.operation = operation;
@@ -761,4 +938,30 @@ public class OpenFlowRuleProvider extends AbstractProvider
         }
     }
 
+    /**
+     * Bundles opened on a switch. Bundle identifiers are allocated from a
+     * per-switch counter and mapped to the batch each bundle carries.
+     */
+    private static final class SwitchBundles {
+        private final AtomicInteger lastId = new AtomicInteger();
+        private final Map<Integer, Long> batches = Maps.newConcurrentMap();
+
+        // Allocates a bundle identifier for the given batch.
+        private int open(long batchId) {
+            int bundleId;
+            do {
+                bundleId = lastId.incrementAndGet();
+            } while (bundleId == 0);
+            batches.put(bundleId, batchId);
+            return bundleId;
+        }
+
+        private Long batch(int bundleId) {
+            return batches.get(bundleId);
+        }
+
+        private void close(int bundleId) {
+            batches.remove(bundleId);
+        }
+    }
 }
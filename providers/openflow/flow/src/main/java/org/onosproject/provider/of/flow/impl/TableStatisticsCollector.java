@@ -15,15 +15,13 @@
  */
 package org.onosproject.provider.of.flow.impl;
 
-import org.onlab.util.SharedExecutors;
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFTableStatsRequest;
 import org.slf4j.Logger;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -33,23 +31,22 @@ class TableStatisticsCollector implements SwitchDataCollector {
 
     private final Logger log = getLogger(getClass());
 
-    public static final int SECONDS = 1000;
-
     private final OpenFlowSwitch sw;
-    private Timer timer;
-    private TimerTask task;
+    private final StatsPollScheduler scheduler;
+    private StatsPollScheduler.Poll poll;
+    private volatile long requestXid = -1;
 
     private int pollInterval;
 
     /**
      * Creates a new table statistics collector for the given switch and poll frequency.
      *
-     * @param timer        timer to use for scheduling
+     * @param scheduler    scheduler to use for polling
      * @param sw           switch to pull
      * @param pollInterval poll frequency in seconds
      */
-    TableStatisticsCollector(Timer timer, OpenFlowSwitch sw, int pollInterval) {
-        this.timer = timer;
+    TableStatisticsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int pollInterval) {
+        this.scheduler = scheduler;
         this.sw = sw;
         this.pollInterval = pollInterval;
     }
@@ -61,35 +58,41 @@ class TableStatisticsCollector implements SwitchDataCollector {
      */
     synchronized void adjustPollInterval(int pollInterval) {
         this.pollInterval = pollInterval;
-        task.cancel();
-        task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, pollInterval * SECONDS, pollInterval * 1000);
+        poll.setInterval(pollInterval);
+    }
+
+    /**
+     * Notes that the switch replied to a table statistics request.
+     *
+     * @param xid identifier of the answered request
+     */
+    synchronized void replyReceived(long xid) {
+        if (poll != null && xid == requestXid) {
+            poll.replyReceived();
+        }
     }
 
-    private class InternalTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            if (sw.getRole() == RoleState.MASTER) {
-                log.trace("Collecting stats for {}", sw.getStringId());
-                OFTableStatsRequest request = sw.factory().buildTableStatsRequest()
-                        .build();
-                sw.sendMsg(request);
-            }
+    private boolean sendRequest() {
+        if (sw.getRole() != RoleState.MASTER) {
+            return false;
         }
+        log.trace("Collecting stats for {}", sw.getStringId());
+        OFTableStatsRequest request = sw.factory().buildTableStatsRequest()
+                .build();
+        requestXid = request.getXid();
+        sw.sendMsg(request);
+        return true;
     }
 
     public synchronized void start() {
-        // Initially start polling quickly. Then drop down to configured value
-        log.debug("Starting Table Stats collection thread for {}", sw.getStringId());
-        task = new InternalTimerTask();
-        SharedExecutors.getTimer().scheduleAtFixedRate(task, 1 * SECONDS,
-                                                       pollInterval * SECONDS);
+        log.debug("Starting Table Stats collection for {}", sw.getStringId());
+        poll = scheduler.schedule(new Dpid(sw.getId()), pollInterval, this::sendRequest);
     }
 
     public synchronized void stop() {
-        log.debug("Stopping Table Stats collection thread for {}", sw.getStringId());
-        task.cancel();
-        task = null;
+        log.debug("Stopping Table Stats collection for {}", sw.getStringId());
+        poll.cancel();
+        poll = null;
     }
 
 }
@@ -16,68 +16,50 @@
 
 package org.onosproject.provider.of.group.impl;
 
-import org.onlab.util.Timer;
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFGroupDescStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFGroupStatsRequest;
 import org.projectfloodlight.openflow.types.OFGroup;
 import org.slf4j.Logger;
 
-import io.netty.util.Timeout;
-import io.netty.util.TimerTask;
-
-import java.util.concurrent.TimeUnit;
-
 import static org.slf4j.LoggerFactory.getLogger;
 
 /*
  * Sends Group Stats Request and collect the group statistics with a time interval.
  */
-public class GroupStatsCollector implements TimerTask {
+public class GroupStatsCollector {
 
     private final OpenFlowSwitch sw;
     private final Logger log = getLogger(getClass());
+    private final StatsPollScheduler scheduler;
     private int refreshInterval;
-
-    private Timeout timeout;
-
-    private boolean stopTimer = false;
+    private StatsPollScheduler.Poll poll;
 
     /**
      * Creates a GroupStatsCollector object.
      *
+     * @param scheduler scheduler to use for polling
      * @param sw Open Flow switch
      * @param interval time interval for collecting group statistic
      */
-    public GroupStatsCollector(OpenFlowSwitch sw, int interval) {
+    public GroupStatsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int interval) {
+        this.scheduler = scheduler;
         this.sw = sw;
         this.refreshInterval = interval;
     }
 
-    @Override
-    public void run(Timeout timeout) throws Exception {
-        log.trace("Collecting stats for {}", sw.getStringId());
-
-        sendGroupStatisticRequest();
-
-        if (!this.stopTimer) {
-            log.trace("Scheduling stats collection in {} seconds for {}",
-                    this.refreshInterval, this.sw.getStringId());
-            timeout.timer().newTimeout(this, refreshInterval,
-                    TimeUnit.SECONDS);
-        }
-    }
-
-    private void sendGroupStatisticRequest() {
+    private boolean sendGroupStatisticRequest() {
         if (log.isTraceEnabled()) {
             log.trace("sendGroupStatistics {}:{}", sw.getStringId(), sw.getRole());
         }
         if (sw.getRole() != RoleState.MASTER) {
-            return;
+            return false;
         }
         if (!sw.isConnected()) {
-            return;
+            return false;
         }
         long statsXid = OpenFlowGroupProvider.getXidAndAdd(2);
         OFGroupStatsRequest statsRequest = sw.factory().buildGroupStatsRequest()
@@ -92,26 +74,39 @@ public class GroupStatsCollector implements TimerTask {
                         .setXid(descXid)
                         .build();
         sw.sendMsg(descStatsRequest);
+        return true;
     }
 
-    public void adjustRate(int pollInterval) {
+    public synchronized void adjustRate(int pollInterval) {
         this.refreshInterval = pollInterval;
+        if (poll != null) {
+            poll.setInterval(pollInterval);
+        }
+    }
+
+    /**
+     * Notes that the switch replied to the group statistic requests.
+     */
+    public synchronized void replyReceived() {
+        if (poll != null) {
+            poll.replyReceived();
+        }
     }
 
     /**
      * Starts the collector.
      */
-    public void start() {
-        log.info("Starting Group Stats collection thread for {}", sw.getStringId());
-        timeout = Timer.newTimeout(this, 1, TimeUnit.SECONDS);
+    public synchronized void start() {
+        log.info("Starting Group Stats collection for {}", sw.getStringId());
+        poll = scheduler.schedule(new Dpid(sw.getId()), refreshInterval, this::sendGroupStatisticRequest);
     }
 
     /**
      * Stops the collector.
      */
-    public void stop() {
-        log.info("Stopping Group Stats collection thread for {}", sw.getStringId());
-        this.stopTimer = true;
-        timeout.cancel();
+    public synchronized void stop() {
+        log.info("Stopping Group Stats collection for {}", sw.getStringId());
+        poll.cancel();
+        poll = null;
     }
 }
@@ -63,6 +63,7 @@ import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.osgi.service.component.ComponentContext;
 import org.projectfloodlight.openflow.protocol.OFBucketCounter;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
@@ -111,6 +112,9 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected StatsPollScheduler pollScheduler;
+
     private GroupProviderService providerService;
 
     private static final int DEFAULT_POLL_INTERVAL = 10;
@@ -150,7 +154,7 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
 
         for (OpenFlowSwitch sw : controller.getSwitches()) {
             if (isGroupSupported(sw)) {
-                GroupStatsCollector gsc = new GroupStatsCollector(sw, groupPollInterval);
+                GroupStatsCollector gsc = new GroupStatsCollector(pollScheduler, sw, groupPollInterval);
                 gsc.start();
                 collectors.put(new Dpid(sw.getId()), gsc);
             }
@@ -263,6 +267,13 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
             }
         }
 
+        if (groupStatsReply != null) {
+            GroupStatsCollector collector = collectors.get(dpid);
+            if (collector != null) {
+                collector.replyReceived();
+            }
+        }
+
         if (providerService != null && groupStatsReply != null) {
             Collection<Group> groups = buildGroupMetrics(deviceId,
                     groupStatsReply, groupDescStatsReply);
@@ -413,7 +424,7 @@ public class OpenFlowGroupProvider extends AbstractProvider implements GroupProv
                 return;
             }
             if (isGroupSupported(sw)) {
-                GroupStatsCollector gsc = new GroupStatsCollector(sw, groupPollInterval);
+                GroupStatsCollector gsc = new GroupStatsCollector(pollScheduler, sw, groupPollInterval);
                 stopCollectorIfNeeded(collectors.put(dpid, gsc));
                 gsc.start();
             }
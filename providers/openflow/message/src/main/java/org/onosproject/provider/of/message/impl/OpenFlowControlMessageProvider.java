@@ -15,12 +15,15 @@
  */
 package org.onosproject.provider.of.message.impl;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.Maps;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
 import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedScheduledExecutorService;
 import org.onlab.util.SharedScheduledExecutors;
@@ -36,6 +39,7 @@ import org.onosproject.openflow.controller.OpenFlowMessageListener;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFType;
@@ -68,6 +72,9 @@ public class OpenFlowControlMessageProvider extends AbstractProvider
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected MetricsService metricsService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected StatsPollScheduler pollScheduler;
+
     private ControlMessageProviderService providerService;
 
     private final InternalDeviceProvider listener = new InternalDeviceProvider();
@@ -82,6 +89,11 @@ public class OpenFlowControlMessageProvider extends AbstractProvider
     private static final TimeUnit AGGR_TIME_UNIT = TimeUnit.MINUTES;
     private HashMap<Dpid, ScheduledFuture<?>> executorResults = Maps.newHashMap();
 
+    private static final String STATS_POLL_FEATURE = "STATS_POLL";
+    private static final String POLL_LAG_NAME = "pollLagMillis";
+    private static final String REPLY_LATENCY_NAME = "replyLatencyMillis";
+    private static final String BACKOFF_NAME = "backoff";
+
     /**
      * Creates a provider with the supplier identifier.
      */
@@ -159,6 +171,7 @@ public class OpenFlowControlMessageProvider extends AbstractProvider
                     AGGR_INIT_DELAY, AGGR_PERIOD, AGGR_TIME_UNIT, true);
             aggregators.put(dpid, ofcma);
             executorResults.put(dpid, result);
+            registerStatsPollMetrics(dpid);
         }
 
         @Override
@@ -173,9 +186,33 @@ public class OpenFlowControlMessageProvider extends AbstractProvider
             if (aggregator != null) {
                 executorResults.get(dpid).cancel(true);
                 executorResults.remove(dpid);
+                removeStatsPollMetrics(dpid);
             }
         }
 
+        // exposes how the statistics polls of the switch keep up with their interval
+        private void registerStatsPollMetrics(Dpid dpid) {
+            // drops gauges left over from a previous connection of the switch
+            removeStatsPollMetrics(dpid);
+            StatsPollScheduler scheduler = pollScheduler;
+            MetricsComponent component = metricsService.registerComponent(deviceId(uri(dpid)).toString());
+            MetricsFeature feature = component.registerFeature(STATS_POLL_FEATURE);
+            metricsService.registerMetric(component, feature, POLL_LAG_NAME,
+                    (Gauge<Long>) () -> scheduler.pollLagMillis(dpid));
+            metricsService.registerMetric(component, feature, REPLY_LATENCY_NAME,
+                    (Gauge<Long>) () -> scheduler.replyLatencyMillis(dpid));
+            metricsService.registerMetric(component, feature, BACKOFF_NAME,
+                    (Gauge<Integer>) () -> scheduler.backoff(dpid));
+        }
+
+        private void removeStatsPollMetrics(Dpid dpid) {
+            MetricsComponent component = metricsService.registerComponent(deviceId(uri(dpid)).toString());
+            MetricsFeature feature = component.registerFeature(STATS_POLL_FEATURE);
+            metricsService.removeMetric(component, feature, POLL_LAG_NAME);
+            metricsService.removeMetric(component, feature, REPLY_LATENCY_NAME);
+            metricsService.removeMetric(component, feature, BACKOFF_NAME);
+        }
+
         @Override
         public void switchChanged(Dpid dpid) {
         }
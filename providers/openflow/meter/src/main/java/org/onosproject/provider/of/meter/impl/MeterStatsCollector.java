@@ -16,92 +16,92 @@
 
 package org.onosproject.provider.of.meter.impl;
 
-import org.onlab.util.Timer;
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.projectfloodlight.openflow.protocol.OFMeterStatsRequest;
 import org.slf4j.Logger;
 
-import io.netty.util.Timeout;
-import io.netty.util.TimerTask;
-
-import java.util.concurrent.TimeUnit;
-
 import static org.slf4j.LoggerFactory.getLogger;
 
 /*
  * Sends Meter Stats Request and collect the Meter statistics with a time interval.
  */
-public class MeterStatsCollector implements TimerTask {
+public class MeterStatsCollector {
 
     private final OpenFlowSwitch sw;
     private final Logger log = getLogger(getClass());
     private final int refreshInterval;
+    private final StatsPollScheduler scheduler;
 
-    private Timeout timeout;
-
-    private boolean stopTimer = false;
+    private StatsPollScheduler.Poll poll;
 
     /**
-     * Creates a GroupStatsCollector object.
+     * Creates a MeterStatsCollector object.
      *
+     * @param scheduler scheduler to use for polling
      * @param sw Open Flow switch
-     * @param interval time interval for collecting group statistic
+     * @param interval time interval for collecting meter statistic
      */
-    public MeterStatsCollector(OpenFlowSwitch sw, int interval) {
+    public MeterStatsCollector(StatsPollScheduler scheduler, OpenFlowSwitch sw, int interval) {
+        this.scheduler = scheduler;
         this.sw = sw;
         this.refreshInterval = interval;
     }
 
-    @Override
-    public void run(Timeout timeout) throws Exception {
+    private boolean poll() {
         if (!sw.isConnected()) {
-            log.debug("Switch {} disconnected. Aborting meter stats collection", sw.getStringId());
-            return;
+            log.debug("Switch {} disconnected. Skipping meter stats collection", sw.getStringId());
+            return false;
         }
-
         log.trace("Collecting stats for {}", sw.getStringId());
-
-        sendMeterStatisticRequest();
-
-        if (!this.stopTimer) {
-            log.trace("Scheduling stats collection in {} seconds for {}",
-                    this.refreshInterval, this.sw.getStringId());
-            timeout.timer().newTimeout(this, refreshInterval,
-                    TimeUnit.SECONDS);
-        }
+        return sendMeterStatisticRequest();
     }
 
-    public void sendMeterStatisticRequest() {
+    /**
+     * Sends a meter statistic request to the switch if this node is its master.
+     *
+     * @return true if the request was sent
+     */
+    public boolean sendMeterStatisticRequest() {
         if (log.isTraceEnabled()) {
             log.trace("sendMeterStatistics {}:{}", sw.getStringId(), sw.getRole());
         }
         if (sw.getRole() != RoleState.MASTER) {
-            return;
+            return false;
         }
-
         OFMeterStatsRequest.Builder builder =
                 sw.factory().buildMeterStatsRequest();
         builder.setXid(0).setMeterId(0xFFFFFFFF);
 
         sw.sendMsg(builder.build());
+        return true;
+    }
 
+    /**
+     * Notes that the switch replied to the meter statistic request.
+     */
+    public synchronized void replyReceived() {
+        if (poll != null) {
+            poll.replyReceived();
+        }
     }
 
     /**
      * Starts the collector.
      */
-    public void start() {
-        log.info("Starting Meter Stats collection thread for {}", sw.getStringId());
-        timeout = Timer.newTimeout(this, 1, TimeUnit.SECONDS);
+    public synchronized void start() {
+        log.info("Starting Meter Stats collection for {}", sw.getStringId());
+        poll = scheduler.schedule(new Dpid(sw.getId()), refreshInterval, this::poll);
     }
 
     /**
      * Stops the collector.
      */
-    public void stop() {
-        log.info("Stopping Meter Stats collection thread for {}", sw.getStringId());
-        this.stopTimer = true;
-        timeout.cancel();
+    public synchronized void stop() {
+        log.info("Stopping Meter Stats collection for {}", sw.getStringId());
+        poll.cancel();
+        poll = null;
     }
 }
@@ -55,6 +55,7 @@ import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.RoleState;
+import org.onosproject.openflow.controller.StatsPollScheduler;
 import org.onosproject.provider.of.meter.util.MeterFeaturesBuilder;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
 import org.projectfloodlight.openflow.protocol.OFErrorType;
@@ -104,6 +105,9 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected StatsPollScheduler pollScheduler;
+
     private MeterProviderService providerService;
 
     private static final AtomicLong XID_COUNTER = new AtomicLong(1);
@@ -198,7 +202,7 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
         Dpid dpid = Dpid.dpid(deviceId.uri());
         OpenFlowSwitch sw = controller.getSwitch(dpid);
 
-        MeterStatsCollector once = new MeterStatsCollector(sw, 1);
+        MeterStatsCollector once = new MeterStatsCollector(pollScheduler, sw, 1);
         once.sendMeterStatisticRequest();
 
     }
@@ -238,7 +242,7 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
 
     private void createStatsCollection(OpenFlowSwitch sw) {
         if (sw != null && isMeterSupported(sw)) {
-            MeterStatsCollector msc = new MeterStatsCollector(sw, POLL_INTERVAL);
+            MeterStatsCollector msc = new MeterStatsCollector(pollScheduler, sw, POLL_INTERVAL);
             stopCollectorIfNeeded(collectors.put(new Dpid(sw.getId()), msc));
             msc.start();
         }
@@ -287,6 +291,10 @@ public class OpenFlowMeterProvider extends AbstractProvider implements MeterProv
         DeviceId deviceId = DeviceId.deviceId(Dpid.uri(dpid));
 
         if (msg.getStatsType() == OFStatsType.METER) {
+            MeterStatsCollector collector = collectors.get(dpid);
+            if (collector != null) {
+                collector.replyReceived();
+            }
             OFMeterStatsReply reply = (OFMeterStatsReply) msg;
             Collection<Meter> meters = buildMeters(deviceId, reply.getEntries());
             //TODO do meter accounting here.
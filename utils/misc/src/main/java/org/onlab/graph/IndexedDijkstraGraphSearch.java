@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.math.DoubleMath;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dijkstra shortest-path graph search algorithm capable of finding all
+ * shortest paths between the source and destinations, working over an
+ * integer-indexed snapshot of the graph.
+ * <p>
+ * The graph is flattened into compressed sparse rows, i.e. the egress edges
+ * of all vertexes laid out in a single array, and the search keeps the
+ * vertex costs in a primitive array ordered by an indexed binary heap which
+ * supports decreasing the cost of a queued vertex. A search thus costs
+ * O(E log V) rather than the O(V²) of {@link DijkstraGraphSearch}. Snapshots
+ * of immutable {@link AdjacencyListsGraph adjacency lists graphs} are kept
+ * for reuse by subsequent searches over the same graph.
+ * <p>
+ * The indexed search is only used when the edge weigher yields
+ * {@link ScalarWeight scalar weights}; searches with other weights fall back
+ * to {@link DijkstraGraphSearch}.
+ */
+public class IndexedDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends DijkstraGraphSearch<V, E> {
+
+    // Vertex states during the search
+    private static final byte UNSEEN = 0;
+    private static final byte QUEUED = 1;
+    private static final byte SETTLED = 2;
+
+    private volatile Snapshot<V, E> snapshot;
+
+    @Override
+    protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                          EdgeWeigher<V, E> weigher, int maxPaths) {
+        Weight initialWeight = weigher.getInitialWeight();
+        if (!(initialWeight instanceof ScalarWeight)) {
+            return super.internalSearch(graph, src, dst, weigher, maxPaths);
+        }
+
+        Snapshot<V, E> csr = snapshot(graph);
+        int vertexCount = csr.vertexes.length;
+        double threshold = ScalarWeight.samenessThreshold();
+
+        double[] costs = new double[vertexCount];
+        byte[] states = new byte[vertexCount];
+        int[][] parents = new int[vertexCount][];
+        int[] parentCounts = new int[vertexCount];
+        IndexedHeap queue = new IndexedHeap(costs);
+
+        int source = csr.index.get(src);
+        int target = dst != null ? csr.index.get(dst) : -1;
+        costs[source] = ((ScalarWeight) initialWeight).value();
+        states[source] = QUEUED;
+        queue.insert(source);
+
+        while (!queue.isEmpty()) {
+            // Get the nearest vertex
+            int nearest = queue.extractMin();
+            states[nearest] = SETTLED;
+            if (nearest == target) {
+                break;
+            }
+
+            // Relax all its egress edges
+            for (int i = csr.offsets[nearest]; i < csr.offsets[nearest + 1]; i++) {
+                Weight hopCost = weigher.weight(csr.edges[i]);
+                if (!hopCost.isViable() || hopCost.isNegative()) {
+                    continue;
+                }
+
+                int v = csr.targets[i];
+                double newCost = costs[nearest] + ((ScalarWeight) hopCost).value();
+                boolean replace = states[v] == UNSEEN;
+                if (!replace) {
+                    double oldCost = costs[v];
+                    if (!DoubleMath.fuzzyEquals(newCost, oldCost, threshold)) {
+                        if (newCost > oldCost) {
+                            continue;
+                        }
+                        replace = true;
+                    }
+                }
+
+                costs[v] = newCost;
+                addParent(parents, parentCounts, v, i, replace, maxPaths);
+                if (states[v] == UNSEEN) {
+                    states[v] = QUEUED;
+                    queue.insert(v);
+                } else if (states[v] == QUEUED) {
+                    queue.update(v);
+                }
+            }
+        }
+
+        // Now construct a set of paths from the results.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int v = 0; v < vertexCount; v++) {
+            if (states[v] == UNSEEN) {
+                continue;
+            }
+            Weight cost = v == source && parentCounts[v] == 0 ?
+                    initialWeight : new ScalarWeight(costs[v]);
+            result.updateVertex(csr.vertexes[v], null, cost, false);
+            for (int p = 0; p < parentCounts[v]; p++) {
+                result.updateVertex(csr.vertexes[v], csr.edges[parents[v][p]], cost, false);
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Records the given edge as leading to the vertex at the vertex cost,
+    // either replacing or joining the previously recorded edges.
+    private void addParent(int[][] parents, int[] parentCounts, int v, int edge,
+                           boolean replace, int maxPaths) {
+        if (replace) {
+            parentCounts[v] = 0;
+        }
+        int count = parentCounts[v];
+        if (maxPaths != ALL_PATHS && count >= maxPaths) {
+            return;
+        }
+        int[] edges = parents[v];
+        if (edges == null) {
+            edges = new int[1];
+            parents[v] = edges;
+        } else if (count == edges.length) {
+            edges = Arrays.copyOf(edges, count * 2);
+            parents[v] = edges;
+        }
+        edges[count] = edge;
+        parentCounts[v] = count + 1;
+    }
+
+    // Returns the snapshot of the given graph, reusing the previous one if
+    // it was taken of the same immutable graph.
+    private Snapshot<V, E> snapshot(Graph<V, E> graph) {
+        Snapshot<V, E> current = snapshot;
+        if (current != null && current.graph == graph) {
+            return current;
+        }
+        current = new Snapshot<>(graph);
+        if (graph instanceof AdjacencyListsGraph) {
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Graph laid out as compressed sparse rows: the egress edges of vertex
+     * {@code i} are at indexes {@code offsets[i]} to {@code offsets[i + 1]}
+     * of the edge and edge target arrays.
+     */
+    private static final class Snapshot<V extends Vertex, E extends Edge<V>> {
+        private final Graph<V, E> graph;
+        private final Map<V, Integer> index;
+        private final V[] vertexes;
+        private final int[] offsets;
+        private final E[] edges;
+        private final int[] targets;
+
+        @SuppressWarnings("unchecked")
+        private Snapshot(Graph<V, E> graph) {
+            this.graph = graph;
+            int vertexCount = graph.getVertexes().size();
+            this.index = new HashMap<>(vertexCount * 2);
+            this.vertexes = (V[]) new Vertex[vertexCount];
+            for (V vertex : graph.getVertexes()) {
+                vertexes[index.size()] = vertex;
+                index.put(vertex, index.size());
+            }
+
+            int edgeCount = 0;
+            this.offsets = new int[vertexCount + 1];
+            for (int i = 0; i < vertexCount; i++) {
+                offsets[i] = edgeCount;
+                edgeCount += graph.getEdgesFrom(vertexes[i]).size();
+            }
+            offsets[vertexCount] = edgeCount;
+
+            this.edges = (E[]) new Edge[edgeCount];
+            this.targets = new int[edgeCount];
+            for (int i = 0; i < vertexCount; i++) {
+                int e = offsets[i];
+                for (E edge : graph.getEdgesFrom(vertexes[i])) {
+                    edges[e] = edge;
+                    targets[e] = index.get(edge.dst());
+                    e++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Binary min-heap of vertex indexes ordered by their costs, which keeps
+     * track of the position of each vertex to allow changing its cost.
+     */
+    private static final class IndexedHeap {
+        private final double[] costs;
+        private final int[] heap;
+        private final int[] positions;
+        private int size;
+
+        private IndexedHeap(double[] costs) {
+            this.costs = costs;
+            this.heap = new int[costs.length];
+            this.positions = new int[costs.length];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void insert(int v) {
+            heap[size] = v;
+            positions[v] = size;
+            siftUp(size++);
+        }
+
+        private int extractMin() {
+            int min = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return min;
+        }
+
+        // Restores the heap order after the cost of a queued vertex changed.
+        private void update(int v) {
+            siftDown(siftUp(positions[v]));
+        }
+
+        private int siftUp(int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (costs[heap[parent]] <= costs[v]) {
+                    break;
+                }
+                move(heap[parent], i);
+                i = parent;
+            }
+            move(v, i);
+            return i;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && costs[heap[child + 1]] < costs[heap[child]]) {
+                    child++;
+                }
+                if (costs[v] <= costs[heap[child]]) {
+                    break;
+                }
+                move(heap[child], i);
+                i = child;
+            }
+            move(v, i);
+        }
+
+        private void move(int v, int i) {
+            heap[i] = v;
+            positions[v] = i;
+        }
+    }
+}
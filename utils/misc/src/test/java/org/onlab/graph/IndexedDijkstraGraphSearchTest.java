@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Test of the Dijkstra algorithm over an indexed graph snapshot.
+ */
+public class IndexedDijkstraGraphSearchTest extends DijkstraGraphSearchTest {
+
+    private static final ScalarWeight SNW1 = new ScalarWeight(-1);
+    private static final ScalarWeight SW1 = new ScalarWeight(1);
+    private static final ScalarWeight SW2 = new ScalarWeight(2);
+    private static final ScalarWeight SW3 = new ScalarWeight(3);
+    private static final ScalarWeight SW4 = new ScalarWeight(4);
+    private static final ScalarWeight SW5 = new ScalarWeight(5);
+
+    // Weigher yielding scalar weights, for which the indexed search is used.
+    private final EdgeWeigher<TestVertex, TestEdge> scalarWeigher =
+            new EdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return new ScalarWeight(0);
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return ScalarWeight.NON_VIABLE_WEIGHT;
+                }
+            };
+
+    @Override
+    protected AbstractGraphPathSearch<TestVertex, TestEdge> graphSearch() {
+        return new IndexedDijkstraGraphSearch<>();
+    }
+
+    @Test
+    public void scalarMultiplePath() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G),
+                of(new TestEdge(A, B, SW1),
+                        new TestEdge(A, C, SW1),
+                        new TestEdge(B, D, SW1),
+                        new TestEdge(C, D, SW1),
+                        new TestEdge(D, E, SW1),
+                        new TestEdge(D, F, SW1),
+                        new TestEdge(E, G, SW1),
+                        new TestEdge(F, G, SW1),
+                        new TestEdge(A, G, SW4),
+                        new TestEdge(G, A, SNW1),
+                        new TestEdge(B, E, ScalarWeight.NON_VIABLE_WEIGHT)));
+        executeSearch(graphSearch(), graph, A, G, scalarWeigher, 5, new ScalarWeight(4.0));
+        executeSinglePathSearch(graphSearch(), graph, A, G, scalarWeigher, 1, new ScalarWeight(4.0));
+        executeSearch(graphSearch(), graph, A, D, scalarWeigher, 2, new ScalarWeight(2.0));
+        executeSearch(graphSearch(), graph, G, A, scalarWeigher, 0, null);
+    }
+
+    @Test
+    public void scalarDualEdgeMultiplePath() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G, H),
+                of(new TestEdge(A, B, SW1),
+                        new TestEdge(A, C, SW3),
+                        new TestEdge(B, D, SW2),
+                        new TestEdge(B, C, SW1),
+                        new TestEdge(B, E, SW4),
+                        new TestEdge(C, E, SW1),
+                        new TestEdge(D, H, SW5),
+                        new TestEdge(D, E, SW1),
+                        new TestEdge(E, F, SW1),
+                        new TestEdge(F, D, SW1),
+                        new TestEdge(F, G, SW1),
+                        new TestEdge(F, H, SW1),
+                        new TestEdge(A, E, SW3),
+                        new TestEdge(B, D, SW1)));
+        executeSearch(graphSearch(), graph, A, E, scalarWeigher, 3, new ScalarWeight(3.0));
+        executeSinglePathSearch(graphSearch(), graph, A, E, scalarWeigher, 1, new ScalarWeight(3.0));
+        executeSearch(graphSearch(), graph, A, H, scalarWeigher, 3, new ScalarWeight(5.0));
+    }
+
+    @Test
+    public void sameAsDijkstra() {
+        Random random = new Random(7);
+        List<TestVertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            vertexes.add(new TestVertex("v" + i));
+        }
+        Set<TestEdge> edges = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            edges.add(new TestEdge(vertexes.get(random.nextInt(vertexes.size())),
+                                   vertexes.get(random.nextInt(vertexes.size())),
+                                   new ScalarWeight(1 + random.nextInt(3))));
+        }
+        graph = new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+
+        GraphPathSearch<TestVertex, TestEdge> dijkstra = new DijkstraGraphSearch<>();
+        GraphPathSearch<TestVertex, TestEdge> indexed = graphSearch();
+        long dijkstraNanos = 0;
+        long indexedNanos = 0;
+        for (int i = 0; i < 10; i++) {
+            TestVertex src = vertexes.get(random.nextInt(vertexes.size()));
+            TestVertex dst = vertexes.get(random.nextInt(vertexes.size()));
+
+            long start = System.nanoTime();
+            GraphPathSearch.Result<TestVertex, TestEdge> expected =
+                    dijkstra.search(graph, src, null, scalarWeigher, ALL_PATHS);
+            dijkstraNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            GraphPathSearch.Result<TestVertex, TestEdge> actual =
+                    indexed.search(graph, src, null, scalarWeigher, ALL_PATHS);
+            indexedNanos += System.nanoTime() - start;
+
+            assertEquals("incorrect costs", expected.costs(), actual.costs());
+            assertEquals("incorrect parents", expected.parents(), actual.parents());
+            assertEquals("incorrect paths",
+                         dijkstra.search(graph, src, dst, scalarWeigher, ALL_PATHS).paths(),
+                         indexed.search(graph, src, dst, scalarWeigher, ALL_PATHS).paths());
+        }
+        DecimalFormat fmt = new DecimalFormat("#,###");
+        System.out.println("Compute cost is " + fmt.format(dijkstraNanos) + " nanos for Dijkstra and " +
+                                   fmt.format(indexedNanos) + " nanos for indexed Dijkstra");
+    }
+}